@@ -0,0 +1,101 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Benchmarks for model object properties, inflation, typed values and equivalence using the in memory model store
+ *
+ * @author Gary O'Neall
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreModelObjectBenchmark {
+
+	static final String NAMESPACE = "https://spdx.benchmark/namespace";
+	static final String SPEC_VERSION = "3.0.0";
+	static final PropertyDescriptor NAME = new PropertyDescriptor("name", NAMESPACE);
+	static final PropertyDescriptor COUNT = new PropertyDescriptor("count", NAMESPACE);
+	static final PropertyDescriptor MEMBERS = new PropertyDescriptor("members", NAMESPACE);
+	static final int NUM_MEMBERS = 20;
+
+	InMemoryModelStore modelStore;
+	MockModelType modelObject;
+	MockModelType equivalentObject;
+	int count = 0;
+
+	@Setup
+	public void setUp() throws InvalidSPDXAnalysisException {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		modelStore = new InMemoryModelStore();
+		modelObject = create("object");
+		equivalentObject = create("equivalent");
+		for (MockModelType object:new MockModelType[] {modelObject, equivalentObject}) {
+			object.setPropertyValue(NAME, "benchmark name");
+			object.setPropertyValue(COUNT, 5);
+			for (int i = 0; i < NUM_MEMBERS; i++) {
+				MockModelType member = create(object.getObjectUri().substring(NAMESPACE.length() + 1) + "Member" + i);
+				member.setPropertyValue(COUNT, i);
+				object.addPropertyValueToCollection(MEMBERS, member);
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		modelStore.close();
+	}
+
+	private MockModelType create(String id) throws InvalidSPDXAnalysisException {
+		return new MockModelType(modelStore, NAMESPACE + "#" + id, null, true, SPEC_VERSION);
+	}
+
+	@Benchmark
+	public Optional<String> getProperty() throws InvalidSPDXAnalysisException {
+		return modelObject.getStringPropertyValue(NAME);
+	}
+
+	@Benchmark
+	public void setProperty() throws InvalidSPDXAnalysisException {
+		modelObject.setPropertyValue(COUNT, count++);
+	}
+
+	@Benchmark
+	public CoreModelObject inflateModelObject() throws InvalidSPDXAnalysisException {
+		return ModelRegistry.getModelRegistry().inflateModelObject(modelStore, modelObject.getObjectUri(),
+				MockModelType.TYPE, null, SPEC_VERSION, false, null);
+	}
+
+	@Benchmark
+	public TypedValue typedValue() throws InvalidSPDXAnalysisException {
+		return new TypedValue(modelObject.getObjectUri(), MockModelType.TYPE, SPEC_VERSION);
+	}
+
+	@Benchmark
+	public boolean equivalent() throws InvalidSPDXAnalysisException {
+		return modelObject.equivalent(equivalentObject);
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Benchmarks for iterating and searching model collections using the in memory model store
+ *
+ * @author Gary O'Neall
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelCollectionBenchmark {
+
+	static final PropertyDescriptor MEMBERS = new PropertyDescriptor("members", CoreModelObjectBenchmark.NAMESPACE);
+
+	@Param({"10", "1000"})
+	int size;
+
+	InMemoryModelStore modelStore;
+	ModelSet<?> members;
+	MockModelType lastMember;
+	MockModelType notMember;
+
+	@Setup
+	public void setUp() throws InvalidSPDXAnalysisException {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		modelStore = new InMemoryModelStore();
+		MockModelType owner = create("owner");
+		for (int i = 0; i < size; i++) {
+			lastMember = create("member" + i);
+			owner.addPropertyValueToCollection(MEMBERS, lastMember);
+		}
+		notMember = create("notMember");
+		members = owner.getObjectPropertyValueSet(MEMBERS, MockModelType.class);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		modelStore.close();
+	}
+
+	private MockModelType create(String id) throws InvalidSPDXAnalysisException {
+		return new MockModelType(modelStore, CoreModelObjectBenchmark.NAMESPACE + "#" + id, null, true,
+				CoreModelObjectBenchmark.SPEC_VERSION);
+	}
+
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		for (Object member:members) {
+			blackhole.consume(member);
+		}
+	}
+
+	@Benchmark
+	public boolean containsLast() {
+		return members.contains(lastMember);
+	}
+
+	@Benchmark
+	public boolean containsMissing() {
+		return members.contains(notMember);
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for license text equivalence
+ *
+ * @author Gary O'Neall
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LicenseTextBenchmark {
+
+	static final String LICENSE_TEXT = "Copyright (c) <year> <copyright holders>\n\n" +
+			"Permission is hereby granted, free of charge, to any person obtaining a copy of this software " +
+			"and associated documentation files (the \"Software\"), to deal in the Software without restriction, " +
+			"including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, " +
+			"and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, " +
+			"subject to the following conditions:\n\n" +
+			"The above copyright notice and this permission notice shall be included in all copies or substantial " +
+			"portions of the Software.\n\n" +
+			"THE SOFTWARE IS PROVIDED \"AS IS\", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT " +
+			"LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.\n";
+
+	/**
+	 * Number of copies of the license text in each compared text
+	 */
+	@Param({"1", "100"})
+	int copies;
+
+	String text;
+	String equivalentText;
+	String differentStart;
+	String differentEnd;
+
+	@Setup
+	public void setUp() {
+		StringBuilder sb = new StringBuilder();
+		StringBuilder equivalent = new StringBuilder();
+		for (int i = 0; i < copies; i++) {
+			sb.append(LICENSE_TEXT);
+			// different case, whitespace, line endings and quotes
+			equivalent.append(LICENSE_TEXT.toLowerCase().replace(", ", " ,  ").replace("\n", "\r\n").replace("\"", "\u201C"));
+		}
+		text = sb.toString();
+		equivalentText = equivalent.toString();
+		differentStart = "Different " + text;
+		differentEnd = text + " different";
+	}
+
+	@Benchmark
+	public boolean equivalent() {
+		return LicenseTextHelper.isLicenseTextEquivalent(text, equivalentText);
+	}
+
+	@Benchmark
+	public boolean differentStart() {
+		return LicenseTextHelper.isLicenseTextEquivalent(text, differentStart);
+	}
+
+	@Benchmark
+	public boolean differentEnd() {
+		return LicenseTextHelper.isLicenseTextEquivalent(text, differentEnd);
+	}
+}
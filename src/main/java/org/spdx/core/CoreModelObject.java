@@ -5,20 +5,27 @@
  */
 package org.spdx.core;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spdx.core.NotEquivalentReason.NotEquivalent;
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.Operation;
 import org.spdx.storage.IModelStore;
 import org.spdx.storage.PropertyDescriptor;
 import org.spdx.storage.IModelStore.IModelStoreLock;
@@ -60,6 +67,10 @@ import org.spdx.storage.IModelStore.ModelUpdate;
  * </ul>
  * <p>
  * This class also handles the conversion of a CoreModelObject to and from a TypeValue for storage in the ModelStore.
+ * <p>
+ * <code>equivalent</code> reads all the property values of an object in a single model store request.  Classes
+ * which override <code>getPropertyValueDescriptors</code>, <code>getObjectPropertyValue</code> or
+ * <code>isEquivalentToNull</code> are instead compared using those methods.
  *
  * @author Gary O'Neall
  */
@@ -86,7 +97,10 @@ public abstract class CoreModelObject {
 	 */
 	protected boolean strict = true;
 	
-	NotEquivalentReason lastNotEquivalentReason = null;
+	/**
+	 * Lists with at least this many items are compared for equivalence by first grouping the items by a hash
+	 */
+	static final int BUCKETED_EQUIVALENCE_THRESHOLD = 16;
 		
 	/**
 	 * Create a new Model Object using an Anonymous ID with the default store and default document URI
@@ -143,14 +157,14 @@ public abstract class CoreModelObject {
 				}
 			} else {
 				if (create) {
-					IModelStoreLock lock = enterCriticalSection(false);
+					IModelStoreLock lock = modelStore.enterCriticalSection(objectUri, false);
 					// re-check since previous check was done outside of the lock
 					try {
 						if (!modelStore.exists(objectUri)) {
 							modelStore.create(new TypedValue(objectUri, getType(), specVersion));
 						}
 					} finally {
-						lock.unlock();
+						modelStore.leaveCriticalSection(lock);
 					}
 				} else {
 					String msg = objectUri+" does not exist";
@@ -219,12 +233,83 @@ public abstract class CoreModelObject {
 	 */
 	public abstract List<String> verify(Set<String> verifiedIds, String specVersion);
 	
+	/**
+	 * @param operation operation on this model object
+	 * @param detail additional information about the operation
+	 * @return a JFR event for the operation which has begun
+	 */
+	private IOperationEvent beginEvent(Operation operation, @Nullable String detail) {
+		if (!OperationEvents.isEnabled(operation)) {
+			return OperationEvents.NO_EVENT;
+		}
+		return OperationEvents.begin(operation, objectUri, getType(), specVersion, detail);
+	}
+	
 	/**
 	 * @param specVersion Version of the SPDX spec to verify against
 	 * @return Any verification errors or warnings associated with this object
 	 */
 	public List<String> verify(String specVersion) {
-		return verify(new HashSet<>(), specVersion);
+		IOperationEvent event = beginEvent(Operation.VERIFY, null);
+		try {
+			return verify(new HashSet<>(), specVersion);
+		} finally {
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Verify this object and all referenced objects, verifying collection members in parallel
+	 * <p>
+	 * See <code>ParallelVerifiedIds</code> for how shared objects are handled.
+	 * @param specVersion Version of the SPDX spec to verify against
+	 * @param pool fork join pool used for the verification
+	 * @return Any verification errors or warnings associated with this object - the same as <code>verify(specVersion)</code>
+	 */
+	public List<String> verify(String specVersion, ForkJoinPool pool) {
+		IOperationEvent event = beginEvent(Operation.VERIFY, "parallel");
+		try {
+			return ParallelVerifiedIds.verify(this, specVersion, pool);
+		} finally {
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Verify this object reusing cached results for objects which have not been modified since they were last verified
+	 * <p>
+	 * See <code>VerificationCache</code> for the conditions under which cached results are reused.
+	 * @param specVersion Version of the SPDX spec to verify against
+	 * @param cache verification cache for the model store containing this object
+	 * @return Any verification errors or warnings associated with this object
+	 */
+	public List<String> verify(String specVersion, VerificationCache cache) {
+		IOperationEvent event = beginEvent(Operation.VERIFY, "cached");
+		try {
+			return cache.verify(this, specVersion);
+		} finally {
+			event.commit();
+		}
+	}
+	
+	/**
+	 * A structural fingerprint of this model object - equivalent model objects have the same fingerprint
+	 * <p>
+	 * See <code>FingerprintCache</code> for details on how the fingerprint is computed.
+	 * @return a 64 bit fingerprint of the property values of this model object and all referenced model objects
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	public long fingerprint() throws InvalidSPDXAnalysisException {
+		return FingerprintCache.computeFingerprint(this);
+	}
+	
+	/**
+	 * @param cache cache of previously computed fingerprints
+	 * @return a 64 bit fingerprint of the property values of this model object and all referenced model objects
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	public long fingerprint(FingerprintCache cache) throws InvalidSPDXAnalysisException {
+		return cache.fingerprint(this);
 	}
 	
 	/**
@@ -242,17 +327,7 @@ public abstract class CoreModelObject {
 	 * @param warningPrefix String to prefix any warning messages
 	 */
 	public List<String> verifyCollection(Collection<? extends CoreModelObject> collection, String warningPrefix, Set<String> verifiedIds, String specVersion) {
-		List<String> retval = new ArrayList<>();
-		for (CoreModelObject mo:collection) {
-			for (String warning:mo.verify(verifiedIds, specVersion)) {
-				if (Objects.nonNull(warningPrefix)) {
-					retval.add(warningPrefix + warning);
-				} else {
-					retval.add(warning);
-				}
-			}
-		}
-		return retval;
+		return ModelObjectHelper.verifyCollection(collection, warningPrefix, verifiedIds, specVersion);
 	}
 	
 	/**
@@ -319,7 +394,50 @@ public abstract class CoreModelObject {
 		Optional<Object> retval = ModelObjectHelper.getObjectPropertyValue(modelStore, objectUri, 
 				propertyDescriptor, copyManager, specVersion, type, idPrefix);
 		if (retval.isPresent() && retval.get() instanceof CoreModelObject && !strict) {
-			((CoreModelObject)retval.get()).setStrict(false);
+			retval = Optional.of(toNonStrict((CoreModelObject)retval.get()));
+		}
+		return retval;
+	}
+
+	/**
+	 * @param modelObject model object value of a property
+	 * @return a model object instance with strict checking disabled - instances shared through the
+	 * model store's identity map are not modified, a separate instance is returned instead
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	private CoreModelObject toNonStrict(CoreModelObject modelObject) throws InvalidSPDXAnalysisException {
+		if (!modelObject.isStrict()) {
+			return modelObject;
+		}
+		CoreModelObject retval = modelObject;
+		if (ModelRegistry.getModelRegistry().getIdentityMap(modelObject.modelStore).isPresent()) {
+			retval = ModelRegistry.getModelRegistry().createModelObject(modelObject.modelStore, modelObject.objectUri,
+					modelObject.getType(), modelObject.copyManager, modelObject.specVersion, false, modelObject.idPrefix);
+		}
+		retval.setStrict(false);
+		return retval;
+	}
+	
+	/**
+	 * Get the values of all properties for this object using a single model store request
+	 * <p>
+	 * Collection properties are returned as an unmodifiable <code>List</code> of values.  The values are read
+	 * directly from the model store, so any overrides of <code>getObjectPropertyValue</code> are not applied.
+	 * @return map of property descriptors to values
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	public Map<PropertyDescriptor, Object> getObjectPropertyValues() throws InvalidSPDXAnalysisException {
+		if (isExternal()) {
+			return new HashMap<>();
+		}
+		Map<PropertyDescriptor, Object> retval = ModelObjectHelper.getObjectPropertyValues(modelStore, objectUri, 
+				copyManager, specVersion, idPrefix);
+		if (!strict) {
+			for (Map.Entry<PropertyDescriptor, Object> entry:retval.entrySet()) {
+				if (entry.getValue() instanceof CoreModelObject) {
+					entry.setValue(toNonStrict((CoreModelObject)entry.getValue()));
+				}
+			}
 		}
 		return retval;
 	}
@@ -616,44 +734,313 @@ public abstract class CoreModelObject {
 	 * @return true if all the properties have the same or equivalent values
 	 */
 	public boolean equivalent(CoreModelObject compare, boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
-		if (!this.getClass().equals(compare.getClass())) {
-			lastNotEquivalentReason = new NotEquivalentReason(NotEquivalent.DIFFERENT_CLASS);
-			return false;
+		EquivalenceContext context = CURRENT_CONTEXT.get();
+		return equivalent(compare, ignoreRelatedElements, Objects.nonNull(context) ? context : new EquivalenceContext());
+	}
+	
+	/**
+	 * Context of the comparison calling an override of <code>equivalent(CoreModelObject, boolean)</code> in this thread
+	 * - reused by <code>equivalent(CoreModelObject, boolean)</code> so that the results and cycle protection of the
+	 * comparison are kept when the override calls the superclass
+	 */
+	private static final ThreadLocal<EquivalenceContext> CURRENT_CONTEXT = new ThreadLocal<>();
+	
+	/**
+	 * Compare this model object to another model object sharing the results of any previous comparisons
+	 * made with the same context
+	 * <p>
+	 * Nested model objects, including the members of collections, are compared using an explicit stack rather
+	 * than recursion and each pair of objects is compared at most once, so shared and cyclic references are handled.  Subclasses which
+	 * override <code>equivalent(CoreModelObject, boolean)</code> without overriding this method are still
+	 * compared using their override.
+	 * @param compare model object to compare this model object to
+	 * @param ignoreRelatedElements if true, do not compare properties relatedSpdxElement - used to prevent infinite recursion
+	 * @param context context for the comparison
+	 * @return true if all the properties have the same or equivalent values
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	public boolean equivalent(CoreModelObject compare, boolean ignoreRelatedElements,
+			EquivalenceContext context) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(context, "Equivalence context can not be null");
+		IOperationEvent event = beginEvent(Operation.EQUIVALENT, null);
+		try {
+			if (!this.getClass().equals(compare.getClass())) {
+				context.setLastNotEquivalentReason(new NotEquivalentReason(NotEquivalent.DIFFERENT_CLASS));
+				return false;
+			}
+			EquivalenceContext.Pair requested = new EquivalenceContext.Pair(this, compare, ignoreRelatedElements);
+			Boolean previousResult = context.getResult(requested);
+			if (Objects.nonNull(previousResult)) {
+				return previousResult;
+			}
+			// all pairs reached through model object property values must be equivalent for the requested pair to be equivalent
+			// - a pair compared as a candidate for a collection member is a nested comparison which may fail without
+			// the enclosing comparison failing
+			Deque<Comparison> comparisons = new ArrayDeque<>();
+			Boolean result = null;
+			try {
+				comparisons.push(new Comparison(context, requested, null));
+				boolean equivalent = propertiesEquivalent(compare, ignoreRelatedElements, context, comparisons.peek());
+				while (Objects.isNull(result)) {
+					Comparison comparison = comparisons.peek();
+					if (equivalent && comparison.hasPending()) {
+						equivalent = compareNext(comparison, comparisons, context);
+					} else {
+						comparisons.pop();
+						context.endComparison(comparison.compared, comparison.mark, equivalent);
+						if (comparisons.isEmpty()) {
+							result = equivalent;
+						} else {
+							if (equivalent) {
+								comparison.match.matched();
+							}
+							// a candidate which is not equivalent only means the next candidate is tried
+							equivalent = true;
+						}
+					}
+				}
+			} finally {
+				// comparisons not completed due to an exception
+				while (!comparisons.isEmpty()) {
+					Comparison comparison = comparisons.pop();
+					context.endComparison(comparison.compared, comparison.mark, null);
+				}
+			}
+			return result;
+		} finally {
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Compare the next pending pair of a comparison or the next candidate for a collection member
+	 * @param comparison comparison with pending pairs or collection members
+	 * @param comparisons stack of comparisons in progress - a nested comparison is pushed for a collection member candidate
+	 * @param context context for the comparison
+	 * @return false if the comparison, or the nested comparison pushed, is found not to be equivalent
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	private static boolean compareNext(Comparison comparison, Deque<Comparison> comparisons,
+			EquivalenceContext context) throws InvalidSPDXAnalysisException {
+		EquivalenceContext.Pair pair;
+		CollectionMatch match = null;
+		if (!comparison.pending.isEmpty()) {
+			pair = comparison.pending.pop();
+		} else {
+			match = comparison.collections.peek();
+			if (match.isComplete()) {
+				comparison.collections.pop();
+				return true;
+			}
+			pair = match.nextCandidate();
+			if (Objects.isNull(pair)) {
+				context.setLastNotEquivalentReason(new NotEquivalentReason(
+						NotEquivalent.PROPERTY_NOT_EQUIVALENT, match.propertyDescriptor));
+				return false;
+			}
+		}
+		Boolean previousResult = context.getResult(pair);
+		boolean equivalent;
+		if (Objects.nonNull(previousResult)) {
+			equivalent = previousResult;
+		} else if (!pair.first.getClass().equals(pair.second.getClass())) {
+			context.setLastNotEquivalentReason(new NotEquivalentReason(NotEquivalent.DIFFERENT_CLASS));
+			equivalent = false;
+		} else if (OVERRIDES_EQUIVALENT.get(pair.first.getClass())) {
+			equivalent = nestedEquivalent(pair.first, pair.second, pair.ignoreRelatedElements, context);
+		} else if (Objects.isNull(match)) {
+			context.startComparison(pair);
+			comparison.compared.add(pair);
+			return pair.first.propertiesEquivalent(pair.second, pair.ignoreRelatedElements, context, comparison);
+		} else {
+			Comparison nested = new Comparison(context, pair, match);
+			comparisons.push(nested);
+			return pair.first.propertiesEquivalent(pair.second, pair.ignoreRelatedElements, context, nested);
+		}
+		if (Objects.isNull(match)) {
+			return equivalent;
+		}
+		if (equivalent) {
+			match.matched();
+		}
+		return true;
+	}
+	
+	/**
+	 * True for classes which override either of the <code>equivalent</code> methods taking an <code>ignoreRelatedElements</code> parameter
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_EQUIVALENT = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("equivalent", CoreModelObject.class, boolean.class).getDeclaringClass() != CoreModelObject.class ||
+						type.getMethod("equivalent", CoreModelObject.class, boolean.class, EquivalenceContext.class).getDeclaringClass() != CoreModelObject.class;
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+	
+	/**
+	 * True for classes where <code>equivalent(CoreModelObject, boolean)</code> is overridden in a subclass of the class
+	 * overriding <code>equivalent(CoreModelObject, boolean, EquivalenceContext)</code>
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_LEGACY_EQUIVALENT = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				Class<?> legacyClass = type.getMethod("equivalent", CoreModelObject.class, boolean.class).getDeclaringClass();
+				Class<?> contextClass = type.getMethod("equivalent", CoreModelObject.class, boolean.class, EquivalenceContext.class).getDeclaringClass();
+				return legacyClass != CoreModelObject.class && !legacyClass.isAssignableFrom(contextClass);
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+	
+	/**
+	 * Compare nested model objects using the most specific <code>equivalent</code> method implemented by the class
+	 * @param first model object to compare
+	 * @param second model object to compare to
+	 * @param ignoreRelatedElements if true, do not compare properties relatedSpdxElement
+	 * @param context context for the comparison
+	 * @return true if the model objects are equivalent
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	private static boolean nestedEquivalent(CoreModelObject first, CoreModelObject second,
+			boolean ignoreRelatedElements, EquivalenceContext context) throws InvalidSPDXAnalysisException {
+		if (OVERRIDES_LEGACY_EQUIVALENT.get(first.getClass())) {
+			EquivalenceContext previousContext = CURRENT_CONTEXT.get();
+			CURRENT_CONTEXT.set(context);
+			try {
+				return first.equivalent(second, ignoreRelatedElements);
+			} finally {
+				if (Objects.isNull(previousContext)) {
+					CURRENT_CONTEXT.remove();
+				} else {
+					CURRENT_CONTEXT.set(previousContext);
+				}
+			}
 		}
-		List<PropertyDescriptor> propertyValueDescriptors = getPropertyValueDescriptors();
-		List<PropertyDescriptor> comparePropertyValueDescriptors = new ArrayList<>(compare.getPropertyValueDescriptors());	// create a copy since we're going to modify it
-		for (PropertyDescriptor propertyDescriptor:propertyValueDescriptors) {
+		return first.equivalent(second, ignoreRelatedElements, context);
+	}
+	
+	/**
+	 * Compare the property values of this model object to the property values of another model object of the same class
+	 * <p>
+	 * Model object property values and collection members which are not equal are not compared - they are added
+	 * to the pending comparisons and must also be equivalent for the objects to be equivalent.
+	 * @param compare model object to compare this model object to
+	 * @param ignoreRelatedElements if true, do not compare properties relatedSpdxElement
+	 * @param context context for the comparison
+	 * @param comparison comparison the pairs of nested model objects still to be compared are added to
+	 * @return true if all the properties other than model object property values have the same or equivalent values
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	private boolean propertiesEquivalent(CoreModelObject compare, boolean ignoreRelatedElements,
+			EquivalenceContext context, Comparison comparison) throws InvalidSPDXAnalysisException {
+		Map<PropertyDescriptor, Optional<Object>> propertyValues = getComparablePropertyValues();
+		Map<PropertyDescriptor, Optional<Object>> comparePropertyValues = new HashMap<>(compare.getComparablePropertyValues());	// create a copy since we're going to modify it
+		for (Map.Entry<PropertyDescriptor, Optional<Object>> entry:propertyValues.entrySet()) {
+			PropertyDescriptor propertyDescriptor = entry.getKey();
 			if (ignoreRelatedElements && isRelatedElement(propertyDescriptor)) {
 				continue;
 			}
-			if (comparePropertyValueDescriptors.contains(propertyDescriptor)) {
-				if (!propertyValuesEquivalent(propertyDescriptor, this.getObjectPropertyValue(propertyDescriptor), 
-				        compare.getObjectPropertyValue(propertyDescriptor), ignoreRelatedElements)) {
-					lastNotEquivalentReason = new NotEquivalentReason(
-							NotEquivalent.PROPERTY_NOT_EQUIVALENT, propertyDescriptor);
+			if (comparePropertyValues.containsKey(propertyDescriptor)) {
+				if (!propertyValuesEquivalent(propertyDescriptor, entry.getValue(), 
+				        comparePropertyValues.get(propertyDescriptor), ignoreRelatedElements,
+				        comparison)) {
+					context.setLastNotEquivalentReason(new NotEquivalentReason(
+							NotEquivalent.PROPERTY_NOT_EQUIVALENT, propertyDescriptor));
 				    return false;
 				}
-				comparePropertyValueDescriptors.remove(propertyDescriptor);
-			} else if (!isEquivalentToNull(this.getObjectPropertyValue(propertyDescriptor), propertyDescriptor)) {
+				comparePropertyValues.remove(propertyDescriptor);
+			} else if (!isEquivalentToNull(entry.getValue(), propertyDescriptor)) {
 				// No property value
-					lastNotEquivalentReason = new NotEquivalentReason(
-							NotEquivalent.COMPARE_PROPERTY_MISSING, propertyDescriptor);
+					context.setLastNotEquivalentReason(new NotEquivalentReason(
+							NotEquivalent.COMPARE_PROPERTY_MISSING, propertyDescriptor));
 					return false;
 			}
 		}
-		for (PropertyDescriptor propertyDescriptor:comparePropertyValueDescriptors) { // check any remaining property values
+		for (Map.Entry<PropertyDescriptor, Optional<Object>> entry:comparePropertyValues.entrySet()) { // check any remaining property values
+			PropertyDescriptor propertyDescriptor = entry.getKey();
 			if (ignoreRelatedElements && isRelatedElement(propertyDescriptor)) {
 				continue;
 			}
-			if (!isEquivalentToNull(compare.getObjectPropertyValue(propertyDescriptor), propertyDescriptor)) {
-				lastNotEquivalentReason = new NotEquivalentReason(
-						NotEquivalent.MISSING_PROPERTY, propertyDescriptor);
+			if (!isEquivalentToNull(entry.getValue(), propertyDescriptor)) {
+				context.setLastNotEquivalentReason(new NotEquivalentReason(
+						NotEquivalent.MISSING_PROPERTY, propertyDescriptor));
 				return false;
 			}
 		}
 		return true;
 	}
 	
+	/**
+	 * Get the property values compared by <code>equivalent</code>
+	 * <p>
+	 * The values are read in a single store request using <code>getObjectPropertyValues</code>, with empty
+	 * collections treated as missing values.  If the class overrides <code>getPropertyValueDescriptors</code>,
+	 * <code>getObjectPropertyValue</code> or <code>isEquivalentToNull</code>, the values are instead read through
+	 * those methods one property at a time so that the overrides see the same values (e.g. a
+	 * <code>ModelCollection</code> rather than a <code>List</code>) as before the bulk read was introduced.
+	 * @return map of property descriptors to values
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	Map<PropertyDescriptor, Optional<Object>> getComparablePropertyValues() throws InvalidSPDXAnalysisException {
+		Map<PropertyDescriptor, Optional<Object>> retval = new HashMap<>();
+		if (OVERRIDES_PROPERTY_ACCESSORS.get(getClass())) {
+			for (PropertyDescriptor propertyDescriptor:getPropertyValueDescriptors()) {
+				retval.put(propertyDescriptor, getObjectPropertyValue(propertyDescriptor));
+			}
+		} else {
+			// read all property values in a single store request
+			for (Map.Entry<PropertyDescriptor, Object> entry:getObjectPropertyValues().entrySet()) {
+				retval.put(entry.getKey(), toComparableValue(entry.getValue()));
+			}
+		}
+		return retval;
+	}
+	
+	/**
+	 * True for classes which override any of the methods used to read or check property values for equivalence
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_PROPERTY_ACCESSORS = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				if (type.getMethod("getPropertyValueDescriptors").getDeclaringClass() != CoreModelObject.class ||
+						type.getMethod("getObjectPropertyValue", PropertyDescriptor.class).getDeclaringClass() != CoreModelObject.class ||
+						type.getMethod("getObjectPropertyValue", PropertyDescriptor.class, Class.class).getDeclaringClass() != CoreModelObject.class) {
+					return true;
+				}
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+			// isEquivalentToNull is protected, so look for a declaration in each subclass
+			for (Class<?> c = type; Objects.nonNull(c) && c != CoreModelObject.class; c = c.getSuperclass()) {
+				try {
+					c.getDeclaredMethod("isEquivalentToNull", Object.class, PropertyDescriptor.class);
+					return true;
+				} catch (NoSuchMethodException e) {
+					// not declared in this class
+				}
+			}
+			return false;
+		}
+	};
+	
+	/**
+	 * @param value value returned from <code>getObjectPropertyValues</code>
+	 * @return optional value where an empty collection is treated the same as a missing value
+	 */
+	private static Optional<Object> toComparableValue(@Nullable Object value) {
+		if (value instanceof Collection && ((Collection<?>)value).isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(value);
+	}
+	
 	// Some values are treated like null in comparisons - in particular empty model collections and 
 	// "no assertion" values and a filesAnalyzed filed with a value of true
 	/**
@@ -700,26 +1087,28 @@ public abstract class CoreModelObject {
 	 * @param valueA value to compare
 	 * @param valueB value to compare
 	 * @param ignoreRelatedElements if true, do not compare properties relatedSpdxElement - used to prevent infinite recursion
-	 * @return true if the property values are equivalent
+	 * @param comparison comparison the pairs of nested model objects still to be compared are added to
+	 * @return true if the property values are equivalent or contain model objects added to the comparison
 	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
 	 */
 	private boolean propertyValuesEquivalent(PropertyDescriptor propertyDescriptor, Optional<Object> valueA,
-            Optional<Object> valueB, boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
+            Optional<Object> valueB, boolean ignoreRelatedElements, Comparison comparison) throws InvalidSPDXAnalysisException {
 	    if (!valueA.isPresent()) {
 	    	return isEquivalentToNull(valueB, propertyDescriptor);
         } else if (!valueB.isPresent()) {
             return isEquivalentToNull(valueA, propertyDescriptor);
         } else if (valueA.get() instanceof ModelCollection && valueB.get() instanceof ModelCollection) {
             return areEquivalent(((ModelCollection<?>)valueA.get()).toImmutableList(),
-            		((ModelCollection<?>)valueB.get()).toImmutableList(), ignoreRelatedElements);
+            		((ModelCollection<?>)valueB.get()).toImmutableList(), ignoreRelatedElements, propertyDescriptor, comparison);
         } else if (valueA.get() instanceof List && valueB.get() instanceof List) {
-            return areEquivalent((List<?>)valueA.get(), (List<?>)valueB.get(), ignoreRelatedElements);
+            return areEquivalent((List<?>)valueA.get(), (List<?>)valueB.get(), ignoreRelatedElements, propertyDescriptor, comparison);
         } else if (valueA.get() instanceof IndividualUriValue && valueB.get() instanceof IndividualUriValue) {
             return Objects.equals(((IndividualUriValue)valueA.get()).getIndividualURI(), ((IndividualUriValue)valueB.get()).getIndividualURI());
             // Note: we must check the IndividualValue before the CoreModelObject types since the IndividualValue takes precedence
         } else if (valueA.get() instanceof CoreModelObject && valueB.get() instanceof CoreModelObject) {
-            return ((CoreModelObject)valueA.get()).equivalent(((CoreModelObject)valueB.get()), 
-                    isRelatedElement(propertyDescriptor) || ignoreRelatedElements);
+            comparison.pending.push(new EquivalenceContext.Pair((CoreModelObject)valueA.get(), (CoreModelObject)valueB.get(),
+                    isRelatedElement(propertyDescriptor) || ignoreRelatedElements));
+            return true;
         } else {
         	return optionalObjectsEquivalent(valueA, valueB); // Present, not a list, and not a TypedValue
         }
@@ -759,64 +1148,251 @@ public abstract class CoreModelObject {
 	 * @param s string to normalize
 	 * @return DOS style only linefeeds
 	 */
-	private Object normalizeString(String s) {
+	static String normalizeString(String s) {
 		return s.replace("\r\n", "\n").trim();
 	}
 
 	/**
-	 * Checks if for each item on either list, there is an item in the other list that is equivalent.
+	 * Checks if for each item on either list, there is an item in the other list that is equal, adding any
+	 * model objects which are not equal to the comparison to be matched with an equivalent model object
 	 * @param ignoreRelatedElements Whether related elements should be ignored in the comparison
+	 * @param propertyDescriptor descriptor for the property with the list values
+	 * @param comparison comparison the model objects are added to
+	 * @return false if the lists are not equivalent, true if they are equivalent or any model objects are added
+	 * to the comparison
 	 */
-	private boolean areEquivalent(List<?> firstList, List<?> secondList,
-										 boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
+	private static boolean areEquivalent(List<?> firstList, List<?> secondList, boolean ignoreRelatedElements,
+			PropertyDescriptor propertyDescriptor, Comparison comparison) throws InvalidSPDXAnalysisException {
 		if (firstList.size() != secondList.size()) {
 			return false;
 		}
-		for (Object item : firstList) {
-			if (!containsEqualOrEquivalentItem(secondList, item, ignoreRelatedElements)) {
-				return false;
+		return addCollectionMatch(secondList, firstList, ignoreRelatedElements, propertyDescriptor, comparison) &&
+				addCollectionMatch(firstList, secondList, ignoreRelatedElements, propertyDescriptor, comparison);
+	}
+	
+	/**
+	 * Add the items which are not equal to an item in the list to the comparison to be matched with an equivalent
+	 * model object in the list
+	 * @param list list to search
+	 * @param items items to find
+	 * @param ignoreRelatedElements if true, don't follow the to parts of relationships
+	 * @param propertyDescriptor descriptor for the property with the list values
+	 * @param comparison comparison the items are added to
+	 * @return false if an item which is not a model object has no equal item in the list
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	private static boolean addCollectionMatch(List<?> list, List<?> items, boolean ignoreRelatedElements,
+			PropertyDescriptor propertyDescriptor, Comparison comparison) throws InvalidSPDXAnalysisException {
+		boolean bucketed = list.size() >= BUCKETED_EQUIVALENCE_THRESHOLD;
+		Set<Object> equalItems = null;
+		Set<String> individualUris = null;
+		if (bucketed) {
+			equalItems = new HashSet<>(list);
+			individualUris = new HashSet<>();
+			for (Object listItem:list) {
+				if (listItem instanceof IndividualUriValue) {
+					individualUris.add(((IndividualUriValue)listItem).getIndividualURI());
+				}
 			}
 		}
-		for (Object item : secondList) {
-			if (!containsEqualOrEquivalentItem(firstList, item, ignoreRelatedElements)) {
+		List<CoreModelObject> unmatched = new ArrayList<>();
+		for (Object item:items) {
+			if (bucketed ? equalItems.contains(item) : list.contains(item)) {
+				continue;
+			}
+			if (item instanceof IndividualUriValue && (bucketed ?
+					individualUris.contains(((IndividualUriValue)item).getIndividualURI()) :
+					list.contains(new SimpleUriValue((IndividualUriValue) item)))) {
+				// Two IndividualUriValues are considered equal if their URI coincides
+				continue;
+			}
+			if (!(item instanceof CoreModelObject)) {
 				return false;
 			}
+			unmatched.add((CoreModelObject)item);
+		}
+		if (!unmatched.isEmpty()) {
+			comparison.collections.add(new CollectionMatch(list, unmatched, bucketed, ignoreRelatedElements, propertyDescriptor));
 		}
 		return true;
 	}
 	
 	/**
-	 * Searches a list for an equal or equivalent item
-	 * @param list list to search
-	 * @param itemToFind  the item we're looking for
-	 * @param ignoreRelatedElements if true, don't follow the to parts of relationships
-	 * @return true if the list contains an equal or equivalent item
-	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 * A pair of model objects being compared together with the nested pairs which must also be equivalent
 	 */
-	@SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private boolean containsEqualOrEquivalentItem(List<?> list, Object itemToFind,
-                                                  boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
-		if (list.contains(itemToFind)) {
-			return true;
-		} else if (itemToFind instanceof IndividualUriValue && list.contains(new SimpleUriValue((IndividualUriValue) itemToFind))) {
-			// Two IndividualUriValues are considered equal if their URI coincides
-			return true;
+	private static final class Comparison {
+		/**
+		 * Value of <code>EquivalenceContext.mark()</code> before the comparison was started
+		 */
+		final int mark;
+		/**
+		 * Pairs which must all be equivalent - the first pair is the pair originally requested
+		 */
+		final List<EquivalenceContext.Pair> compared = new ArrayList<>();
+		/**
+		 * Pairs of model object property values still to be compared
+		 */
+		final Deque<EquivalenceContext.Pair> pending = new ArrayDeque<>();
+		/**
+		 * Collection members still to be matched with an equivalent member
+		 */
+		final Deque<CollectionMatch> collections = new ArrayDeque<>();
+		/**
+		 * Collection members the pair is a candidate match for - null if the pair is not a collection member
+		 */
+		final CollectionMatch match;
+
+		Comparison(EquivalenceContext context, EquivalenceContext.Pair pair, @Nullable CollectionMatch match) {
+			this.mark = context.mark();
+			this.match = match;
+			context.startComparison(pair);
+			compared.add(pair);
 		}
-		
-		if (!(itemToFind instanceof CoreModelObject)) {
-			return false;
+
+		/**
+		 * @return true if there are pairs or collection members still to be compared
+		 */
+		boolean hasPending() {
+			return !pending.isEmpty() || !collections.isEmpty();
 		}
-		
-		CoreModelObject objectToFind = (CoreModelObject) itemToFind;
-		for (Object objectToCompare : list) {
-			if (!(objectToCompare instanceof CoreModelObject)) {
+	}
+	
+	/**
+	 * Model object collection members which must each be equivalent to a model object in another collection
+	 * <p>
+	 * For large collections, the model objects are grouped by <code>shallowEquivalenceHash</code> so that
+	 * candidates with matching simple property values are compared first.  If no match is found within the bucket,
+	 * the remaining model objects are compared so that the result is the same as comparing every model object.
+	 */
+	private static final class CollectionMatch {
+		private final List<CoreModelObject> items;
+		private final List<CoreModelObject> modelObjects = new ArrayList<>();
+		private final List<Integer> modelObjectHashes;
+		private final Map<Integer, List<CoreModelObject>> buckets;
+		private final boolean ignoreRelatedElements;
+		final PropertyDescriptor propertyDescriptor;
+		private int itemIndex = 0;
+		private List<CoreModelObject> bucket = null;
+		private int itemHash;
+		private int bucketIndex;
+		private int modelObjectIndex;
+
+		/**
+		 * @param list list containing the candidate model objects
+		 * @param items model objects to find an equivalent model object for
+		 * @param bucketed if true, compare candidates in the same bucket first
+		 * @param ignoreRelatedElements if true, don't follow the to parts of relationships
+		 * @param propertyDescriptor descriptor for the property with the list values
+		 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+		 */
+		CollectionMatch(List<?> list, List<CoreModelObject> items, boolean bucketed, boolean ignoreRelatedElements,
+				PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+			this.items = items;
+			this.ignoreRelatedElements = ignoreRelatedElements;
+			this.propertyDescriptor = propertyDescriptor;
+			this.modelObjectHashes = bucketed ? new ArrayList<>() : null;
+			this.buckets = bucketed ? new HashMap<>() : null;
+			for (Object listItem:list) {
+				if (listItem instanceof CoreModelObject) {
+					CoreModelObject mo = (CoreModelObject)listItem;
+					modelObjects.add(mo);
+					if (bucketed) {
+						int hash = mo.shallowEquivalenceHash();
+						modelObjectHashes.add(hash);
+						buckets.computeIfAbsent(hash, h -> new ArrayList<>()).add(mo);
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return true if an equivalent model object has been found for every item
+		 */
+		boolean isComplete() {
+			return itemIndex >= items.size();
+		}
+
+		/**
+		 * @return the next pair of the current item and a model object which may be equivalent, or null if there
+		 * are no more candidates
+		 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+		 */
+		@Nullable EquivalenceContext.Pair nextCandidate() throws InvalidSPDXAnalysisException {
+			CoreModelObject item = items.get(itemIndex);
+			if (Objects.isNull(buckets)) {
+				return modelObjectIndex < modelObjects.size() ? 
+						new EquivalenceContext.Pair(item, modelObjects.get(modelObjectIndex++), ignoreRelatedElements) : null;
+			}
+			if (Objects.isNull(bucket)) {
+				itemHash = item.shallowEquivalenceHash();
+				bucket = buckets.getOrDefault(itemHash, Collections.emptyList());
+			}
+			if (bucketIndex < bucket.size()) {
+				return new EquivalenceContext.Pair(item, bucket.get(bucketIndex++), ignoreRelatedElements);
+			}
+			// equivalent objects normally share a bucket, but subclasses may consider values equivalent
+			// which the hash does not - e.g. no assertion values which only differ in whitespace
+			while (modelObjectIndex < modelObjects.size()) {
+				int i = modelObjectIndex++;
+				if (modelObjectHashes.get(i) != itemHash) {
+					return new EquivalenceContext.Pair(item, modelObjects.get(i), ignoreRelatedElements);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Record that an equivalent model object was found for the current item
+		 */
+		void matched() {
+			itemIndex++;
+			bucket = null;
+			bucketIndex = 0;
+			modelObjectIndex = 0;
+		}
+	}
+	
+	/**
+	 * A hash of the class and simple property values which is the same for equivalent objects
+	 * <p>
+	 * Related element properties and values equivalent to null are not included.  Nested model objects only
+	 * contribute the property descriptor and collections only contribute their size.
+	 * @return hash for grouping potentially equivalent objects
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	int shallowEquivalenceHash() throws InvalidSPDXAnalysisException {
+		int retval = getClass().getName().hashCode();
+		for (Map.Entry<PropertyDescriptor, Optional<Object>> entry:getComparablePropertyValues().entrySet()) {
+			PropertyDescriptor propertyDescriptor = entry.getKey();
+			if (isRelatedElement(propertyDescriptor)) {
 				continue;
 			}
-			if (objectToFind.equivalent((CoreModelObject) objectToCompare, ignoreRelatedElements)) {
-				return true;
+			Optional<Object> value = entry.getValue();
+			if (!value.isPresent() || isEquivalentToNull(value, propertyDescriptor)) {
+				continue;
 			}
+			// sum the property hashes so that the result does not depend on the property order
+			retval += 31 * propertyDescriptor.hashCode() + simpleValueHash(value.get());
+		}
+		return retval;
+	}
+	
+	/**
+	 * @param value property value
+	 * @return a hash which is the same for values considered equivalent by <code>propertyValuesEquivalent</code>
+	 */
+	private static int simpleValueHash(Object value) {
+		if (value instanceof IndividualUriValue) {
+			return Objects.hashCode(((IndividualUriValue)value).getIndividualURI());
+		} else if (value instanceof String) {
+			return normalizeString((String)value).hashCode();
+		} else if (value instanceof Collection) {
+			return 1 + ((Collection<?>)value).size();
+		} else if (value instanceof CoreModelObject) {
+			return 0;
+		} else {
+			return value.hashCode();
 		}
-		return false;
 	}
 	
 	@Override
@@ -887,8 +1463,14 @@ public abstract class CoreModelObject {
 		if (Objects.isNull(copyManager)) {
 			throw new InvalidSPDXAnalysisException("Copying is not enabled for "+objectUri);
 		}
-		copyManager.copy(this.modelStore, objectUri, 
-				source.getModelStore(), source.getObjectUri(), specVersion, null);
+		IOperationEvent event = OperationEvents.begin(Operation.COPY, source.getObjectUri(), source.getType(),
+				specVersion, null);
+		try {
+			copyManager.copy(this.modelStore, objectUri, 
+					source.getModelStore(), source.getObjectUri(), specVersion, null);
+		} finally {
+			event.commit();
+		}
 	}
 	
 	/**
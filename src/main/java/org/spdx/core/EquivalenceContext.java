@@ -0,0 +1,168 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * State shared by all comparisons made while determining if two model objects are equivalent
+ * <p>
+ * The context remembers the result for every pair of objects compared so that objects reachable through
+ * more than one path are only compared once.  A pair which is reached again while it is still being compared
+ * (i.e. the graph contains a cycle) is assumed to be equivalent - if the pair later turns out not to be equivalent,
+ * any results which relied on that assumption are discarded.
+ * <p>
+ * A context may be reused for several calls to <code>CoreModelObject.equivalent</code> as long as the
+ * compared objects are not modified in between.  A context must not be used by more than one thread at a time.
+ *
+ * @author Gary O'Neall
+ */
+public class EquivalenceContext {
+
+	/**
+	 * A pair of objects being compared - objects are identified by their model store and object URI
+	 * rather than the model object instance
+	 */
+	static final class Pair {
+		final CoreModelObject first;
+		final CoreModelObject second;
+		final boolean ignoreRelatedElements;
+		final int hash;
+
+		Pair(CoreModelObject first, CoreModelObject second, boolean ignoreRelatedElements) {
+			this.first = first;
+			this.second = second;
+			this.ignoreRelatedElements = ignoreRelatedElements;
+			this.hash = Objects.hash(System.identityHashCode(first.getModelStore()), first.getObjectUri(),
+					System.identityHashCode(second.getModelStore()), second.getObjectUri(), ignoreRelatedElements);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Pair)) {
+				return false;
+			}
+			Pair compare = (Pair)o;
+			return hash == compare.hash && ignoreRelatedElements == compare.ignoreRelatedElements &&
+					first.getModelStore() == compare.first.getModelStore() &&
+					second.getModelStore() == compare.second.getModelStore() &&
+					first.getClass().equals(compare.first.getClass()) &&
+					second.getClass().equals(compare.second.getClass()) &&
+					first.getObjectUri().equals(compare.first.getObjectUri()) &&
+					second.getObjectUri().equals(compare.second.getObjectUri());
+		}
+	}
+
+	private final Map<Pair, Boolean> results = new HashMap<>();
+	private final Set<Pair> inProgress = new HashSet<>();
+	/**
+	 * Pairs found equivalent in the order the results were recorded - used to discard results
+	 * which relied on a pair assumed to be equivalent
+	 */
+	private final List<Pair> equivalentPairs = new ArrayList<>();
+	private NotEquivalentReason lastNotEquivalentReason = null;
+
+	/**
+	 * @return the reason the most recent comparison found not to be equivalent was not equivalent, or null if
+	 * no comparison has been found not to be equivalent
+	 */
+	public @Nullable NotEquivalentReason getLastNotEquivalentReason() {
+		return lastNotEquivalentReason;
+	}
+
+	/**
+	 * @param reason reason the current comparison is not equivalent
+	 */
+	void setLastNotEquivalentReason(NotEquivalentReason reason) {
+		this.lastNotEquivalentReason = reason;
+	}
+
+	/**
+	 * @return the number of pairs with a recorded result
+	 */
+	public int size() {
+		return results.size();
+	}
+
+	/**
+	 * Remove all recorded results - must be called if any compared object is modified before the context is reused
+	 */
+	public void clear() {
+		if (!inProgress.isEmpty()) {
+			throw new IllegalStateException("Can not clear an equivalence context during a comparison");
+		}
+		results.clear();
+		equivalentPairs.clear();
+		lastNotEquivalentReason = null;
+	}
+
+	/**
+	 * @param pair pair of objects
+	 * @return the recorded result for the pair, true if the pair is being compared, or null if the pair has not been compared
+	 */
+	@Nullable Boolean getResult(Pair pair) {
+		Boolean retval = results.get(pair);
+		if (Objects.isNull(retval) && inProgress.contains(pair)) {
+			return true;	// assumed equivalent until shown otherwise
+		}
+		return retval;
+	}
+
+	/**
+	 * @return a mark to be passed to <code>endComparison</code> when the comparison started after this call completes
+	 */
+	int mark() {
+		return equivalentPairs.size();
+	}
+
+	/**
+	 * Record that a pair is being compared
+	 * @param pair pair of objects
+	 */
+	void startComparison(Pair pair) {
+		inProgress.add(pair);
+	}
+
+	/**
+	 * Record the result of comparing a group of pairs which are all required to be equivalent
+	 * @param pairs pairs compared since the mark was taken - the first pair is the pair originally requested
+	 * @param mark value of <code>mark()</code> before the comparison was started
+	 * @param result true if all pairs are equivalent, false if not, null if the comparison failed with an exception
+	 */
+	void endComparison(List<Pair> pairs, int mark, @Nullable Boolean result) {
+		inProgress.removeAll(pairs);
+		if (Boolean.TRUE.equals(result)) {
+			for (Pair pair:pairs) {
+				results.put(pair, true);
+				equivalentPairs.add(pair);
+			}
+		} else {
+			// anything found equivalent since the mark may have assumed one of these pairs is equivalent
+			for (int i = equivalentPairs.size() - 1; i >= mark; i--) {
+				results.remove(equivalentPairs.remove(i));
+			}
+			if (Boolean.FALSE.equals(result)) {
+				results.put(pairs.get(0), false);
+			}
+		}
+	}
+}
@@ -0,0 +1,534 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Computes and caches 64 bit structural fingerprints of model objects
+ * <p>
+ * A fingerprint is a hash of the class, the property values and, recursively, the fingerprints of any referenced
+ * model objects.  Property values are normalized the same way as <code>CoreModelObject.equivalent</code>
+ * normalizes them - strings are trimmed and CRLF line endings are ignored, values equivalent to null
+ * (e.g. no assertion values and empty collections) are omitted, collections are unordered, and the object
+ * URI's of model objects are not included.  Equivalent acyclic object graphs therefore have the same fingerprint.
+ * Related element properties of objects referenced through a related element property are not included,
+ * matching the <code>ignoreRelatedElements</code> behavior of <code>equivalent</code>.
+ * <p>
+ * Objects which reference each other in a cycle are fingerprinted as a group - the fingerprint of each object in a
+ * cycle includes the values of all the objects in the cycle.  Equivalent graphs where the cycles have a different
+ * number of objects will have different fingerprints.
+ * <p>
+ * Fingerprints are cached for objects in the model store passed to the constructor.  A cached fingerprint records the
+ * modification stamp of every object it was computed from (see <code>IModelStore.getModificationStamp</code>) and is
+ * reused only while none of those stamps have changed.  Objects in stores which do not track modifications are never cached.
+ * <p>
+ * Fingerprints are stable between runs and JVM's for the same model object classes.
+ * <p>
+ * This class is safe for use by multiple threads.
+ *
+ * @author Gary O'Neall
+ */
+public class FingerprintCache {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final long STRING_TAG = stableHash(0, "string");
+	private static final long INDIVIDUAL_TAG = stableHash(0, "individual");
+	private static final long COLLECTION_TAG = stableHash(0, "collection");
+	private static final long CYCLE_TAG = stableHash(0, "cycle");
+
+	/**
+	 * Identifies a model object in a store along with whether related elements are ignored
+	 */
+	private static final class NodeKey {
+		final IModelStore modelStore;
+		final String objectUri;
+		final boolean ignoreRelatedElements;
+
+		NodeKey(IModelStore modelStore, String objectUri, boolean ignoreRelatedElements) {
+			this.modelStore = modelStore;
+			this.objectUri = objectUri;
+			this.ignoreRelatedElements = ignoreRelatedElements;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * System.identityHashCode(modelStore) + objectUri.hashCode()) + (ignoreRelatedElements ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof NodeKey)) {
+				return false;
+			}
+			NodeKey compare = (NodeKey)o;
+			return modelStore == compare.modelStore && ignoreRelatedElements == compare.ignoreRelatedElements &&
+					objectUri.equals(compare.objectUri);
+		}
+	}
+
+	/**
+	 * Modification stamps for a group of objects fingerprinted together along with the cached fingerprints
+	 * of the objects they reference
+	 */
+	private static final class Dependencies {
+		final String[] objectUris;
+		final long[] stamps;
+		final Entry[] referencedEntries;
+
+		Dependencies(String[] objectUris, long[] stamps, Entry[] referencedEntries) {
+			this.objectUris = objectUris;
+			this.stamps = stamps;
+			this.referencedEntries = referencedEntries;
+		}
+	}
+
+	/**
+	 * Cached fingerprint for one object
+	 */
+	private static final class Entry {
+		final NodeKey key;
+		final long fingerprint;
+		final Dependencies dependencies;
+
+		Entry(NodeKey key, long fingerprint, Dependencies dependencies) {
+			this.key = key;
+			this.fingerprint = fingerprint;
+			this.dependencies = dependencies;
+		}
+	}
+
+	/**
+	 * Fingerprint computed during a single call to <code>fingerprint</code>
+	 */
+	private static final class Result {
+		final long fingerprint;
+		final @Nullable Entry entry;
+
+		Result(long fingerprint, @Nullable Entry entry) {
+			this.fingerprint = fingerprint;
+			this.entry = entry;
+		}
+	}
+
+	/**
+	 * Normalized value of a single property - referenced model objects are resolved once their fingerprints are known
+	 */
+	private static final class PropertyValue {
+		final long propertyHash;
+		final boolean collection;
+		final int size;
+		final List<Long> valueHashes = new ArrayList<>();
+		final List<NodeKey> references = new ArrayList<>();
+
+		PropertyValue(long propertyHash, boolean collection, int size) {
+			this.propertyHash = propertyHash;
+			this.collection = collection;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Model object being fingerprinted - fields used for Tarjan's strongly connected components algorithm
+	 * group objects which reference each other in a cycle
+	 */
+	private static final class Node {
+		final NodeKey key;
+		final long classHash;
+		final long stamp;
+		final List<PropertyValue> propertyValues = new ArrayList<>();
+		final List<CoreModelObject> references = new ArrayList<>();
+		final List<Boolean> referenceIgnoreRelatedElements = new ArrayList<>();
+		final int index;
+		int lowLink;
+		int next = 0;
+
+		Node(NodeKey key, long classHash, long stamp, int index) {
+			this.key = key;
+			this.classHash = classHash;
+			this.stamp = stamp;
+			this.index = index;
+			this.lowLink = index;
+		}
+	}
+
+	private final @Nullable IModelStore modelStore;
+	private final ConcurrentHashMap<NodeKey, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param modelStore model store containing the objects whose fingerprints are to be cached
+	 */
+	public FingerprintCache(IModelStore modelStore) {
+		Objects.requireNonNull(modelStore, "Model store can not be null");
+		this.modelStore = modelStore;
+	}
+
+	/**
+	 * Create a fingerprint calculator which does not cache results between calls
+	 */
+	private FingerprintCache() {
+		this.modelStore = null;
+	}
+
+	/**
+	 * @param modelObject model object to fingerprint
+	 * @return the fingerprint of the model object computed without a cache
+	 * @throws InvalidSPDXAnalysisException on any error reading the model object properties
+	 */
+	static long computeFingerprint(CoreModelObject modelObject) throws InvalidSPDXAnalysisException {
+		return new FingerprintCache().fingerprint(modelObject);
+	}
+
+	/**
+	 * @param modelObject model object to fingerprint
+	 * @return the fingerprint of the model object reusing any cached fingerprints for unchanged objects
+	 * @throws InvalidSPDXAnalysisException on any error reading the model object properties
+	 */
+	public long fingerprint(CoreModelObject modelObject) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(modelObject, "Model object can not be null");
+		return new Run().fingerprint(modelObject, false);
+	}
+
+	/**
+	 * Remove all cached fingerprints
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of cached fingerprints
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * State for a single call to <code>fingerprint</code>
+	 */
+	private final class Run {
+		private final Map<NodeKey, Result> results = new HashMap<>();
+		private final Map<Dependencies, Boolean> validated = new IdentityHashMap<>();
+		private final Map<NodeKey, Node> visiting = new HashMap<>();
+		private final Deque<Node> componentStack = new ArrayDeque<>();
+		private int nextIndex = 0;
+
+		/**
+		 * @param modelObject model object to fingerprint
+		 * @param ignoreRelatedElements if true, related element properties are not included
+		 * @return fingerprint for the model object
+		 * @throws InvalidSPDXAnalysisException on any error reading the model object properties
+		 */
+		long fingerprint(CoreModelObject modelObject, boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
+			NodeKey rootKey = new NodeKey(modelObject.getModelStore(), modelObject.getObjectUri(), ignoreRelatedElements);
+			Result rootResult = getResult(rootKey);
+			if (Objects.nonNull(rootResult)) {
+				return rootResult.fingerprint;
+			}
+			// Tarjan's algorithm using an explicit stack so that deeply nested objects do not overflow the call stack
+			Deque<Node> callStack = new ArrayDeque<>();
+			callStack.push(visit(rootKey, modelObject));
+			while (!callStack.isEmpty()) {
+				Node node = callStack.peek();
+				if (node.next < node.references.size()) {
+					CoreModelObject reference = node.references.get(node.next);
+					NodeKey referenceKey = new NodeKey(reference.getModelStore(), reference.getObjectUri(),
+							node.referenceIgnoreRelatedElements.get(node.next));
+					node.next++;
+					if (Objects.nonNull(getResult(referenceKey))) {
+						continue;
+					}
+					Node referenced = visiting.get(referenceKey);
+					if (Objects.isNull(referenced)) {
+						callStack.push(visit(referenceKey, reference));
+					} else {
+						// still on the component stack since any completed component has a result
+						node.lowLink = Math.min(node.lowLink, referenced.index);
+					}
+				} else {
+					callStack.pop();
+					if (!callStack.isEmpty()) {
+						Node parent = callStack.peek();
+						parent.lowLink = Math.min(parent.lowLink, node.lowLink);
+					}
+					if (node.lowLink == node.index) {
+						completeComponent(node);
+					}
+				}
+			}
+			return results.get(rootKey).fingerprint;
+		}
+
+		/**
+		 * @param key key for the object
+		 * @return the fingerprint computed during this run or a valid cached fingerprint, or null if neither exists
+		 */
+		private @Nullable Result getResult(NodeKey key) {
+			Result result = results.get(key);
+			if (Objects.isNull(result) && key.modelStore == modelStore) {
+				Entry entry = entries.get(key);
+				if (Objects.nonNull(entry) && isValid(entry)) {
+					result = new Result(entry.fingerprint, entry);
+					results.put(key, result);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * @param entry cached entry
+		 * @return true if none of the objects the entry was computed from have been modified
+		 */
+		private boolean isValid(Entry entry) {
+			Boolean known = validated.get(entry.dependencies);
+			if (Objects.nonNull(known)) {
+				return known;
+			}
+			// post order traversal of the referenced entries using an explicit stack
+			Deque<Dependencies> stack = new ArrayDeque<>();
+			Deque<Integer> nextReference = new ArrayDeque<>();
+			if (!stampsMatch(entry.dependencies)) {
+				validated.put(entry.dependencies, false);
+				return false;
+			}
+			stack.push(entry.dependencies);
+			nextReference.push(0);
+			boolean valid = true;
+			while (!stack.isEmpty()) {
+				Dependencies dependencies = stack.peek();
+				int next = nextReference.pop();
+				if (valid && next < dependencies.referencedEntries.length) {
+					nextReference.push(next + 1);
+					Entry referenced = dependencies.referencedEntries[next];
+					if (entries.get(referenced.key) != referenced) {
+						valid = false;	// replaced by a newer fingerprint
+						continue;
+					}
+					known = validated.get(referenced.dependencies);
+					if (Objects.nonNull(known)) {
+						valid = known;
+					} else if (!stampsMatch(referenced.dependencies)) {
+						validated.put(referenced.dependencies, false);
+						valid = false;
+					} else {
+						stack.push(referenced.dependencies);
+						nextReference.push(0);
+					}
+				} else {
+					stack.pop();
+					validated.put(dependencies, valid);
+				}
+			}
+			return valid;
+		}
+
+		/**
+		 * @param dependencies dependencies of a cached entry
+		 * @return true if the modification stamps for all the objects are unchanged
+		 */
+		private boolean stampsMatch(Dependencies dependencies) {
+			for (int i = 0; i < dependencies.objectUris.length; i++) {
+				if (modelStore.getModificationStamp(dependencies.objectUris[i]) != dependencies.stamps[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Read and normalize the property values for a model object
+		 * @param key key for the model object
+		 * @param modelObject model object to visit
+		 * @return node for the model object
+		 * @throws InvalidSPDXAnalysisException on any error reading the model object properties
+		 */
+		private Node visit(NodeKey key, CoreModelObject modelObject) throws InvalidSPDXAnalysisException {
+			// the stamp must be read before the property values so that a concurrent change invalidates the result
+			long stamp = key.modelStore == modelStore ? modelStore.getModificationStamp(key.objectUri) : -1;
+			Node node = new Node(key, stableHash(FNV_OFFSET_BASIS, modelObject.getClass().getName()), stamp, nextIndex++);
+			for (Map.Entry<PropertyDescriptor, Optional<Object>> entry:modelObject.getComparablePropertyValues().entrySet()) {
+				PropertyDescriptor propertyDescriptor = entry.getKey();
+				if (key.ignoreRelatedElements && modelObject.isRelatedElement(propertyDescriptor)) {
+					continue;
+				}
+				Optional<Object> value = entry.getValue();
+				if (!value.isPresent() || modelObject.isEquivalentToNull(value, propertyDescriptor)) {
+					continue;
+				}
+				boolean referenceIgnoreRelatedElements = key.ignoreRelatedElements || modelObject.isRelatedElement(propertyDescriptor);
+				long propertyHash = stableHash(stableHash(FNV_OFFSET_BASIS, propertyDescriptor.getNameSpace()),
+						propertyDescriptor.getName());
+				Collection<?> values = value.get() instanceof Collection ? (Collection<?>)value.get() :
+						Collections.singletonList(value.get());
+				PropertyValue propertyValue = new PropertyValue(propertyHash, value.get() instanceof Collection, values.size());
+				for (Object item:values) {
+					// IndividualUriValue takes precedence over CoreModelObject - see CoreModelObject.propertyValuesEquivalent
+					if (item instanceof CoreModelObject && !(item instanceof IndividualUriValue)) {
+						CoreModelObject reference = (CoreModelObject)item;
+						propertyValue.references.add(new NodeKey(reference.getModelStore(), reference.getObjectUri(),
+								referenceIgnoreRelatedElements));
+						node.references.add(reference);
+						node.referenceIgnoreRelatedElements.add(referenceIgnoreRelatedElements);
+					} else {
+						propertyValue.valueHashes.add(simpleValueHash(item));
+					}
+				}
+				node.propertyValues.add(propertyValue);
+			}
+			visiting.put(key, node);
+			componentStack.push(node);
+			return node;
+		}
+
+		/**
+		 * Compute the fingerprints for all the objects in the strongly connected component rooted at a node
+		 * @param root root of the component
+		 */
+		private void completeComponent(Node root) {
+			List<Node> members = new ArrayList<>();
+			Node member;
+			do {
+				member = componentStack.pop();
+				visiting.remove(member.key);
+				members.add(member);
+			} while (member != root);
+			Set<NodeKey> memberKeys = new HashSet<>();
+			for (Node node:members) {
+				memberKeys.add(node.key);
+			}
+			boolean cycle = members.size() > 1;
+			boolean cacheable = true;
+			List<Entry> referencedEntries = new ArrayList<>();
+			long[] localHashes = new long[members.size()];
+			long componentHash = 0;
+			for (int i = 0; i < members.size(); i++) {
+				Node node = members.get(i);
+				cacheable = cacheable && node.stamp >= 0;
+				long hash = node.classHash;
+				for (PropertyValue propertyValue:node.propertyValues) {
+					List<Long> valueHashes = new ArrayList<>(propertyValue.valueHashes);
+					for (NodeKey reference:propertyValue.references) {
+						if (memberKeys.contains(reference)) {
+							cycle = true;
+							valueHashes.add(CYCLE_TAG);
+						} else {
+							Result result = results.get(reference);
+							if (Objects.isNull(result.entry)) {
+								cacheable = false;
+							} else {
+								referencedEntries.add(result.entry);
+							}
+							valueHashes.add(result.fingerprint);
+						}
+					}
+					long valueHash;
+					if (propertyValue.collection) {
+						// collections are compared as sets by equivalent
+						long sum = 0;
+						for (long distinct:new HashSet<>(valueHashes)) {
+							sum += mix(distinct);
+						}
+						valueHash = mix(COLLECTION_TAG + propertyValue.size * GOLDEN_GAMMA + sum);
+					} else {
+						valueHash = valueHashes.get(0);
+					}
+					// sum the property hashes so that the result does not depend on the property order
+					hash += mix(propertyValue.propertyHash * FNV_PRIME ^ valueHash);
+				}
+				localHashes[i] = mix(hash);
+				componentHash += mix(localHashes[i]);
+			}
+			Dependencies dependencies = null;
+			if (cacheable) {
+				String[] objectUris = new String[members.size()];
+				long[] stamps = new long[members.size()];
+				for (int i = 0; i < members.size(); i++) {
+					objectUris[i] = members.get(i).key.objectUri;
+					stamps[i] = members.get(i).stamp;
+				}
+				dependencies = new Dependencies(objectUris, stamps, referencedEntries.toArray(new Entry[referencedEntries.size()]));
+				validated.put(dependencies, true);
+			}
+			for (int i = 0; i < members.size(); i++) {
+				Node node = members.get(i);
+				long fingerprint = cycle ? mix(localHashes[i] + GOLDEN_GAMMA * mix(componentHash ^ CYCLE_TAG)) : localHashes[i];
+				Entry entry = null;
+				if (Objects.nonNull(dependencies)) {
+					entry = new Entry(node.key, fingerprint, dependencies);
+					entries.put(node.key, entry);
+				}
+				results.put(node.key, new Result(fingerprint, entry));
+			}
+		}
+	}
+
+	/**
+	 * @param value property value which is not a model object
+	 * @return a stable hash which is the same for values considered equivalent by <code>CoreModelObject.equivalent</code>
+	 */
+	private static long simpleValueHash(Object value) {
+		if (value instanceof IndividualUriValue) {
+			return mix(stableHash(INDIVIDUAL_TAG, Objects.toString(((IndividualUriValue)value).getIndividualURI())));
+		} else if (value instanceof String) {
+			return mix(stableHash(STRING_TAG, CoreModelObject.normalizeString((String)value)));
+		} else if (value instanceof Enum) {
+			return mix(stableHash(stableHash(FNV_OFFSET_BASIS, value.getClass().getName()), ((Enum<?>)value).name()));
+		} else {
+			return mix(stableHash(stableHash(FNV_OFFSET_BASIS, value.getClass().getName()), value.toString()));
+		}
+	}
+
+	/**
+	 * FNV-1a hash of the UTF-8 bytes of a string
+	 * @param seed starting hash value
+	 * @param s string to hash
+	 * @return hash which does not depend on the JVM
+	 */
+	private static long stableHash(long seed, String s) {
+		long hash = seed;
+		for (byte b:s.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= (b & 0xff);
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Finalization step from the SplitMix64 generator - spreads the bits of a value over the full 64 bits
+	 * @param value value to mix
+	 * @return mixed value
+	 */
+	private static long mix(long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
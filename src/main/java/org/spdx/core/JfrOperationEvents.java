@@ -0,0 +1,166 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.IOperationEventFactory;
+import org.spdx.core.OperationEvents.Operation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for SPDX operations
+ * <p>
+ * This class is only loaded by <code>OperationEvents</code> once the <code>jdk.jfr</code> classes are known to be
+ * available and must not be referenced directly.
+ *
+ * @author Gary O'Neall
+ */
+final class JfrOperationEvents implements IOperationEventFactory {
+
+	static final String CATEGORY = "SPDX";
+	static final String THRESHOLD = "10 ms";
+
+	/**
+	 * Fields common to all SPDX operation events - the duration is recorded by JFR and
+	 * <code>Event.commit()</code> implements <code>IOperationEvent</code>
+	 * <p>
+	 * By default only operations taking at least the threshold are recorded, since most operations complete in
+	 * microseconds - the threshold can be changed in the recording settings.
+	 */
+	@Category(CATEGORY)
+	@Threshold(THRESHOLD)
+	abstract static class SpdxOperationEvent extends Event implements IOperationEvent {
+
+		@Label("Object URI")
+		String objectUri;
+
+		@Label("Type")
+		String type;
+
+		@Label("Spec Version")
+		String specVersion;
+
+		@Label("Detail")
+		String detail;
+	}
+
+	/**
+	 * Disabled by default since model objects are inflated for almost every property value read
+	 */
+	@Name("org.spdx.InflateModelObject")
+	@Label("Inflate Model Object")
+	@Description("Creation of a Java model object for an object in a model store")
+	@Enabled(false)
+	static final class InflateModelObjectEvent extends SpdxOperationEvent {
+	}
+
+	@Name("org.spdx.Copy")
+	@Label("Copy")
+	@Description("Copy of an SPDX object between model stores")
+	static final class CopyEvent extends SpdxOperationEvent {
+	}
+
+	@Name("org.spdx.Verify")
+	@Label("Verify")
+	@Description("Verification of an SPDX model object")
+	static final class VerifyEvent extends SpdxOperationEvent {
+	}
+
+	@Name("org.spdx.Equivalent")
+	@Label("Equivalent")
+	@Description("Comparison of two SPDX model objects for equivalence")
+	static final class EquivalentEvent extends SpdxOperationEvent {
+	}
+
+	/**
+	 * Disabled by default since property values are read far more often than any other operation
+	 */
+	@Name("org.spdx.GetPropertyValue")
+	@Label("Get Property Value")
+	@Description("Retrieval of a property value from a model store")
+	@Enabled(false)
+	static final class GetPropertyValueEvent extends SpdxOperationEvent {
+	}
+
+	@Name("org.spdx.LicenseTextCompare")
+	@Label("License Text Compare")
+	@Description("Comparison of two license texts for equivalence")
+	static final class LicenseTextCompareEvent extends SpdxOperationEvent {
+	}
+
+	private final EventType[] eventTypes = new EventType[Operation.values().length];
+
+	/**
+	 * Invoked reflectively by <code>OperationEvents</code>
+	 */
+	JfrOperationEvents() {
+		for (Operation operation:Operation.values()) {
+			eventTypes[operation.ordinal()] = EventType.getEventType(eventClass(operation));
+		}
+	}
+
+	/**
+	 * @param operation operation
+	 * @return the event class recording the operation
+	 */
+	static Class<? extends SpdxOperationEvent> eventClass(Operation operation) {
+		switch (operation) {
+			case INFLATE_MODEL_OBJECT: return InflateModelObjectEvent.class;
+			case COPY: return CopyEvent.class;
+			case VERIFY: return VerifyEvent.class;
+			case EQUIVALENT: return EquivalentEvent.class;
+			case GET_PROPERTY_VALUE: return GetPropertyValueEvent.class;
+			case LICENSE_TEXT_COMPARE: return LicenseTextCompareEvent.class;
+			default: throw new IllegalArgumentException("Unsupported operation " + operation);
+		}
+	}
+
+	/**
+	 * @param operation operation
+	 * @return a new event for the operation
+	 */
+	private static SpdxOperationEvent newEvent(Operation operation) {
+		switch (operation) {
+			case INFLATE_MODEL_OBJECT: return new InflateModelObjectEvent();
+			case COPY: return new CopyEvent();
+			case VERIFY: return new VerifyEvent();
+			case EQUIVALENT: return new EquivalentEvent();
+			case GET_PROPERTY_VALUE: return new GetPropertyValueEvent();
+			case LICENSE_TEXT_COMPARE: return new LicenseTextCompareEvent();
+			default: throw new IllegalArgumentException("Unsupported operation " + operation);
+		}
+	}
+
+	@Override
+	public boolean isEnabled(Operation operation) {
+		return eventTypes[operation.ordinal()].isEnabled();
+	}
+
+	@Override
+	public IOperationEvent begin(Operation operation, @Nullable String objectUri, @Nullable String type,
+			@Nullable String specVersion, @Nullable String detail) {
+		if (!isEnabled(operation)) {
+			return OperationEvents.NO_EVENT;
+		}
+		SpdxOperationEvent event = newEvent(operation);
+		event.objectUri = objectUri;
+		event.type = type;
+		event.specVersion = specVersion;
+		event.detail = detail;
+		event.begin();
+		return event;
+	}
+}
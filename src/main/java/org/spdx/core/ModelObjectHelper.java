@@ -7,15 +7,21 @@ package org.spdx.core;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 import javax.annotation.Nullable;
 
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.Operation;
 import org.spdx.storage.IModelStore;
 import org.spdx.storage.PropertyDescriptor;
+import org.spdx.storage.PropertyMutation;
 import org.spdx.storage.IModelStore.IModelStoreLock;
 
 /**
@@ -45,21 +51,77 @@ public class ModelObjectHelper {
 	public static Optional<Object> getObjectPropertyValue(IModelStore modelStore, String objectUri,
 			PropertyDescriptor propertyDescriptor, IModelCopyManager copyManager,
 			String specVersion, @Nullable Class<?> type, String idPrefix) throws InvalidSPDXAnalysisException {
-		IModelStoreLock lock = modelStore.enterCriticalSection(false);
-		// NOTE: we use a write lock since the ModelStorageClassConverter may end up creating objects in the store
+		IOperationEvent event = OperationEvents.begin(Operation.GET_PROPERTY_VALUE, objectUri, null, specVersion,
+				propertyDescriptor.getName());
 		try {
-			if (!modelStore.exists(objectUri)) {
-				return Optional.empty();
-			} else if (modelStore.isCollectionProperty(objectUri, propertyDescriptor)) {
-                return Optional.of(new ModelCollection<>(modelStore, objectUri, propertyDescriptor, copyManager,
-                        null, specVersion, idPrefix));
+			// Only the raw store reads are done under the (object scoped) read lock - the stored
+			// value is converted to a model object after the lock is released so that object inflation
+			// does not serialize readers of unrelated objects
+			boolean collectionProperty;
+			Optional<Object> storedValue;
+			IModelStoreLock lock = modelStore.enterCriticalSection(objectUri, true);
+			try {
+				if (!modelStore.exists(objectUri)) {
+					return Optional.empty();
+				}
+				collectionProperty = modelStore.isCollectionProperty(objectUri, propertyDescriptor);
+				storedValue = collectionProperty ? Optional.empty() : modelStore.getValue(objectUri, propertyDescriptor);
+			} finally {
+				modelStore.leaveCriticalSection(lock);
+			}
+			if (collectionProperty) {
+				return Optional.of(new ModelCollection<>(modelStore, objectUri, propertyDescriptor, copyManager,
+						null, specVersion, idPrefix));
 			} else {
-				return optionalStoredObjectToModelObject(modelStore.getValue(objectUri,
-						propertyDescriptor), modelStore, copyManager, specVersion, type, idPrefix);
+				return optionalStoredObjectToModelObject(storedValue, modelStore, copyManager, specVersion, type, idPrefix);
+			}
+		} finally {
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Get the values for all properties of an object using a single store request
+	 * <p>
+	 * Collection properties are returned as an unmodifiable <code>List</code> of model objects
+	 * rather than a <code>ModelCollection</code>.  Empty collections are included.
+	 * @param modelStore Model store for the object
+	 * @param objectUri the Object URI or anonymous ID
+	 * @param copyManager if non null, any ModelObject property value not stored in the modelStore under the stDocumentUri will be copied to make it available
+	 * @param specVersion version of the SPDX spec the object complies with
+	 * @param idPrefix prefix to be used when generating new SPDX IDs
+	 * @return map of property descriptors to values - empty if the object does not exist
+	 * @throws InvalidSPDXAnalysisException on any SPDX related error
+	 */
+	public static Map<PropertyDescriptor, Object> getObjectPropertyValues(IModelStore modelStore, String objectUri,
+			IModelCopyManager copyManager, String specVersion, String idPrefix) throws InvalidSPDXAnalysisException {
+		Map<PropertyDescriptor, Object> storedValues;
+		IModelStoreLock lock = modelStore.enterCriticalSection(objectUri, true);
+		try {
+			if (!modelStore.exists(objectUri)) {
+				return new HashMap<>();
 			}
+			storedValues = modelStore.getAllValues(objectUri);
 		} finally {
-			lock.unlock();
+			modelStore.leaveCriticalSection(lock);
 		}
+		Map<PropertyDescriptor, Object> retval = new HashMap<>();
+		for (Map.Entry<PropertyDescriptor, Object> entry:storedValues.entrySet()) {
+			if (entry.getValue() instanceof List) {
+				List<Object> members = new ArrayList<>();
+				for (Object member:(List<?>)entry.getValue()) {
+					members.add(storedObjectToModelObject(member, modelStore, copyManager, specVersion, null, idPrefix));
+				}
+				retval.put(entry.getKey(), Collections.unmodifiableList(members));
+			} else {
+				Optional<Object> value = optionalStoredObjectToModelObject(Optional.of(entry.getValue()), 
+						modelStore, copyManager, specVersion, null, idPrefix);
+				if (value.isPresent()) {
+					retval.put(entry.getKey(), value.get());
+				}
+			}
+		}
+		return retval;
 	}
 	
 	/**
@@ -164,6 +226,54 @@ public class ModelObjectHelper {
 				modelObjectToStoredObject(value, modelStore, null, null));
 	}
 	
+	/**
+	 * Apply a batch of property changes where the values are model values rather than stored values
+	 * <p>
+	 * Each value is converted to the stored form in the same way as the individual methods of this class - e.g.
+	 * model objects are converted to typed values, copying them into the model store if necessary, and setting a
+	 * property to a collection replaces the entire value collection.  The converted changes are applied
+	 * using <code>IModelStore.applyMutations</code>.
+	 * @param modelStore Model store for the properties
+	 * @param mutations changes with model values to apply in order
+	 * @param copyManager if non-null, any ModelObject property value not stored in the modelStore will be copied to make it available
+	 * @param idPrefix Prefix to be used if any new object URI's are generated
+	 * @throws InvalidSPDXAnalysisException on any SPDX related error
+	 */
+	public static void applyMutations(IModelStore modelStore, List<PropertyMutation> mutations,
+			@Nullable IModelCopyManager copyManager, @Nullable String idPrefix) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(modelStore, "Model Store can not be null");
+		Objects.requireNonNull(mutations, "Mutations can not be null");
+		List<PropertyMutation> storedMutations = new ArrayList<>();
+		for (PropertyMutation mutation:mutations) {
+			String objectUri = mutation.getObjectUri();
+			PropertyDescriptor propertyDescriptor = mutation.getPropertyDescriptor();
+			switch (mutation.getOperation()) {
+				case SET_VALUE:
+					if (mutation.getValue() instanceof Collection) {
+						storedMutations.add(PropertyMutation.clearValueCollection(objectUri, propertyDescriptor));
+						for (Object value:(Collection<?>)mutation.getValue()) {
+							storedMutations.add(PropertyMutation.addValueToCollection(objectUri, propertyDescriptor,
+									modelObjectToStoredObject(value, modelStore, copyManager, idPrefix)));
+						}
+					} else {
+						storedMutations.add(PropertyMutation.setValue(objectUri, propertyDescriptor,
+								modelObjectToStoredObject(mutation.getValue(), modelStore, copyManager, idPrefix)));
+					}
+					break;
+				case ADD_TO_COLLECTION:
+					storedMutations.add(PropertyMutation.addValueToCollection(objectUri, propertyDescriptor,
+							modelObjectToStoredObject(mutation.getValue(), modelStore, copyManager, idPrefix)));
+					break;
+				case REMOVE_FROM_COLLECTION:
+					storedMutations.add(PropertyMutation.removeValueFromCollection(objectUri, propertyDescriptor,
+							modelObjectToStoredObject(mutation.getValue(), modelStore, null, null)));
+					break;
+				default: storedMutations.add(mutation);	// no value to convert
+			}
+		}
+		modelStore.applyMutations(storedMutations);
+	}
+	
 	/**
 	 * Converts any typed value or IndividualValue objects to a ModelObject,
 	 * returning an existing ModelObject if it exists or creates a new ModelObject
@@ -213,8 +323,14 @@ public class ModelObjectHelper {
 			CoreModelObject mValue = (CoreModelObject)value;
 			if (!mValue.getModelStore().equals(modelStore)) {
 				if (Objects.nonNull(copyManager)) {
-					return copyManager.copy(modelStore, mValue.getModelStore(), mValue.getObjectUri(), 
-							mValue.getSpecVersion(), idPrefix);
+					IOperationEvent event = OperationEvents.begin(Operation.COPY, mValue.getObjectUri(),
+							mValue.getType(), mValue.getSpecVersion(), null);
+					try {
+						return copyManager.copy(modelStore, mValue.getModelStore(), mValue.getObjectUri(), 
+								mValue.getSpecVersion(), idPrefix);
+					} finally {
+						event.commit();
+					}
 				} else {
 					throw new SpdxObjectNotInStoreException("Can not set a property value to a Model Object stored in a different model store");
 				}
@@ -297,6 +413,12 @@ public class ModelObjectHelper {
 	 * @param warningPrefix String to prefix any warning messages
 	 */
 	public static List<String> verifyCollection(Collection<? extends CoreModelObject> collection, String warningPrefix, Set<String> verifiedIds, String specVersion) {
+		if (verifiedIds instanceof ParallelVerifiedIds) {
+			return ((ParallelVerifiedIds)verifiedIds).verifyCollection(collection, warningPrefix, specVersion);
+		}
+		if (verifiedIds instanceof VerificationCache.RecordingVerifiedIds) {
+			return ((VerificationCache.RecordingVerifiedIds)verifiedIds).verifyCollection(collection, warningPrefix, specVersion);
+		}
 		List<String> retval = new ArrayList<>();
 		for (CoreModelObject mo:collection) {
 			for (String warning:mo.verify(verifiedIds, specVersion)) {
@@ -0,0 +1,213 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bounded cache of inflated model objects for a single model store
+ * <p>
+ * Used by <code>ModelRegistry.inflateModelObject</code> so that repeated traversals of the same
+ * graph reuse model object instances rather than constructing new ones.  Instances are held through
+ * soft references and the least recently used instances are evicted once the maximum size is reached.
+ * <p>
+ * NOTE: Cached instances are shared - any state set on a model object instance (e.g. <code>setStrict</code>)
+ * is visible to all users of the instance.  Property values returned by a non-strict model object are separate
+ * non-strict instances so that the shared instances remain strict.  If objects are deleted from the model store, <code>invalidate</code>
+ * or <code>clear</code> must be called since a cached instance does not re-check the store.
+ *
+ * @author Gary O'Neall
+ */
+public class ModelObjectIdentityMap {
+
+	/**
+	 * Default maximum number of cached model objects
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final int NUM_SEGMENTS = 16;
+
+	/**
+	 * Supplies a new model object on a cache miss
+	 */
+	@FunctionalInterface
+	interface ModelObjectSupplier {
+		CoreModelObject get() throws InvalidSPDXAnalysisException;
+	}
+
+	/**
+	 * Identifies an inflated model object - all parameters which influence the inflated instance are included
+	 */
+	static final class Key {
+		final String objectUri;
+		final String type;
+		final String specVersion;
+		final IModelCopyManager copyManager;
+		final String idPrefix;
+		final int hash;
+
+		Key(String objectUri, String type, String specVersion,
+				@Nullable IModelCopyManager copyManager, @Nullable String idPrefix) {
+			this.objectUri = objectUri;
+			this.type = type;
+			this.specVersion = specVersion;
+			this.copyManager = copyManager;
+			this.idPrefix = idPrefix;
+			this.hash = Objects.hash(objectUri, type, specVersion, System.identityHashCode(copyManager), idPrefix);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key compare = (Key)o;
+			return hash == compare.hash && objectUri.equals(compare.objectUri) && type.equals(compare.type) &&
+					specVersion.equals(compare.specVersion) && copyManager == compare.copyManager &&
+					Objects.equals(idPrefix, compare.idPrefix);
+		}
+	}
+
+	/**
+	 * Access ordered map which removes the eldest entry once the maximum size is exceeded
+	 */
+	@SuppressWarnings("serial")
+	private static final class Segment extends LinkedHashMap<Key, SoftReference<CoreModelObject>> {
+		private final int maxSize;
+
+		Segment(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<CoreModelObject>> eldest) {
+			return size() > maxSize;
+		}
+	}
+
+	private final Segment[] segments;
+
+	/**
+	 * Create an identity map with the default maximum size
+	 */
+	public ModelObjectIdentityMap() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize maximum number of model objects to retain
+	 */
+	public ModelObjectIdentityMap(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be greater than zero");
+		}
+		int numSegments = Math.min(NUM_SEGMENTS, maxSize);
+		int segmentSize = maxSize / numSegments;	// never exceed the maximum size in total
+		segments = new Segment[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	/**
+	 * @param objectUri URI of the object
+	 * @return the segment containing all entries for the object URI
+	 */
+	private Segment segmentFor(String objectUri) {
+		int hash = objectUri.hashCode();
+		return segments[((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % segments.length];
+	}
+
+	/**
+	 * Return the cached model object for the key, inflating and caching a new model object if not present
+	 * <p>
+	 * The supplier is called outside of any lock, so two threads may inflate the same object concurrently.
+	 * In that case the first instance cached is returned to both.
+	 * @param key key for the model object
+	 * @param supplier supplies the model object if it is not cached
+	 * @return the cached or newly inflated model object
+	 * @throws InvalidSPDXAnalysisException on errors inflating the model object
+	 */
+	CoreModelObject get(Key key, ModelObjectSupplier supplier) throws InvalidSPDXAnalysisException {
+		Segment segment = segmentFor(key.objectUri);
+		synchronized (segment) {
+			SoftReference<CoreModelObject> ref = segment.get(key);
+			if (Objects.nonNull(ref)) {
+				CoreModelObject cached = ref.get();
+				if (Objects.nonNull(cached)) {
+					return cached;
+				}
+				segment.remove(key);
+			}
+		}
+		CoreModelObject inflated = supplier.get();
+		synchronized (segment) {
+			SoftReference<CoreModelObject> ref = segment.get(key);
+			CoreModelObject cached = Objects.isNull(ref) ? null : ref.get();
+			if (Objects.nonNull(cached)) {
+				return cached;
+			}
+			segment.put(key, new SoftReference<>(inflated));
+			return inflated;
+		}
+	}
+
+	/**
+	 * Remove all cached model objects for an object URI - must be called if the object is deleted from the store
+	 * @param objectUri URI of the object
+	 */
+	public void invalidate(String objectUri) {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		Segment segment = segmentFor(objectUri);
+		synchronized (segment) {
+			Iterator<Key> iter = segment.keySet().iterator();
+			while (iter.hasNext()) {
+				if (objectUri.equals(iter.next().objectUri)) {
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached model objects
+	 */
+	public void clear() {
+		for (Segment segment:segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of cached entries including any entries whose model object has been garbage collected
+	 */
+	public int size() {
+		int retval = 0;
+		for (Segment segment:segments) {
+			synchronized (segment) {
+				retval += segment.size();
+			}
+		}
+		return retval;
+	}
+}
@@ -8,14 +8,16 @@ package org.spdx.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Optional;
 
 import javax.annotation.Nullable;
 
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.Operation;
 import org.spdx.storage.IModelStore;
 
 /**
@@ -23,6 +25,10 @@ import org.spdx.storage.IModelStore;
  * <p>
  * Each model version implements a model interface <code>ISpdxModelInfo</code> which 
  * supports inflating an SPDX type specific to that version
+ * <p>
+ * The registered models are published as an immutable snapshot so that lookups do not take any lock.
+ * Registering a model replaces the snapshot.  The URI to enum and type to class maps of a model are
+ * copied when the model is registered.
  * 
  * @author Gary O'Neall
  */
@@ -35,9 +41,34 @@ public class ModelRegistry {
 	private static final String DOES_NOT_EXIST_MSG = " does not exist";
 	
 	private static final ModelRegistry _instance = new ModelRegistry();
-	private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	/**
+	 * Precomputed lookups for a single spec version
+	 */
+	private static final class SpecVersionModel {
+		final ISpdxModelInfo modelInfo;
+		final Map<String, Enum<?>> uriToEnum;
+		final Map<String, Class<?>> typeToClass;
+		
+		SpecVersionModel(ISpdxModelInfo modelInfo) {
+			this.modelInfo = modelInfo;
+			Map<String, Enum<?>> enums = modelInfo.getUriToEnumMap();
+			this.uriToEnum = Objects.isNull(enums) ? Collections.emptyMap() : new HashMap<>(enums);
+			Map<String, Class<?>> classes = modelInfo.getTypeToClassMap();
+			this.typeToClass = Objects.isNull(classes) ? Collections.emptyMap() : new HashMap<>(classes);
+		}
+	}
 
-	private final Map<String, ISpdxModelInfo> registeredModels = new HashMap<>();
+	/**
+	 * Registered models keyed by spec version - replaced rather than modified so that it can be read without a lock
+	 */
+	private volatile Map<String, SpecVersionModel> registeredModels = Collections.emptyMap();
+	
+	/**
+	 * Identity maps for model stores which have enabled caching of inflated model objects - 
+	 * replaced rather than modified so that it can be read without a lock
+	 */
+	private volatile Map<IModelStore, ModelObjectIdentityMap> identityMaps = Collections.emptyMap();
 	
 	/**
 	 * Private constructor - singleton class
@@ -62,15 +93,26 @@ public class ModelRegistry {
 	 *
 	 * @param modelInfo The model information to register
 	 */
-	public void registerModel(ISpdxModelInfo modelInfo) {
-		lock.writeLock().lock();
-		try {
-			for (String specVersion:modelInfo.getSpecVersions()) {
-				registeredModels.put(specVersion, modelInfo);
-			}
-		} finally {
-			lock.writeLock().unlock();
+	public synchronized void registerModel(ISpdxModelInfo modelInfo) {
+		Map<String, SpecVersionModel> newRegisteredModels = new HashMap<>(registeredModels);
+		SpecVersionModel specVersionModel = new SpecVersionModel(modelInfo);
+		for (String specVersion:modelInfo.getSpecVersions()) {
+			newRegisteredModels.put(specVersion, specVersionModel);
+		}
+		registeredModels = Collections.unmodifiableMap(newRegisteredModels);
+	}
+	
+	/**
+	 * @param specVersion version of the SPDX spec
+	 * @return the registered model for the spec version
+	 * @throws ModelRegistryException if the spec version is not registered
+	 */
+	private SpecVersionModel getSpecVersionModel(String specVersion) throws ModelRegistryException {
+		SpecVersionModel retval = registeredModels.get(specVersion);
+		if (Objects.isNull(retval)) {
+			throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
 		}
+		return retval;
 	}
 
 	/**
@@ -80,12 +122,7 @@ public class ModelRegistry {
 	 * @return {@code true} if the specified specVersion is supported, {@code false} otherwise.
 	 */
 	public boolean containsSpecVersion(String specVersion) {
-		lock.readLock().lock();
-		try {
-			return registeredModels.containsKey(specVersion);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return registeredModels.containsKey(specVersion);
 	}
 
 	/**
@@ -99,15 +136,7 @@ public class ModelRegistry {
 	public @Nullable Enum<?> uriToEnum(String uri, String specVersion) throws ModelRegistryException {
 		Objects.requireNonNull(specVersion, SPEC_VERSION_NULL_MSG);
 		Objects.requireNonNull(uri, URI_NULL_MSG);
-		lock.readLock().lock();
-		try {
-			if (!containsSpecVersion(specVersion)) {
-				throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
-			}
-			return registeredModels.get(specVersion).getUriToEnumMap().get(uri);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return getSpecVersionModel(specVersion).uriToEnum.get(uri);
 	}
 
 	/**
@@ -125,16 +154,8 @@ public class ModelRegistry {
 		Objects.requireNonNull(specVersion, SPEC_VERSION_NULL_MSG);
 		Objects.requireNonNull(uri, URI_NULL_MSG);
 		Objects.requireNonNull(store, STORE_NULL_MSG);
-		lock.readLock().lock();
-		try {
-			if (!containsSpecVersion(specVersion)) {
-				throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
-			}
-			return registeredModels.get(specVersion).createExternalElement(store, uri, copyManager, 
-					type, specVersion);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return getSpecVersionModel(specVersion).modelInfo.createExternalElement(store, uri, copyManager, 
+				type, specVersion);
 	}
 
 	/**
@@ -147,15 +168,7 @@ public class ModelRegistry {
 	public Object uriToIndividual(String individualUri, String specVersion, @Nullable Class<?> type) throws ModelRegistryException {
 		Objects.requireNonNull(specVersion, SPEC_VERSION_NULL_MSG);
 		Objects.requireNonNull(individualUri, "individualURI must not be null");
-		lock.readLock().lock();
-		try {
-			if (!containsSpecVersion(specVersion)) {
-				throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
-			}
-			return registeredModels.get(specVersion).uriToIndividual(individualUri, type);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return getSpecVersionModel(specVersion).modelInfo.uriToIndividual(individualUri, type);
 	}
 
 	/**
@@ -179,17 +192,83 @@ public class ModelRegistry {
 		Objects.requireNonNull(objectUri, URI_NULL_MSG);
 		Objects.requireNonNull(modelStore, STORE_NULL_MSG);
 		Objects.requireNonNull(type, TYPE_NULL_MSG);
-		lock.readLock().lock();
+		IOperationEvent event = OperationEvents.begin(Operation.INFLATE_MODEL_OBJECT, objectUri, type, specVersion, null);
 		try {
-			if (!containsSpecVersion(specVersion)) {
-				throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
+			ModelObjectIdentityMap identityMap = identityMaps.get(modelStore);
+			if (Objects.nonNull(identityMap)) {
+				return identityMap.get(new ModelObjectIdentityMap.Key(objectUri, type, specVersion, copyManager, idPrefix),
+						() -> createModelObject(modelStore, objectUri, type, copyManager, specVersion, create, idPrefix));
 			}
-			return registeredModels.get(specVersion).createModelObject(modelStore, objectUri, 
-					type, copyManager, specVersion, create, idPrefix);
+			return createModelObject(modelStore, objectUri, type, copyManager, specVersion, create, idPrefix);
 		} finally {
-			lock.readLock().unlock();
+			event.commit();
 		}
 	}
+	
+	/**
+	 * Create a new model object instance using the registered model for the spec version - the instance is
+	 * not shared through any identity map
+	 * @param modelStore store to use for the inflated object
+	 * @param objectUri URI of the external element
+	 * @param type Type of the object to create
+	 * @param copyManager if non-null, implicitly copy any referenced properties from other model stores
+	 * @param specVersion version of the SPDX spec the object complies with
+	 * @param create if true, create the model object ONLY if it does not already exist
+	 * @param idPrefix optional prefix used for any new object URI's created in support of this model object
+	 * @return model object of type type
+	 * @throws InvalidSPDXAnalysisException on any SPDX related exception
+	 */
+	CoreModelObject createModelObject(IModelStore modelStore, String objectUri, 
+			String type, IModelCopyManager copyManager,
+			String specVersion, boolean create, String idPrefix) throws InvalidSPDXAnalysisException {
+		return getSpecVersionModel(specVersion).modelInfo.createModelObject(modelStore, objectUri, 
+				type, copyManager, specVersion, create, idPrefix);
+	}
+	
+	/**
+	 * Enable caching of inflated model objects for a model store
+	 * <p>
+	 * Once enabled, <code>inflateModelObject</code> returns the same instance for repeated requests
+	 * for the same object.  The registry holds a reference to the model store until
+	 * <code>disableIdentityMap</code> is called.  See <code>ModelObjectIdentityMap</code> for the
+	 * restrictions on shared instances.
+	 * @param modelStore model store to cache inflated model objects for
+	 * @param maxSize maximum number of model objects to cache
+	 * @return the identity map for the model store - if already enabled, the existing identity map is returned
+	 */
+	public synchronized ModelObjectIdentityMap enableIdentityMap(IModelStore modelStore, int maxSize) {
+		Objects.requireNonNull(modelStore, STORE_NULL_MSG);
+		ModelObjectIdentityMap existing = identityMaps.get(modelStore);
+		if (Objects.nonNull(existing)) {
+			return existing;
+		}
+		ModelObjectIdentityMap identityMap = new ModelObjectIdentityMap(maxSize);
+		Map<IModelStore, ModelObjectIdentityMap> newIdentityMaps = new IdentityHashMap<>(identityMaps);
+		newIdentityMaps.put(modelStore, identityMap);
+		identityMaps = newIdentityMaps;
+		return identityMap;
+	}
+	
+	/**
+	 * Disable caching of inflated model objects for a model store and release the cached objects
+	 * @param modelStore model store
+	 */
+	public synchronized void disableIdentityMap(IModelStore modelStore) {
+		Objects.requireNonNull(modelStore, STORE_NULL_MSG);
+		if (identityMaps.containsKey(modelStore)) {
+			Map<IModelStore, ModelObjectIdentityMap> newIdentityMaps = new IdentityHashMap<>(identityMaps);
+			newIdentityMaps.remove(modelStore).clear();
+			identityMaps = newIdentityMaps;
+		}
+	}
+	
+	/**
+	 * @param modelStore model store
+	 * @return the identity map for the model store if caching of inflated model objects is enabled
+	 */
+	public Optional<ModelObjectIdentityMap> getIdentityMap(IModelStore modelStore) {
+		return Optional.ofNullable(identityMaps.get(modelStore));
+	}
 
 	/**
 	 * @param type String representation of the SPDX type
@@ -200,27 +279,20 @@ public class ModelRegistry {
 	public @Nullable Class<?> typeToClass(String type, String specVersion) throws ModelRegistryException {
 		Objects.requireNonNull(type, TYPE_NULL_MSG);
 		Objects.requireNonNull(specVersion, SPEC_VERSION_NULL_MSG);
-		lock.readLock().lock();
-		try {
-			if (!registeredModels.containsKey(specVersion)) {
-				throw new ModelRegistryException("No implementation found for SPDX spec version "+specVersion);
-			}
-			return registeredModels.get(specVersion).getTypeToClassMap().get(type);
-		} finally {
-			lock.readLock().unlock();
+		SpecVersionModel specVersionModel = registeredModels.get(specVersion);
+		if (Objects.isNull(specVersionModel)) {
+			throw new ModelRegistryException("No implementation found for SPDX spec version "+specVersion);
 		}
+		return specVersionModel.typeToClass.get(type);
 	}
 
 	/**
 	 * Removes all the registered models - should only be used in testing
 	 */
-	public void clearAll() {
-		lock.writeLock().lock();
-		try {
-			registeredModels.clear();
-		} finally {
-			lock.writeLock().unlock();
-		}
+	public synchronized void clearAll() {
+		registeredModels = Collections.emptyMap();
+		identityMaps.values().forEach(ModelObjectIdentityMap::clear);
+		identityMaps = Collections.emptyMap();
 	}
 
 	/**
@@ -247,14 +319,6 @@ public class ModelRegistry {
 		if (Objects.isNull(clazz)) {
 			return false;
 		}
-		lock.readLock().lock();
-		try {
-			if (!containsSpecVersion(specVersion)) {
-				throw new ModelRegistryException(specVersion + DOES_NOT_EXIST_MSG);
-			}
-			return registeredModels.get(specVersion).canBeExternal(clazz);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return getSpecVersionModel(specVersion).modelInfo.canBeExternal(clazz);
 	}
 }
@@ -0,0 +1,144 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Events recording the duration of SPDX operations in Java Flight Recorder recordings
+ * <p>
+ * The JFR event classes are only loaded if the <code>jdk.jfr</code> module is available, so this class can be
+ * used on any Java runtime - when JFR is not available or an event type is not enabled in the recording, beginning
+ * an event returns a shared event which does nothing.
+ * <p>
+ * The events for the frequent <code>INFLATE_MODEL_OBJECT</code> and <code>GET_PROPERTY_VALUE</code> operations are
+ * disabled by default and all events have a default threshold of 10 ms, so they must be enabled in the recording
+ * settings to record every operation.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * OperationEvents.IOperationEvent event = OperationEvents.begin(Operation.VERIFY, objectUri, type, specVersion, null);
+ * try {
+ *     ...
+ * } finally {
+ *     event.commit();
+ * }
+ * </pre>
+ *
+ * @author Gary O'Neall
+ */
+public final class OperationEvents {
+
+	static final Logger logger = LoggerFactory.getLogger(OperationEvents.class);
+
+	/**
+	 * Operations recorded as events
+	 */
+	public enum Operation {
+		INFLATE_MODEL_OBJECT,
+		COPY,
+		VERIFY,
+		EQUIVALENT,
+		GET_PROPERTY_VALUE,
+		LICENSE_TEXT_COMPARE
+	}
+
+	/**
+	 * An operation which has begun
+	 */
+	@FunctionalInterface
+	public interface IOperationEvent {
+		/**
+		 * Record the end of the operation - must be called once for each event
+		 */
+		void commit();
+	}
+
+	/**
+	 * Creates the events for a recording implementation
+	 */
+	interface IOperationEventFactory {
+		/**
+		 * @return true if events for the operation are recorded
+		 */
+		boolean isEnabled(Operation operation);
+
+		/**
+		 * @return an event which has begun
+		 */
+		IOperationEvent begin(Operation operation, @Nullable String objectUri, @Nullable String type,
+				@Nullable String specVersion, @Nullable String detail);
+	}
+
+	/**
+	 * Event returned when operations are not recorded - may be used by callers to avoid computing the event details
+	 * when <code>isEnabled</code> is false
+	 */
+	public static final IOperationEvent NO_EVENT = () -> {
+		// nothing recorded
+	};
+
+	private static final String JFR_EVENT_CLASS = "jdk.jfr.Event";
+	private static final String JFR_FACTORY_CLASS = "org.spdx.core.JfrOperationEvents";
+
+	private static final IOperationEventFactory FACTORY = loadFactory();
+
+	private OperationEvents() {
+		// static class
+	}
+
+	/**
+	 * @return the JFR event factory or null if JFR is not available
+	 */
+	private static IOperationEventFactory loadFactory() {
+		try {
+			Class.forName(JFR_EVENT_CLASS, false, OperationEvents.class.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;	// JFR not available on this runtime
+		}
+		try {
+			return (IOperationEventFactory)Class.forName(JFR_FACTORY_CLASS).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			logger.warn("Unable to load JFR events - operations will not be recorded", e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if the operations can be recorded by Java Flight Recorder
+	 */
+	public static boolean isAvailable() {
+		return FACTORY != null;
+	}
+
+	/**
+	 * @param operation operation
+	 * @return true if events for the operation are currently being recorded
+	 */
+	public static boolean isEnabled(Operation operation) {
+		return FACTORY != null && FACTORY.isEnabled(operation);
+	}
+
+	/**
+	 * Begin an event for an operation
+	 * @param operation operation
+	 * @param objectUri URI of the object the operation is for
+	 * @param type type of the object
+	 * @param specVersion spec version of the object
+	 * @param detail additional information about the operation (e.g. the property name)
+	 * @return the event - <code>commit</code> must be called when the operation completes
+	 */
+	public static IOperationEvent begin(Operation operation, @Nullable String objectUri, @Nullable String type,
+			@Nullable String specVersion, @Nullable String detail) {
+		if (FACTORY == null) {
+			return NO_EVENT;
+		}
+		return FACTORY.begin(operation, objectUri, type, specVersion, detail);
+	}
+}
@@ -0,0 +1,393 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Set of verified IDs used to verify a model object graph in parallel
+ * <p>
+ * When passed as the <code>verifiedIds</code> parameter to <code>CoreModelObject.verify</code>,
+ * <code>verifyCollection</code> verifies the members of each collection as separate fork/join
+ * tasks in the pool associated with this set.
+ * <p>
+ * All tasks share a single concurrent map of verified IDs, so an object reachable from many collection members
+ * (e.g. a shared CreationInfo) is normally verified only once.  Each ID is owned by the verification which comes
+ * first in the order of a single threaded <code>verify</code> - if a member reaches an object already verified
+ * by a later member, it takes over the object and verifies it itself.  Once all members of a collection have
+ * completed, the results are merged in collection order and only a member whose objects were taken over, or which
+ * skipped an object no earlier verification has kept, is verified again.  The warnings are therefore the same,
+ * in the same order, as a single threaded <code>verify</code>.
+ * <p>
+ * A set is only used by one task at a time - the tasks for the members of a collection each have their own set.
+ *
+ * @author Gary O'Neall
+ */
+public class ParallelVerifiedIds extends AbstractSet<String> {
+
+	/**
+	 * Collections with fewer members than this are verified in the calling thread
+	 */
+	public static final int MIN_PARALLEL_COLLECTION_SIZE = 2;
+
+	/**
+	 * Position of a verification in the order of a single threaded verification
+	 * <p>
+	 * Positions are compared by their path of collection member indexes.  A member which is verified again has a
+	 * new position with the same path, so the IDs owned by the earlier attempt can be distinguished.
+	 */
+	private static final class Position {
+		private final Position parent;
+		private final int[] path;
+
+		Position() {
+			this.parent = null;
+			this.path = new int[0];
+		}
+
+		Position(Position parent, int index) {
+			this.parent = parent;
+			this.path = new int[parent.path.length + 1];
+			System.arraycopy(parent.path, 0, path, 0, parent.path.length);
+			path[parent.path.length] = index;
+		}
+
+		/**
+		 * @param ancestor position
+		 * @return true if this position is the ancestor or is a member verified within the ancestor
+		 */
+		boolean isWithin(Position ancestor) {
+			for (Position position = this; Objects.nonNull(position); position = position.parent) {
+				if (position == ancestor) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @param other position
+		 * @return true if this position comes before the other position in a single threaded verification - an
+		 * enclosing position comes before the positions of its members
+		 */
+		boolean isBefore(Position other) {
+			int length = Math.min(path.length, other.path.length);
+			for (int i = 0; i < length; i++) {
+				if (path[i] != other.path[i]) {
+					return path[i] < other.path[i];
+				}
+			}
+			return path.length < other.path.length;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final ConcurrentHashMap<String, Position> owners;
+	private final Position position;
+	private final AtomicLong retries;
+	/**
+	 * IDs verified by this set including those verified by collection members merged into this set
+	 */
+	private final Set<String> claimedIds = new HashSet<>();
+	/**
+	 * IDs found to be verified by an earlier verification outside of this set
+	 */
+	private final Set<String> reachedIds = new HashSet<>();
+	/**
+	 * IDs checked for and not found
+	 */
+	private final Set<String> missingIds = new HashSet<>();
+
+	/**
+	 * @param pool pool used to verify collection members
+	 */
+	public ParallelVerifiedIds(ForkJoinPool pool) {
+		this(pool, new ConcurrentHashMap<>(), new Position(), new AtomicLong(0));
+	}
+
+	/**
+	 * @param pool pool used to verify collection members
+	 * @param owners position owning each verified ID - shared by all sets for the same verification
+	 * @param position position of the verification using this set
+	 * @param retries number of collection members verified again - shared by all sets for the same verification
+	 */
+	private ParallelVerifiedIds(ForkJoinPool pool, ConcurrentHashMap<String, Position> owners, Position position,
+			AtomicLong retries) {
+		Objects.requireNonNull(pool, "Pool can not be null");
+		this.pool = pool;
+		this.owners = owners;
+		this.position = position;
+		this.retries = retries;
+	}
+
+	/**
+	 * Verify a model object and everything it references using the pool
+	 * @param modelObject model object to verify
+	 * @param specVersion version of the SPDX specification to verify against
+	 * @param pool pool to run the verification in
+	 * @return verification warnings - the same as a single threaded verification
+	 */
+	public static List<String> verify(CoreModelObject modelObject, String specVersion, ForkJoinPool pool) {
+		Objects.requireNonNull(modelObject, "Model object can not be null");
+		ParallelVerifiedIds verifiedIds = new ParallelVerifiedIds(pool);
+		return new ArrayList<>(pool.invoke(new VerifyTask(modelObject, verifiedIds, specVersion)));
+	}
+
+	/**
+	 * Verifies a single model object
+	 */
+	@SuppressWarnings("serial")
+	private static final class VerifyTask extends RecursiveTask<List<String>> {
+		private final CoreModelObject modelObject;
+		private final ParallelVerifiedIds verifiedIds;
+		private final String specVersion;
+
+		VerifyTask(CoreModelObject modelObject, ParallelVerifiedIds verifiedIds, String specVersion) {
+			this.modelObject = modelObject;
+			this.verifiedIds = verifiedIds;
+			this.specVersion = specVersion;
+		}
+
+		@Override
+		protected List<String> compute() {
+			return modelObject.verify(verifiedIds, specVersion);
+		}
+	}
+
+	/**
+	 * Verifies all elements in a collection, each element as a separate task
+	 * @param collection collection to be verified
+	 * @param warningPrefix String to prefix any warning messages
+	 * @param specVersion version of the SPDX specification to verify against
+	 * @return warnings for the collection members in collection order
+	 */
+	List<String> verifyCollection(Collection<? extends CoreModelObject> collection, String warningPrefix, String specVersion) {
+		List<String> retval = new ArrayList<>();
+		if (collection.size() < MIN_PARALLEL_COLLECTION_SIZE) {
+			for (CoreModelObject mo:collection) {
+				addWarnings(retval, mo.verify(this, specVersion), warningPrefix);
+			}
+			return retval;
+		}
+		List<VerifyTask> tasks = new ArrayList<>();
+		for (CoreModelObject mo:collection) {
+			tasks.add(new VerifyTask(mo, new ParallelVerifiedIds(pool, owners,
+					new Position(position, tasks.size()), retries), specVersion));
+		}
+		if (ForkJoinTask.getPool() == pool) {
+			forkInOrder(tasks);
+		} else {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					forkInOrder(tasks);
+					for (VerifyTask task:tasks) {
+						task.join();
+					}
+				}
+			});
+		}
+		// merge in collection order, verifying again any member which conflicts with an earlier member
+		for (int i = 0; i < tasks.size(); i++) {
+			VerifyTask task = tasks.get(i);
+			List<String> warnings = task.join();
+			ParallelVerifiedIds memberIds = task.verifiedIds;
+			if (!memberIds.isConsistent()) {
+				memberIds.release();
+				memberIds = new ParallelVerifiedIds(pool, owners, new Position(position, i), retries);
+				retries.incrementAndGet();
+				warnings = task.modelObject.verify(memberIds, specVersion);
+			}
+			claimedIds.addAll(memberIds.claimedIds);
+			reachedIds.addAll(memberIds.reachedIds);
+			missingIds.addAll(memberIds.missingIds);
+			addWarnings(retval, warnings, warningPrefix);
+		}
+		return retval;
+	}
+
+	/**
+	 * Fork the tasks in collection order so that idle workers take the earliest members first, verifying the first
+	 * member in the calling thread
+	 * @param tasks tasks for the collection members
+	 */
+	private static void forkInOrder(List<VerifyTask> tasks) {
+		for (int i = 1; i < tasks.size(); i++) {
+			tasks.get(i).fork();
+		}
+		tasks.get(0).invoke();
+	}
+
+	/**
+	 * @return true if the IDs verified and skipped by this set are the same as for a single threaded verification
+	 * in which all earlier verifications have completed
+	 */
+	private boolean isConsistent() {
+		for (String id:claimedIds) {
+			Position owner = owners.get(id);
+			if (Objects.isNull(owner) || !owner.isWithin(position)) {
+				return false;	// taken over by an earlier verification
+			}
+		}
+		for (String id:reachedIds) {
+			Position owner = owners.get(id);
+			if (Objects.isNull(owner) || !isVerifiedBy(owner)) {
+				return false;	// the earlier verification was itself verified again without this ID
+			}
+		}
+		for (String id:missingIds) {
+			Position owner = owners.get(id);
+			if (Objects.nonNull(owner) && !owner.isWithin(position) && owner.isBefore(position)) {
+				return false;	// verified by an earlier verification after it was checked for
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Remove ownership of all IDs verified by this set so that they can be verified again
+	 */
+	private void release() {
+		for (String id:claimedIds) {
+			owners.computeIfPresent(id, (key, owner) -> owner.isWithin(position) ? null : owner);
+		}
+	}
+
+	private static void addWarnings(List<String> retval, List<String> warnings, @Nullable String warningPrefix) {
+		for (String warning:warnings) {
+			if (Objects.nonNull(warningPrefix)) {
+				retval.add(warningPrefix + warning);
+			} else {
+				retval.add(warning);
+			}
+		}
+	}
+
+	/**
+	 * @return the pool used to verify collection members
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return number of collection members which were verified again since they conflicted with an earlier member
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+	/**
+	 * @param owner position owning an ID
+	 * @return true if the ID is treated as verified by this set
+	 */
+	private boolean isVerifiedBy(Position owner) {
+		return owner.isWithin(position) || owner.isBefore(position);
+	}
+
+	@Override
+	public boolean add(String id) {
+		while (true) {
+			Position owner = owners.get(id);
+			if (Objects.isNull(owner)) {
+				if (Objects.isNull(owners.putIfAbsent(id, position))) {
+					claimedIds.add(id);
+					return true;
+				}
+			} else if (isVerifiedBy(owner)) {
+				if (!owner.isWithin(position)) {
+					reachedIds.add(id);
+				}
+				return false;
+			} else if (owners.replace(id, owner, position)) {
+				// verified by a later verification - this verification comes first so takes it over
+				claimedIds.add(id);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Only removes IDs verified through this set
+	 */
+	@Override
+	public boolean remove(Object id) {
+		if (id instanceof String && owners.remove(id, position)) {
+			claimedIds.remove(id);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(Object id) {
+		if (!(id instanceof String)) {
+			return false;
+		}
+		Position owner = owners.get(id);
+		if (Objects.nonNull(owner) && isVerifiedBy(owner)) {
+			if (!owner.isWithin(position)) {
+				reachedIds.add((String)id);
+			}
+			return true;
+		}
+		missingIds.add((String)id);
+		return false;
+	}
+
+	/**
+	 * @return all IDs treated as verified by this set
+	 */
+	private Set<String> allIds() {
+		Set<String> retval = new HashSet<>();
+		for (Map.Entry<String, Position> entry:owners.entrySet()) {
+			if (isVerifiedBy(entry.getValue())) {
+				retval.add(entry.getKey());
+			}
+		}
+		return retval;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return Collections.unmodifiableSet(allIds()).iterator();
+	}
+
+	@Override
+	public int size() {
+		return allIds().size();
+	}
+
+	/**
+	 * Only clears IDs verified through this set
+	 */
+	@Override
+	public void clear() {
+		release();
+		claimedIds.clear();
+		reachedIds.clear();
+		missingIds.clear();
+	}
+}
@@ -0,0 +1,278 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spdx.storage.IModelStore;
+
+/**
+ * Cache of verification results for model objects in a single model store
+ * <p>
+ * Results are cached for each object verified through <code>verify</code> and for each collection member
+ * verified through <code>verifyCollection</code>.  A result records the modification stamp of every
+ * object ID referenced while the result was computed (see <code>IModelStore.getModificationStamp</code>) and
+ * is reused only while none of those stamps have changed.  Objects in stores which do not track modifications
+ * are never cached.
+ * <p>
+ * Results are cached per object and do not include any prefix added by an enclosing <code>verifyCollection</code> -
+ * the prefix is added when the result is reused.  The warnings for an object depend on which objects were already
+ * verified earlier in the same run (shared objects, such as a CreationInfo referenced by every element, are only
+ * reported through the first path reaching them), so a result also records the IDs which were found to be
+ * already verified when it was computed.  A result is reused only if those IDs have been verified and none of
+ * the IDs verified by the result have been verified earlier in the current run.  This keeps the warnings
+ * identical to an uncached <code>verify</code> while the objects are reached in the same order as when the result
+ * was computed.
+ * <p>
+ * This class is safe for use by multiple threads, but a single verification run is single threaded.
+ *
+ * @author Gary O'Neall
+ */
+public class VerificationCache {
+
+	/**
+	 * Cached verification result for one object
+	 */
+	private static final class Entry {
+		final List<String> warnings;
+		final Set<String> addedIds;
+		final Set<String> assumedIds;
+		final Map<String, Long> dependencyStamps;
+
+		Entry(List<String> warnings, Set<String> addedIds, Set<String> assumedIds, Map<String, Long> dependencyStamps) {
+			this.warnings = warnings;
+			this.addedIds = addedIds;
+			this.assumedIds = assumedIds;
+			this.dependencyStamps = dependencyStamps;
+		}
+	}
+
+	/**
+	 * IDs referenced while verifying a single object
+	 */
+	private static final class Recorder {
+		final Set<String> addedIds = new HashSet<>();
+		/**
+		 * IDs found to be already verified which were not verified by the object
+		 */
+		final Set<String> assumedIds = new HashSet<>();
+		final Map<String, Long> dependencyStamps = new HashMap<>();
+		boolean cacheable = true;
+	}
+
+	/**
+	 * Verified ID set which records the IDs referenced by each object being verified
+	 */
+	static final class RecordingVerifiedIds extends AbstractSet<String> {
+		private final Set<String> verifiedIds = new HashSet<>();
+		private final Deque<Recorder> recorders = new ArrayDeque<>();
+		private final VerificationCache cache;
+
+		RecordingVerifiedIds(VerificationCache cache) {
+			this.cache = cache;
+		}
+
+		/**
+		 * Record a reference to an ID for all objects currently being verified - this includes any enclosing objects
+		 * @param id referenced ID
+		 * @param stamp modification stamp for the ID
+		 * @param added true if the ID was added to the verified IDs
+		 * @param verified true if the ID had already been verified
+		 */
+		private void record(String id, long stamp, boolean added, boolean verified) {
+			for (Recorder recorder:recorders) {
+				if (stamp < 0) {
+					recorder.cacheable = false;
+				} else {
+					recorder.dependencyStamps.putIfAbsent(id, stamp);
+				}
+				if (added) {
+					recorder.addedIds.add(id);
+				} else if (verified && !recorder.addedIds.contains(id)) {
+					// verified outside of this object - the result is only valid if it is verified again before the object
+					recorder.assumedIds.add(id);
+				}
+			}
+		}
+
+		@Override
+		public boolean add(String id) {
+			if (!recorders.isEmpty()) {
+				record(id, cache.modelStore.getModificationStamp(id), true, false);
+			}
+			return verifiedIds.add(id);
+		}
+
+		@Override
+		public boolean contains(Object id) {
+			boolean retval = verifiedIds.contains(id);
+			if (!recorders.isEmpty() && id instanceof String) {
+				record((String)id, cache.modelStore.getModificationStamp((String)id), false, retval);
+			}
+			return retval;
+		}
+
+		@Override
+		public boolean remove(Object id) {
+			return verifiedIds.remove(id);
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return verifiedIds.iterator();
+		}
+
+		@Override
+		public int size() {
+			return verifiedIds.size();
+		}
+
+		/**
+		 * Verifies all elements in a collection using cached results where still valid
+		 * @param collection collection to be verified
+		 * @param warningPrefix String to prefix any warning messages
+		 * @param specVersion version of the SPDX specification to verify against
+		 * @return warnings for the collection members in collection order
+		 */
+		List<String> verifyCollection(Collection<? extends CoreModelObject> collection, String warningPrefix, String specVersion) {
+			List<String> retval = new ArrayList<>();
+			for (CoreModelObject mo:collection) {
+				for (String warning:verifyObject(mo, specVersion)) {
+					if (Objects.nonNull(warningPrefix)) {
+						retval.add(warningPrefix + warning);
+					} else {
+						retval.add(warning);
+					}
+				}
+			}
+			return retval;
+		}
+
+		/**
+		 * @param mo model object to verify
+		 * @param specVersion version of the SPDX specification to verify against
+		 * @return cached or newly computed warnings for the model object
+		 */
+		List<String> verifyObject(CoreModelObject mo, String specVersion) {
+			// the result for an object already verified in this run is not the result for the object
+			boolean cacheable = mo.getModelStore() == cache.modelStore && !mo.isExternal() &&
+					!verifiedIds.contains(mo.getObjectUri());
+			String key = cacheable ? specVersion + " " + mo.getObjectUri() : null;
+			if (cacheable) {
+				Entry entry = cache.entries.get(key);
+				if (Objects.nonNull(entry)) {
+					if (!cache.isValid(entry)) {
+						cache.entries.remove(key, entry);
+					} else if (Collections.disjoint(entry.addedIds, verifiedIds) && verifiedIds.containsAll(entry.assumedIds)) {
+						cache.hits.incrementAndGet();
+						for (Map.Entry<String, Long> dependency:entry.dependencyStamps.entrySet()) {
+							record(dependency.getKey(), dependency.getValue(), entry.addedIds.contains(dependency.getKey()),
+									entry.assumedIds.contains(dependency.getKey()));
+						}
+						verifiedIds.addAll(entry.addedIds);
+						return entry.warnings;
+					}
+				}
+				cache.misses.incrementAndGet();
+			}
+			Recorder recorder = new Recorder();
+			recorders.push(recorder);
+			List<String> warnings;
+			try {
+				// the object itself is always a dependency
+				record(mo.getObjectUri(), cache.modelStore.getModificationStamp(mo.getObjectUri()), false, false);
+				warnings = mo.verify(this, specVersion);
+			} finally {
+				recorders.pop();
+			}
+			if (cacheable && recorder.cacheable) {
+				cache.entries.put(key, new Entry(Collections.unmodifiableList(new ArrayList<>(warnings)),
+						recorder.addedIds, recorder.assumedIds, recorder.dependencyStamps));
+			}
+			return warnings;
+		}
+	}
+
+	private final IModelStore modelStore;
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong(0);
+	private final AtomicLong misses = new AtomicLong(0);
+
+	/**
+	 * @param modelStore model store containing the objects to be verified
+	 */
+	public VerificationCache(IModelStore modelStore) {
+		Objects.requireNonNull(modelStore, "Model store can not be null");
+		this.modelStore = modelStore;
+	}
+
+	/**
+	 * @param entry cached entry
+	 * @return true if none of the objects referenced by the entry have been modified
+	 */
+	private boolean isValid(Entry entry) {
+		for (Map.Entry<String, Long> dependency:entry.dependencyStamps.entrySet()) {
+			if (modelStore.getModificationStamp(dependency.getKey()) != dependency.getValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verify a model object reusing any cached results for unchanged objects
+	 * @param modelObject model object to verify
+	 * @param specVersion version of the SPDX specification to verify against
+	 * @return verification warnings
+	 */
+	public List<String> verify(CoreModelObject modelObject, String specVersion) {
+		Objects.requireNonNull(modelObject, "Model object can not be null");
+		Objects.requireNonNull(specVersion, "Spec version can not be null");
+		return new ArrayList<>(new RecordingVerifiedIds(this).verifyObject(modelObject, specVersion));
+	}
+
+	/**
+	 * Remove all cached results
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of cached results
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return number of verifications which reused a cached result
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of verifications which could not use a cached result
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+}
@@ -0,0 +1,351 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * License template compiled for matching license text
+ * <p>
+ * The template is parsed once into a sequence of states - text, variable rules, and the begin and end of optional
+ * blocks - with the template text converted to canonical token ID's (see <code>LicenseTokenDictionary</code>) and the
+ * variable rule match expressions compiled.  Text matches the template if its tokens, excluding any tokens which
+ * can be skipped, can be consumed by the states in order where:
+ * <ul>
+ * <li>template text matches equivalent tokens (see <code>LicenseTextHelper.tokensEquivalent</code>)</li>
+ * <li>a variable rule matches any run of tokens (possibly empty) whose text, with any whitespace between the tokens
+ * replaced by a single space, fully matches the rule match expression ignoring case - note the text has been
+ * normalized (e.g. "copyright holders" is "copyright-holders", see <code>LicenseTextNormalizer</code>)</li>
+ * <li>an optional block matches either its content or nothing</li>
+ * </ul>
+ * Matching is a search over (state, token position) pairs, each of which is visited at most once, so nested
+ * optional blocks do not cause repeated work.
+ * <p>
+ * Compiled templates are immutable and may be used to match many texts concurrently.
+ *
+ * @author Gary O'Neall
+ */
+public final class CompiledLicenseTemplate {
+
+	private static final byte TEXT = 0;
+	private static final byte VARIABLE = 1;
+	private static final byte BEGIN_OPTIONAL = 2;
+	private static final byte END_OPTIONAL = 3;
+	private static final byte ACCEPT = 4;
+
+	private final LicenseTokenDictionary dictionary;
+	private final byte[] kinds;
+	/**
+	 * Canonical ID's for text states
+	 */
+	private final int[][] textIds;
+	/**
+	 * Compiled match expressions for variable states
+	 */
+	private final Pattern[] patterns;
+	/**
+	 * For begin optional states, the state following the matching end optional
+	 */
+	private final int[] skipTo;
+	/**
+	 * True if the state can consume any token first
+	 */
+	private final boolean[] firstAny;
+	/**
+	 * Canonical ID's of the tokens the state can consume first
+	 */
+	private final Set<Integer>[] firstIds;
+	/**
+	 * True if the end of the template can be reached from the state without consuming any tokens
+	 */
+	private final boolean[] canEnd;
+
+	/**
+	 * Collects the parsed template
+	 */
+	private static class TemplateCompiler implements ILicenseTemplateOutputHandler {
+		final LicenseTokenDictionary dictionary;
+		final List<Byte> kinds = new ArrayList<>();
+		final List<int[]> textIds = new ArrayList<>();
+		final List<Pattern> patterns = new ArrayList<>();
+		final List<Integer> skipTo = new ArrayList<>();
+		final Deque<Integer> openOptionals = new ArrayDeque<>();
+		LicenseTemplateRuleException error = null;
+
+		TemplateCompiler(LicenseTokenDictionary dictionary) {
+			this.dictionary = dictionary;
+		}
+
+		private int addState(byte kind, int[] ids, Pattern pattern) {
+			kinds.add(kind);
+			textIds.add(ids);
+			patterns.add(pattern);
+			skipTo.add(-1);
+			return kinds.size() - 1;
+		}
+
+		@Override
+		public void text(String text) {
+			int[] ids = dictionary.getIds(LicenseTextHelper.tokenizeLicenseText(text));
+			int count = 0;
+			for (int id:ids) {
+				if (!dictionary.isSkippable(id)) {
+					ids[count++] = dictionary.getCanonicalId(id);
+				}
+			}
+			addState(TEXT, Arrays.copyOf(ids, count), null);
+		}
+
+		@Override
+		public void variableRule(LicenseTemplateRule rule) {
+			try {
+				addState(VARIABLE, null, Pattern.compile(rule.getMatch(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL));
+			} catch (PatternSyntaxException e) {
+				if (Objects.isNull(error)) {
+					error = new LicenseTemplateRuleException("Invalid match expression for variable rule " + rule.getName(), e);
+				}
+				addState(VARIABLE, null, null);
+			}
+		}
+
+		@Override
+		public void beginOptional(LicenseTemplateRule rule) {
+			openOptionals.push(addState(BEGIN_OPTIONAL, null, null));
+		}
+
+		@Override
+		public void endOptional(LicenseTemplateRule rule) {
+			int begin = openOptionals.pop();
+			int end = addState(END_OPTIONAL, null, null);
+			skipTo.set(begin, end + 1);
+		}
+
+		@Override
+		public void completeParsing() {
+			addState(ACCEPT, null, null);
+		}
+	}
+
+	/**
+	 * Compile a license template using the global token dictionary
+	 * @param licenseTemplate license template
+	 * @return compiled template
+	 * @throws LicenseTemplateRuleException if a rule can not be parsed or a match expression is invalid
+	 * @throws LicenseParserException if the template can not be parsed
+	 */
+	public static CompiledLicenseTemplate compile(String licenseTemplate) throws LicenseTemplateRuleException, LicenseParserException {
+		return compile(licenseTemplate, LicenseTokenDictionary.getGlobalDictionary());
+	}
+
+	/**
+	 * Compile a license template
+	 * @param licenseTemplate license template
+	 * @param dictionary dictionary used to map tokens to ID's
+	 * @return compiled template
+	 * @throws LicenseTemplateRuleException if a rule can not be parsed or a match expression is invalid
+	 * @throws LicenseParserException if the template can not be parsed
+	 */
+	public static CompiledLicenseTemplate compile(String licenseTemplate, LicenseTokenDictionary dictionary) throws LicenseTemplateRuleException, LicenseParserException {
+		Objects.requireNonNull(licenseTemplate, "License template can not be null");
+		Objects.requireNonNull(dictionary, "Dictionary can not be null");
+		return compile(ParsedLicenseTemplate.parse(licenseTemplate), dictionary);
+	}
+
+	/**
+	 * Compile a parsed license template
+	 * @param parsedTemplate parsed license template
+	 * @param dictionary dictionary used to map tokens to ID's
+	 * @return compiled template
+	 * @throws LicenseTemplateRuleException if a match expression is invalid
+	 * @throws LicenseParserException if the template can not be compiled
+	 */
+	public static CompiledLicenseTemplate compile(ParsedLicenseTemplate parsedTemplate, LicenseTokenDictionary dictionary) throws LicenseTemplateRuleException, LicenseParserException {
+		Objects.requireNonNull(parsedTemplate, "Parsed template can not be null");
+		Objects.requireNonNull(dictionary, "Dictionary can not be null");
+		TemplateCompiler compiler = new TemplateCompiler(dictionary);
+		parsedTemplate.replay(compiler);
+		if (Objects.nonNull(compiler.error)) {
+			throw compiler.error;
+		}
+		return new CompiledLicenseTemplate(compiler);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private CompiledLicenseTemplate(TemplateCompiler compiler) {
+		this.dictionary = compiler.dictionary;
+		int numStates = compiler.kinds.size();
+		kinds = new byte[numStates];
+		textIds = compiler.textIds.toArray(new int[numStates][]);
+		patterns = compiler.patterns.toArray(new Pattern[numStates]);
+		skipTo = new int[numStates];
+		firstAny = new boolean[numStates];
+		firstIds = new Set[numStates];
+		canEnd = new boolean[numStates];
+		// states only lead to states with a higher index, so the first tokens can be computed in reverse order
+		for (int state = numStates - 1; state >= 0; state--) {
+			kinds[state] = compiler.kinds.get(state);
+			skipTo[state] = compiler.skipTo.get(state);
+			Set<Integer> ids = new HashSet<>();
+			switch (kinds[state]) {
+				case TEXT:
+					if (textIds[state].length > 0) {
+						ids.add(textIds[state][0]);
+					} else {
+						mergeFirst(state, state + 1, ids);
+					}
+					break;
+				case VARIABLE:
+					firstAny[state] = true;
+					mergeFirst(state, state + 1, ids);	// the variable may be empty
+					break;
+				case BEGIN_OPTIONAL:
+					mergeFirst(state, state + 1, ids);
+					mergeFirst(state, skipTo[state], ids);
+					break;
+				case END_OPTIONAL:
+					mergeFirst(state, state + 1, ids);
+					break;
+				default:
+					canEnd[state] = true;
+			}
+			firstIds[state] = ids;
+		}
+	}
+
+	/**
+	 * Add the first tokens of a following state to a state
+	 * @param state state being computed
+	 * @param following state which may follow without consuming any tokens
+	 * @param ids first token ID's for the state
+	 */
+	private void mergeFirst(int state, int following, Set<Integer> ids) {
+		firstAny[state] |= firstAny[following];
+		canEnd[state] |= canEnd[following];
+		ids.addAll(firstIds[following]);
+	}
+
+	/**
+	 * @param licenseText license text
+	 * @return true if the license text matches the template
+	 */
+	public boolean matches(String licenseText) {
+		Objects.requireNonNull(licenseText, "License text can not be null");
+		// tokenize the same as LicenseTextHelper.tokenizeLicenseText, removing the skippable tokens
+		String normalized = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		List<String> tokenList = new ArrayList<>();
+		List<Boolean> spaceList = new ArrayList<>();
+		// the text being matched is not added to the dictionary
+		LicenseTokenDictionary.TokenLookup lookup = dictionary.newLookup();
+		LicenseTokenScanner.scan(normalized, (source, start, end, line, column) -> {
+			String token = source.subSequence(start, end).toString();
+			if (!lookup.isSkippable(lookup.getId(token))) {
+				tokenList.add(token);
+				spaceList.add(start == 0 || Character.isWhitespace(source.charAt(start - 1)));
+			}
+		});
+		int numTokens = tokenList.size();
+		String[] tokens = tokenList.toArray(new String[numTokens]);
+		boolean[] spaceBefore = new boolean[numTokens];
+		int[] ids = new int[numTokens];
+		for (int i = 0; i < numTokens; i++) {
+			spaceBefore[i] = spaceList.get(i);
+			ids[i] = lookup.getCanonicalId(lookup.getId(tokens[i]));
+		}
+		// positions visited for each state - only created for states reached, since a dense array of states by
+		// positions is too large for long texts
+		BitSet[] visited = new BitSet[kinds.length];
+		Deque<int[]> pending = new ArrayDeque<>();
+		pending.push(new int[] {0, 0});
+		while (!pending.isEmpty()) {
+			int[] next = pending.pop();
+			int state = next[0];
+			int position = next[1];
+			if (Objects.isNull(visited[state])) {
+				visited[state] = new BitSet();
+			} else if (visited[state].get(position)) {
+				continue;
+			}
+			visited[state].set(position);
+			switch (kinds[state]) {
+				case TEXT:
+					int[] expected = textIds[state];
+					if (position + expected.length <= numTokens && regionMatches(ids, position, expected)) {
+						pending.push(new int[] {state + 1, position + expected.length});
+					}
+					break;
+				case VARIABLE:
+					matchVariable(state, position, tokens, spaceBefore, ids, numTokens, pending);
+					break;
+				case BEGIN_OPTIONAL:
+					pending.push(new int[] {skipTo[state], position});
+					pending.push(new int[] {state + 1, position});
+					break;
+				case END_OPTIONAL:
+					pending.push(new int[] {state + 1, position});
+					break;
+				default:
+					if (position == numTokens) {
+						return true;
+					}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the states following all runs of tokens matching a variable rule
+	 * @param state variable state
+	 * @param start position of the first token for the variable
+	 * @param tokens text tokens
+	 * @param spaceBefore true for each token preceded by whitespace in the text
+	 * @param ids canonical ID's for the text tokens
+	 * @param numTokens number of text tokens
+	 * @param pending states and positions to be matched
+	 */
+	private void matchVariable(int state, int start, String[] tokens, boolean[] spaceBefore, int[] ids, int numTokens,
+			Deque<int[]> pending) {
+		Pattern pattern = patterns[state];
+		int following = state + 1;
+		StringBuilder variableText = new StringBuilder();
+		for (int end = start; end <= numTokens; end++) {
+			if (end > start) {
+				if (end > start + 1 && spaceBefore[end - 1]) {
+					variableText.append(' ');
+				}
+				variableText.append(tokens[end - 1]);
+			}
+			// only try the match expression if the rest of the template could start at the end of the variable
+			if (firstAny[following] || (end < numTokens ? firstIds[following].contains(ids[end]) : canEnd[following])) {
+				Matcher matcher = pattern.matcher(variableText);
+				if (matcher.matches()) {
+					pending.push(new int[] {following, end});
+				} else if (!matcher.hitEnd()) {
+					return;	// no longer text can match
+				}
+			}
+		}
+	}
+
+	private static boolean regionMatches(int[] ids, int start, int[] expected) {
+		for (int i = 0; i < expected.length; i++) {
+			if (ids[start + i] != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
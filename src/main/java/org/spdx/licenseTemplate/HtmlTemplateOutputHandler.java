@@ -67,8 +67,9 @@ public class HtmlTemplateOutputHandler implements ILicenseTemplateOutputHandler
 	 * @return true if the htmlString ends in a paragraph tag
 	 */
 	private boolean endsInEndParagraph() {
-		int lastEndParagraph = this.htmlString.lastIndexOf(END_PARAGRAPH_TAG);
-		return (lastEndParagraph == this.htmlString.length()-END_PARAGRAPH_TAG.length()) ;
+		int tagStart = this.htmlString.length() - END_PARAGRAPH_TAG.length();
+		// only search the end of the string
+		return tagStart >= 0 && this.htmlString.indexOf(END_PARAGRAPH_TAG, tagStart) == tagStart;
 	}
 	/**
 	 * If the current htmlString ends with an HTML end paragraph tag, remove it
@@ -5,20 +5,20 @@
  */
 package org.spdx.licenseTemplate;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.spdx.core.OperationEvents;
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.Operation;
+
 /**
  * Static helper class for comparing license text
  * 
@@ -27,6 +27,9 @@ import java.util.regex.Pattern;
  */
 public class LicenseTextHelper {
 	
+	/**
+	 * Tokens are split using <code>LicenseTokenScanner</code> which produces the same tokens as this pattern
+	 */
 	protected static final String TOKEN_SPLIT_REGEX = "(^|[^\\s.,?'();:\"/\\[\\]<>]{1,100})((\\s|\\.|,|\\?|'|\"|\\(|\\)|;|:|/|\\[|]|<|>|$){1,100})";
 	public static final Pattern TOKEN_SPLIT_PATTERN = Pattern.compile(TOKEN_SPLIT_REGEX);
 	protected static final Set<String> PUNCTUATION = Collections.unmodifiableSet(new HashSet<>(
@@ -128,49 +131,29 @@ public class LicenseTextHelper {
 		if (licenseTextA.equals(licenseTextB)) {
 			return true;
 		}
-		Map<Integer, LineColumn> tokenToLocationA = new HashMap<>();
-		Map<Integer, LineColumn> tokenToLocationB = new HashMap<>();
-		String[] licenseATokens = tokenizeLicenseText(licenseTextA,tokenToLocationA);
-		String[] licenseBTokens = tokenizeLicenseText(licenseTextB,tokenToLocationB);
-		int bTokenCounter = 0;
-		int aTokenCounter = 0;
-		String nextAToken = getTokenAt(licenseATokens, aTokenCounter++);
-		String nextBToken = getTokenAt(licenseBTokens, bTokenCounter++);
-		while (nextAToken != null) {
-			if (nextBToken == null) {
-				// end of b stream
-				while (canSkip(nextAToken)) {
-					nextAToken = getTokenAt(licenseATokens, aTokenCounter++);
-				}
-				if (nextAToken != null) {
-					return false;	// there is more stuff in the license text B, so not equal
-				}
-			} else if (tokensEquivalent(nextAToken, nextBToken)) { 
-				// just move onto the next set of tokens
-				nextAToken = getTokenAt(licenseATokens, aTokenCounter++);
-				nextBToken = getTokenAt(licenseBTokens, bTokenCounter++);
-			} else {
-				// see if we can skip through some B tokens to find a match
-				while (canSkip(nextBToken)) {
-					nextBToken = getTokenAt(licenseBTokens, bTokenCounter++);
-				}
-				// just to be sure, skip forward on the A license
-				while (canSkip(nextAToken)) {
-					nextAToken = getTokenAt(licenseATokens, aTokenCounter++);
-				}
-				if (!tokensEquivalent(nextAToken, nextBToken)) {
-					return false;
-				} else {
-					nextAToken = getTokenAt(licenseATokens, aTokenCounter++);
-					nextBToken = getTokenAt(licenseBTokens, bTokenCounter++);
-				}
-			}
-		}
-		// need to make sure B is at the end
-        while (canSkip(nextBToken)) {
-			nextBToken = getTokenAt(licenseBTokens, bTokenCounter++);
+		IOperationEvent event = OperationEvents.isEnabled(Operation.LICENSE_TEXT_COMPARE) ?
+				OperationEvents.begin(Operation.LICENSE_TEXT_COMPARE, null, null, null,
+						licenseTextA.length() + "/" + licenseTextB.length() + " characters") :
+				OperationEvents.NO_EVENT;
+		try {
+			// tokens are read only until the first difference
+			return LicenseTokenDictionary.getGlobalDictionary().isEquivalent(licenseTokenCursor(licenseTextA),
+					licenseTokenCursor(licenseTextB));
+		} finally {
+			event.commit();
 		}
-		return (nextBToken == null);
+	}
+
+	/**
+	 * Normalizes the license text in the same way as <code>tokenizeLicenseText</code> and returns an iterator which
+	 * tokenizes the text as the tokens are read
+	 * 
+	 * @param licenseText text to tokenize
+	 * @return iterator over the same tokens as <code>tokenizeLicenseText(licenseText)</code>
+	 */
+	public static Iterator<String> licenseTokenCursor(String licenseText) {
+		String textToTokenize = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		return LicenseTokenScanner.cursor(textToTokenize);
 	}
 	
 	/**
@@ -182,49 +165,71 @@ public class LicenseTextHelper {
 	 * @return tokens array of tokens from the licenseText
 	 */
 	public static String[] tokenizeLicenseText(String licenseText, Map<Integer, LineColumn> tokenToLocation) {
-		String textToTokenize = normalizeText(replaceMultWord(replaceSpaceComma(licenseText))).toLowerCase();
-		List<String> tokens = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new StringReader(textToTokenize))) {
-            int currentLine = 1;
-            int currentToken = 0;
-            String line = reader.readLine();
-            while (line != null) {
-                line = removeLineSeparators(line);
-                Matcher lineMatcher = TOKEN_SPLIT_PATTERN.matcher(line);
-                while (lineMatcher.find()) {
-                    String token = lineMatcher.group(1).trim();
-                    if (!token.isEmpty()) {
-                        tokens.add(token);
-                        tokenToLocation.put(currentToken, new LineColumn(currentLine, lineMatcher.start(), token.length()));
-                        currentToken++;
-                    }
-                    String fullMatch = lineMatcher.group(0);
-                    for (int i = lineMatcher.group(1).length(); i < fullMatch.length(); i++) {
-                        String possiblePunctuation = fullMatch.substring(i, i + 1);
-                        if (PUNCTUATION.contains(possiblePunctuation)) {
-                            tokens.add(possiblePunctuation);
-                            tokenToLocation.put(currentToken, new LineColumn(currentLine, lineMatcher.start() + i, 1));
-                            currentToken++;
-                        }
-                    }
-                }
-                currentLine++;
-                line = reader.readLine();
-            }
-        } catch (IOException e) {
-            // Don't fill in the lines, take a simpler approach
-            Matcher m = TOKEN_SPLIT_PATTERN.matcher(textToTokenize);
-            while (m.find()) {
-                String word = m.group(1).trim();
-                String separator = m.group(2).trim();
-                tokens.add(word);
-                if (PUNCTUATION.contains(separator)) {
-                    tokens.add(separator);
-                }
-            }
-        }
-        // ignore
-        return tokens.toArray(new String[0]);
+		String textToTokenize = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		return LicenseTokenScanner.tokenize(textToTokenize, tokenToLocation);
+	}
+	
+	/**
+	 * Tokenizes the license text without recording the token locations
+	 * 
+	 * @param licenseText text to tokenize
+	 * @return tokens array of tokens from the licenseText
+	 */
+	public static String[] tokenizeLicenseText(String licenseText) {
+		String textToTokenize = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		return LicenseTokenScanner.tokenize(textToTokenize, null);
+	}
+
+	/**
+	 * Tokenizes the license text storing the token locations in primitive arrays rather than a map of
+	 * <code>LineColumn</code>s
+	 * 
+	 * @param licenseText text to tokenize
+	 * @param trackLocations if true, the line and column of each token is recorded
+	 * @return tokens from the licenseText
+	 */
+	public static LicenseTokens tokenizeLicenseTextCompact(String licenseText, boolean trackLocations) {
+		String textToTokenize = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		return LicenseTokenScanner.tokenize(textToTokenize, trackLocations);
+	}
+
+	/**
+	 * Tokenizes the license text into spans of the normalized text without creating a string for each token
+	 * 
+	 * @param licenseText text to tokenize
+	 * @return token spans for the licenseText
+	 */
+	public static LicenseTokenSpans tokenizeLicenseTextSpans(String licenseText) {
+		String textToTokenize = LicenseTextNormalizer.normalize(licenseText).toLowerCase();
+		return LicenseTokenSpans.tokenize(textToTokenize);
+	}
+
+	/**
+	 * Tokenizes the license text and maps each token to its ID in the dictionary
+	 * <p>
+	 * The resulting ID's can be compared using <code>LicenseTokenDictionary.isEquivalent</code>.  Any new tokens are
+	 * added to the dictionary, so this should only be used for texts which are retained such as indexed license texts.
+	 * 
+	 * @param licenseText text to tokenize
+	 * @param dictionary dictionary used to map the tokens to ID's
+	 * @return token ID's for the licenseText
+	 */
+	public static int[] tokenizeLicenseTextToIds(String licenseText, LicenseTokenDictionary dictionary) {
+		return dictionary.getIds(tokenizeLicenseText(licenseText));
+	}
+
+	/**
+	 * Tokenizes the license text and maps each token to its ID using a read only lookup
+	 * <p>
+	 * The resulting ID's can be compared using <code>TokenLookup.isEquivalent</code> on the same lookup.  Tokens
+	 * are not added to the dictionary.
+	 * 
+	 * @param licenseText text to tokenize
+	 * @param lookup lookup used to map the tokens to ID's
+	 * @return token ID's for the licenseText
+	 */
+	public static int[] tokenizeLicenseTextToIds(String licenseText, LicenseTokenDictionary.TokenLookup lookup) {
+		return lookup.getIds(tokenizeLicenseText(licenseText));
 	}
 
 	/**
@@ -300,11 +305,13 @@ public class LicenseTextHelper {
 	
 	/**
 	 * replaces all multi-words with a single token using a dash to separate
+	 * <p>
+	 * <code>LicenseTextNormalizer</code> applies the same replacements together with <code>replaceSpaceComma</code>
+	 * and <code>normalizeText</code> in a single pass
 	 * @param s input string
 	 * @return input string with all multi-words with a single token using a dash to separate
 	 */
 	public static String replaceMultWord(String s) {
-		//TODO: There is certainly some room for optimization - perhaps a single regex in a find loop
 		Matcher m = COPYRIGHT_HOLDERS_PATTERN.matcher(s);
 		String retval = m.replaceAll("copyright-holders");
 		m = COPYRIGHT_HOLDERS_PATTERN_LF.matcher(retval);
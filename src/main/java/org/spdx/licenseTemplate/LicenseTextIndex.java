@@ -0,0 +1,156 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of license texts supporting identification of all texts in a corpus which are equivalent to
+ * a candidate text per the SPDX license matching rules (see <code>LicenseTextHelper.isLicenseTextEquivalent</code>)
+ * <p>
+ * Each text is tokenized once when added.  Two texts are equivalent exactly when their token sequences are equal
+ * after removing skippable tokens and replacing each remaining token with its canonical ID, so the texts are indexed
+ * by a hash of that filtered sequence.  A lookup tokenizes the candidate once and only fully compares the entries
+ * sharing the candidate's hash.  This relies on no skippable token being normalized to the same token as a token
+ * which can not be skipped (see <code>LicenseTextHelper.NORMALIZE_TOKENS</code>).
+ * <p>
+ * Lookups do not block and may run concurrently with additions.
+ *
+ * @author Gary O'Neall
+ * @param <T> type of the key identifying each indexed text (e.g. a license ID)
+ */
+public class LicenseTextIndex<T> {
+
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Indexed text
+	 */
+	private static class Entry<T> {
+		final T key;
+		final String text;
+		final int[] tokenIds;
+
+		Entry(T key, String text, int[] tokenIds) {
+			this.key = key;
+			this.text = text;
+			this.tokenIds = tokenIds;
+		}
+	}
+
+	private final LicenseTokenDictionary dictionary;
+	/**
+	 * Entries keyed by the hash of the filtered token sequence - the lists are never modified once stored
+	 */
+	private final ConcurrentHashMap<Long, List<Entry<T>>> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Create an index using the global token dictionary
+	 */
+	public LicenseTextIndex() {
+		this(LicenseTokenDictionary.getGlobalDictionary());
+	}
+
+	/**
+	 * @param dictionary dictionary used to map tokens to ID's
+	 */
+	public LicenseTextIndex(LicenseTokenDictionary dictionary) {
+		Objects.requireNonNull(dictionary, "Dictionary can not be null");
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Add a license text to the index
+	 * @param key key identifying the text
+	 * @param licenseText text to add
+	 */
+	public void add(T key, String licenseText) {
+		Objects.requireNonNull(key, "Key can not be null");
+		Objects.requireNonNull(licenseText, "License text can not be null");
+		int[] tokenIds = LicenseTextHelper.tokenizeLicenseTextToIds(licenseText, dictionary);
+		Entry<T> entry = new Entry<>(key, licenseText, tokenIds);
+		entries.compute(hash(tokenIds, dictionary.newLookup()), (hash, existing) -> {
+			if (Objects.isNull(existing)) {
+				return Collections.singletonList(entry);
+			}
+			List<Entry<T>> retval = new ArrayList<>(existing.size() + 1);
+			retval.addAll(existing);
+			retval.add(entry);
+			return retval;
+		});
+	}
+
+	/**
+	 * Find all indexed texts equivalent to a license text
+	 * @param licenseText text to identify
+	 * @return keys for all indexed texts equivalent to the license text in the order they were added
+	 */
+	public List<T> findEquivalent(String licenseText) {
+		Objects.requireNonNull(licenseText, "License text can not be null");
+		// the text being identified is not added to the dictionary
+		LicenseTokenDictionary.TokenLookup lookup = dictionary.newLookup();
+		int[] tokenIds = LicenseTextHelper.tokenizeLicenseTextToIds(licenseText, lookup);
+		List<Entry<T>> candidates = entries.get(hash(tokenIds, lookup));
+		if (Objects.isNull(candidates)) {
+			return Collections.emptyList();
+		}
+		List<T> retval = new ArrayList<>();
+		for (Entry<T> candidate:candidates) {
+			if (candidate.text.equals(licenseText) || lookup.isEquivalent(tokenIds, candidate.tokenIds)) {
+				retval.add(candidate.key);
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param licenseText text to identify
+	 * @return true if any indexed text is equivalent to the license text
+	 */
+	public boolean containsEquivalent(String licenseText) {
+		return !findEquivalent(licenseText).isEmpty();
+	}
+
+	/**
+	 * @return number of texts in the index
+	 */
+	public int size() {
+		int retval = 0;
+		for (List<Entry<T>> bucket:entries.values()) {
+			retval += bucket.size();
+		}
+		return retval;
+	}
+
+	/**
+	 * Remove all texts from the index
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @param tokenIds token ID's
+	 * @param lookup lookup which returned the token ID's
+	 * @return hash of the canonical ID's of the tokens which can not be skipped
+	 */
+	long hash(int[] tokenIds, LicenseTokenDictionary.TokenLookup lookup) {
+		long retval = 0;
+		int count = 0;
+		for (int id:tokenIds) {
+			if (!lookup.isSkippable(id)) {
+				retval = (retval + lookup.getCanonicalId(id) + 1) * HASH_MULTIPLIER;
+				retval ^= retval >>> 29;
+				count++;
+			}
+		}
+		return retval ^ count;
+	}
+}
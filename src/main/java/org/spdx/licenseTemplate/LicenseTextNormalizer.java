@@ -0,0 +1,281 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.Objects;
+
+/**
+ * Single pass normalizer for license text prior to tokenization
+ * <p>
+ * Produces exactly the same text as
+ * <code>LicenseTextHelper.normalizeText(LicenseTextHelper.replaceMultWord(LicenseTextHelper.replaceSpaceComma(text)))</code>
+ * in one linear pass without regular expressions or intermediate strings.  The rewrites are applied in three
+ * stages to each character as it is read:
+ * <ol>
+ * <li>space and comma variants are mapped to " " and "," (<code>replaceSpaceComma</code>)</li>
+ * <li>multi-words ("copyright holder(s)", "copyright owner(s)", "per cent") and "(c)" are matched
+ * case insensitively (US-ASCII only) on the mapped characters and replaced (<code>replaceMultWord</code>)</li>
+ * <li>quotes, dashes, no-break spaces, line separators and "http://" are normalized on the output of the
+ * previous stage (<code>normalizeText</code>)</li>
+ * </ol>
+ * The multi-word patterns can not overlap each other and their replacements can not create new matches,
+ * so matching all of them in a single scan gives the same result as applying them one after the other.
+ *
+ * @author Gary O'Neall
+ */
+public final class LicenseTextNormalizer {
+
+	private static final String COPYRIGHT = "copyright";
+	/**
+	 * Words following "copyright" - plurals are first since they are replaced before the singular forms
+	 */
+	private static final String[] COPYRIGHT_WORDS = new String[] {"holders", "holder", "owners", "owner"};
+	private static final String PER_CENT = "per cent";
+	private static final String HTTP = "http://";
+
+	/**
+	 * Limits from the <code>\s{0,100}\n{1,10}\s{0,100}</code> part of the multi-word patterns spanning lines
+	 */
+	private static final int MAX_LEADING_WHITESPACE = 100;
+	private static final int MAX_NEWLINES = 10;
+	private static final int MAX_TRAILING_WHITESPACE = 100;
+	private static final int MAX_WHITESPACE = MAX_LEADING_WHITESPACE + MAX_NEWLINES + MAX_TRAILING_WHITESPACE;
+
+	private LicenseTextNormalizer() {
+		// static class
+	}
+
+	/**
+	 * Normalize license text
+	 *
+	 * @param text text to normalize
+	 * @return normalized text
+	 */
+	public static String normalize(String text) {
+		Objects.requireNonNull(text, "Text can not be null");
+		StringBuilder sb = new StringBuilder(text.length() + 16);
+		normalize(text, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Normalize license text appending the result to a buffer - allows the same buffer to be reused
+	 * for many texts
+	 *
+	 * @param text text to normalize
+	 * @param out buffer the normalized text is appended to - existing content is not changed
+	 */
+	public static void normalize(CharSequence text, StringBuilder out) {
+		Objects.requireNonNull(text, "Text can not be null");
+		Objects.requireNonNull(out, "Output can not be null");
+		final int start = out.length();
+		final int length = text.length();
+		int i = 0;
+		while (i < length) {
+			char ch = spaceComma(text.charAt(i));
+			if (ch == 'c' || ch == 'C') {
+				int matchEnd = replaceCopyright(text, i, out);
+				if (matchEnd > 0) {
+					i = matchEnd;
+					continue;
+				}
+			} else if (ch == 'p' || ch == 'P') {
+				if (matchesIgnoreCase(text, i, PER_CENT)) {
+					out.append("percent");
+					i += PER_CENT.length();
+					continue;
+				}
+			} else if (ch == '(') {
+				if (i + 2 < length && toLowerAscii(spaceComma(text.charAt(i + 1))) == 'c' && text.charAt(i + 2) == ')') {
+					out.append("-c-");
+					i += 3;
+					continue;
+				}
+			}
+			append(ch, out, start);
+			i++;
+		}
+	}
+
+	/**
+	 * Replace a copyright multi-word starting at index i
+	 * @param text text being normalized
+	 * @param i index of a possible start of "copyright"
+	 * @param out buffer for the normalized text
+	 * @return end of the multi-word in the text or -1 if there is no multi-word at i
+	 */
+	private static int replaceCopyright(CharSequence text, int i, StringBuilder out) {
+		if (!matchesIgnoreCase(text, i, COPYRIGHT)) {
+			return -1;
+		}
+		int whitespaceStart = i + COPYRIGHT.length();
+		int limit = Math.min(text.length(), whitespaceStart + MAX_WHITESPACE + 1);
+		int whitespaceEnd = whitespaceStart;
+		while (whitespaceEnd < limit && isWhitespace(spaceComma(text.charAt(whitespaceEnd)))) {
+			whitespaceEnd++;
+		}
+		boolean spansLines;
+		if (whitespaceEnd - whitespaceStart == 1 && spaceComma(text.charAt(whitespaceStart)) == ' ') {
+			spansLines = false;
+		} else if (matchesLineBreak(text, whitespaceStart, whitespaceEnd)) {
+			spansLines = true;
+		} else {
+			return -1;
+		}
+		for (String word:COPYRIGHT_WORDS) {
+			if (matchesIgnoreCase(text, whitespaceEnd, word)) {
+				out.append(COPYRIGHT).append('-').append(word);
+				if (spansLines) {
+					out.append('\n');
+				}
+				return whitespaceEnd + word.length();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param text text being normalized
+	 * @param start start of a run of whitespace
+	 * @param end end of the run of whitespace
+	 * @return true if the whitespace matches <code>\s{0,100}\n{1,10}\s{0,100}</code>
+	 */
+	private static boolean matchesLineBreak(CharSequence text, int start, int end) {
+		int length = end - start;
+		if (length > MAX_WHITESPACE) {
+			return false;
+		}
+		for (int i = 0; i <= MAX_LEADING_WHITESPACE && i < length; i++) {
+			if (text.charAt(start + i) == '\n') {
+				// use as many newlines as possible to leave the least trailing whitespace
+				int j = i + 1;
+				while (j < length && j - i < MAX_NEWLINES && text.charAt(start + j) == '\n') {
+					j++;
+				}
+				if (length - j <= MAX_TRAILING_WHITESPACE) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Append a character applying the <code>normalizeText</code> rewrites
+	 * @param ch character after mapping spaces and commas
+	 * @param out buffer for the normalized text
+	 * @param start start of the normalized text in the buffer
+	 */
+	private static void append(char ch, StringBuilder out, int start) {
+		switch (ch) {
+			case '\'':
+			case '`':
+			case '\u2018':
+			case '\u2019':
+			case '\u201A':
+			case '\u201B':
+				int last = out.length() - 1;
+				if (last >= start && out.charAt(last) == '\'') {
+					out.setCharAt(last, '"');	// two single quotes are a double quote
+				} else {
+					out.append('\'');
+				}
+				break;
+			case '\u201C':
+			case '\u201D':
+			case '\u201E':
+			case '\u201F':
+				out.append('"');
+				break;
+			case '\u00A0':
+				out.append(' ');
+				break;
+			case '\u2013':
+			case '\u2014':
+				out.append('-');
+				break;
+			case '\u2028':
+				out.append('\n');
+				break;
+			case '/':
+				out.append('/');
+				if (endsWithHttp(out, start)) {
+					out.insert(out.length() - 3, 's');
+				}
+				break;
+			default:
+				out.append(ch);
+		}
+	}
+
+	/**
+	 * @param out buffer for the normalized text
+	 * @param start start of the normalized text in the buffer
+	 * @return true if the normalized text ends with "http://"
+	 */
+	private static boolean endsWithHttp(StringBuilder out, int start) {
+		int offset = out.length() - HTTP.length();
+		if (offset < start) {
+			return false;
+		}
+		for (int i = 0; i < HTTP.length(); i++) {
+			if (out.charAt(offset + i) != HTTP.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param text text being normalized
+	 * @param i start of the possible match
+	 * @param lowerCaseWord word to match in lower case
+	 * @return true if the word matches at i ignoring US-ASCII case after mapping spaces and commas
+	 */
+	private static boolean matchesIgnoreCase(CharSequence text, int i, String lowerCaseWord) {
+		if (i + lowerCaseWord.length() > text.length()) {
+			return false;
+		}
+		for (int j = 0; j < lowerCaseWord.length(); j++) {
+			if (toLowerAscii(spaceComma(text.charAt(i + j))) != lowerCaseWord.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param ch character
+	 * @return character with the <code>replaceSpaceComma</code> mapping applied
+	 */
+	private static char spaceComma(char ch) {
+		switch (ch) {
+			case '\u2007':
+			case '\u2009':
+			case '\u202F':
+			case '\u2060':
+				return ' ';
+			case '\uFE10':
+			case '\uFE50':
+			case '\uFF0C':
+				return ',';
+			default:
+				return ch;
+		}
+	}
+
+	private static char toLowerAscii(char ch) {
+		return (ch >= 'A' && ch <= 'Z') ? (char)(ch + ('a' - 'A')) : ch;
+	}
+
+	/**
+	 * @param ch character
+	 * @return true if the character matches the regex <code>\s</code>
+	 */
+	private static boolean isWhitespace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+	}
+}
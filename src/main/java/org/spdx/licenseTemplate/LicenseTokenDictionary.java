@@ -0,0 +1,509 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Dictionary mapping license text tokens to integer ID's
+ * <p>
+ * Each token is normalized once, in the same way as <code>LicenseTextHelper.tokensEquivalent</code>
+ * (trimmed, lower cased and with dashes normalized), and assigned an ID for the normalized token.  Each ID also
+ * has a canonical ID which is shared by all tokens considered equivalent through <code>LicenseTextHelper.NORMALIZE_TOKENS</code>,
+ * so two tokens are equivalent if and only if their canonical ID's are equal.
+ * <p>
+ * ID's are never removed, so the dictionary grows with the number of distinct tokens passed to <code>getId</code>
+ * and <code>getIds</code> - these should only be used for a bounded set of texts such as license templates and
+ * indexed license texts.  Text being compared against those is looked up through a <code>TokenLookup</code>, which
+ * does not add to the dictionary.  Changes made to <code>LicenseTextHelper.NORMALIZE_TOKENS</code> after a token is
+ * added are not reflected in its canonical ID.
+ * <p>
+ * This class is safe for use by multiple threads.
+ *
+ * @author Gary O'Neall
+ */
+public class LicenseTokenDictionary {
+
+	private static final LicenseTokenDictionary GLOBAL_DICTIONARY = new LicenseTokenDictionary();
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * ID's for tokens as passed to <code>getId</code> - avoids normalizing the same token more than once
+	 */
+	private final ConcurrentHashMap<String, Integer> tokenIds = new ConcurrentHashMap<>();
+	// only updated while holding the lock - may be read without the lock
+	private final ConcurrentHashMap<String, Integer> normalizedTokenIds = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Integer> canonicalTokenIds = new ConcurrentHashMap<>();
+	// guarded by this
+	private int size = 0;
+	// arrays are only replaced while holding the lock and are published through the volatile fields
+	private volatile String[] normalizedTokens = new String[INITIAL_CAPACITY];
+	private volatile int[] canonicalIds = new int[INITIAL_CAPACITY];
+	private volatile boolean[] skippable = new boolean[INITIAL_CAPACITY];
+
+	/**
+	 * Read only view of the dictionary for looking up the tokens of text being compared
+	 * <p>
+	 * Tokens already in the dictionary have their dictionary ID's.  Other tokens are assigned negative ID's which are
+	 * only valid for this lookup, so comparing arbitrary text does not grow the dictionary.  A lookup is intended for
+	 * a single comparison and is not thread safe.
+	 */
+	public final class TokenLookup {
+		/**
+		 * ID's for tokens as passed to <code>getId</code> which are not in the dictionary's token ID's
+		 */
+		private final Map<String, Integer> ids = new HashMap<>();
+		private final Map<String, Integer> localIds = new HashMap<>();
+		private final Map<String, Integer> localCanonicalIds = new HashMap<>();
+		private int[] localCanonical = new int[16];
+		private boolean[] localSkippable = new boolean[16];
+		private int localSize = 0;
+
+		private TokenLookup() {
+			// created by newLookup
+		}
+
+		/**
+		 * @param token token to look up
+		 * @return the dictionary ID for the token or, if not in the dictionary, a negative ID local to this lookup
+		 */
+		public int getId(String token) {
+			Objects.requireNonNull(token, "Token can not be null");
+			Integer id = tokenIds.get(token);
+			if (Objects.isNull(id)) {
+				id = ids.get(token);
+				if (Objects.nonNull(id)) {
+					return id;
+				}
+				String normalizedToken = normalize(token);
+				id = normalizedTokenIds.get(normalizedToken);
+				if (Objects.isNull(id) || hasLocalCanonical(id)) {
+					id = getLocalId(normalizedToken);
+				}
+				ids.put(token, id);
+			} else if (hasLocalCanonical(id)) {
+				id = getLocalId(normalizedTokens[id]);
+				ids.put(token, id);
+			}
+			return id;
+		}
+
+		/**
+		 * @param id dictionary ID
+		 * @return true if an equivalent token was given a local canonical ID before the token was added to the
+		 * dictionary - the local canonical ID must then be used for the token as well
+		 */
+		private boolean hasLocalCanonical(int id) {
+			return !localCanonicalIds.isEmpty() && localCanonicalIds.containsKey(canonicalToken(normalizedTokens[id]));
+		}
+
+		/**
+		 * @param normalizedToken normalized token
+		 * @return the local ID for the token
+		 */
+		private int getLocalId(String normalizedToken) {
+			Integer existing = localIds.get(normalizedToken);
+			if (Objects.nonNull(existing)) {
+				return existing;
+			}
+			int id = -1 - localSize;
+			String canonicalToken = canonicalToken(normalizedToken);
+			Integer canonicalId = localCanonicalIds.get(canonicalToken);
+			if (Objects.isNull(canonicalId)) {
+				canonicalId = canonicalTokenIds.get(canonicalToken);
+				if (Objects.isNull(canonicalId)) {
+					canonicalId = id;
+					localCanonicalIds.put(canonicalToken, canonicalId);
+				}
+			}
+			if (localSize == localCanonical.length) {
+				localCanonical = Arrays.copyOf(localCanonical, localSize * 2);
+				localSkippable = Arrays.copyOf(localSkippable, localSize * 2);
+			}
+			localCanonical[localSize] = canonicalId;
+			localSkippable[localSize] = isSkippableToken(normalizedToken);
+			localSize++;
+			localIds.put(normalizedToken, id);
+			return id;
+		}
+
+		/**
+		 * @param tokens tokens to look up
+		 * @return the ID's for the tokens in the same order
+		 */
+		public int[] getIds(String[] tokens) {
+			int[] retval = new int[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				retval[i] = getId(tokens[i]);
+			}
+			return retval;
+		}
+
+		/**
+		 * @param id dictionary ID or ID returned by this lookup
+		 * @return the ID shared by all tokens equivalent to the token
+		 */
+		public int getCanonicalId(int id) {
+			return id >= 0 ? canonicalIds[id] : localCanonical[-1 - id];
+		}
+
+		/**
+		 * @param id dictionary ID or ID returned by this lookup
+		 * @return true if the token can be skipped per the license matching rules
+		 */
+		public boolean isSkippable(int id) {
+			return id >= 0 ? skippable[id] : localSkippable[-1 - id];
+		}
+
+		/**
+		 * @param idsA dictionary ID's or ID's returned by this lookup
+		 * @param idsB dictionary ID's or ID's returned by this lookup
+		 * @return true if the token sequences are equivalent (see <code>LicenseTokenDictionary.isEquivalent</code>)
+		 */
+		public boolean isEquivalent(int[] idsA, int[] idsB) {
+			return LicenseTokenDictionary.this.isEquivalent(idsA, idsB, this);
+		}
+	}
+
+	/**
+	 * @return the dictionary shared by all license text comparisons
+	 */
+	public static LicenseTokenDictionary getGlobalDictionary() {
+		return GLOBAL_DICTIONARY;
+	}
+
+	/**
+	 * @param token token to look up
+	 * @return the ID for the normalized token, adding the token to the dictionary if not present
+	 */
+	public int getId(String token) {
+		Objects.requireNonNull(token, "Token can not be null");
+		Integer id = tokenIds.get(token);
+		if (Objects.isNull(id)) {
+			id = addToken(normalize(token));
+			tokenIds.putIfAbsent(token, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @return a new read only lookup for the tokens of a text being compared
+	 */
+	public TokenLookup newLookup() {
+		return new TokenLookup();
+	}
+
+	/**
+	 * @param tokens tokens to look up
+	 * @return the ID's for the tokens in the same order
+	 */
+	public int[] getIds(String[] tokens) {
+		int[] retval = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			retval[i] = getId(tokens[i]);
+		}
+		return retval;
+	}
+
+	/**
+	 * @param normalizedToken normalized token
+	 * @return the ID for the normalized token
+	 */
+	private synchronized int addToken(String normalizedToken) {
+		Integer existing = normalizedTokenIds.get(normalizedToken);
+		if (Objects.nonNull(existing)) {
+			return existing;
+		}
+		String canonicalToken = canonicalToken(normalizedToken);
+		int id = size;
+		Integer canonicalId = canonicalTokenIds.get(canonicalToken);
+		if (Objects.isNull(canonicalId)) {
+			canonicalId = id;
+			canonicalTokenIds.put(canonicalToken, canonicalId);
+		}
+		String[] newNormalizedTokens = normalizedTokens;
+		int[] newCanonicalIds = canonicalIds;
+		boolean[] newSkippable = skippable;
+		if (id == newNormalizedTokens.length) {
+			newNormalizedTokens = Arrays.copyOf(newNormalizedTokens, id * 2);
+			newCanonicalIds = Arrays.copyOf(newCanonicalIds, id * 2);
+			newSkippable = Arrays.copyOf(newSkippable, id * 2);
+		}
+		newNormalizedTokens[id] = normalizedToken;
+		newCanonicalIds[id] = canonicalId;
+		newSkippable[id] = isSkippableToken(normalizedToken);
+		normalizedTokens = newNormalizedTokens;
+		canonicalIds = newCanonicalIds;
+		skippable = newSkippable;
+		// published after the arrays so that readers without the lock always find the ID in the arrays
+		normalizedTokenIds.put(normalizedToken, id);
+		size++;
+		return id;
+	}
+
+	/**
+	 * @param normalizedToken normalized token
+	 * @return the token shared by all tokens equivalent to the token
+	 */
+	private static String canonicalToken(String normalizedToken) {
+		String canonicalToken = LicenseTextHelper.NORMALIZE_TOKENS.get(normalizedToken);
+		return Objects.isNull(canonicalToken) ? normalizedToken : canonicalToken;
+	}
+
+	/**
+	 * @param normalizedToken normalized token
+	 * @return true if the token can be skipped
+	 */
+	private static boolean isSkippableToken(String normalizedToken) {
+		// the skippable tokens do not contain dashes, so normalizing dashes does not change which tokens can be skipped
+		return normalizedToken.isEmpty() || LicenseTextHelper.SKIPPABLE_TOKENS.contains(normalizedToken);
+	}
+
+	/**
+	 * @param id token ID
+	 * @return the ID shared by all tokens equivalent to the token
+	 */
+	public int getCanonicalId(int id) {
+		return canonicalIds[id];
+	}
+
+	/**
+	 * @param id token ID
+	 * @return true if the token can be skipped per the license matching rules (see <code>LicenseTextHelper.canSkip</code>)
+	 */
+	public boolean isSkippable(int id) {
+		return skippable[id];
+	}
+
+	/**
+	 * @param id token ID
+	 * @return the normalized token for the ID
+	 */
+	public String getToken(int id) {
+		return normalizedTokens[id];
+	}
+
+	/**
+	 * @return number of distinct normalized tokens
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Compare two token ID sequences per the SPDX license matching rules - the result is the same as
+	 * <code>LicenseTextHelper.isLicenseTextEquivalent</code> for the text the ID's were tokenized from
+	 * @param idsA token ID's to compare
+	 * @param idsB token ID's to compare
+	 * @return true if the token sequences are equivalent
+	 */
+	public boolean isEquivalent(int[] idsA, int[] idsB) {
+		return isEquivalent(idsA, idsB, null);
+	}
+
+	/**
+	 * @param id dictionary ID or lookup ID
+	 * @param canonical canonical ID's of the dictionary
+	 * @param lookup lookup for negative ID's
+	 * @return canonical ID for the token
+	 */
+	private static int canonical(int id, int[] canonical, @Nullable TokenLookup lookup) {
+		return id >= 0 ? canonical[id] : lookup.getCanonicalId(id);
+	}
+
+	/**
+	 * @param id dictionary ID or lookup ID
+	 * @param skip skippable flags of the dictionary
+	 * @param lookup lookup for negative ID's
+	 * @return true if the token can be skipped
+	 */
+	private static boolean skip(int id, boolean[] skip, @Nullable TokenLookup lookup) {
+		return id >= 0 ? skip[id] : lookup.isSkippable(id);
+	}
+
+	/**
+	 * @param idsA token ID's to compare
+	 * @param idsB token ID's to compare
+	 * @param lookup lookup which returned any negative ID's - may be null if all ID's are dictionary ID's
+	 * @return true if the token sequences are equivalent
+	 */
+	private boolean isEquivalent(int[] idsA, int[] idsB, @Nullable TokenLookup lookup) {
+		// read the arrays once - ID's in the sequences were assigned before this call so they are always present
+		final int[] canonical = canonicalIds;
+		final boolean[] skip = skippable;
+		int a = 0;
+		int b = 0;
+		while (a < idsA.length) {
+			if (b >= idsB.length) {
+				// end of b stream
+				while (a < idsA.length && skip(idsA[a], skip, lookup)) {
+					a++;
+				}
+				if (a < idsA.length) {
+					return false;	// there is more stuff in the license text A, so not equal
+				}
+			} else if (canonical(idsA[a], canonical, lookup) == canonical(idsB[b], canonical, lookup)) {
+				a++;
+				b++;
+			} else {
+				// see if we can skip through some B tokens to find a match
+				while (b < idsB.length && skip(idsB[b], skip, lookup)) {
+					b++;
+				}
+				// just to be sure, skip forward on the A license
+				while (a < idsA.length && skip(idsA[a], skip, lookup)) {
+					a++;
+				}
+				boolean endA = a >= idsA.length;
+				boolean endB = b >= idsB.length;
+				if (endA != endB || (!endA && canonical(idsA[a], canonical, lookup) != canonical(idsB[b], canonical, lookup))) {
+					return false;
+				}
+				a++;
+				b++;
+			}
+		}
+		// need to make sure B is at the end
+		while (b < idsB.length && skip(idsB[b], skip, lookup)) {
+			b++;
+		}
+		return b >= idsB.length;
+	}
+
+	/**
+	 * Token ID's pulled from a token iterator with one token of look ahead
+	 */
+	private static final class IdCursor {
+		private final Iterator<String> tokens;
+		private final TokenLookup lookup;
+		private int id;
+		private boolean hasId = false;	// false if the next ID has not been read or there are no more tokens
+
+		IdCursor(Iterator<String> tokens, TokenLookup lookup) {
+			this.tokens = tokens;
+			this.lookup = lookup;
+		}
+
+		/**
+		 * @return true if there are no more tokens
+		 */
+		boolean atEnd() {
+			if (!hasId && tokens.hasNext()) {
+				id = lookup.getId(tokens.next());
+				hasId = true;
+			}
+			return !hasId;
+		}
+
+		/**
+		 * @return ID of the current token - only valid if not at the end
+		 */
+		int peek() {
+			return id;
+		}
+
+		void advance() {
+			hasId = false;
+		}
+
+		void skipSkippable() {
+			while (!atEnd() && lookup.isSkippable(id)) {
+				advance();
+			}
+		}
+	}
+
+	/**
+	 * Compare two token sequences per the SPDX license matching rules, reading tokens only until the first
+	 * difference is found - the result is the same as <code>isEquivalent</code> for the ID's of all the tokens
+	 * @param tokensA tokens to compare
+	 * @param tokensB tokens to compare
+	 * @return true if the token sequences are equivalent
+	 */
+	public boolean isEquivalent(Iterator<String> tokensA, Iterator<String> tokensB) {
+		Objects.requireNonNull(tokensA, "Tokens can not be null");
+		Objects.requireNonNull(tokensB, "Tokens can not be null");
+		TokenLookup lookup = newLookup();	// tokens being compared are not added to the dictionary
+		IdCursor a = new IdCursor(tokensA, lookup);
+		IdCursor b = new IdCursor(tokensB, lookup);
+		while (!a.atEnd()) {
+			if (b.atEnd()) {
+				// end of b stream
+				a.skipSkippable();
+				if (!a.atEnd()) {
+					return false;	// there is more stuff in the license text A, so not equal
+				}
+			} else if (lookup.getCanonicalId(a.peek()) == lookup.getCanonicalId(b.peek())) {
+				a.advance();
+				b.advance();
+			} else {
+				// see if we can skip through some B tokens to find a match
+				b.skipSkippable();
+				// just to be sure, skip forward on the A license
+				a.skipSkippable();
+				boolean endA = a.atEnd();
+				boolean endB = b.atEnd();
+				if (endA != endB || (!endA && lookup.getCanonicalId(a.peek()) != lookup.getCanonicalId(b.peek()))) {
+					return false;
+				}
+				a.advance();
+				b.advance();
+			}
+		}
+		// need to make sure B is at the end
+		b.skipSkippable();
+		return b.atEnd();
+	}
+
+	/**
+	 * Normalize a token the same way as <code>LicenseTextHelper.tokensEquivalent</code>
+	 * @param token token to normalize
+	 * @return trimmed, lower case token with each run of one or two dash characters replaced by "-"
+	 */
+	static String normalize(String token) {
+		String lower = token.trim().toLowerCase();
+		StringBuilder sb = null;
+		int i = 0;
+		while (i < lower.length()) {
+			char ch = lower.charAt(i);
+			if (isDash(ch)) {
+				int runLength = (i + 1 < lower.length() && isDash(lower.charAt(i + 1))) ? 2 : 1;
+				if (Objects.isNull(sb)) {
+					if (runLength == 1 && ch == '-') {
+						i++;
+						continue;	// nothing changes
+					}
+					sb = new StringBuilder(lower.length());
+					sb.append(lower, 0, i);
+				}
+				sb.append('-');
+				i += runLength;
+			} else {
+				if (Objects.nonNull(sb)) {
+					sb.append(ch);
+				}
+				i++;
+			}
+		}
+		return Objects.isNull(sb) ? lower : sb.toString();
+	}
+
+	/**
+	 * @param ch character
+	 * @return true if the character matches <code>LicenseTextHelper.DASHES_REGEX</code>
+	 */
+	private static boolean isDash(char ch) {
+		return ch == '-' || (ch >= '\u2010' && ch <= '\u2015') || ch == '\uFE58' || ch == '\uFF0D';
+	}
+}
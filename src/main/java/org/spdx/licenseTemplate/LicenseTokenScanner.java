@@ -0,0 +1,386 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+/**
+ * Single pass scanner which splits normalized license text into tokens
+ * <p>
+ * Produces exactly the same tokens and token locations as applying <code>LicenseTextHelper.TOKEN_SPLIT_PATTERN</code>
+ * to each line (as returned by <code>BufferedReader.readLine</code>) after removing trailing line separators
+ * (<code>LicenseTextHelper.removeLineSeparators</code>), but without regular expressions or intermediate strings.
+ * This includes the limits of the regular expression - a word longer than 100 characters only
+ * contributes its last 100 characters and only the first 100 characters of a run of separators are
+ * checked for punctuation.
+ *
+ * @author Gary O'Neall
+ */
+public final class LicenseTokenScanner {
+
+	/**
+	 * Receives the tokens found by the scanner
+	 */
+	@FunctionalInterface
+	public interface TokenHandler {
+		/**
+		 * @param source text containing the token - normally the text being scanned
+		 * @param start index of the first character of the token in the source
+		 * @param end index after the last character of the token in the source
+		 * @param line line number of the token starting at 1
+		 * @param column column of the start of the match containing the token starting at 0
+		 */
+		void token(CharSequence source, int start, int end, int line, int column);
+	}
+
+	/**
+	 * Maximum number of characters matched by each repetition in <code>TOKEN_SPLIT_REGEX</code>
+	 */
+	private static final int MAX_RUN = 100;
+
+	private static final byte WORD = 0;
+	private static final byte WHITESPACE = 1;
+	private static final byte PUNCTUATION = 2;
+
+	/**
+	 * Character class for each ASCII character - all other characters are word characters
+	 */
+	private static final byte[] CHARACTER_CLASS = new byte[128];
+	private static final String[] PUNCTUATION_TOKENS = new String[128];
+	static {
+		for (char ch:" \t\n\u000B\f\r".toCharArray()) {	// regex \s
+			CHARACTER_CLASS[ch] = WHITESPACE;
+		}
+		for (String punctuation:LicenseTextHelper.PUNCTUATION) {
+			char ch = punctuation.charAt(0);
+			CHARACTER_CLASS[ch] = PUNCTUATION;
+			PUNCTUATION_TOKENS[ch] = punctuation;
+		}
+	}
+
+	private LicenseTokenScanner() {
+		// static class
+	}
+
+	/**
+	 * Tokenize license text which has already been normalized
+	 *
+	 * @param text text to tokenize
+	 * @param tokenToLocation if not null, the location of each token is added keyed by the token index
+	 * @return tokens from the text
+	 */
+	public static String[] tokenize(String text, @Nullable Map<Integer, LineColumn> tokenToLocation) {
+		List<String> tokens = new ArrayList<>();
+		scan(text, (source, start, end, line, column) -> {
+			if (Objects.nonNull(tokenToLocation)) {
+				tokenToLocation.put(tokens.size(), new LineColumn(line, column, end - start));
+			}
+			tokens.add(tokenString(source, start, end));
+		});
+		return tokens.toArray(new String[tokens.size()]);
+	}
+
+	/**
+	 * Tokenize license text which has already been normalized into tokens with locations stored as primitive arrays
+	 *
+	 * @param text text to tokenize
+	 * @param trackLocations if true, the line and column of each token is recorded
+	 * @return tokens from the text
+	 */
+	public static LicenseTokens tokenize(String text, boolean trackLocations) {
+		LicenseTokens tokens = new LicenseTokens(trackLocations);
+		scan(text, (source, start, end, line, column) -> tokens.add(tokenString(source, start, end), line, column));
+		return tokens;
+	}
+
+	/**
+	 * @param source text containing the token
+	 * @param start start of the token
+	 * @param end end of the token
+	 * @return the token as a string - punctuation tokens share the same instances
+	 */
+	private static String tokenString(CharSequence source, int start, int end) {
+		if (end - start == 1 && source.charAt(start) < 128 && Objects.nonNull(PUNCTUATION_TOKENS[source.charAt(start)])) {
+			return PUNCTUATION_TOKENS[source.charAt(start)];
+		} else {
+			return source.subSequence(start, end).toString();
+		}
+	}
+
+	/**
+	 * Scan license text which has already been normalized passing each token to the handler in order
+	 *
+	 * @param text text to scan
+	 * @param handler handler for the tokens
+	 */
+	public static void scan(String text, TokenHandler handler) {
+		Objects.requireNonNull(text, "Text can not be null");
+		Objects.requireNonNull(handler, "Handler can not be null");
+		int lineStart = 0;
+		int lineNumber = 1;
+		while (lineStart < text.length()) {
+			int lineEnd = lineEnd(text, lineStart);
+			scanLine(text, lineStart, lineEnd, lineNumber, handler);
+			lineNumber++;
+			lineStart = nextLineStart(text, lineEnd);
+		}
+	}
+
+	/**
+	 * Iterator over the tokens in normalized license text which scans one line at a time as tokens are requested
+	 */
+	public static final class TokenCursor implements Iterator<String> {
+		private final String text;
+		private final List<String> lineTokens = new ArrayList<>();
+		private final TokenHandler lineHandler = (source, start, end, line, column) -> lineTokens.add(tokenString(source, start, end));
+		private int nextToken = 0;
+		private int lineStart = 0;
+		private int lineNumber = 1;
+
+		private TokenCursor(String text) {
+			this.text = text;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (nextToken >= lineTokens.size() && lineStart < text.length()) {
+				lineTokens.clear();
+				nextToken = 0;
+				int lineEnd = lineEnd(text, lineStart);
+				scanLine(text, lineStart, lineEnd, lineNumber, lineHandler);
+				lineNumber++;
+				lineStart = nextLineStart(text, lineEnd);
+			}
+			return nextToken < lineTokens.size();
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return lineTokens.get(nextToken++);
+		}
+	}
+
+	/**
+	 * Create a cursor over the tokens in license text which has already been normalized - only the lines containing
+	 * the tokens requested are scanned
+	 *
+	 * @param text text to scan
+	 * @return cursor returning the same tokens as <code>tokenize</code>
+	 */
+	public static TokenCursor cursor(String text) {
+		Objects.requireNonNull(text, "Text can not be null");
+		return new TokenCursor(text);
+	}
+
+	/**
+	 * Lines are terminated the same as BufferedReader.readLine
+	 * @param text text
+	 * @param lineStart start of the line
+	 * @return index of the line terminator or the end of the text
+	 */
+	private static int lineEnd(String text, int lineStart) {
+		int lineEnd = lineStart;
+		while (lineEnd < text.length() && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+			lineEnd++;
+		}
+		return lineEnd;
+	}
+
+	/**
+	 * @param text text
+	 * @param lineEnd index of the line terminator or the end of the text
+	 * @return start of the next line
+	 */
+	private static int nextLineStart(String text, int lineEnd) {
+		if (lineEnd + 1 < text.length() && text.charAt(lineEnd) == '\r' && text.charAt(lineEnd + 1) == '\n') {
+			return lineEnd + 2;
+		} else {
+			return lineEnd + 1;
+		}
+	}
+
+	/**
+	 * Remove any trailing line separator and scan the tokens in a line
+	 * @param text text containing the line
+	 * @param start start of the line
+	 * @param end end of the line excluding the line terminator
+	 * @param lineNumber line number
+	 * @param handler handler for the tokens
+	 */
+	private static void scanLine(String text, int start, int end, int lineNumber, TokenHandler handler) {
+		// equivalent to removing "[-=*]{3,}\s*$" - $ also matches before a final line terminator
+		int separatorEnd = end;
+		if (end > start && isFinalLineTerminator(text.charAt(end - 1))) {
+			separatorEnd--;
+		}
+		int whitespaceStart = separatorEnd;
+		while (whitespaceStart > start && isWhitespace(text.charAt(whitespaceStart - 1))) {
+			whitespaceStart--;
+		}
+		int separatorStart = whitespaceStart;
+		while (separatorStart > start && isLineSeparatorChar(text.charAt(separatorStart - 1))) {
+			separatorStart--;
+		}
+		if (whitespaceStart - separatorStart < 3) {
+			scanRange(text, start, end, lineNumber, handler);
+		} else if (separatorEnd == end) {
+			scanRange(text, start, separatorStart, lineNumber, handler);
+		} else {
+			String line = text.substring(start, separatorStart) + text.substring(separatorEnd, end);
+			scanRange(line, 0, line.length(), lineNumber, handler);
+		}
+	}
+
+	/**
+	 * Find all tokens in a range of text following the same matching rules as <code>TOKEN_SPLIT_PATTERN.matcher(line).find()</code>
+	 * where line is the text in the range
+	 * @param text text containing the range
+	 * @param start start of the range
+	 * @param end end of the range
+	 * @param lineNumber line number
+	 * @param handler handler for the tokens
+	 */
+	private static void scanRange(String text, int start, int end, int lineNumber, TokenHandler handler) {
+		int i = start;
+		int wordRunEnd = start;	// end of the current run of word characters
+		while (i <= end) {
+			if (i == start) {
+				// "^" followed by separators or the end of the line
+				int matchEnd = separatorRunEnd(text, start, end);
+				if (matchEnd > start || isDollar(text, start, start, end)) {
+					emit(text, start, start, matchEnd, start, lineNumber, handler);
+					i = matchEnd > start ? matchEnd : start + 1;
+					continue;
+				}
+			}
+			if (i < end && !isSeparator(text.charAt(i))) {
+				if (wordRunEnd <= i) {
+					wordRunEnd = i;
+					while (wordRunEnd < end && !isSeparator(text.charAt(wordRunEnd))) {
+						wordRunEnd++;
+					}
+				}
+				int wordEnd = -1;
+				if (wordRunEnd - i <= MAX_RUN) {
+					wordEnd = wordRunEnd;	// always followed by a separator or the end
+				} else {
+					// the regex backtracks into the word, which only matches before a final line terminator
+					for (int k = i + MAX_RUN; k > i && k >= end - 2; k--) {
+						if (isDollar(text, k, start, end)) {
+							wordEnd = k;
+							break;
+						}
+					}
+				}
+				if (wordEnd >= 0) {
+					int matchEnd = separatorRunEnd(text, wordEnd, end);
+					emit(text, i, wordEnd, matchEnd, start, lineNumber, handler);
+					i = matchEnd;
+					continue;
+				}
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * Pass the word and any punctuation in a match to the handler
+	 * @param text text containing the match
+	 * @param matchStart start of the match
+	 * @param wordEnd end of the word (regex group 1)
+	 * @param matchEnd end of the match
+	 * @param lineStart start of the line
+	 * @param lineNumber line number
+	 * @param handler handler for the tokens
+	 */
+	private static void emit(String text, int matchStart, int wordEnd, int matchEnd, int lineStart, int lineNumber, TokenHandler handler) {
+		int tokenStart = matchStart;
+		int tokenEnd = wordEnd;
+		// same as String.trim()
+		while (tokenStart < tokenEnd && text.charAt(tokenStart) <= ' ') {
+			tokenStart++;
+		}
+		while (tokenEnd > tokenStart && text.charAt(tokenEnd - 1) <= ' ') {
+			tokenEnd--;
+		}
+		if (tokenStart < tokenEnd) {
+			handler.token(text, tokenStart, tokenEnd, lineNumber, matchStart - lineStart);
+		}
+		for (int i = wordEnd; i < matchEnd; i++) {
+			if (CHARACTER_CLASS[text.charAt(i)] == PUNCTUATION) {	// all separators are ASCII
+				handler.token(text, i, i + 1, lineNumber, i - lineStart);
+			}
+		}
+	}
+
+	/**
+	 * @param text text to search
+	 * @param start start of the separators
+	 * @param end end of the range
+	 * @return end of a run of at most 100 separator characters
+	 */
+	private static int separatorRunEnd(String text, int start, int end) {
+		int limit = Math.min(end, start + MAX_RUN);
+		int i = start;
+		while (i < limit && isSeparator(text.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param text text being matched
+	 * @param i index to test
+	 * @param start start of the range
+	 * @param end end of the range
+	 * @return true if the regex "$" boundary matches at index i
+	 */
+	private static boolean isDollar(String text, int i, int start, int end) {
+		if (i == end) {
+			return true;
+		} else if (i == end - 2) {
+			return text.charAt(i) == '\r' && text.charAt(i + 1) == '\n';
+		} else if (i == end - 1) {
+			char ch = text.charAt(i);
+			if (ch == '\n') {
+				return i == start || text.charAt(i - 1) != '\r';
+			}
+			return ch == '\r' || isFinalLineTerminator(ch);
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * @param ch character
+	 * @return true if the character is a line terminator which can occur within a line returned by BufferedReader
+	 */
+	private static boolean isFinalLineTerminator(char ch) {
+		return ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
+
+	private static boolean isSeparator(char ch) {
+		return ch < 128 && CHARACTER_CLASS[ch] != WORD;
+	}
+
+	private static boolean isWhitespace(char ch) {
+		return ch < 128 && CHARACTER_CLASS[ch] == WHITESPACE;
+	}
+
+	private static boolean isLineSeparatorChar(char ch) {
+		return ch == '-' || ch == '=' || ch == '*';
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Tokens from normalized license text stored as offsets and lengths into the normalized text
+ * <p>
+ * No string is created for a token unless <code>getToken</code> is called.  The hash code of each token is
+ * computed while scanning and is the same as the <code>String.hashCode</code> of the token, so tokens are
+ * compared by hash code first and then by comparing the regions of the text.
+ * <p>
+ * A few tokens are not a region of the normalized text - the scanner removes line separators (e.g. "---")
+ * before a final line terminator by copying the line.  The characters for these tokens are appended after
+ * the normalized text.
+ *
+ * @author Gary O'Neall
+ */
+public final class LicenseTokenSpans {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final String text;
+	private final int size;
+	private final int[] offsets;
+	private final int[] lengths;
+	private final int[] hashes;
+
+	/**
+	 * Collects the token spans from the scanner
+	 */
+	private static class Builder implements LicenseTokenScanner.TokenHandler {
+		final String text;
+		StringBuilder copiedTokens = null;	// tokens which are not regions of the text
+		int size = 0;
+		int[] offsets = new int[INITIAL_CAPACITY];
+		int[] lengths = new int[INITIAL_CAPACITY];
+		int[] hashes = new int[INITIAL_CAPACITY];
+
+		Builder(String text) {
+			this.text = text;
+		}
+
+		@Override
+		public void token(CharSequence source, int start, int end, int line, int column) {
+			if (size == offsets.length) {
+				offsets = Arrays.copyOf(offsets, size * 2);
+				lengths = Arrays.copyOf(lengths, size * 2);
+				hashes = Arrays.copyOf(hashes, size * 2);
+			}
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + source.charAt(i);
+			}
+			if (source == text) {
+				offsets[size] = start;
+			} else {
+				if (Objects.isNull(copiedTokens)) {
+					copiedTokens = new StringBuilder();
+				}
+				offsets[size] = text.length() + copiedTokens.length();
+				copiedTokens.append(source, start, end);
+			}
+			lengths[size] = end - start;
+			hashes[size] = hash;
+			size++;
+		}
+	}
+
+	private LicenseTokenSpans(Builder builder) {
+		this.text = Objects.isNull(builder.copiedTokens) ? builder.text : builder.text + builder.copiedTokens;
+		this.size = builder.size;
+		this.offsets = builder.offsets;
+		this.lengths = builder.lengths;
+		this.hashes = builder.hashes;
+	}
+
+	/**
+	 * Tokenize license text which has already been normalized
+	 * @param text normalized text
+	 * @return spans for the tokens in the text
+	 */
+	public static LicenseTokenSpans tokenize(String text) {
+		Builder builder = new Builder(text);
+		LicenseTokenScanner.scan(text, builder);
+		return new LicenseTokenSpans(builder);
+	}
+
+	/**
+	 * @return number of tokens
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return a new string for the token
+	 */
+	public String getToken(int index) {
+		checkIndex(index);
+		return text.substring(offsets[index], offsets[index] + lengths[index]);
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return length of the token
+	 */
+	public int getLength(int index) {
+		checkIndex(index);
+		return lengths[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @param position position of the character within the token
+	 * @return character at the position within the token
+	 */
+	public char charAt(int index, int position) {
+		checkIndex(index);
+		if (position < 0 || position >= lengths[index]) {
+			throw new IndexOutOfBoundsException("Position " + position + " out of range for token length " + lengths[index]);
+		}
+		return text.charAt(offsets[index] + position);
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return the same value as <code>getToken(index).hashCode()</code>
+	 */
+	public int tokenHashCode(int index) {
+		checkIndex(index);
+		return hashes[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @param token token to compare
+	 * @return true if the token at the index has the same characters as the token
+	 */
+	public boolean tokenEquals(int index, String token) {
+		checkIndex(index);
+		Objects.requireNonNull(token, "Token can not be null");
+		return lengths[index] == token.length() && hashes[index] == token.hashCode() &&
+				text.regionMatches(offsets[index], token, 0, lengths[index]);
+	}
+
+	/**
+	 * @param index index of the token
+	 * @param other other token spans
+	 * @param otherIndex index of the token in the other token spans
+	 * @return true if the tokens have the same characters
+	 */
+	public boolean tokenEquals(int index, LicenseTokenSpans other, int otherIndex) {
+		checkIndex(index);
+		Objects.requireNonNull(other, "Other token spans can not be null");
+		other.checkIndex(otherIndex);
+		return lengths[index] == other.lengths[otherIndex] && hashes[index] == other.hashes[otherIndex] &&
+				text.regionMatches(offsets[index], other.text, other.offsets[otherIndex], lengths[index]);
+	}
+
+	/**
+	 * @param other other token spans
+	 * @return true if both token spans contain the same tokens in the same order
+	 */
+	public boolean tokensEqual(LicenseTokenSpans other) {
+		Objects.requireNonNull(other, "Other token spans can not be null");
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!tokenEquals(i, other, i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return new strings for all of the tokens in order
+	 */
+	public String[] toArray() {
+		String[] retval = new String[size];
+		for (int i = 0; i < size; i++) {
+			retval[i] = getToken(i);
+		}
+		return retval;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Token index " + index + " out of range for " + size + " tokens");
+		}
+	}
+}
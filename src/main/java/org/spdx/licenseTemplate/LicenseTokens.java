@@ -0,0 +1,152 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tokens from license text with their optional locations
+ * <p>
+ * Locations are stored as parallel arrays of line and column numbers rather than a <code>LineColumn</code> per token.
+ * The length of each token's location is the length of the token.  Tokens created without locations do not
+ * allocate the location arrays.
+ *
+ * @author Gary O'Neall
+ */
+public final class LicenseTokens {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int[] NO_LOCATIONS = new int[0];
+
+	private final boolean hasLocations;
+	private String[] tokens;
+	private int[] lines;
+	private int[] columns;
+	private int size = 0;
+
+	/**
+	 * @param hasLocations true if the token locations are tracked
+	 */
+	LicenseTokens(boolean hasLocations) {
+		this.hasLocations = hasLocations;
+		tokens = new String[INITIAL_CAPACITY];
+		lines = hasLocations ? new int[INITIAL_CAPACITY] : NO_LOCATIONS;
+		columns = hasLocations ? new int[INITIAL_CAPACITY] : NO_LOCATIONS;
+	}
+
+	/**
+	 * Add a token - only used while tokenizing
+	 * @param token token
+	 * @param line line number of the token starting at 1
+	 * @param column column of the token starting at 0
+	 */
+	void add(String token, int line, int column) {
+		if (size == tokens.length) {
+			tokens = Arrays.copyOf(tokens, size * 2);
+			if (hasLocations) {
+				lines = Arrays.copyOf(lines, size * 2);
+				columns = Arrays.copyOf(columns, size * 2);
+			}
+		}
+		tokens[size] = token;
+		if (hasLocations) {
+			lines[size] = line;
+			columns[size] = column;
+		}
+		size++;
+	}
+
+	/**
+	 * @return number of tokens
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the token locations are available
+	 */
+	public boolean hasLocations() {
+		return hasLocations;
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return the token at the index
+	 */
+	public String getToken(int index) {
+		checkIndex(index);
+		return tokens[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return line number of the token starting at 1
+	 */
+	public int getLine(int index) {
+		checkLocation(index);
+		return lines[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return column of the token starting at 0
+	 */
+	public int getColumn(int index) {
+		checkLocation(index);
+		return columns[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return length of the token
+	 */
+	public int getLength(int index) {
+		return getToken(index).length();
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return a new <code>LineColumn</code> with the location of the token
+	 */
+	public LineColumn getLocation(int index) {
+		checkLocation(index);
+		return new LineColumn(lines[index], columns[index], tokens[index].length());
+	}
+
+	/**
+	 * @return the tokens in order
+	 */
+	public String[] toArray() {
+		return Arrays.copyOf(tokens, size);
+	}
+
+	/**
+	 * @return the token locations keyed by the token index in the same form as <code>LicenseTextHelper.tokenizeLicenseText</code>
+	 */
+	public Map<Integer, LineColumn> toLocationMap() {
+		Map<Integer, LineColumn> retval = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			retval.put(i, getLocation(i));
+		}
+		return retval;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Token index " + index + " out of range for " + size + " tokens");
+		}
+	}
+
+	private void checkLocation(int index) {
+		checkIndex(index);
+		if (!hasLocations) {
+			throw new IllegalStateException("Token locations were not tracked");
+		}
+	}
+}
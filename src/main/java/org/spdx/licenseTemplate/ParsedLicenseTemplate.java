@@ -0,0 +1,141 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * License template which has been parsed into a sequence of text and rules
+ * <p>
+ * The parsed template can be replayed into any number of <code>ILicenseTemplateOutputHandler</code>s without
+ * scanning the template or parsing the rules again - each handler receives exactly the same calls as it would from
+ * <code>SpdxLicenseTemplateHelper.parseTemplate</code>.  Parsed templates are cached by the template text, so
+ * rendering the same template in several formats only parses it once.
+ * <p>
+ * Parsed templates are immutable and may be replayed concurrently.  The same <code>LicenseTemplateRule</code> instances
+ * are passed to every handler, so handlers must not modify the rules.
+ *
+ * @author Gary O'Neall
+ */
+public final class ParsedLicenseTemplate {
+
+	private static final int MAX_CACHED_TEMPLATES = 1024;
+
+	/**
+	 * Parsed templates keyed by the template text - least recently used templates are removed first
+	 */
+	@SuppressWarnings("serial")
+	private static final Map<String, ParsedLicenseTemplate> CACHE = Collections.synchronizedMap(
+			new LinkedHashMap<String, ParsedLicenseTemplate>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ParsedLicenseTemplate> eldest) {
+					return size() > MAX_CACHED_TEMPLATES;
+				}
+			});
+
+	/**
+	 * Text or rule in the template
+	 */
+	private static final class Node {
+		final String text;
+		final LicenseTemplateRule rule;
+
+		Node(String text, LicenseTemplateRule rule) {
+			this.text = text;
+			this.rule = rule;
+		}
+	}
+
+	/**
+	 * Records the parsed text and rules
+	 */
+	private static class Recorder implements ILicenseTemplateOutputHandler {
+		final List<Node> nodes = new ArrayList<>();
+
+		@Override
+		public void text(String text) {
+			nodes.add(new Node(text, null));
+		}
+
+		@Override
+		public void variableRule(LicenseTemplateRule rule) {
+			nodes.add(new Node(null, rule));
+		}
+
+		@Override
+		public void beginOptional(LicenseTemplateRule rule) {
+			nodes.add(new Node(null, rule));
+		}
+
+		@Override
+		public void endOptional(LicenseTemplateRule rule) {
+			nodes.add(new Node(null, rule));
+		}
+
+		@Override
+		public void completeParsing() {
+			// replayed separately
+		}
+	}
+
+	private final Node[] nodes;
+
+	private ParsedLicenseTemplate(List<Node> nodes) {
+		this.nodes = nodes.toArray(new Node[nodes.size()]);
+	}
+
+	/**
+	 * Parse a license template, reusing a cached result if the same template has already been parsed
+	 * @param licenseTemplate license template
+	 * @return parsed license template
+	 * @throws LicenseTemplateRuleException if a rule can not be parsed
+	 * @throws LicenseParserException if the template can not be parsed
+	 */
+	public static ParsedLicenseTemplate parse(String licenseTemplate) throws LicenseTemplateRuleException, LicenseParserException {
+		Objects.requireNonNull(licenseTemplate, "License template can not be null");
+		ParsedLicenseTemplate retval = CACHE.get(licenseTemplate);
+		if (Objects.isNull(retval)) {
+			Recorder recorder = new Recorder();
+			SpdxLicenseTemplateHelper.parseTemplate(licenseTemplate, recorder);
+			retval = new ParsedLicenseTemplate(recorder.nodes);
+			CACHE.put(licenseTemplate, retval);
+		}
+		return retval;
+	}
+
+	/**
+	 * Remove all parsed templates from the cache
+	 */
+	public static void clearCache() {
+		CACHE.clear();
+	}
+
+	/**
+	 * Pass the parsed text and rules to an output handler followed by <code>completeParsing</code>
+	 * @param templateOutputHandler handles the text, optional text, and variable rules
+	 * @throws LicenseParserException if the handler fails to complete parsing
+	 */
+	public void replay(ILicenseTemplateOutputHandler templateOutputHandler) throws LicenseParserException {
+		Objects.requireNonNull(templateOutputHandler, "Output handler can not be null");
+		for (Node node:nodes) {
+			if (Objects.nonNull(node.text)) {
+				templateOutputHandler.text(node.text);
+			} else if (node.rule.getType() == LicenseTemplateRule.RuleType.VARIABLE) {
+				templateOutputHandler.variableRule(node.rule);
+			} else if (node.rule.getType() == LicenseTemplateRule.RuleType.BEGIN_OPTIONAL) {
+				templateOutputHandler.beginOptional(node.rule);
+			} else {
+				templateOutputHandler.endOptional(node.rule);
+			}
+		}
+		templateOutputHandler.completeParsing();
+	}
+}
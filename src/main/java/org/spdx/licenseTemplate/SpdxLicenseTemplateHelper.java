@@ -5,6 +5,9 @@
  */
 package org.spdx.licenseTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -100,13 +103,35 @@ public class SpdxLicenseTemplateHelper {
 	public static String templateTextToHtml(String licenseTemplate) throws LicenseTemplateRuleException {
 		HtmlTemplateOutputHandler htmlOutput = new HtmlTemplateOutputHandler();
 		try {
-			parseTemplate(licenseTemplate, htmlOutput);
+			ParsedLicenseTemplate.parse(licenseTemplate).replay(htmlOutput);
 		} catch (LicenseParserException e) {
 			throw new LicenseTemplateRuleException("Parsing error parsing license template", e);
 		}
 		return htmlOutput.getHtml();
 	}
 
+	/**
+	 * Converts a license template string to formatted HTML which highlights any
+	 * rules or tags writing the HTML as it is generated
+	 * @param licenseTemplate standard license template
+	 * @param out destination for the HTML representation of the license template
+	 * @throws LicenseTemplateRuleException on a rule parsing errors
+	 * @throws IOException on errors writing the HTML
+	 */
+	public static void templateTextToHtml(String licenseTemplate, Appendable out) throws LicenseTemplateRuleException, IOException {
+		StreamingHtmlTemplateOutputHandler htmlOutput = new StreamingHtmlTemplateOutputHandler(out);
+		try {
+			ParsedLicenseTemplate.parse(licenseTemplate).replay(htmlOutput);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} catch (LicenseParserException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw new LicenseTemplateRuleException("Parsing error parsing license template", e);
+		}
+	}
+
 	/**
 	 * Converts template text to standard default text using any default parameters
 	 * in the rules
@@ -118,7 +143,7 @@ public class SpdxLicenseTemplateHelper {
 	public static String templateToText(String template) throws LicenseTemplateRuleException {
 		TextTemplateOutputHandler textOutput = new TextTemplateOutputHandler();
 		try {
-			parseTemplate(template, textOutput);
+			ParsedLicenseTemplate.parse(template).replay(textOutput);
 		} catch (LicenseParserException e) {
 			throw new LicenseTemplateRuleException("Parsing error parsing license template", e);
 		}
@@ -143,8 +168,7 @@ public class SpdxLicenseTemplateHelper {
 	 * @return text escaped and formatted for inclusion in HTML
 	 */
 	public static String formatEscapeHTML(String text, boolean inParagraph) {
-		String retval = StringEscapeUtils.escapeXml11(text);
-		return addHtmlFormatting(retval, inParagraph);
+		return formatHtml(text, inParagraph, true);
 	}
 
 	/**
@@ -171,39 +195,145 @@ public class SpdxLicenseTemplateHelper {
 	 * @return HTML formatted text
 	 */
 	public static String addHtmlFormatting(String text, boolean inParagraph) {
-		String[] lines = text.split("\n");
-		StringBuilder result = new StringBuilder();
-		result.append(lines[0]);
-		int i = 1;
-		while (i < lines.length) {
-			if (lines[i].trim().isEmpty()) {
+		return formatHtml(text, inParagraph, false);
+	}
+
+	/**
+	 * @param text        unformatted text
+	 * @param inParagraph true if inside a paragraph tag
+	 * @param escape      true if the text should be escaped
+	 * @return HTML formatted text
+	 */
+	private static String formatHtml(String text, boolean inParagraph, boolean escape) {
+		StringBuilder result = new StringBuilder(text.length() + 16);
+		try {
+			if (appendHtmlFormatting(text, inParagraph, escape, result)) {
+				result.append(HtmlTemplateOutputHandler.END_PARAGRAPH_TAG);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);	// StringBuilder does not throw IOException
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Lines of text as split by <code>String.split("\n")</code> - including the removal of trailing empty lines -
+	 * read one line at a time and optionally escaped.  Escaping does not add or remove newlines, so escaping
+	 * each line gives the same lines as escaping the whole text before splitting.
+	 */
+	private static class HtmlLines {
+		final CharSequence text;
+		final boolean escape;
+		int lineStart = 0;	// start of the next line to read, -1 after the last line
+		int pendingEmptyLines = 0;
+		String nextNonEmptyLine = null;
+		boolean lastLineEmpty = false;
+		boolean containsNewline = false;
+
+		HtmlLines(CharSequence text, boolean escape) {
+			this.text = text;
+			this.escape = escape;
+		}
+
+		/**
+		 * @return the next line or null if there are no more lines
+		 */
+		String next() {
+			if (pendingEmptyLines == 0 && Objects.isNull(nextNonEmptyLine)) {
+				readToNonEmptyLine();
+			}
+			if (Objects.isNull(nextNonEmptyLine)) {
+				return null;	// only trailing empty lines remain
+			}
+			if (pendingEmptyLines > 0) {
+				pendingEmptyLines--;
+				return "";
+			}
+			String retval = nextNonEmptyLine;
+			nextNonEmptyLine = null;
+			return retval;
+		}
+
+		private void readToNonEmptyLine() {
+			while (lineStart >= 0) {
+				int lineEnd = lineStart;
+				while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+					lineEnd++;
+				}
+				CharSequence line = text.subSequence(lineStart, lineEnd);
+				String formatted = escape ? StringEscapeUtils.ESCAPE_XML11.translate(line) : line.toString();
+				if (lineEnd < text.length()) {
+					containsNewline = true;
+					lineStart = lineEnd + 1;
+				} else {
+					lineStart = -1;
+				}
+				lastLineEmpty = formatted.isEmpty();
+				if (!containsNewline || !lastLineEmpty) {
+					nextNonEmptyLine = formatted;	// text without newlines is a single line even if empty
+					return;
+				}
+				pendingEmptyLines++;
+			}
+		}
+
+		/**
+		 * @return true if the (escaped) text ends with a newline - only valid once all lines have been read
+		 */
+		boolean endsWithNewline() {
+			return containsNewline && lastLineEmpty;
+		}
+	}
+
+	/**
+	 * Adds HTML formatting {@code <br>
+	 * } and {@code 
+	 * <p>
+	 * } one line at a time, except for the end paragraph tag which would end the formatted text
+	 * 
+	 * @param text        unformatted text
+	 * @param inParagraph true if inside a paragraph tag
+	 * @param escape      true if the text should be escaped
+	 * @param out         destination for the formatted text
+	 * @return true if the formatted text ends inside a paragraph, in which case the caller is responsible for the
+	 *         end paragraph tag
+	 * @throws IOException on errors appending to out
+	 */
+	static boolean appendHtmlFormatting(CharSequence text, boolean inParagraph, boolean escape, Appendable out) throws IOException {
+		HtmlLines lines = new HtmlLines(text, escape);
+		String line = lines.next();
+		out.append(Objects.isNull(line) ? "" : line);	// text of only newlines is treated as a single empty line
+		line = lines.next();
+		while (Objects.nonNull(line)) {
+			if (line.trim().isEmpty()) {
 				// paragraph boundary
 				if (inParagraph) {
-					result.append("</p>");
+					out.append(HtmlTemplateOutputHandler.END_PARAGRAPH_TAG);
 				}
-				result.append("\n");
-				i++;
-				if (i < lines.length) {
-					String paragraphTag = getParagraphTagConsideringTags(lines[i]);
-					result.append(paragraphTag);
-					result.append(lines[i++]);
+				out.append("\n");
+				line = lines.next();
+				if (Objects.nonNull(line)) {
+					out.append(getParagraphTagConsideringTags(line));
+					out.append(line);
+					line = lines.next();
 				} else {
-					result.append("<p>");
+					out.append("<p>");
 				}
 				inParagraph = true;
 			} else {
 				// just a line break
-				result.append("<br/>");
-				result.append("\n");
-				result.append(lines[i++]);
+				out.append("<br/>");
+				out.append("\n");
+				out.append(line);
+				line = lines.next();
 			}
 		}
 		if (inParagraph) {
-			result.append("</p>");
-		} else if (text.endsWith("\n")) {
-			result.append("<br/>\n");
+			return true;
+		} else if (lines.endsWithNewline()) {
+			out.append("<br/>\n");
 		}
-		return result.toString();
+		return false;
 	}
 
 	/**
@@ -0,0 +1,175 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * License template output handler which writes an HTML version of a license to an <code>Appendable</code>
+ * (e.g. a <code>Writer</code>) as the template is parsed
+ * <p>
+ * Produces the same HTML as <code>HtmlTemplateOutputHandler</code> without keeping the HTML in memory.  Text is
+ * formatted one line at a time.  The only output held back is an end paragraph tag at the end of the output so far,
+ * since <code>HtmlTemplateOutputHandler</code> moves it after a following rule - the HTML is complete once
+ * <code>completeParsing</code> is called.
+ * <p>
+ * Errors writing to the <code>Appendable</code> are thrown as <code>UncheckedIOException</code> from the handler
+ * methods other than <code>completeParsing</code>, which throws a <code>LicenseParserException</code> with
+ * the <code>IOException</code> as the cause.
+ *
+ * @author Gary O'Neall
+ */
+public class StreamingHtmlTemplateOutputHandler implements ILicenseTemplateOutputHandler {
+
+	/**
+	 * Writes any held back end paragraph tag before other output
+	 */
+	private static class ParagraphAppendable implements Appendable {
+		final Appendable out;
+		boolean endParagraphPending = false;
+
+		ParagraphAppendable(Appendable out) {
+			this.out = out;
+		}
+
+		void writePending() throws IOException {
+			if (endParagraphPending) {
+				endParagraphPending = false;
+				out.append(HtmlTemplateOutputHandler.END_PARAGRAPH_TAG);
+			}
+		}
+
+		/**
+		 * Hold back an end paragraph tag
+		 * @throws IOException on write errors
+		 */
+		void endParagraph() throws IOException {
+			writePending();
+			endParagraphPending = true;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) throws IOException {
+			if (Objects.nonNull(csq) && csq.length() > 0) {
+				writePending();
+				out.append(csq);
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) throws IOException {
+			if (end > start) {
+				writePending();
+				out.append(csq, start, end);
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) throws IOException {
+			writePending();
+			out.append(c);
+			return this;
+		}
+	}
+
+	private final ParagraphAppendable out;
+	private int optionalNestLevel = 0;
+	private boolean movingParagraph = false;	// true if an end paragraph tag has been moved after a rule
+
+	/**
+	 * @param out destination for the HTML
+	 */
+	public StreamingHtmlTemplateOutputHandler(Appendable out) {
+		Objects.requireNonNull(out, "Output can not be null");
+		this.out = new ParagraphAppendable(out);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.spdx.licenseTemplate.ILicenseTemplateOutputHandler#text(java.lang.String)
+	 */
+	@Override
+	public void text(String text) {
+		try {
+			boolean inParagraph = optionalNestLevel == 0 && this.movingParagraph;
+			if (SpdxLicenseTemplateHelper.appendHtmlFormatting(text, inParagraph, true, out)) {
+				out.endParagraph();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (optionalNestLevel == 0) {
+			this.movingParagraph = false;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.spdx.licenseTemplate.ILicenseTemplateOutputHandler#variableRule(org.spdx.licenseTemplate.LicenseTemplateRule)
+	 */
+	@Override
+	public void variableRule(LicenseTemplateRule rule) {
+		removeEndParagraphTag();
+		write(HtmlTemplateOutputHandler.formatReplaceableHTML(rule.getOriginal(), rule.getName()));
+	}
+
+	/**
+	 * If the output ends with an HTML end paragraph tag, remove it and set the flag so that it will be
+	 * written after the rule
+	 */
+	private void removeEndParagraphTag() {
+		if (out.endParagraphPending) {
+			out.endParagraphPending = false;
+			this.movingParagraph = true;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.spdx.licenseTemplate.ILicenseTemplateOutputHandler#beginOptional(org.spdx.licenseTemplate.LicenseTemplateRule)
+	 */
+	@Override
+	public void beginOptional(LicenseTemplateRule rule) {
+		if (this.optionalNestLevel == 0) {	// We only want to format the top level optional texts
+			removeEndParagraphTag();
+			write(HtmlTemplateOutputHandler.formatStartOptionalHTML(rule.getName()));
+		}
+		this.optionalNestLevel++;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.spdx.licenseTemplate.ILicenseTemplateOutputHandler#endOptional(org.spdx.licenseTemplate.LicenseTemplateRule)
+	 */
+	@Override
+	public void endOptional(LicenseTemplateRule rule) {
+		this.optionalNestLevel--;
+		if (this.optionalNestLevel == 0) {	// we are only formatting the top level optional elements
+			write(HtmlTemplateOutputHandler.formatEndOptionalHTML(this.movingParagraph));
+			this.movingParagraph = false;
+		}
+	}
+
+	private void write(String html) {
+		try {
+			out.append(html);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes any held back end paragraph tag
+	 */
+	@Override
+	public void completeParsing() throws LicenseParserException {
+		try {
+			out.writePending();
+		} catch (IOException e) {
+			throw new LicenseParserException("I/O error writing HTML", e);
+		}
+	}
+}
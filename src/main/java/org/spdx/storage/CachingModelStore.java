@@ -0,0 +1,681 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.TypedValue;
+
+/**
+ * Model store which caches the typed values, property values and collection members read from another model store
+ * <p>
+ * Intended for model stores where each read is expensive (e.g. persistent or remote stores).  <code>getTypedValue</code>,
+ * <code>getValue</code> and <code>listValues</code> are read through the cache.  Collection members are cached as a
+ * snapshot which is also used for <code>collectionSize</code> and <code>collectionContains</code>, and a cached typed
+ * value answers <code>exists</code>.  All other methods are passed to the wrapped store.
+ * <p>
+ * The cache holds at most the maximum size entries.  Entries are evicted in approximately least recently used order,
+ * but a newly read value is only cached if it has been accessed more often than the entry it would evict as estimated
+ * by a <code>FrequencySketch</code>, so a single pass over a large number of objects does not evict frequently read
+ * values.  Cached values are read without locking - a read answered from the cache only marks the entry as recently
+ * used and counts the access if no other thread is updating the cache for the same segment.
+ * <p>
+ * Writes made through this store invalidate the cached values for the object and property written.  Updates
+ * passed to <code>applyUpdates</code> invalidate the cache only if they write through this store.
+ * NOTE: Changes made directly to the wrapped store, or by other clients of a shared store, are not detected -
+ * <code>invalidate</code> or <code>clear</code> must be called after such changes.
+ *
+ * @author Gary O'Neall
+ */
+public class CachingModelStore implements IModelStore {
+
+	/**
+	 * Default maximum number of cached values
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final int NUM_SEGMENTS = 16;
+
+	/**
+	 * Kind of value cached for an object
+	 */
+	enum ValueKind {
+		TYPED_VALUE,
+		VALUE,
+		COLLECTION
+	}
+
+	/**
+	 * Identifies a cached value
+	 */
+	static final class Key {
+		final String objectUri;
+		final ValueKind kind;
+		final PropertyDescriptor propertyDescriptor;
+		final int hash;
+
+		Key(String objectUri, ValueKind kind, @Nullable PropertyDescriptor propertyDescriptor) {
+			this.objectUri = objectUri;
+			this.kind = kind;
+			this.propertyDescriptor = propertyDescriptor;
+			this.hash = Objects.hash(objectUri, kind, propertyDescriptor);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key compare = (Key)o;
+			return hash == compare.hash && kind == compare.kind && objectUri.equals(compare.objectUri) &&
+					Objects.equals(propertyDescriptor, compare.propertyDescriptor);
+		}
+	}
+
+	/**
+	 * Reads a value from the wrapped store on a cache miss
+	 */
+	@FunctionalInterface
+	private interface Loader<T> {
+		T load() throws InvalidSPDXAnalysisException;
+	}
+
+	/**
+	 * Cached value along with whether it has been read since the eviction clock last passed it
+	 */
+	private static final class Node {
+		final Key key;
+		final Object value;
+		/**
+		 * Set without locking when the value is read
+		 */
+		volatile boolean referenced = false;
+		/**
+		 * Set once the node is no longer cached - the node is removed from the clock when the clock next passes it
+		 */
+		boolean removed = false;
+
+		Node(Key key, Object value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Entries for the objects hashed to the segment along with their access frequencies
+	 * <p>
+	 * Entries are read from the concurrent map without locking.  All other fields must only be accessed while
+	 * holding the lock.  Entries are evicted using the clock algorithm - the clock passes over entries read since
+	 * it last passed them, so the entry evicted is approximately the least recently used.
+	 * <p>
+	 * The generation is incremented on every invalidation so that values read from the wrapped store
+	 * concurrently with a write are not cached.
+	 */
+	private static final class Segment {
+		final ConcurrentHashMap<Key, Node> entries = new ConcurrentHashMap<>();
+		final ReentrantLock lock = new ReentrantLock();
+		/**
+		 * Keys of the entries for each object URI so that an object can be invalidated without a scan of all entries
+		 */
+		final Map<String, List<Key>> keysByUri = new HashMap<>();
+		final List<Node> clock = new ArrayList<>();
+		final FrequencySketch sketch;
+		final int maxSize;
+		int hand = 0;
+		long generation = 0;
+
+		Segment(int maxSize) {
+			this.maxSize = maxSize;
+			this.sketch = new FrequencySketch(maxSize);
+		}
+
+		/**
+		 * @param key key for the value
+		 * @return the cached value or null if not cached - the access is recorded without waiting for the lock
+		 */
+		@Nullable Object read(Key key) {
+			Node node = entries.get(key);
+			if (Objects.isNull(node)) {
+				return null;
+			}
+			if (!node.referenced) {
+				node.referenced = true;
+			}
+			if (lock.tryLock()) {
+				try {
+					sketch.increment(key);
+				} finally {
+					lock.unlock();
+				}
+			}
+			return node.value;
+		}
+
+		/**
+		 * @param key key for the value
+		 * @param value value to cache - the key must not already be cached
+		 */
+		void put(Key key, Object value) {
+			if (clock.size() >= 2 * maxSize) {
+				clock.removeIf(node -> node.removed);
+				hand = 0;
+			}
+			Node node = new Node(key, value);
+			entries.put(key, node);
+			keysByUri.computeIfAbsent(key.objectUri, uri -> new ArrayList<>(2)).add(key);
+			clock.add(node);
+		}
+
+		/**
+		 * @param key key for the value to remove
+		 */
+		void remove(Key key) {
+			Node node = entries.remove(key);
+			if (Objects.nonNull(node)) {
+				node.removed = true;
+				List<Key> keys = keysByUri.get(key.objectUri);
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					keysByUri.remove(key.objectUri);
+				}
+			}
+		}
+
+		/**
+		 * @param objectUri URI of the object to remove all values for
+		 */
+		void removeAll(String objectUri) {
+			List<Key> keys = keysByUri.remove(objectUri);
+			if (Objects.nonNull(keys)) {
+				for (Key key:keys) {
+					entries.remove(key).removed = true;
+				}
+			}
+		}
+
+		/**
+		 * Advance the clock to the next entry which has not been read since the clock last passed it - entries
+		 * which are read again while the clock is advanced are not passed more than twice
+		 * @return the entry to be evicted
+		 */
+		Node nextVictim() {
+			int passed = 0;
+			while (true) {
+				if (hand >= clock.size()) {
+					hand = 0;
+				}
+				Node node = clock.get(hand);
+				if (node.removed) {
+					int last = clock.size() - 1;
+					clock.set(hand, clock.get(last));
+					clock.remove(last);
+				} else if (node.referenced && passed++ < 2 * clock.size()) {
+					node.referenced = false;
+					hand++;
+				} else {
+					return node;
+				}
+			}
+		}
+
+		void clear() {
+			entries.clear();
+			keysByUri.clear();
+			clock.clear();
+			hand = 0;
+			sketch.clear();
+			generation++;
+		}
+	}
+
+	private final IModelStore baseStore;
+	private final Segment[] segments;
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * Create a caching store with the default maximum size
+	 * @param baseStore store to cache
+	 */
+	public CachingModelStore(IModelStore baseStore) {
+		this(baseStore, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param baseStore store to cache
+	 * @param maxSize maximum number of cached values
+	 */
+	public CachingModelStore(IModelStore baseStore, int maxSize) {
+		Objects.requireNonNull(baseStore, "Base store can not be null");
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be greater than zero");
+		}
+		this.baseStore = baseStore;
+		int numSegments = Math.min(NUM_SEGMENTS, maxSize);
+		int segmentSize = maxSize / numSegments;	// never exceed the maximum size in total
+		segments = new Segment[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	/**
+	 * @return the store being cached
+	 */
+	public IModelStore getBaseStore() {
+		return baseStore;
+	}
+
+	/**
+	 * @return number of reads answered from the cache
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return number of reads passed to the wrapped store
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return number of cached values evicted to make room for more frequently accessed values
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * @return number of cached values
+	 */
+	public int size() {
+		int retval = 0;
+		for (Segment segment:segments) {
+			retval += segment.entries.size();
+		}
+		return retval;
+	}
+
+	/**
+	 * @param objectUri URI of the object
+	 * @return the segment containing all entries for the object URI
+	 */
+	private Segment segmentFor(String objectUri) {
+		int hash = objectUri.hashCode();
+		return segments[((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % segments.length];
+	}
+
+	/**
+	 * Return the cached value for the key, reading and possibly caching the value from the wrapped store if not present
+	 * @param key key for the value
+	 * @param loader reads the value from the wrapped store
+	 * @return the cached or loaded value
+	 * @throws InvalidSPDXAnalysisException on errors reading from the wrapped store - errors are not cached
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T get(Key key, Loader<T> loader) throws InvalidSPDXAnalysisException {
+		Segment segment = segmentFor(key.objectUri);
+		Object cached = segment.read(key);
+		if (Objects.nonNull(cached)) {
+			hitCount.increment();
+			return (T)cached;
+		}
+		long generation;
+		segment.lock.lock();
+		try {
+			segment.sketch.increment(key);
+			generation = segment.generation;
+		} finally {
+			segment.lock.unlock();
+		}
+		missCount.increment();
+		T value = loader.load();	// read outside the lock so slow reads do not block other objects
+		segment.lock.lock();
+		try {
+			if (segment.generation == generation && !segment.entries.containsKey(key)) {
+				admit(segment, key, value);
+			}
+		} finally {
+			segment.lock.unlock();
+		}
+		return value;
+	}
+
+	/**
+	 * Cache the value if there is room or if it is accessed more often than the entry chosen for eviction
+	 * - must be called while holding the segment lock
+	 * @param segment segment for the key
+	 * @param key key for the value
+	 * @param value value to cache
+	 */
+	private void admit(Segment segment, Key key, Object value) {
+		if (segment.entries.size() >= segment.maxSize) {
+			Key victim = segment.nextVictim().key;
+			if (segment.sketch.frequency(key) <= segment.sketch.frequency(victim)) {
+				return;
+			}
+			segment.remove(victim);
+			evictionCount.increment();
+		}
+		segment.put(key, value);
+	}
+
+	/**
+	 * @param key key for the value
+	 * @return the cached value or null if the value is not cached - the wrapped store is not read
+	 */
+	private @Nullable Object peek(Key key) {
+		Object cached = segmentFor(key.objectUri).read(key);
+		if (Objects.nonNull(cached)) {
+			hitCount.increment();
+		}
+		return cached;
+	}
+
+	/**
+	 * Remove the cached values for a property
+	 * @param objectUri URI of the object
+	 * @param propertyDescriptor property descriptor for the property
+	 */
+	private void invalidate(String objectUri, PropertyDescriptor propertyDescriptor) {
+		Segment segment = segmentFor(objectUri);
+		segment.lock.lock();
+		try {
+			segment.remove(new Key(objectUri, ValueKind.VALUE, propertyDescriptor));
+			segment.remove(new Key(objectUri, ValueKind.COLLECTION, propertyDescriptor));
+			segment.generation++;
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove all cached values for an object - must be called if the object is changed other than through this store
+	 * @param objectUri URI of the object
+	 */
+	public void invalidate(String objectUri) {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		Segment segment = segmentFor(objectUri);
+		segment.lock.lock();
+		try {
+			segment.removeAll(objectUri);
+			segment.generation++;
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove all cached values and access frequencies
+	 */
+	public void clear() {
+		for (Segment segment:segments) {
+			segment.lock.lock();
+			try {
+				segment.clear();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public boolean exists(String objectUri) {
+		Object cached = peek(new Key(objectUri, ValueKind.TYPED_VALUE, null));
+		if (Objects.nonNull(cached)) {
+			return ((Optional<?>)cached).isPresent();
+		}
+		return baseStore.exists(objectUri);
+	}
+
+	@Override
+	public void create(TypedValue typedValue) throws InvalidSPDXAnalysisException {
+		try {
+			baseStore.create(typedValue);
+		} finally {
+			invalidate(typedValue.getObjectUri());
+		}
+	}
+
+	@Override
+	public List<PropertyDescriptor> getPropertyValueDescriptors(String objectUri) throws InvalidSPDXAnalysisException {
+		return baseStore.getPropertyValueDescriptors(objectUri);
+	}
+
+	@Override
+	public void setValue(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		try {
+			baseStore.setValue(objectUri, propertyDescriptor, value);
+		} finally {
+			invalidate(objectUri, propertyDescriptor);
+		}
+	}
+
+	@Override
+	public Optional<Object> getValue(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return get(new Key(objectUri, ValueKind.VALUE, propertyDescriptor),
+				() -> baseStore.getValue(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public String getNextId(IdType idType) throws InvalidSPDXAnalysisException {
+		return baseStore.getNextId(idType);
+	}
+
+	@Override
+	public void removeProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		try {
+			baseStore.removeProperty(objectUri, propertyDescriptor);
+		} finally {
+			invalidate(objectUri, propertyDescriptor);
+		}
+	}
+
+	@Override
+	public Stream<TypedValue> getAllItems(@Nullable String nameSpace, @Nullable String typeFilter) throws InvalidSPDXAnalysisException {
+		return baseStore.getAllItems(nameSpace, typeFilter);
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		return baseStore.enterCriticalSection(readLockRequested);
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(String objectUri, boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		return baseStore.enterCriticalSection(objectUri, readLockRequested);
+	}
+
+	@Override
+	public void leaveCriticalSection(IModelStoreLock lock) {
+		baseStore.leaveCriticalSection(lock);
+	}
+
+	@Override
+	public boolean removeValueFromCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		try {
+			return baseStore.removeValueFromCollection(objectUri, propertyDescriptor, value);
+		} finally {
+			invalidate(objectUri, propertyDescriptor);
+		}
+	}
+
+	@Override
+	public int collectionSize(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		Object cached = peek(new Key(objectUri, ValueKind.COLLECTION, propertyDescriptor));
+		if (Objects.nonNull(cached)) {
+			return ((List<?>)cached).size();
+		}
+		return baseStore.collectionSize(objectUri, propertyDescriptor);
+	}
+
+	@Override
+	public boolean collectionContains(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		Object cached = peek(new Key(objectUri, ValueKind.COLLECTION, propertyDescriptor));
+		if (Objects.nonNull(cached)) {
+			return ((List<?>)cached).contains(value);
+		}
+		return baseStore.collectionContains(objectUri, propertyDescriptor, value);
+	}
+
+	@Override
+	public void clearValueCollection(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		try {
+			baseStore.clearValueCollection(objectUri, propertyDescriptor);
+		} finally {
+			invalidate(objectUri, propertyDescriptor);
+		}
+	}
+
+	@Override
+	public boolean addValueToCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		try {
+			return baseStore.addValueToCollection(objectUri, propertyDescriptor, value);
+		} finally {
+			invalidate(objectUri, propertyDescriptor);
+		}
+	}
+
+	/**
+	 * Returns an iterator over a snapshot of the collection members - the iterator does not support <code>remove</code>
+	 */
+	@Override
+	public Iterator<Object> listValues(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		List<Object> members = get(new Key(objectUri, ValueKind.COLLECTION, propertyDescriptor), () -> {
+			List<Object> snapshot = new ArrayList<>();
+			Iterator<Object> iter = baseStore.listValues(objectUri, propertyDescriptor);
+			while (iter.hasNext()) {
+				snapshot.add(iter.next());
+			}
+			return Collections.unmodifiableList(snapshot);
+		});
+		return members.iterator();
+	}
+
+	@Override
+	public boolean isCollectionMembersAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor, Class<?> clazz) throws InvalidSPDXAnalysisException {
+		return baseStore.isCollectionMembersAssignableTo(objectUri, propertyDescriptor, clazz);
+	}
+
+	@Override
+	public boolean isPropertyValueAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor,
+			Class<?> clazz, String specVersion) throws InvalidSPDXAnalysisException {
+		return baseStore.isPropertyValueAssignableTo(objectUri, propertyDescriptor, clazz, specVersion);
+	}
+
+	@Override
+	public boolean isCollectionProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return baseStore.isCollectionProperty(objectUri, propertyDescriptor);
+	}
+
+	@Override
+	public IdType getIdType(String objectUri) {
+		return baseStore.getIdType(objectUri);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public Optional<String> getCaseSensisitiveId(String nameSpace, String caseInsensisitiveId) {
+		return getCaseSensitiveId(nameSpace, caseInsensisitiveId);
+	}
+
+	@Override
+	public Optional<String> getCaseSensitiveId(String nameSpace, String caseInsensitiveId) {
+		return baseStore.getCaseSensitiveId(nameSpace, caseInsensitiveId);
+	}
+
+	@Override
+	public Optional<TypedValue> getTypedValue(String objectUri) throws InvalidSPDXAnalysisException {
+		return get(new Key(objectUri, ValueKind.TYPED_VALUE, null), () -> baseStore.getTypedValue(objectUri));
+	}
+
+	@Override
+	public void delete(String objectUri) throws InvalidSPDXAnalysisException {
+		try {
+			baseStore.delete(objectUri);
+		} finally {
+			invalidate(objectUri);
+		}
+	}
+
+	@Override
+	public boolean isAnon(String objectUri) {
+		return baseStore.isAnon(objectUri);
+	}
+
+	@Override
+	public long getModificationStamp(String objectUri) {
+		return baseStore.getModificationStamp(objectUri);
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getValues(String objectUri,
+			Collection<PropertyDescriptor> propertyDescriptors) throws InvalidSPDXAnalysisException {
+		return baseStore.getValues(objectUri, propertyDescriptors);
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getAllValues(String objectUri) throws InvalidSPDXAnalysisException {
+		return baseStore.getAllValues(objectUri);
+	}
+
+	@Override
+	public void applyUpdates(List<? extends ModelUpdate> updates) throws InvalidSPDXAnalysisException {
+		baseStore.applyUpdates(updates);
+	}
+
+	@Override
+	public void applyMutations(List<PropertyMutation> mutations) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(mutations, "Mutations can not be null");
+		try {
+			baseStore.applyMutations(mutations);
+		} finally {
+			for (PropertyMutation mutation:mutations) {
+				invalidate(mutation.getObjectUri(), mutation.getPropertyDescriptor());
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached values and closes the wrapped store
+	 */
+	@Override
+	public void close() throws Exception {
+		clear();
+		baseStore.close();
+	}
+
+	@Override
+	public String toString() {
+		return "CachingModelStore[" + baseStore + "]";
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch estimating how often keys have been accessed
+ * <p>
+ * Used by <code>CachingModelStore</code> to decide whether a newly loaded value is accessed more often than the
+ * value it would evict.  Each key is counted in one small counter per row and the estimate is the minimum of those
+ * counters, so estimates may be too high but are never too low.  Counters saturate at <code>MAX_COUNT</code> and
+ * all counters are halved once the number of increments reaches ten times the maximum size so that the estimates
+ * favor recent accesses.
+ * <p>
+ * This class is not thread safe - callers must synchronize access.
+ *
+ * @author Gary O'Neall
+ */
+final class FrequencySketch {
+
+	static final int DEPTH = 4;
+	static final int MAX_COUNT = 15;
+	private static final int[] SEEDS = new int[] {0x97CB3127, 0xB3F1E5D9, 0x8EBC6AF1, 0xC2B2AE35};
+	private static final int MAX_WIDTH = 1 << 30;
+
+	private final int[] table;
+	private final int width;
+	private final int sampleSize;
+	private int additions = 0;
+
+	/**
+	 * @param maximumSize maximum number of keys retained by the cache using the sketch
+	 */
+	FrequencySketch(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be greater than zero");
+		}
+		int size = Math.min(Math.max(maximumSize, 8), MAX_WIDTH);
+		this.width = Integer.highestOneBit(size - 1) << 1;	// smallest power of 2 >= size
+		this.table = new int[DEPTH * width];
+		this.sampleSize = (int)Math.min(10L * maximumSize, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param hash spread hash of the key
+	 * @param row row of the sketch
+	 * @return index in the table of the counter for the key in the row
+	 */
+	private int indexOf(int hash, int row) {
+		int h = (hash + SEEDS[row]) * SEEDS[row];
+		h ^= h >>> 16;
+		return row * width + (h & (width - 1));
+	}
+
+	private static int spread(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @param key key
+	 * @return estimated number of times the key has been accessed since the counters were last halved
+	 */
+	int frequency(Object key) {
+		return frequency(spread(key));
+	}
+
+	/**
+	 * @param hash spread hash of the key
+	 * @return estimated number of times the key has been accessed since the counters were last halved
+	 */
+	private int frequency(int hash) {
+		int retval = MAX_COUNT;
+		for (int row = 0; row < DEPTH; row++) {
+			retval = Math.min(retval, table[indexOf(hash, row)]);
+		}
+		return retval;
+	}
+
+	/**
+	 * Record an access to the key
+	 * <p>
+	 * Only the counters equal to the current estimate are incremented, which reduces the over estimates caused by
+	 * keys sharing counters.
+	 * @param key key accessed
+	 */
+	void increment(Object key) {
+		int hash = spread(key);
+		int min = frequency(hash);
+		if (min == MAX_COUNT) {
+			return;
+		}
+		// the indexes are recalculated rather than saved so that no memory is allocated for each access
+		for (int row = 0; row < DEPTH; row++) {
+			int index = indexOf(hash, row);
+			if (table[index] == min) {
+				table[index]++;
+			}
+		}
+		if (++additions >= sampleSize) {
+			reset();
+		}
+	}
+
+	/**
+	 * Halve all counters
+	 */
+	void reset() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] >>>= 1;
+		}
+		additions >>>= 1;
+	}
+
+	/**
+	 * Set all counters to zero
+	 */
+	void clear() {
+		Arrays.fill(table, 0);
+		additions = 0;
+	}
+}
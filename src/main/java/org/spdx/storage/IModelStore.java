@@ -6,8 +6,13 @@
 package org.spdx.storage;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -125,6 +130,22 @@ public interface IModelStore extends AutoCloseable {
 	 */
     IModelStoreLock enterCriticalSection(boolean readLockRequested) throws InvalidSPDXAnalysisException;
 	
+	/**
+	 * Enter a critical section scoped to a single object. leaveCriticalSection must be called.
+	 * <p>
+	 * Stores supporting fine grained locking should override this method so that critical sections
+	 * for different objects do not block each other.  The default implementation enters a store wide critical section.
+	 * <p>
+	 * Different objects may share a lock, so a write critical section should not be entered while the thread holds
+	 * a read critical section for any object.
+	 * @param objectUri URI or anonymous ID for the object the critical section protects
+	 * @param readLockRequested true implies a read lock, false implies write lock.
+	 * @throws InvalidSPDXAnalysisException on model store errors 
+	 */
+    default IModelStoreLock enterCriticalSection(String objectUri, boolean readLockRequested) throws InvalidSPDXAnalysisException {
+    	return enterCriticalSection(readLockRequested);
+    }
+	
 	/**
 	 * Leave a critical section. Releases the lock form the matching enterCriticalSection
 	 */
@@ -274,4 +295,114 @@ public interface IModelStore extends AutoCloseable {
 	 * @return true if the ID is anonymous
 	 */
 	boolean isAnon(String objectUri);
+	
+	/**
+	 * Get a stamp which changes whenever the object or any of its property values are modified
+	 * <p>
+	 * Stamps are only compared for equality - a changed stamp indicates that the object may have been
+	 * modified since the previous stamp was obtained.  The stamp must be updated after the modification
+	 * is visible to readers.
+	 * @param objectUri unique URI within the SPDX model store for the objects
+	 * @return the modification stamp or -1 if the store does not track modifications or the object does not exist
+	 */
+    default long getModificationStamp(String objectUri) {
+    	return -1;
+    }
+    
+	/**
+	 * Get the values for several properties of an object in a single store request
+	 * <p>
+	 * Collection properties are returned as an unmodifiable <code>List</code> containing a snapshot of the stored
+	 * members.  Properties without a value are not included in the result.
+	 * <p>
+	 * Stores where each request is expensive (e.g. persistent or remote stores) should override this method.
+	 * The default implementation reads each property within a single read critical section for the object.
+	 * @param objectUri unique URI within the SPDX model store for the objects
+	 * @param propertyDescriptors descriptors for the properties to retrieve
+	 * @return map of property descriptor to stored value or list of stored values
+	 * @throws InvalidSPDXAnalysisException on model store errors
+	 */
+    default Map<PropertyDescriptor, Object> getValues(String objectUri, 
+    		Collection<PropertyDescriptor> propertyDescriptors) throws InvalidSPDXAnalysisException {
+    	IModelStoreLock lock = enterCriticalSection(objectUri, true);
+    	try {
+    		Map<PropertyDescriptor, Object> retval = new HashMap<>();
+    		for (PropertyDescriptor propertyDescriptor:propertyDescriptors) {
+    			if (isCollectionProperty(objectUri, propertyDescriptor)) {
+    				List<Object> members = new ArrayList<>();
+    				Iterator<Object> iter = listValues(objectUri, propertyDescriptor);
+    				while (iter.hasNext()) {
+    					members.add(iter.next());
+    				}
+    				retval.put(propertyDescriptor, Collections.unmodifiableList(members));
+    			} else {
+    				Optional<Object> value = getValue(objectUri, propertyDescriptor);
+    				if (value.isPresent()) {
+    					retval.put(propertyDescriptor, value.get());
+    				}
+    			}
+    		}
+    		return retval;
+    	} finally {
+    		leaveCriticalSection(lock);
+    	}
+    }
+    
+	/**
+	 * Get the values for all properties of an object in a single store request
+	 * <p>
+	 * See <code>getValues</code> for the form of the returned values.
+	 * @param objectUri unique URI within the SPDX model store for the objects
+	 * @return map of property descriptor to stored value or list of stored values
+	 * @throws InvalidSPDXAnalysisException on model store errors
+	 */
+    default Map<PropertyDescriptor, Object> getAllValues(String objectUri) throws InvalidSPDXAnalysisException {
+    	IModelStoreLock lock = enterCriticalSection(objectUri, true);
+    	try {
+    		return getValues(objectUri, getPropertyValueDescriptors(objectUri));
+    	} finally {
+    		leaveCriticalSection(lock);
+    	}
+    }
+    
+	/**
+	 * Apply a list of updates within a single write critical section
+	 * <p>
+	 * Updates are applied in order.  If an update fails, the remaining updates are not applied
+	 * and updates already applied are not rolled back.
+	 * @param updates updates to apply - typically obtained from the <code>updateXxx</code> methods of a model object
+	 * @throws InvalidSPDXAnalysisException on model store errors
+	 */
+    default void applyUpdates(List<? extends ModelUpdate> updates) throws InvalidSPDXAnalysisException {
+    	IModelStoreLock lock = enterCriticalSection(false);
+    	try {
+    		for (ModelUpdate update:updates) {
+    			update.apply();
+    		}
+    	} finally {
+    		leaveCriticalSection(lock);
+    	}
+    }
+    
+	/**
+	 * Apply a list of property mutations within a single write critical section
+	 * <p>
+	 * Mutations for the same object and property are applied in order.  If a mutation fails, the remaining mutations
+	 * may not be applied and mutations already applied are not rolled back.
+	 * <p>
+	 * Stores should override this method to take advantage of knowing all changes in advance (e.g. by sizing
+	 * internal structures or sending the changes in a single request).
+	 * @param mutations mutations to apply
+	 * @throws InvalidSPDXAnalysisException on model store errors
+	 */
+    default void applyMutations(List<PropertyMutation> mutations) throws InvalidSPDXAnalysisException {
+    	IModelStoreLock lock = enterCriticalSection(false);
+    	try {
+    		for (PropertyMutation mutation:mutations) {
+    			mutation.apply(this);
+    		}
+    	} finally {
+    		leaveCriticalSection(lock);
+    	}
+    }
 }
@@ -0,0 +1,26 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+/**
+ * Service Provider Interface for receiving model store measurements as they are made
+ * <p>
+ * Implementations can forward the measurements to a metrics library.  The listener is called on the thread making
+ * the store call, so implementations must be thread safe and should return quickly.
+ *
+ * @author Gary O'Neall
+ */
+@FunctionalInterface
+public interface IStoreMetricsListener {
+
+	/**
+	 * @param operation name of the store method (e.g. <code>getValue</code>) or lock measurement (e.g.
+	 * <code>lockWait.read</code>)
+	 * @param nanos latency in nanoseconds
+	 * @param failed true if the operation threw an exception
+	 */
+	void record(String operation, long nanos, boolean failed);
+}
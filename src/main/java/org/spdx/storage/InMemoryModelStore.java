@@ -0,0 +1,652 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.CoreModelObject;
+import org.spdx.core.DuplicateSpdxIdException;
+import org.spdx.core.IndividualUriValue;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.ModelRegistry;
+import org.spdx.core.ModelRegistryException;
+import org.spdx.core.SpdxCoreConstants;
+import org.spdx.core.SpdxIdNotFoundException;
+import org.spdx.core.SpdxInvalidTypeException;
+import org.spdx.core.TypedValue;
+
+/**
+ * In memory model store designed for use by many threads at once
+ * <p>
+ * All objects and property values are kept in concurrent maps, so the individual
+ * read operations (<code>getValue</code>, <code>listValues</code>, <code>collectionContains</code>, ...)
+ * do not take any lock and scale with the number of cores.  Collection properties are stored as
+ * concurrent sets - duplicate values are stored once and the iteration order is not defined.
+ * <p>
+ * Critical sections entered for a specific object through <code>enterCriticalSection(objectUri, readLockRequested)</code>
+ * use a striped set of read/write locks so that critical sections for different objects rarely block each other.
+ * A store wide critical section entered through <code>enterCriticalSection(readLockRequested)</code> excludes all
+ * object critical sections while a write lock is held.
+ * <p>
+ * NOTE: a write critical section can not be entered while the thread holds a read critical section which may use
+ * the same lock - i.e. a read critical section for any object when entering an object write critical section, since
+ * different objects may share a lock stripe, or any critical section when entering a store wide write critical section.
+ * Write critical sections must be entered before read critical sections - an <code>IllegalStateException</code>
+ * is thrown rather than deadlocking if they are not.
+ *
+ * @author Gary O'Neall
+ */
+public class InMemoryModelStore implements IModelStore {
+
+	/**
+	 * Prefix used for anonymous object URI's
+	 */
+	public static final String ANON_PREFIX = "__anon__";
+
+	static final String GENERATED = "gnrtd";
+	static final String LICENSE_REF_PREFIX = "LicenseRef-";
+	static final String DOCUMENT_REF_PREFIX = "DocumentRef-";
+	static final String SPDX_ID_PREFIX = "SPDXRef-";
+
+	/**
+	 * Default number of lock stripes used for object critical sections
+	 */
+	public static final int DEFAULT_LOCK_STRIPES = 64;
+
+	private static final String OBJECT_NOT_FOUND_MSG = " does not exist";
+	private static final String NOT_A_COLLECTION_MSG = " is not a collection property for ";
+
+	/**
+	 * Holder for the members of a collection property
+	 */
+	private static final class StoredCollection {
+		final Set<Object> members;
+
+		StoredCollection() {
+			this.members = ConcurrentHashMap.newKeySet();
+		}
+
+		StoredCollection(int expectedSize) {
+			this.members = ConcurrentHashMap.newKeySet(expectedSize);
+		}
+	}
+
+	/**
+	 * Holder for the type and property values of a single object
+	 */
+	private static final class StoredItem {
+		final TypedValue typedValue;
+		final ConcurrentHashMap<PropertyDescriptor, Object> properties = new ConcurrentHashMap<>();
+		volatile long modificationStamp;
+
+		StoredItem(TypedValue typedValue, long modificationStamp) {
+			this.typedValue = typedValue;
+			this.modificationStamp = modificationStamp;
+		}
+	}
+
+	private final ConcurrentHashMap<String, StoredItem> items = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, String> lowerCaseUriToUri = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong(0);
+	private final AtomicLong modificationCounter = new AtomicLong(0);
+
+	private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+	private final ReentrantReadWriteLock[] objectLocks;
+	private final int stripeMask;
+
+	/**
+	 * Create an in memory store using the default number of lock stripes
+	 */
+	public InMemoryModelStore() {
+		this(DEFAULT_LOCK_STRIPES);
+	}
+
+	/**
+	 * @param lockStripes number of locks used for object critical sections - rounded up to a power of 2
+	 */
+	public InMemoryModelStore(int lockStripes) {
+		if (lockStripes < 1) {
+			throw new IllegalArgumentException("Lock stripes must be greater than zero");
+		}
+		int stripes = Integer.highestOneBit(lockStripes);
+		if (stripes < lockStripes) {
+			stripes = stripes << 1;
+		}
+		this.objectLocks = new ReentrantReadWriteLock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			objectLocks[i] = new ReentrantReadWriteLock();
+		}
+		this.stripeMask = stripes - 1;
+	}
+
+	/**
+	 * @param objectUri URI for the object
+	 * @return the stored item for the objectUri
+	 * @throws SpdxIdNotFoundException if the object does not exist
+	 */
+	private StoredItem getItem(String objectUri) throws SpdxIdNotFoundException {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		StoredItem item = items.get(objectUri);
+		if (Objects.isNull(item)) {
+			throw new SpdxIdNotFoundException(objectUri + OBJECT_NOT_FOUND_MSG);
+		}
+		return item;
+	}
+
+	/**
+	 * Update the modification stamp for an item - must be called after the change is made
+	 * @param item item which has been modified
+	 */
+	private void modified(StoredItem item) {
+		item.modificationStamp = modificationCounter.incrementAndGet();
+	}
+
+	/**
+	 * @param item stored item
+	 * @param propertyDescriptor descriptor for the property
+	 * @return the stored collection or null if the property does not have a value
+	 * @throws SpdxInvalidTypeException if the property is not a collection
+	 */
+	private @Nullable StoredCollection getCollection(StoredItem item, PropertyDescriptor propertyDescriptor) throws SpdxInvalidTypeException {
+		Object value = item.properties.get(propertyDescriptor);
+		if (Objects.isNull(value)) {
+			return null;
+		}
+		if (!(value instanceof StoredCollection)) {
+			throw new SpdxInvalidTypeException(propertyDescriptor + NOT_A_COLLECTION_MSG + item.typedValue.getObjectUri());
+		}
+		return (StoredCollection)value;
+	}
+
+	@Override
+	public boolean exists(String objectUri) {
+		return items.containsKey(objectUri);
+	}
+
+	@Override
+	public void create(TypedValue typedValue) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(typedValue, "Typed value can not be null");
+		String objectUri = typedValue.getObjectUri();
+		if (Objects.nonNull(items.putIfAbsent(objectUri, new StoredItem(typedValue, modificationCounter.incrementAndGet())))) {
+			throw new DuplicateSpdxIdException("Object " + objectUri + " already exists");
+		}
+		lowerCaseUriToUri.put(objectUri.toLowerCase(Locale.ROOT), objectUri);
+	}
+
+	@Override
+	public List<PropertyDescriptor> getPropertyValueDescriptors(String objectUri) throws InvalidSPDXAnalysisException {
+		return new ArrayList<>(getItem(objectUri).properties.keySet());
+	}
+
+	@Override
+	public void setValue(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(propertyDescriptor, "Property descriptor can not be null");
+		if (Objects.isNull(value)) {
+			throw new SpdxInvalidTypeException("Can not set a property value to null - use removeProperty");
+		}
+		if (value instanceof Collection) {
+			throw new SpdxInvalidTypeException("Can not set a collection as a property value - use addValueToCollection");
+		}
+		StoredItem item = getItem(objectUri);
+		item.properties.put(propertyDescriptor, value);
+		modified(item);
+	}
+
+	@Override
+	public Optional<Object> getValue(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		Object value = getItem(objectUri).properties.get(propertyDescriptor);
+		if (value instanceof StoredCollection) {
+			return Optional.of(Collections.unmodifiableSet(((StoredCollection)value).members));
+		}
+		return Optional.ofNullable(value);
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getValues(String objectUri,
+			Collection<PropertyDescriptor> propertyDescriptors) throws InvalidSPDXAnalysisException {
+		StoredItem item = getItem(objectUri);
+		Map<PropertyDescriptor, Object> retval = new HashMap<>();
+		for (PropertyDescriptor propertyDescriptor:propertyDescriptors) {
+			Object value = item.properties.get(propertyDescriptor);
+			if (Objects.nonNull(value)) {
+				retval.put(propertyDescriptor, toReturnedValue(value));
+			}
+		}
+		return retval;
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getAllValues(String objectUri) throws InvalidSPDXAnalysisException {
+		StoredItem item = getItem(objectUri);
+		Map<PropertyDescriptor, Object> retval = new HashMap<>();
+		item.properties.forEach((propertyDescriptor, value) -> retval.put(propertyDescriptor, toReturnedValue(value)));
+		return retval;
+	}
+
+	/**
+	 * @param value stored property value
+	 * @return the value or a snapshot list of the members if the value is a collection
+	 */
+	private static Object toReturnedValue(Object value) {
+		if (value instanceof StoredCollection) {
+			return Collections.unmodifiableList(new ArrayList<>(((StoredCollection)value).members));
+		}
+		return value;
+	}
+
+	@Override
+	public String getNextId(IdType idType) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(idType, "Id type can not be null");
+		switch (idType) {
+			case Anonymous: {
+				String anonId = ANON_PREFIX + GENERATED + nextId.getAndIncrement();
+				while (items.containsKey(anonId)) {
+					anonId = ANON_PREFIX + GENERATED + nextId.getAndIncrement();
+				}
+				return anonId;
+			}
+			case LicenseRef: return LICENSE_REF_PREFIX + GENERATED + nextId.getAndIncrement();
+			case DocumentRef: return DOCUMENT_REF_PREFIX + GENERATED + nextId.getAndIncrement();
+			case SpdxId: return SPDX_ID_PREFIX + GENERATED + nextId.getAndIncrement();
+			case ListedLicense: throw new InvalidSPDXAnalysisException("Can not generate a listed license ID");
+			default: return GENERATED + nextId.getAndIncrement();
+		}
+	}
+
+	@Override
+	public void removeProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		StoredItem item = getItem(objectUri);
+		if (Objects.nonNull(item.properties.remove(propertyDescriptor))) {
+			modified(item);
+		}
+	}
+
+	@Override
+	public Stream<TypedValue> getAllItems(@Nullable String nameSpace, @Nullable String typeFilter) throws InvalidSPDXAnalysisException {
+		return items.values().stream()
+				.map(item -> item.typedValue)
+				.filter(tv -> Objects.isNull(nameSpace) || tv.getObjectUri().startsWith(nameSpace))
+				.filter(tv -> Objects.isNull(typeFilter) || typeFilter.equals(tv.getType()));
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		if (!readLockRequested) {
+			checkNotReadLocked(storeLock, "Can not enter a store write critical section while holding a read or object critical section");
+		}
+		Lock lock = readLockRequested ? storeLock.readLock() : storeLock.writeLock();
+		lock.lock();
+		return lock::unlock;
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(String objectUri, boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		Lock outer = storeLock.readLock();
+		ReentrantReadWriteLock stripe = objectLocks[spread(objectUri.hashCode()) & stripeMask];
+		if (!readLockRequested) {
+			checkNotReadLocked(stripe, "Can not enter a write critical section for " + objectUri +
+					" while holding a read critical section for an object sharing the same lock");
+		}
+		Lock inner = readLockRequested ? stripe.readLock() : stripe.writeLock();
+		outer.lock();
+		try {
+			inner.lock();
+		} catch (RuntimeException e) {
+			outer.unlock();
+			throw e;
+		}
+		return () -> {
+			inner.unlock();
+			outer.unlock();
+		};
+	}
+
+	/**
+	 * A read lock can not be upgraded to a write lock, so check rather than deadlock
+	 * @param lock lock the write lock is requested for
+	 * @param message message for the exception
+	 * @throws IllegalStateException if the current thread holds the read lock and not the write lock
+	 */
+	private static void checkNotReadLocked(ReentrantReadWriteLock lock, String message) {
+		if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+			throw new IllegalStateException(message + " - write critical sections must be entered before read critical sections");
+		}
+	}
+
+	/**
+	 * Spread the higher bits of the hash so that URI's sharing a long common prefix use different stripes
+	 * @param hash hash code
+	 * @return spread hash
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public void leaveCriticalSection(IModelStoreLock lock) {
+		lock.unlock();
+	}
+
+	@Override
+	public boolean removeValueFromCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		StoredItem item = getItem(objectUri);
+		StoredCollection collection = getCollection(item, propertyDescriptor);
+		if (Objects.nonNull(collection) && collection.members.remove(value)) {
+			modified(item);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int collectionSize(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		StoredCollection collection = getCollection(getItem(objectUri), propertyDescriptor);
+		return Objects.isNull(collection) ? 0 : collection.members.size();
+	}
+
+	@Override
+	public boolean collectionContains(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		StoredCollection collection = getCollection(getItem(objectUri), propertyDescriptor);
+		return Objects.nonNull(collection) && Objects.nonNull(value) && collection.members.contains(value);
+	}
+
+	@Override
+	public void clearValueCollection(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		StoredItem item = getItem(objectUri);
+		item.properties.compute(propertyDescriptor, (pd, existing) -> {
+			if (existing instanceof StoredCollection) {
+				((StoredCollection)existing).members.clear();
+				return existing;
+			} else {
+				return new StoredCollection();
+			}
+		});
+		modified(item);
+	}
+
+	@Override
+	public boolean addValueToCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		if (Objects.isNull(value)) {
+			throw new SpdxInvalidTypeException("Can not add a null value to a collection");
+		}
+		StoredItem item = getItem(objectUri);
+		Object existing = item.properties.computeIfAbsent(propertyDescriptor, pd -> new StoredCollection());
+		if (!(existing instanceof StoredCollection)) {
+			throw new SpdxInvalidTypeException(propertyDescriptor + NOT_A_COLLECTION_MSG + objectUri);
+		}
+		if (((StoredCollection)existing).members.add(value)) {
+			modified(item);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public Iterator<Object> listValues(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		StoredCollection collection = getCollection(getItem(objectUri), propertyDescriptor);
+		if (Objects.isNull(collection)) {
+			return Collections.emptyIterator();
+		}
+		return Collections.unmodifiableSet(collection.members).iterator();
+	}
+
+	@Override
+	public boolean isCollectionMembersAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor, Class<?> clazz) throws InvalidSPDXAnalysisException {
+		StoredCollection collection = getCollection(getItem(objectUri), propertyDescriptor);
+		if (Objects.isNull(collection)) {
+			return true;
+		}
+		for (Object member:collection.members) {
+			if (!isAssignableTo(member, clazz, null)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isPropertyValueAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor, Class<?> clazz, String specVersion) throws InvalidSPDXAnalysisException {
+		Object value = getItem(objectUri).properties.get(propertyDescriptor);
+		if (Objects.isNull(value)) {
+			return true;
+		}
+		if (value instanceof StoredCollection) {
+			return false;
+		}
+		return isAssignableTo(value, clazz, specVersion);
+	}
+
+	/**
+	 * @param value stored value
+	 * @param clazz class to check
+	 * @param specVersion optional spec version - if null, the spec version of any typed value is used
+	 * @return true if the value can be assigned to the class once inflated
+	 */
+	private static boolean isAssignableTo(Object value, Class<?> clazz, @Nullable String specVersion) {
+		if (clazz.isAssignableFrom(value.getClass())) {
+			return true;
+		}
+		if (value instanceof TypedValue) {
+			TypedValue tv = (TypedValue)value;
+			try {
+				Class<?> valueClass = ModelRegistry.getModelRegistry().typeToClass(tv.getType(),
+						Objects.isNull(specVersion) ? tv.getSpecVersion() : specVersion);
+				return Objects.nonNull(valueClass) && clazz.isAssignableFrom(valueClass);
+			} catch (ModelRegistryException e) {
+				return false;
+			}
+		}
+		if (value instanceof IndividualUriValue) {
+			if (IndividualUriValue.class.isAssignableFrom(clazz) || Enum.class.isAssignableFrom(clazz)) {
+				return true;
+			}
+			if (CoreModelObject.class.isAssignableFrom(clazz)) {
+				// could be a reference to an element external to the store
+				if (Objects.isNull(specVersion)) {
+					return true;
+				}
+				try {
+					return ModelRegistry.getModelRegistry().canBeExternal(clazz, specVersion);
+				} catch (ModelRegistryException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isCollectionProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return getItem(objectUri).properties.get(propertyDescriptor) instanceof StoredCollection;
+	}
+
+	@Override
+	public IdType getIdType(String objectUri) {
+		if (isAnon(objectUri)) {
+			return IdType.Anonymous;
+		}
+		if (objectUri.startsWith(SpdxCoreConstants.LISTED_LICENSE_NAMESPACE_PREFIX) ||
+				objectUri.startsWith(SpdxCoreConstants.LISTED_LICENSE_URL)) {
+			return IdType.ListedLicense;
+		}
+		int fragmentIndex = objectUri.lastIndexOf('#');
+		String id = fragmentIndex >= 0 ? objectUri.substring(fragmentIndex + 1) : objectUri;
+		if (id.startsWith(LICENSE_REF_PREFIX)) {
+			return IdType.LicenseRef;
+		} else if (id.startsWith(DOCUMENT_REF_PREFIX)) {
+			return IdType.DocumentRef;
+		} else if (id.startsWith(SPDX_ID_PREFIX)) {
+			return IdType.SpdxId;
+		} else {
+			return IdType.Unknown;
+		}
+	}
+
+	@Override
+	public Optional<String> getCaseSensitiveId(String nameSpace, String caseInsensitiveId) {
+		Objects.requireNonNull(nameSpace, "Namespace can not be null");
+		Objects.requireNonNull(caseInsensitiveId, "ID can not be null");
+		String uriPrefix = nameSpace + "#";
+		String objectUri = lowerCaseUriToUri.get((uriPrefix + caseInsensitiveId).toLowerCase(Locale.ROOT));
+		if (Objects.isNull(objectUri) || !objectUri.startsWith(uriPrefix)) {
+			return Optional.empty();
+		}
+		return Optional.of(objectUri.substring(uriPrefix.length()));
+	}
+
+	@Override
+	public Optional<TypedValue> getTypedValue(String objectUri) throws InvalidSPDXAnalysisException {
+		StoredItem item = items.get(objectUri);
+		return Objects.isNull(item) ? Optional.empty() : Optional.of(item.typedValue);
+	}
+
+	@Override
+	public void delete(String objectUri) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		if (Objects.isNull(items.remove(objectUri))) {
+			throw new SpdxIdNotFoundException(objectUri + OBJECT_NOT_FOUND_MSG);
+		}
+		lowerCaseUriToUri.remove(objectUri.toLowerCase(Locale.ROOT), objectUri);
+	}
+
+	/**
+	 * Applies the mutations under a single store wide write lock.  All objects are resolved before any changes
+	 * are made, so a batch referencing a missing object is rejected without modifying the store.  New
+	 * collections are sized for the number of values added by the batch.
+	 */
+	@Override
+	public void applyMutations(List<PropertyMutation> mutations) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(mutations, "Mutations can not be null");
+		Map<String, List<PropertyMutation>> mutationsByObject = new LinkedHashMap<>();
+		for (PropertyMutation mutation:mutations) {
+			mutationsByObject.computeIfAbsent(mutation.getObjectUri(), uri -> new ArrayList<>()).add(mutation);
+		}
+		IModelStoreLock lock = enterCriticalSection(false);
+		try {
+			Map<StoredItem, List<PropertyMutation>> resolved = new LinkedHashMap<>(mutationsByObject.size() * 2);
+			for (Map.Entry<String, List<PropertyMutation>> entry:mutationsByObject.entrySet()) {
+				resolved.put(getItem(entry.getKey()), entry.getValue());
+			}
+			for (Map.Entry<StoredItem, List<PropertyMutation>> entry:resolved.entrySet()) {
+				applyMutations(entry.getKey(), entry.getValue());
+			}
+		} finally {
+			leaveCriticalSection(lock);
+		}
+	}
+
+	/**
+	 * @param item item to update
+	 * @param mutations mutations for the item in the order they are to be applied
+	 * @throws InvalidSPDXAnalysisException on invalid values or types
+	 */
+	private void applyMutations(StoredItem item, List<PropertyMutation> mutations) throws InvalidSPDXAnalysisException {
+		Map<PropertyDescriptor, Integer> addCounts = new HashMap<>();
+		for (PropertyMutation mutation:mutations) {
+			if (PropertyMutation.Operation.ADD_TO_COLLECTION.equals(mutation.getOperation())) {
+				addCounts.merge(mutation.getPropertyDescriptor(), 1, Integer::sum);
+			}
+		}
+		try {
+			for (PropertyMutation mutation:mutations) {
+				PropertyDescriptor propertyDescriptor = mutation.getPropertyDescriptor();
+				Object value = mutation.getValue();
+				switch (mutation.getOperation()) {
+					case SET_VALUE: {
+						if (value instanceof Collection) {
+							throw new SpdxInvalidTypeException("Can not set a collection as a property value - use addValueToCollection");
+						}
+						item.properties.put(propertyDescriptor, value);
+						break;
+					}
+					case REMOVE_PROPERTY: item.properties.remove(propertyDescriptor); break;
+					case ADD_TO_COLLECTION: {
+						Object existing = item.properties.computeIfAbsent(propertyDescriptor,
+								pd -> new StoredCollection(addCounts.getOrDefault(pd, 16)));
+						if (!(existing instanceof StoredCollection)) {
+							throw new SpdxInvalidTypeException(propertyDescriptor + NOT_A_COLLECTION_MSG + item.typedValue.getObjectUri());
+						}
+						((StoredCollection)existing).members.add(value);
+						break;
+					}
+					case REMOVE_FROM_COLLECTION: {
+						StoredCollection collection = getCollection(item, propertyDescriptor);
+						if (Objects.nonNull(collection)) {
+							collection.members.remove(value);
+						}
+						break;
+					}
+					case CLEAR_COLLECTION: {
+						StoredCollection collection = getCollection(item, propertyDescriptor);
+						if (Objects.isNull(collection)) {
+							item.properties.put(propertyDescriptor, new StoredCollection());
+						} else {
+							collection.members.clear();
+						}
+						break;
+					}
+					default: throw new InvalidSPDXAnalysisException("Unsupported mutation operation " + mutation.getOperation());
+				}
+			}
+		} finally {
+			// mutations applied before a failure remain, so they must still be seen as a modification
+			modified(item);
+		}
+	}
+
+	@Override
+	public long getModificationStamp(String objectUri) {
+		StoredItem item = Objects.isNull(objectUri) ? null : items.get(objectUri);
+		return Objects.isNull(item) ? -1 : item.modificationStamp;
+	}
+
+	@Override
+	public boolean isAnon(String objectUri) {
+		return Objects.nonNull(objectUri) && objectUri.startsWith(ANON_PREFIX);
+	}
+
+	/**
+	 * @return number of objects currently stored
+	 */
+	public int size() {
+		return items.size();
+	}
+
+	@Override
+	public void close() throws Exception {
+		items.clear();
+		lowerCaseUriToUri.clear();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("InMemoryModelStore[");
+		sb.append(items.size());
+		sb.append(" objects]");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,432 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.TypedValue;
+
+/**
+ * Model store which records call counts, error counts and latency histograms for each operation of another model store
+ * <p>
+ * Every <code>IModelStore</code> method is passed to the wrapped store and timed, including the default methods so that
+ * any optimized implementations in the wrapped store are used.  Critical sections are measured as the time waiting to
+ * enter (<code>lockWait.read</code> and <code>lockWait.write</code>) and the time held until the lock is released
+ * (<code>lockHold.read</code> and <code>lockHold.write</code>).  Only the call is timed for <code>listValues</code>
+ * and <code>getAllItems</code> - not the iteration over the results.
+ * <p>
+ * Statistics are available from <code>getOperationStatistics</code>, through JMX after calling
+ * <code>registerMBean</code>, and as each measurement is made through an optional <code>IStoreMetricsListener</code>.
+ *
+ * @author Gary O'Neall
+ */
+public class InstrumentedModelStore implements IModelStore, InstrumentedModelStoreMXBean {
+
+	static final String LOCK_WAIT_READ = "lockWait.read";
+	static final String LOCK_WAIT_WRITE = "lockWait.write";
+	static final String LOCK_HOLD_READ = "lockHold.read";
+	static final String LOCK_HOLD_WRITE = "lockHold.write";
+
+	@FunctionalInterface
+	private interface StoreCall<T> {
+		T call() throws InvalidSPDXAnalysisException;
+	}
+
+	@FunctionalInterface
+	private interface StoreAction {
+		void call() throws InvalidSPDXAnalysisException;
+	}
+
+	/**
+	 * Lock from the wrapped store which records the hold time when it is released
+	 */
+	private final class InstrumentedLock implements IModelStoreLock {
+		final IModelStoreLock lock;
+		final String holdOperation;
+		final long acquired;
+		boolean released = false;
+
+		InstrumentedLock(IModelStoreLock lock, boolean readLock, long acquired) {
+			this.lock = lock;
+			this.holdOperation = readLock ? LOCK_HOLD_READ : LOCK_HOLD_WRITE;
+			this.acquired = acquired;
+		}
+
+		void recordHold() {
+			if (!released) {
+				released = true;
+				record(holdOperation, System.nanoTime() - acquired, false);
+			}
+		}
+
+		@Override
+		public void unlock() {
+			recordHold();
+			lock.unlock();
+		}
+	}
+
+	private final IModelStore baseStore;
+	private final IStoreMetricsListener listener;
+	private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	private volatile ObjectName mBeanName = null;
+
+	/**
+	 * @param baseStore store to instrument
+	 */
+	public InstrumentedModelStore(IModelStore baseStore) {
+		this(baseStore, null);
+	}
+
+	/**
+	 * @param baseStore store to instrument
+	 * @param listener if not null, receives each measurement
+	 */
+	public InstrumentedModelStore(IModelStore baseStore, @Nullable IStoreMetricsListener listener) {
+		Objects.requireNonNull(baseStore, "Base store can not be null");
+		this.baseStore = baseStore;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return the store being instrumented
+	 */
+	public IModelStore getBaseStore() {
+		return baseStore;
+	}
+
+	/**
+	 * @param operation name of the operation
+	 * @return snapshot of the statistics for the operation
+	 */
+	public OperationStatistics getOperationStatistics(String operation) {
+		LatencyHistogram histogram = histograms.get(operation);
+		return Objects.isNull(histogram) ? new LatencyHistogram().snapshot(operation) : histogram.snapshot(operation);
+	}
+
+	@Override
+	public List<OperationStatistics> getOperationStatistics() {
+		List<OperationStatistics> retval = new ArrayList<>();
+		for (Map.Entry<String, LatencyHistogram> entry:histograms.entrySet()) {
+			retval.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		retval.sort((a, b) -> a.getName().compareTo(b.getName()));
+		return retval;
+	}
+
+	@Override
+	public void resetStatistics() {
+		for (LatencyHistogram histogram:histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Register this store with the platform MBean server
+	 * @param name name used for the <code>name</code> key of the object name
+	 * @return the object name the store is registered under
+	 * @throws InvalidSPDXAnalysisException if the store can not be registered
+	 */
+	public synchronized ObjectName registerMBean(String name) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(name, "Name can not be null");
+		try {
+			ObjectName objectName = new ObjectName("org.spdx.storage:type=InstrumentedModelStore,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.mBeanName = objectName;
+			return objectName;
+		} catch (JMException e) {
+			throw new InvalidSPDXAnalysisException("Unable to register MBean for " + name, e);
+		}
+	}
+
+	/**
+	 * Remove this store from the platform MBean server if it has been registered
+	 * @throws InvalidSPDXAnalysisException if the store can not be unregistered
+	 */
+	public synchronized void unregisterMBean() throws InvalidSPDXAnalysisException {
+		if (Objects.nonNull(mBeanName)) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+				mBeanName = null;
+			} catch (JMException e) {
+				throw new InvalidSPDXAnalysisException("Unable to unregister MBean " + mBeanName, e);
+			}
+		}
+	}
+
+	private void record(String operation, long nanos, boolean failed) {
+		LatencyHistogram histogram = histograms.get(operation);
+		if (Objects.isNull(histogram)) {
+			histogram = histograms.computeIfAbsent(operation, op -> new LatencyHistogram());
+		}
+		histogram.record(nanos, failed);
+		if (Objects.nonNull(listener)) {
+			listener.record(operation, nanos, failed);
+		}
+	}
+
+	private <T> T timed(String operation, StoreCall<T> call) throws InvalidSPDXAnalysisException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			T retval = call.call();
+			failed = false;
+			return retval;
+		} finally {
+			record(operation, System.nanoTime() - start, failed);
+		}
+	}
+
+	private void timed(String operation, StoreAction action) throws InvalidSPDXAnalysisException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			action.call();
+			failed = false;
+		} finally {
+			record(operation, System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public boolean exists(String objectUri) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean retval = baseStore.exists(objectUri);
+			failed = false;
+			return retval;
+		} finally {
+			record("exists", System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public void create(TypedValue typedValue) throws InvalidSPDXAnalysisException {
+		timed("create", () -> baseStore.create(typedValue));
+	}
+
+	@Override
+	public List<PropertyDescriptor> getPropertyValueDescriptors(String objectUri) throws InvalidSPDXAnalysisException {
+		return timed("getPropertyValueDescriptors", () -> baseStore.getPropertyValueDescriptors(objectUri));
+	}
+
+	@Override
+	public void setValue(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		timed("setValue", () -> baseStore.setValue(objectUri, propertyDescriptor, value));
+	}
+
+	@Override
+	public Optional<Object> getValue(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return timed("getValue", () -> baseStore.getValue(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public String getNextId(IdType idType) throws InvalidSPDXAnalysisException {
+		return timed("getNextId", () -> baseStore.getNextId(idType));
+	}
+
+	@Override
+	public void removeProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		timed("removeProperty", () -> baseStore.removeProperty(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public Stream<TypedValue> getAllItems(@Nullable String nameSpace, @Nullable String typeFilter) throws InvalidSPDXAnalysisException {
+		return timed("getAllItems", () -> baseStore.getAllItems(nameSpace, typeFilter));
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		IModelStoreLock lock = timed(readLockRequested ? LOCK_WAIT_READ : LOCK_WAIT_WRITE,
+				() -> baseStore.enterCriticalSection(readLockRequested));
+		return new InstrumentedLock(lock, readLockRequested, System.nanoTime());	// hold time excludes the wait
+	}
+
+	@Override
+	public IModelStoreLock enterCriticalSection(String objectUri, boolean readLockRequested) throws InvalidSPDXAnalysisException {
+		IModelStoreLock lock = timed(readLockRequested ? LOCK_WAIT_READ : LOCK_WAIT_WRITE,
+				() -> baseStore.enterCriticalSection(objectUri, readLockRequested));
+		return new InstrumentedLock(lock, readLockRequested, System.nanoTime());	// hold time excludes the wait
+	}
+
+	@Override
+	public void leaveCriticalSection(IModelStoreLock lock) {
+		if (lock instanceof InstrumentedLock) {
+			InstrumentedLock instrumentedLock = (InstrumentedLock)lock;
+			instrumentedLock.recordHold();
+			baseStore.leaveCriticalSection(instrumentedLock.lock);
+		} else {
+			baseStore.leaveCriticalSection(lock);
+		}
+	}
+
+	@Override
+	public boolean removeValueFromCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		return timed("removeValueFromCollection", () -> baseStore.removeValueFromCollection(objectUri, propertyDescriptor, value));
+	}
+
+	@Override
+	public int collectionSize(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return timed("collectionSize", () -> baseStore.collectionSize(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public boolean collectionContains(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		return timed("collectionContains", () -> baseStore.collectionContains(objectUri, propertyDescriptor, value));
+	}
+
+	@Override
+	public void clearValueCollection(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		timed("clearValueCollection", () -> baseStore.clearValueCollection(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public boolean addValueToCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) throws InvalidSPDXAnalysisException {
+		return timed("addValueToCollection", () -> baseStore.addValueToCollection(objectUri, propertyDescriptor, value));
+	}
+
+	@Override
+	public Iterator<Object> listValues(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return timed("listValues", () -> baseStore.listValues(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public boolean isCollectionMembersAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor, Class<?> clazz) throws InvalidSPDXAnalysisException {
+		return timed("isCollectionMembersAssignableTo", () -> baseStore.isCollectionMembersAssignableTo(objectUri, propertyDescriptor, clazz));
+	}
+
+	@Override
+	public boolean isPropertyValueAssignableTo(String objectUri, PropertyDescriptor propertyDescriptor,
+			Class<?> clazz, String specVersion) throws InvalidSPDXAnalysisException {
+		return timed("isPropertyValueAssignableTo", () -> baseStore.isPropertyValueAssignableTo(objectUri, propertyDescriptor, clazz, specVersion));
+	}
+
+	@Override
+	public boolean isCollectionProperty(String objectUri, PropertyDescriptor propertyDescriptor) throws InvalidSPDXAnalysisException {
+		return timed("isCollectionProperty", () -> baseStore.isCollectionProperty(objectUri, propertyDescriptor));
+	}
+
+	@Override
+	public IdType getIdType(String objectUri) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			IdType retval = baseStore.getIdType(objectUri);
+			failed = false;
+			return retval;
+		} finally {
+			record("getIdType", System.nanoTime() - start, failed);
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public Optional<String> getCaseSensisitiveId(String nameSpace, String caseInsensisitiveId) {
+		return getCaseSensitiveId(nameSpace, caseInsensisitiveId);
+	}
+
+	@Override
+	public Optional<String> getCaseSensitiveId(String nameSpace, String caseInsensitiveId) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			Optional<String> retval = baseStore.getCaseSensitiveId(nameSpace, caseInsensitiveId);
+			failed = false;
+			return retval;
+		} finally {
+			record("getCaseSensitiveId", System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public Optional<TypedValue> getTypedValue(String objectUri) throws InvalidSPDXAnalysisException {
+		return timed("getTypedValue", () -> baseStore.getTypedValue(objectUri));
+	}
+
+	@Override
+	public void delete(String objectUri) throws InvalidSPDXAnalysisException {
+		timed("delete", () -> baseStore.delete(objectUri));
+	}
+
+	@Override
+	public boolean isAnon(String objectUri) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean retval = baseStore.isAnon(objectUri);
+			failed = false;
+			return retval;
+		} finally {
+			record("isAnon", System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public long getModificationStamp(String objectUri) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			long retval = baseStore.getModificationStamp(objectUri);
+			failed = false;
+			return retval;
+		} finally {
+			record("getModificationStamp", System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getValues(String objectUri,
+			Collection<PropertyDescriptor> propertyDescriptors) throws InvalidSPDXAnalysisException {
+		return timed("getValues", () -> baseStore.getValues(objectUri, propertyDescriptors));
+	}
+
+	@Override
+	public Map<PropertyDescriptor, Object> getAllValues(String objectUri) throws InvalidSPDXAnalysisException {
+		return timed("getAllValues", () -> baseStore.getAllValues(objectUri));
+	}
+
+	@Override
+	public void applyUpdates(List<? extends ModelUpdate> updates) throws InvalidSPDXAnalysisException {
+		timed("applyUpdates", () -> baseStore.applyUpdates(updates));
+	}
+
+	@Override
+	public void applyMutations(List<PropertyMutation> mutations) throws InvalidSPDXAnalysisException {
+		timed("applyMutations", () -> baseStore.applyMutations(mutations));
+	}
+
+	/**
+	 * Closes the wrapped store and removes this store from the platform MBean server if registered
+	 */
+	@Override
+	public void close() throws Exception {
+		try {
+			unregisterMBean();
+		} finally {
+			baseStore.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "InstrumentedModelStore[" + baseStore + "]";
+	}
+}
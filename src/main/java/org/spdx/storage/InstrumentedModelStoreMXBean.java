@@ -0,0 +1,26 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.List;
+
+/**
+ * JMX management interface for an instrumented model store
+ *
+ * @author Gary O'Neall
+ */
+public interface InstrumentedModelStoreMXBean {
+
+	/**
+	 * @return statistics for each operation which has been called
+	 */
+	List<OperationStatistics> getOperationStatistics();
+
+	/**
+	 * Reset all statistics
+	 */
+	void resetStatistics();
+}
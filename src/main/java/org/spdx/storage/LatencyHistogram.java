@@ -0,0 +1,91 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds with power of 2 buckets
+ * <p>
+ * Bucket 0 counts latencies of 0 and bucket i counts latencies from 2<sup>i-1</sup> to 2<sup>i</sup>-1 nanoseconds.
+ * Recording only increments striped counters, so many threads can record at once without contention.
+ *
+ * @author Gary O'Neall
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Number of buckets - enough for any non-negative long
+	 */
+	public static final int NUM_BUCKETS = 64;
+
+	private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @param nanos latency in nanoseconds - negative values are recorded as 0
+	 * @return index of the bucket for the latency
+	 */
+	public static int bucketIndex(long nanos) {
+		return nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+	}
+
+	/**
+	 * @param index bucket index
+	 * @return largest latency counted in the bucket
+	 */
+	public static long bucketUpperBound(int index) {
+		return index >= NUM_BUCKETS - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+	}
+
+	/**
+	 * Record a latency
+	 * @param nanos latency in nanoseconds
+	 * @param failed true if the operation failed
+	 */
+	public void record(long nanos, boolean failed) {
+		long latency = Math.max(0, nanos);
+		buckets[bucketIndex(latency)].increment();
+		totalNanos.add(latency);
+		maxNanos.accumulate(latency);
+		if (failed) {
+			errors.increment();
+		}
+	}
+
+	/**
+	 * Reset all counts to zero - latencies recorded during the reset may be partially counted
+	 */
+	public void reset() {
+		for (LongAdder bucket:buckets) {
+			bucket.reset();
+		}
+		errors.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+
+	/**
+	 * @param name name of the operation
+	 * @return a snapshot of the current counts
+	 */
+	public OperationStatistics snapshot(String name) {
+		long[] counts = new long[NUM_BUCKETS];
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return new OperationStatistics(name, counts, errors.sum(), totalNanos.sum(), maxNanos.get());
+	}
+}
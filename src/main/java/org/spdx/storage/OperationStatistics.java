@@ -0,0 +1,137 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Snapshot of the call count, error count and latency histogram for a model store operation
+ * <p>
+ * Percentiles are estimated as the upper bound of the histogram bucket containing the percentile, so they may be up
+ * to twice the actual latency.
+ *
+ * @author Gary O'Neall
+ */
+public final class OperationStatistics {
+
+	private final String name;
+	private final long[] bucketCounts;
+	private final long count;
+	private final long errorCount;
+	private final long totalNanos;
+	private final long maxNanos;
+
+	/**
+	 * @param name name of the operation
+	 * @param bucketCounts counts for each <code>LatencyHistogram</code> bucket
+	 * @param errorCount number of failed calls
+	 * @param totalNanos total latency of all calls
+	 * @param maxNanos largest latency
+	 */
+	public OperationStatistics(String name, long[] bucketCounts, long errorCount, long totalNanos, long maxNanos) {
+		Objects.requireNonNull(name, "Name can not be null");
+		Objects.requireNonNull(bucketCounts, "Bucket counts can not be null");
+		this.name = name;
+		this.bucketCounts = Arrays.copyOf(bucketCounts, bucketCounts.length);
+		long sum = 0;
+		for (long bucketCount:bucketCounts) {
+			sum += bucketCount;
+		}
+		this.count = sum;
+		this.errorCount = errorCount;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+	}
+
+	/**
+	 * @return name of the operation
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return number of calls
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return number of calls which failed
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return total latency of all calls in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return mean latency in nanoseconds or 0 if there have been no calls
+	 */
+	public long getMeanNanos() {
+		return count == 0 ? 0 : totalNanos / count;
+	}
+
+	/**
+	 * @return largest latency in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return estimated median latency in nanoseconds
+	 */
+	public long getMedianNanos() {
+		return getPercentileNanos(0.5);
+	}
+
+	/**
+	 * @return estimated 99th percentile latency in nanoseconds
+	 */
+	public long getP99Nanos() {
+		return getPercentileNanos(0.99);
+	}
+
+	/**
+	 * @return counts for each <code>LatencyHistogram</code> bucket
+	 */
+	public long[] getBucketCounts() {
+		return Arrays.copyOf(bucketCounts, bucketCounts.length);
+	}
+
+	/**
+	 * @param percentile percentile between 0 and 1
+	 * @return estimated latency in nanoseconds for the percentile, never more than the maximum latency
+	 */
+	public long getPercentileNanos(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long)Math.ceil(percentile * count));
+		long cumulative = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			cumulative += bucketCounts[i];
+			if (cumulative >= target) {
+				return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+
+	@Override
+	public String toString() {
+		return name + "[count=" + count + ", errors=" + errorCount + ", meanNanos=" + getMeanNanos() +
+				", p99Nanos=" + getP99Nanos() + ", maxNanos=" + maxNanos + "]";
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+
+/**
+ * A single property change to be applied to a model store as part of a batch
+ * <p>
+ * Values must be in the stored form (e.g. <code>TypedValue</code> rather than a model object) when the mutation
+ * is applied directly to a store - mutations with model values, such as model objects or a collection of values to
+ * set, can be converted and applied using <code>ModelObjectHelper.applyMutations</code>.  Use the static factory
+ * methods to create instances.
+ *
+ * @author Gary O'Neall
+ */
+public final class PropertyMutation {
+
+	/**
+	 * Kind of change made by a mutation
+	 */
+	public enum Operation {
+		SET_VALUE,
+		REMOVE_PROPERTY,
+		ADD_TO_COLLECTION,
+		REMOVE_FROM_COLLECTION,
+		CLEAR_COLLECTION
+	}
+
+	private final Operation operation;
+	private final String objectUri;
+	private final PropertyDescriptor propertyDescriptor;
+	private final Object value;
+
+	private PropertyMutation(Operation operation, String objectUri,
+			PropertyDescriptor propertyDescriptor, @Nullable Object value) {
+		Objects.requireNonNull(objectUri, "Object URI can not be null");
+		Objects.requireNonNull(propertyDescriptor, "Property descriptor can not be null");
+		this.operation = operation;
+		this.objectUri = objectUri;
+		this.propertyDescriptor = propertyDescriptor;
+		this.value = value;
+	}
+
+	/**
+	 * @param objectUri URI or anonymous ID for the object
+	 * @param propertyDescriptor descriptor for the property
+	 * @param value stored value to set
+	 * @return a mutation setting the property value
+	 */
+	public static PropertyMutation setValue(String objectUri, PropertyDescriptor propertyDescriptor, Object value) {
+		Objects.requireNonNull(value, "Value can not be null - use removeProperty");
+		return new PropertyMutation(Operation.SET_VALUE, objectUri, propertyDescriptor, value);
+	}
+
+	/**
+	 * @param objectUri URI or anonymous ID for the object
+	 * @param propertyDescriptor descriptor for the property
+	 * @return a mutation removing the property
+	 */
+	public static PropertyMutation removeProperty(String objectUri, PropertyDescriptor propertyDescriptor) {
+		return new PropertyMutation(Operation.REMOVE_PROPERTY, objectUri, propertyDescriptor, null);
+	}
+
+	/**
+	 * @param objectUri URI or anonymous ID for the object
+	 * @param propertyDescriptor descriptor for the collection property
+	 * @param value stored value to add
+	 * @return a mutation adding the value to the collection
+	 */
+	public static PropertyMutation addValueToCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) {
+		Objects.requireNonNull(value, "Value can not be null");
+		return new PropertyMutation(Operation.ADD_TO_COLLECTION, objectUri, propertyDescriptor, value);
+	}
+
+	/**
+	 * @param objectUri URI or anonymous ID for the object
+	 * @param propertyDescriptor descriptor for the collection property
+	 * @param value stored value to remove
+	 * @return a mutation removing the value from the collection
+	 */
+	public static PropertyMutation removeValueFromCollection(String objectUri, PropertyDescriptor propertyDescriptor, Object value) {
+		Objects.requireNonNull(value, "Value can not be null");
+		return new PropertyMutation(Operation.REMOVE_FROM_COLLECTION, objectUri, propertyDescriptor, value);
+	}
+
+	/**
+	 * @param objectUri URI or anonymous ID for the object
+	 * @param propertyDescriptor descriptor for the collection property
+	 * @return a mutation clearing the collection
+	 */
+	public static PropertyMutation clearValueCollection(String objectUri, PropertyDescriptor propertyDescriptor) {
+		return new PropertyMutation(Operation.CLEAR_COLLECTION, objectUri, propertyDescriptor, null);
+	}
+
+	/**
+	 * Apply this mutation using the individual model store methods
+	 * @param modelStore store to apply the mutation to
+	 * @throws InvalidSPDXAnalysisException on model store errors
+	 */
+	public void apply(IModelStore modelStore) throws InvalidSPDXAnalysisException {
+		switch (operation) {
+			case SET_VALUE: modelStore.setValue(objectUri, propertyDescriptor, value); break;
+			case REMOVE_PROPERTY: modelStore.removeProperty(objectUri, propertyDescriptor); break;
+			case ADD_TO_COLLECTION: modelStore.addValueToCollection(objectUri, propertyDescriptor, value); break;
+			case REMOVE_FROM_COLLECTION: modelStore.removeValueFromCollection(objectUri, propertyDescriptor, value); break;
+			case CLEAR_COLLECTION: modelStore.clearValueCollection(objectUri, propertyDescriptor); break;
+			default: throw new InvalidSPDXAnalysisException("Unsupported mutation operation " + operation);
+		}
+	}
+
+	/**
+	 * @return the operation
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return the object URI
+	 */
+	public String getObjectUri() {
+		return objectUri;
+	}
+
+	/**
+	 * @return the property descriptor
+	 */
+	public PropertyDescriptor getPropertyDescriptor() {
+		return propertyDescriptor;
+	}
+
+	/**
+	 * @return the stored value or null if the operation does not take a value
+	 */
+	public @Nullable Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " " + objectUri + " " + propertyDescriptor + (Objects.isNull(value) ? "" : " " + value);
+	}
+}
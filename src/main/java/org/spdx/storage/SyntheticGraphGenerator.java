@@ -0,0 +1,303 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.SimpleUriValue;
+import org.spdx.core.TypedValue;
+import org.spdx.storage.IModelStore.IdType;
+
+/**
+ * Populates a model store with a synthetic graph of elements for scale and performance testing
+ * <p>
+ * The elements are divided into levels of (nearly) equal size, one level for each step of the reference depth.
+ * Every element has a string <code>NAME</code> and integer <code>COUNT</code> property.  Each element which is
+ * not in the last level also has a <code>REFERENCE</code> property and a <code>MEMBERS</code> collection
+ * containing fan out values which refer to elements in the next level, to external elements (a
+ * <code>SimpleUriValue</code> for a URI which is not in the store) or to individuals (a <code>SimpleUriValue</code>
+ * for one of the individual URI's).  The values are chosen at random, so a collection may contain fewer than fan out
+ * values when the same value is chosen more than once.
+ * <p>
+ * The graph is determined by the seed and the configuration - generating the same configuration into two stores
+ * of the same implementation produces the same graph.  Anonymous element ID's are assigned by the store.
+ * <p>
+ * The type passed to the builder must be registered with the <code>ModelRegistry</code> for the spec version.
+ *
+ * @author Gary O'Neall
+ */
+public class SyntheticGraphGenerator {
+
+	public static final String PROPERTY_NAMESPACE = "https://spdx.org/synthetic/properties";
+	public static final PropertyDescriptor NAME = new PropertyDescriptor("name", PROPERTY_NAMESPACE);
+	public static final PropertyDescriptor COUNT = new PropertyDescriptor("count", PROPERTY_NAMESPACE);
+	public static final PropertyDescriptor REFERENCE = new PropertyDescriptor("reference", PROPERTY_NAMESPACE);
+	public static final PropertyDescriptor MEMBERS = new PropertyDescriptor("members", PROPERTY_NAMESPACE);
+
+	private static final String STRING_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+	/**
+	 * Builder for synthetic graph generators
+	 */
+	public static class Builder {
+		private final String type;
+		private final String specVersion;
+		private long seed = 0;
+		private String namespace = "https://spdx.org/synthetic/document";
+		private String externalNamespace = "https://spdx.org/synthetic/external";
+		private int elementCount = 1000;
+		private int fanOut = 4;
+		private int depth = 4;
+		private int stringLength = 32;
+		private double anonymousRatio = 0.0;
+		private double externalRatio = 0.0;
+		private double individualRatio = 0.0;
+		private List<String> individualUris = Collections.emptyList();
+
+		/**
+		 * @param type type of the generated elements - must be registered with the <code>ModelRegistry</code>
+		 * @param specVersion spec version for the generated elements
+		 */
+		public Builder(String type, String specVersion) {
+			Objects.requireNonNull(type, "Type can not be null");
+			Objects.requireNonNull(specVersion, "Spec version can not be null");
+			this.type = type;
+			this.specVersion = specVersion;
+		}
+
+		/**
+		 * @param seed seed for the random choices
+		 * @return this builder
+		 */
+		public Builder setSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * @param namespace namespace for the URI's of the elements which are not anonymous
+		 * @return this builder
+		 */
+		public Builder setNamespace(String namespace) {
+			Objects.requireNonNull(namespace, "Namespace can not be null");
+			this.namespace = namespace;
+			return this;
+		}
+
+		/**
+		 * @param externalNamespace namespace for the URI's of external elements
+		 * @return this builder
+		 */
+		public Builder setExternalNamespace(String externalNamespace) {
+			Objects.requireNonNull(externalNamespace, "External namespace can not be null");
+			this.externalNamespace = externalNamespace;
+			return this;
+		}
+
+		/**
+		 * @param elementCount number of elements to create
+		 * @return this builder
+		 */
+		public Builder setElementCount(int elementCount) {
+			this.elementCount = elementCount;
+			return this;
+		}
+
+		/**
+		 * @param fanOut number of values in the members collection of each element not in the last level
+		 * @return this builder
+		 */
+		public Builder setFanOut(int fanOut) {
+			this.fanOut = fanOut;
+			return this;
+		}
+
+		/**
+		 * @param depth number of levels of elements - the longest chain of references is one less than the depth
+		 * @return this builder
+		 */
+		public Builder setDepth(int depth) {
+			this.depth = depth;
+			return this;
+		}
+
+		/**
+		 * @param stringLength length of the name of each element
+		 * @return this builder
+		 */
+		public Builder setStringLength(int stringLength) {
+			this.stringLength = stringLength;
+			return this;
+		}
+
+		/**
+		 * @param anonymousRatio fraction of the elements which are anonymous
+		 * @return this builder
+		 */
+		public Builder setAnonymousRatio(double anonymousRatio) {
+			this.anonymousRatio = anonymousRatio;
+			return this;
+		}
+
+		/**
+		 * @param externalRatio fraction of the references which are to external elements
+		 * @return this builder
+		 */
+		public Builder setExternalRatio(double externalRatio) {
+			this.externalRatio = externalRatio;
+			return this;
+		}
+
+		/**
+		 * @param individualRatio fraction of the references which are to individuals
+		 * @return this builder
+		 */
+		public Builder setIndividualRatio(double individualRatio) {
+			this.individualRatio = individualRatio;
+			return this;
+		}
+
+		/**
+		 * @param individualUris URI's of the individuals which may be referenced
+		 * @return this builder
+		 */
+		public Builder setIndividualUris(List<String> individualUris) {
+			Objects.requireNonNull(individualUris, "Individual URI's can not be null");
+			this.individualUris = individualUris;
+			return this;
+		}
+
+		/**
+		 * @return a generator for the configuration
+		 * @throws IllegalArgumentException if the configuration is not valid
+		 */
+		public SyntheticGraphGenerator build() {
+			if (elementCount < 0 || fanOut < 0 || stringLength < 0) {
+				throw new IllegalArgumentException("Element count, fan out and string length can not be negative");
+			}
+			if (depth < 1) {
+				throw new IllegalArgumentException("Depth must be at least one");
+			}
+			if (!isRatio(anonymousRatio) || !isRatio(externalRatio) || !isRatio(individualRatio) ||
+					!isRatio(externalRatio + individualRatio)) {
+				throw new IllegalArgumentException("Ratios must be between 0 and 1 and the external and individual ratios can not total more than 1");
+			}
+			if (individualRatio > 0 && individualUris.isEmpty()) {
+				throw new IllegalArgumentException("Individual URI's are required for a non-zero individual ratio");
+			}
+			return new SyntheticGraphGenerator(this);
+		}
+
+		private static boolean isRatio(double ratio) {
+			return ratio >= 0.0 && ratio <= 1.0;
+		}
+	}
+
+	private final String type;
+	private final String specVersion;
+	private final long seed;
+	private final String namespace;
+	private final String externalNamespace;
+	private final int elementCount;
+	private final int fanOut;
+	private final int depth;
+	private final int stringLength;
+	private final double anonymousRatio;
+	private final double externalRatio;
+	private final double individualRatio;
+	private final List<String> individualUris;
+
+	private SyntheticGraphGenerator(Builder builder) {
+		this.type = builder.type;
+		this.specVersion = builder.specVersion;
+		this.seed = builder.seed;
+		this.namespace = builder.namespace;
+		this.externalNamespace = builder.externalNamespace;
+		this.elementCount = builder.elementCount;
+		this.fanOut = builder.fanOut;
+		this.depth = builder.depth;
+		this.stringLength = builder.stringLength;
+		this.anonymousRatio = builder.anonymousRatio;
+		this.externalRatio = builder.externalRatio;
+		this.individualRatio = builder.individualRatio;
+		this.individualUris = Collections.unmodifiableList(new ArrayList<>(builder.individualUris));
+	}
+
+	/**
+	 * Create the elements and references in the model store
+	 * @param modelStore store to populate
+	 * @return the URI's of the created elements in order of level - elements in the first level are not referenced
+	 * by any other element
+	 * @throws InvalidSPDXAnalysisException on errors creating the elements
+	 */
+	public String[] generate(IModelStore modelStore) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(modelStore, "Model store can not be null");
+		Random random = new Random(seed);
+		String[] uris = new String[elementCount];
+		int levels = Math.max(1, Math.min(depth, elementCount));
+		for (int i = 0; i < elementCount; i++) {
+			String uri = random.nextDouble() < anonymousRatio ? modelStore.getNextId(IdType.Anonymous) :
+				namespace + "#SPDXRef-" + i;
+			uris[i] = uri;
+			modelStore.create(new TypedValue(uri, type, specVersion));
+			modelStore.setValue(uri, NAME, randomString(random, stringLength));
+			modelStore.setValue(uri, COUNT, random.nextInt());
+		}
+		for (int level = 0; level < levels - 1; level++) {
+			int start = levelStart(level, levels, elementCount);
+			int nextStart = levelStart(level + 1, levels, elementCount);
+			int nextEnd = levelStart(level + 2, levels, elementCount);
+			for (int i = start; i < nextStart; i++) {
+				modelStore.setValue(uris[i], REFERENCE, randomReference(random, uris, nextStart, nextEnd));
+				for (int j = 0; j < fanOut; j++) {
+					modelStore.addValueToCollection(uris[i], MEMBERS, randomReference(random, uris, nextStart, nextEnd));
+				}
+			}
+		}
+		return uris;
+	}
+
+	/**
+	 * @return number of elements created by <code>generate</code>
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * @param level level
+	 * @param levels number of levels
+	 * @param elementCount number of elements
+	 * @return index of the first element in the level
+	 */
+	private static int levelStart(int level, int levels, int elementCount) {
+		return (int)((long)elementCount * level / levels);
+	}
+
+	private Object randomReference(Random random, String[] uris, int start, int end) throws InvalidSPDXAnalysisException {
+		double choice = random.nextDouble();
+		if (choice < externalRatio) {
+			return new SimpleUriValue(externalNamespace + "#SPDXRef-" + random.nextInt(Math.max(1, elementCount)));
+		} else if (choice < externalRatio + individualRatio) {
+			return new SimpleUriValue(individualUris.get(random.nextInt(individualUris.size())));
+		} else {
+			return new TypedValue(uris[start + random.nextInt(end - start)], type, specVersion);
+		}
+	}
+
+	private static String randomString(Random random, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = STRING_CHARACTERS.charAt(random.nextInt(STRING_CHARACTERS.length()));
+		}
+		return new String(chars);
+	}
+}
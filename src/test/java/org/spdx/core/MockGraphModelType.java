@@ -0,0 +1,92 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Mock model type which verifies a graph of children - used for testing shared objects
+ * <p>
+ * Each object reports its <code>warning</code> property value and the warnings of its <code>children</code>
+ * prefixed by its <code>prefix</code> property value.  Objects already verified report no warnings.
+ *
+ * @author Gary O'Neall
+ */
+public class MockGraphModelType extends MockModelType {
+
+	static final String NAMESPACE = "https://mock.spdx/graph";
+	static final PropertyDescriptor WARNING = new PropertyDescriptor("warning", NAMESPACE);
+	static final PropertyDescriptor PREFIX = new PropertyDescriptor("prefix", NAMESPACE);
+	static final PropertyDescriptor CHILDREN = new PropertyDescriptor("children", NAMESPACE);
+	/**
+	 * Number of objects verified - objects already verified are not counted
+	 */
+	static final AtomicLong VERIFY_COUNT = new AtomicLong(0);
+
+	public MockGraphModelType(IModelStore modelStore, String objectUri,
+			IModelCopyManager copyManager, boolean create, String specVersion)
+			throws InvalidSPDXAnalysisException {
+		super(modelStore, objectUri, copyManager, create, specVersion);
+	}
+
+	/**
+	 * Create a graph object in the store
+	 * @param modelStore model store
+	 * @param objectUri object URI
+	 * @param prefix prefix for the warnings of the children
+	 * @param warning warning reported by the object - null if none
+	 * @param children children of the object
+	 * @return the graph object
+	 * @throws InvalidSPDXAnalysisException on errors creating the object
+	 */
+	static MockGraphModelType create(IModelStore modelStore, String objectUri, String prefix, String warning,
+			MockGraphModelType... children) throws InvalidSPDXAnalysisException {
+		MockGraphModelType retval = new MockGraphModelType(modelStore, objectUri, null, true, "3.0.0");
+		retval.setPropertyValue(PREFIX, prefix);
+		if (warning != null) {
+			retval.setPropertyValue(WARNING, warning);
+		}
+		for (MockGraphModelType child:children) {
+			retval.addPropertyValueToCollection(CHILDREN, child);
+		}
+		return retval;
+	}
+
+	@Override
+	public List<String> verify(Set<String> verifiedIds, String specVersion) {
+		List<String> retval = new ArrayList<>();
+		if (verifiedIds.contains(getObjectUri())) {
+			return retval;
+		}
+		verifiedIds.add(getObjectUri());
+		VERIFY_COUNT.incrementAndGet();
+		try {
+			Optional<String> warning = getStringPropertyValue(WARNING);
+			if (warning.isPresent()) {
+				retval.add(warning.get());
+			}
+			// members are inflated as MockModelType so are wrapped to use this verification
+			List<MockGraphModelType> children = new ArrayList<>();
+			for (Object child:(Collection<?>)getObjectPropertyValueCollection(CHILDREN, MockModelType.class)) {
+				children.add(new MockGraphModelType(getModelStore(), ((CoreModelObject)child).getObjectUri(),
+						null, false, specVersion));
+			}
+			retval.addAll(verifyCollection(children, getStringPropertyValue(PREFIX).orElse(null),
+					verifiedIds, specVersion));
+		} catch (InvalidSPDXAnalysisException e) {
+			retval.add(e.getMessage());
+		}
+		return retval;
+	}
+}
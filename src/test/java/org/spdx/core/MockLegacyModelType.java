@@ -0,0 +1,42 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spdx.storage.IModelStore;
+
+/**
+ * Mock model type which overrides <code>equivalent(CoreModelObject, boolean)</code> but not the method taking an
+ * <code>EquivalenceContext</code> - used for testing subclasses written before the context was introduced
+ *
+ * @author Gary O'Neall
+ */
+public class MockLegacyModelType extends MockModelType {
+	
+	public static final String TYPE = "MockLegacyType";
+	/**
+	 * Number of calls to <code>equivalent(CoreModelObject, boolean)</code>
+	 */
+	static final AtomicLong EQUIVALENT_COUNT = new AtomicLong(0);
+
+	public MockLegacyModelType(IModelStore modelStore, String objectUri,
+			IModelCopyManager copyManager, boolean create, String specVersion)
+			throws InvalidSPDXAnalysisException {
+		super(modelStore, objectUri, copyManager, create, specVersion);
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public boolean equivalent(CoreModelObject compare, boolean ignoreRelatedElements) throws InvalidSPDXAnalysisException {
+		EQUIVALENT_COUNT.incrementAndGet();
+		return super.equivalent(compare, ignoreRelatedElements);
+	}
+}
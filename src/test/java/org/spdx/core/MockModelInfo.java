@@ -28,6 +28,7 @@ public class MockModelInfo implements ISpdxModelInfo {
 	
 	static {
 		TYPE_TO_CLASS_MAP.put(MockModelType.TYPE, MockModelType.class);
+		TYPE_TO_CLASS_MAP.put(MockLegacyModelType.TYPE, MockLegacyModelType.class);
 		URI_TO_ENUM_MAP.put(MockEnum.ENUM1.getIndividualURI(), MockEnum.ENUM1);
 		URI_TO_ENUM_MAP.put(MockEnum.ENUM2.getIndividualURI(), MockEnum.ENUM2);
 		URI_TO_INDIVIDUAL_MAP.put(MockIndividual.INDIVIDUAL_URI, new MockIndividual());
@@ -63,6 +64,8 @@ public class MockModelInfo implements ISpdxModelInfo {
 			throws InvalidSPDXAnalysisException {
 		if (type.equals(MockModelType.TYPE)) {
 			return new MockModelType(modelStore, objectUri, copyManager, create, specVersion);
+		} else if (type.equals(MockLegacyModelType.TYPE)) {
+			return new MockLegacyModelType(modelStore, objectUri, copyManager, create, specVersion);
 		} else {
 			return null;
 		}
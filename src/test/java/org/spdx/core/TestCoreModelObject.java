@@ -13,10 +13,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.spdx.core.CoreModelObject.CoreModelObjectBuilder;
+import org.spdx.core.NotEquivalentReason.NotEquivalent;
+import org.spdx.storage.IModelStore;
 import org.spdx.storage.MockModelStore;
 import org.spdx.storage.PropertyDescriptor;
 
@@ -371,6 +375,253 @@ public class TestCoreModelObject {
 		assertFalse(compare.equivalent(modelType));
 	}
 
+	/**
+	 * Test equivalence of collections large enough to be compared using hash buckets
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentLargeCollection() throws InvalidSPDXAnalysisException {
+		int numItems = CoreModelObject.BUCKETED_EQUIVALENCE_THRESHOLD * 4;
+		String compareUri = "https://second/model/object";
+		MockModelType compare = new MockModelType(modelStore, compareUri, copyManager, true, "3.0.0");
+		for (int i = 0; i < numItems; i++) {
+			MockModelType item = new MockModelType(modelStore, PREFIX + "item" + i, copyManager, true, "3.0.0");
+			item.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "value " + (i % 10));
+			item.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			modelType.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, item);
+			// same values with different URI's added in reverse order and with different line endings
+			MockModelType compareItem = new MockModelType(modelStore, PREFIX + "compareItem" + (numItems - i), copyManager, true, "3.0.0");
+			compareItem.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "value " + ((numItems - 1 - i) % 10) + "\r\n");
+			compareItem.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, numItems - 1 - i);
+			compare.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, compareItem);
+		}
+		assertTrue(modelType.equivalent(compare));
+		assertTrue(compare.equivalent(modelType));
+		
+		new MockModelType(modelStore, PREFIX + "compareItem1", copyManager, false, "3.0.0")
+				.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, -1);
+		assertFalse(modelType.equivalent(compare));
+		assertFalse(compare.equivalent(modelType));
+	}
+
+	/**
+	 * Test equivalence of objects which reference each other
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentCycle() throws InvalidSPDXAnalysisException {
+		MockModelType other = new MockModelType(modelStore, PREFIX + "other", copyManager, true, "3.0.0");
+		modelType.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, other);
+		other.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, modelType);
+		MockModelStore compareStore = new MockModelStore();
+		MockModelType compare = new MockModelType(compareStore, OBJECT_URI, copyManager, true, "3.0.0");
+		MockModelType compareOther = new MockModelType(compareStore, PREFIX + "compareOther", copyManager, true, "3.0.0");
+		compare.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, compareOther);
+		compareOther.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, compare);
+		assertTrue(modelType.equivalent(compare));
+		assertTrue(compare.equivalent(modelType));
+		
+		compareOther.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		EquivalenceContext context = new EquivalenceContext();
+		assertFalse(modelType.equivalent(compare, false, context));
+		assertEquals(NotEquivalent.MISSING_PROPERTY, context.getLastNotEquivalentReason().getReason());
+		assertEquals(STRING_PROPERTY_DESCRIPTOR, context.getLastNotEquivalentReason().getProperty());
+		// the result is remembered by the context
+		assertFalse(modelType.equivalent(compare, false, context));
+		assertFalse(compare.equivalent(modelType));
+	}
+	
+	/**
+	 * Mock model type which returns string property values in lower case
+	 */
+	static class LowerCaseModelType extends MockModelType {
+		LowerCaseModelType(IModelStore modelStore, String objectUri) throws InvalidSPDXAnalysisException {
+			super(modelStore, objectUri, null, true, "3.0.0");
+		}
+
+		@Override
+		public Optional<Object> getObjectPropertyValue(PropertyDescriptor propertyDescriptor,
+				@Nullable Class<?> type) throws InvalidSPDXAnalysisException {
+			Optional<Object> retval = super.getObjectPropertyValue(propertyDescriptor, type);
+			if (retval.isPresent() && retval.get() instanceof String) {
+				return Optional.of(((String)retval.get()).toLowerCase());
+			}
+			return retval;
+		}
+	}
+
+	/**
+	 * Mock model type which treats a model collection containing only "ignored" as equivalent to null
+	 */
+	static class IgnoredCollectionModelType extends MockModelType {
+		IgnoredCollectionModelType(IModelStore modelStore, String objectUri) throws InvalidSPDXAnalysisException {
+			super(modelStore, objectUri, null, true, "3.0.0");
+		}
+
+		@Override
+		protected boolean isEquivalentToNull(Object propertyValue, PropertyDescriptor descriptor) {
+			Object value = propertyValue instanceof Optional ? ((Optional<?>)propertyValue).orElse(null) : propertyValue;
+			if (value instanceof ModelCollection && ((ModelCollection<?>)value).size() == 1 &&
+					((ModelCollection<?>)value).contains("ignored")) {
+				return true;
+			}
+			return super.isEquivalentToNull(propertyValue, descriptor);
+		}
+	}
+
+	/**
+	 * Test that equivalence uses overridden property accessors
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentOverriddenAccessors() throws InvalidSPDXAnalysisException {
+		LowerCaseModelType lower1 = new LowerCaseModelType(modelStore, PREFIX + "lower1");
+		LowerCaseModelType lower2 = new LowerCaseModelType(modelStore, PREFIX + "lower2");
+		lower1.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "Value");
+		lower2.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "VALUE");
+		assertTrue(lower1.equivalent(lower2));
+		lower2.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "other");
+		assertFalse(lower1.equivalent(lower2));
+		
+		IgnoredCollectionModelType ignored1 = new IgnoredCollectionModelType(modelStore, PREFIX + "ignored1");
+		IgnoredCollectionModelType ignored2 = new IgnoredCollectionModelType(modelStore, PREFIX + "ignored2");
+		ignored1.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "value");
+		ignored2.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "value");
+		ignored1.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, "ignored");
+		assertTrue(ignored1.equivalent(ignored2));
+		assertTrue(ignored2.equivalent(ignored1));
+		ignored1.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, "other");
+		assertFalse(ignored1.equivalent(ignored2));
+	}
+	
+	/**
+	 * Test equivalence of graphs where the same objects are reachable through many paths
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentSharedReferences() throws InvalidSPDXAnalysisException {
+		// without sharing results, each level doubles the number of comparisons
+		int depth = 40;
+		PropertyDescriptor secondObjectProperty = new PropertyDescriptor("secondObjectPropName", PROPERTY_NAMESPACE);
+		MockModelType first = modelType;
+		MockModelType second = new MockModelType(modelStore, PREFIX + "second", copyManager, true, "3.0.0");
+		for (int i = 0; i < depth; i++) {
+			MockModelType nextFirst = new MockModelType(modelStore, PREFIX + "first" + i, copyManager, true, "3.0.0");
+			MockModelType nextSecond = new MockModelType(modelStore, PREFIX + "second" + i, copyManager, true, "3.0.0");
+			nextFirst.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			nextSecond.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			first.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextFirst);
+			first.setPropertyValue(secondObjectProperty, nextFirst);
+			second.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextSecond);
+			second.setPropertyValue(secondObjectProperty, nextSecond);
+			first = nextFirst;
+			second = nextSecond;
+		}
+		MockModelType compare = new MockModelType(modelStore, PREFIX + "second", copyManager, false, "3.0.0");
+		EquivalenceContext context = new EquivalenceContext();
+		assertTrue(modelType.equivalent(compare, false, context));
+		assertEquals(depth + 1, context.size());
+		
+		second.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		assertFalse(modelType.equivalent(compare));
+	}
+	
+	/**
+	 * Test equivalence of deeply nested objects
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentDeepNesting() throws InvalidSPDXAnalysisException {
+		int depth = 10000;
+		MockModelType first = modelType;
+		MockModelType second = new MockModelType(modelStore, PREFIX + "second", copyManager, true, "3.0.0");
+		for (int i = 0; i < depth; i++) {
+			MockModelType nextFirst = new MockModelType(modelStore, PREFIX + "first" + i, copyManager, true, "3.0.0");
+			MockModelType nextSecond = new MockModelType(modelStore, PREFIX + "second" + i, copyManager, true, "3.0.0");
+			first.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextFirst);
+			second.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextSecond);
+			first = nextFirst;
+			second = nextSecond;
+		}
+		MockModelType compare = new MockModelType(modelStore, PREFIX + "second", copyManager, false, "3.0.0");
+		assertTrue(modelType.equivalent(compare));
+		second.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		assertFalse(modelType.equivalent(compare));
+	}
+
+	/**
+	 * Test equivalence of objects nested deeply through collections
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentDeepCollectionNesting() throws InvalidSPDXAnalysisException {
+		int depth = 10000;
+		MockModelType first = modelType;
+		MockModelType second = new MockModelType(modelStore, PREFIX + "second", copyManager, true, "3.0.0");
+		for (int i = 0; i < depth; i++) {
+			MockModelType nextFirst = new MockModelType(modelStore, PREFIX + "first" + i, copyManager, true, "3.0.0");
+			MockModelType nextSecond = new MockModelType(modelStore, PREFIX + "second" + i, copyManager, true, "3.0.0");
+			// each collection also contains a member which is not equivalent to the next object
+			MockModelType firstLeaf = new MockModelType(modelStore, PREFIX + "firstLeaf" + i, copyManager, true, "3.0.0");
+			MockModelType secondLeaf = new MockModelType(modelStore, PREFIX + "secondLeaf" + i, copyManager, true, "3.0.0");
+			firstLeaf.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			secondLeaf.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			first.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, nextFirst);
+			first.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, firstLeaf);
+			second.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, secondLeaf);
+			second.addPropertyValueToCollection(COLLECTION_PROPERTY_DESCRIPTOR, nextSecond);
+			first = nextFirst;
+			second = nextSecond;
+		}
+		MockModelType compare = new MockModelType(modelStore, PREFIX + "second", copyManager, false, "3.0.0");
+		assertTrue(modelType.equivalent(compare));
+		second.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		EquivalenceContext context = new EquivalenceContext();
+		assertFalse(modelType.equivalent(compare, false, context));
+		assertEquals(NotEquivalent.PROPERTY_NOT_EQUIVALENT, context.getLastNotEquivalentReason().getReason());
+		assertEquals(COLLECTION_PROPERTY_DESCRIPTOR, context.getLastNotEquivalentReason().getProperty());
+	}
+	
+	/**
+	 * Test equivalence of subclasses which only override <code>equivalent(CoreModelObject, boolean)</code>
+	 * @throws InvalidSPDXAnalysisException on unexpected errors
+	 */
+	@Test
+	public void testEquivalentLegacyOverride() throws InvalidSPDXAnalysisException {
+		// without sharing results, each level doubles the number of comparisons
+		int depth = 16;
+		PropertyDescriptor secondObjectProperty = new PropertyDescriptor("secondObjectPropName", PROPERTY_NAMESPACE);
+		MockLegacyModelType top = new MockLegacyModelType(modelStore, PREFIX + "legacyFirst", copyManager, true, "3.0.0");
+		MockLegacyModelType first = top;
+		MockLegacyModelType second = new MockLegacyModelType(modelStore, PREFIX + "legacySecond", copyManager, true, "3.0.0");
+		MockLegacyModelType compare = second;
+		for (int i = 0; i < depth; i++) {
+			MockLegacyModelType nextFirst = new MockLegacyModelType(modelStore, PREFIX + "legacyFirst" + i, copyManager, true, "3.0.0");
+			MockLegacyModelType nextSecond = new MockLegacyModelType(modelStore, PREFIX + "legacySecond" + i, copyManager, true, "3.0.0");
+			nextFirst.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			nextSecond.setPropertyValue(INTEGER_PROPERTY_DESCRIPTOR, i);
+			first.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextFirst);
+			first.setPropertyValue(secondObjectProperty, nextFirst);
+			second.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, nextSecond);
+			second.setPropertyValue(secondObjectProperty, nextSecond);
+			first = nextFirst;
+			second = nextSecond;
+		}
+		MockLegacyModelType.EQUIVALENT_COUNT.set(0);
+		assertTrue(top.equivalent(compare));
+		assertEquals(depth + 1, MockLegacyModelType.EQUIVALENT_COUNT.get());
+		second.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		assertFalse(top.equivalent(compare));
+		
+		// cycles are detected through the override
+		first.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, top);
+		second.removeProperty(STRING_PROPERTY_DESCRIPTOR);
+		second.setPropertyValue(OBJECT_PROPERTY_DESCRIPTOR, compare);
+		assertTrue(top.equivalent(compare));
+		second.setPropertyValue(STRING_PROPERTY_DESCRIPTOR, "different");
+		assertFalse(top.equivalent(compare));
+	}
+
 	/**
 	 * Test method for {@link org.spdx.core.CoreModelObject#toTypedValue()}.
 	 * @throws InvalidSPDXAnalysisException on unexpected errors
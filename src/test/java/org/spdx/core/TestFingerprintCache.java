@@ -0,0 +1,150 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.MockModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Test structural fingerprints
+ *
+ * @author Gary O'Neall
+ */
+public class TestFingerprintCache {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc";
+	static final PropertyDescriptor NAME = new PropertyDescriptor("name", NAMESPACE);
+	static final PropertyDescriptor COUNT = new PropertyDescriptor("count", NAMESPACE);
+	static final PropertyDescriptor ENUM = new PropertyDescriptor("enum", NAMESPACE);
+	static final PropertyDescriptor CHILD = new PropertyDescriptor("child", NAMESPACE);
+	static final PropertyDescriptor MEMBERS = new PropertyDescriptor("members", NAMESPACE);
+
+	InMemoryModelStore modelStore;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		modelStore = new InMemoryModelStore();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		modelStore.close();
+	}
+
+	private MockModelType create(String id) throws InvalidSPDXAnalysisException {
+		return new MockModelType(modelStore, NAMESPACE + "#" + id, null, true, "3.0.0");
+	}
+
+	@Test
+	public void testEquivalentObjects() throws InvalidSPDXAnalysisException {
+		MockModelType first = create("first");
+		first.setPropertyValue(NAME, "name\r\nline two ");
+		first.setPropertyValue(COUNT, 5);
+		first.setPropertyValue(ENUM, MockEnum.ENUM1);
+		MockModelType second = create("second");
+		second.setPropertyValue(NAME, "name\nline two");
+		second.setPropertyValue(COUNT, 5);
+		second.setPropertyValue(ENUM, MockEnum.ENUM1);
+		for (int i = 0; i < 5; i++) {
+			MockModelType member = create("firstMember" + i);
+			member.setPropertyValue(COUNT, i);
+			first.addPropertyValueToCollection(MEMBERS, member);
+			MockModelType compareMember = create("secondMember" + i);
+			compareMember.setPropertyValue(COUNT, 4 - i);
+			second.addPropertyValueToCollection(MEMBERS, compareMember);
+		}
+		assertTrue(first.equivalent(second));
+		assertEquals(first.fingerprint(), second.fingerprint());
+		assertEquals(first.fingerprint(), first.fingerprint());
+
+		second.setPropertyValue(COUNT, 6);
+		assertNotEquals(first.fingerprint(), second.fingerprint());
+		second.setPropertyValue(COUNT, 5);
+		assertEquals(first.fingerprint(), second.fingerprint());
+		second.setPropertyValue(ENUM, MockEnum.ENUM2);
+		assertNotEquals(first.fingerprint(), second.fingerprint());
+		second.setPropertyValue(ENUM, MockEnum.ENUM1);
+		second.getObjectPropertyValueSet(MEMBERS, MockModelType.class).clear();
+		assertNotEquals(first.fingerprint(), second.fingerprint());
+	}
+
+	@Test
+	public void testCycle() throws InvalidSPDXAnalysisException {
+		MockModelType first = create("first");
+		MockModelType other = create("other");
+		first.setPropertyValue(CHILD, other);
+		other.setPropertyValue(CHILD, first);
+		other.setPropertyValue(NAME, "other");
+		MockModelStore compareStore = new MockModelStore();
+		MockModelType compare = new MockModelType(compareStore, NAMESPACE + "#compare", null, true, "3.0.0");
+		MockModelType compareOther = new MockModelType(compareStore, NAMESPACE + "#compareOther", null, true, "3.0.0");
+		compare.setPropertyValue(CHILD, compareOther);
+		compareOther.setPropertyValue(CHILD, compare);
+		compareOther.setPropertyValue(NAME, "other");
+		assertEquals(first.fingerprint(), compare.fingerprint());
+		assertEquals(other.fingerprint(), compareOther.fingerprint());
+		assertNotEquals(first.fingerprint(), other.fingerprint());
+
+		compareOther.setPropertyValue(NAME, "changed");
+		assertNotEquals(first.fingerprint(), compare.fingerprint());
+	}
+
+	@Test
+	public void testCache() throws InvalidSPDXAnalysisException {
+		MockModelType root = create("root");
+		MockModelType child = create("child");
+		MockModelType grandChild = create("grandChild");
+		root.setPropertyValue(CHILD, child);
+		child.setPropertyValue(CHILD, grandChild);
+		grandChild.setPropertyValue(NAME, "name");
+		FingerprintCache cache = new FingerprintCache(modelStore);
+		long expected = root.fingerprint();
+		assertEquals(expected, root.fingerprint(cache));
+		assertEquals(3, cache.size());
+		assertEquals(expected, root.fingerprint(cache));
+		assertEquals(grandChild.fingerprint(), grandChild.fingerprint(cache));
+		assertEquals(3, cache.size());
+
+		// changes to a referenced object are reflected in the cached fingerprint
+		grandChild.setPropertyValue(NAME, "changed");
+		long changed = root.fingerprint(cache);
+		assertNotEquals(expected, changed);
+		assertEquals(root.fingerprint(), changed);
+		grandChild.setPropertyValue(NAME, "name");
+		assertEquals(expected, root.fingerprint(cache));
+
+		// objects in other stores are not cached
+		cache.clear();
+		assertEquals(0, cache.size());
+		MockModelStore mockStore = new MockModelStore();
+		MockModelType mmt = new MockModelType(mockStore, NAMESPACE + "#mock", null, true, "3.0.0");
+		assertEquals(mmt.fingerprint(), mmt.fingerprint(cache));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testDeepNesting() throws InvalidSPDXAnalysisException {
+		MockModelType root = create("root");
+		MockModelType parent = root;
+		for (int i = 0; i < 10000; i++) {
+			MockModelType child = create("child" + i);
+			parent.setPropertyValue(CHILD, child);
+			parent = child;
+		}
+		FingerprintCache cache = new FingerprintCache(modelStore);
+		long expected = root.fingerprint();
+		assertEquals(expected, root.fingerprint(cache));
+		parent.setPropertyValue(NAME, "changed");
+		assertNotEquals(expected, root.fingerprint(cache));
+	}
+}
@@ -10,6 +10,7 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.After;
@@ -17,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.spdx.storage.MockModelStore;
 import org.spdx.storage.PropertyDescriptor;
+import org.spdx.storage.PropertyMutation;
 
 /**
  * Test model object helper
@@ -79,6 +81,25 @@ public class TestModelObjectHelper {
 		assertEquals(valueObjectUri, resultModelType.getObjectUri());
 	}
 
+	/**
+	 * Test method for {@link org.spdx.core.ModelObjectHelper#getObjectPropertyValues(org.spdx.storage.IModelStore, java.lang.String, org.spdx.core.IModelCopyManager, java.lang.String, java.lang.String)}.
+	 * @throws InvalidSPDXAnalysisException
+	 */
+	@Test
+	public void testGetObjectPropertyValues() throws InvalidSPDXAnalysisException {
+		String valueObjectUri = "https://value/object/uri";
+		MockModelType value = new MockModelType(modelStore, valueObjectUri, copyManager, true, "3.0.0");
+		ModelObjectHelper.setPropertyValue(modelStore, OBJECT_URI, OBJECT_PROPERTY_DESCRIPTOR, value, copyManager, null);
+		ModelObjectHelper.setPropertyValue(modelStore, OBJECT_URI, STRING_PROPERTY_DESCRIPTOR, "string", copyManager, null);
+		ModelObjectHelper.addValueToCollection(modelStore, OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR, "element", copyManager, null);
+		Map<PropertyDescriptor, Object> result = ModelObjectHelper.getObjectPropertyValues(modelStore, OBJECT_URI, copyManager, "3.0.0", null);
+		assertEquals(3, result.size());
+		assertEquals(valueObjectUri, ((MockModelType)result.get(OBJECT_PROPERTY_DESCRIPTOR)).getObjectUri());
+		assertEquals("string", result.get(STRING_PROPERTY_DESCRIPTOR));
+		assertEquals(Arrays.asList(new Object[] {"element"}), result.get(COLLECTION_PROPERTY_DESCRIPTOR));
+		assertTrue(ModelObjectHelper.getObjectPropertyValues(modelStore, "https://not/there", copyManager, "3.0.0", null).isEmpty());
+	}
+
 	/**
 	 * Test method for {@link org.spdx.core.ModelObjectHelper#setPropertyValue(org.spdx.storage.IModelStore, java.lang.String, org.spdx.storage.PropertyDescriptor, java.lang.Object, org.spdx.core.IModelCopyManager, java.lang.String)}.
 	 * @throws InvalidSPDXAnalysisException
@@ -238,6 +259,40 @@ public class TestModelObjectHelper {
 		assertTrue(colResult.size() == 1 && colResult.contains("s2"));
 	}
 
+	/**
+	 * Test method for {@link org.spdx.core.ModelObjectHelper#applyMutations(org.spdx.storage.IModelStore, java.util.List, org.spdx.core.IModelCopyManager, java.lang.String)}.
+	 * @throws InvalidSPDXAnalysisException
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testApplyMutations() throws InvalidSPDXAnalysisException {
+		ModelObjectHelper.setPropertyValue(modelStore, OBJECT_URI, STRING_PROPERTY_DESCRIPTOR, "string", copyManager, null);
+		ModelObjectHelper.setPropertyValue(modelStore, OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR, 
+				Arrays.asList(new String[] {"old"}), copyManager, null);
+		String valueObjectUri = "https://value/object/uri";
+		MockModelType value = new MockModelType(modelStore, valueObjectUri, copyManager, true, "3.0.0");
+		ModelObjectHelper.applyMutations(modelStore, Arrays.asList(
+				PropertyMutation.setValue(OBJECT_URI, OBJECT_PROPERTY_DESCRIPTOR, value),
+				PropertyMutation.setValue(OBJECT_URI, ENUM_PROPERTY_DESCRIPTOR, MockEnum.ENUM1),
+				PropertyMutation.setValue(OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR, Arrays.asList(new String[] {"s1", "s2"})),
+				PropertyMutation.addValueToCollection(OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR, "s3"),
+				PropertyMutation.removeValueFromCollection(OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR, "s1"),
+				PropertyMutation.removeProperty(OBJECT_URI, STRING_PROPERTY_DESCRIPTOR)), copyManager, null);
+		Optional<Object> result = modelStore.getValue(OBJECT_URI, OBJECT_PROPERTY_DESCRIPTOR);
+		assertTrue(result.isPresent());
+		assertTrue(result.get() instanceof TypedValue);
+		assertEquals(valueObjectUri, ((TypedValue)result.get()).getObjectUri());
+		result = modelStore.getValue(OBJECT_URI, ENUM_PROPERTY_DESCRIPTOR);
+		assertTrue(result.isPresent());
+		assertTrue(result.get() instanceof SimpleUriValue);
+		assertEquals(MockEnum.ENUM1.getIndividualURI(), ((SimpleUriValue)result.get()).getIndividualURI());
+		result = modelStore.getValue(OBJECT_URI, COLLECTION_PROPERTY_DESCRIPTOR);
+		assertTrue(result.isPresent());
+		Collection<String> colResult = (Collection<String>)(result.get());
+		assertEquals(new HashSet<>(Arrays.asList(new String[] {"s2", "s3"})), new HashSet<>(colResult));
+		assertFalse(modelStore.getValue(OBJECT_URI, STRING_PROPERTY_DESCRIPTOR).isPresent());
+	}
+
 	/**
 	 * Test method for {@link org.spdx.core.ModelObjectHelper#optionalStoredObjectToModelObject(java.util.Optional, org.spdx.storage.IModelStore, org.spdx.core.IModelCopyManager, java.lang.String, java.lang.Class, java.lang.String)}.
 	 * @throws InvalidSPDXAnalysisException
@@ -7,17 +7,23 @@ package org.spdx.core;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.spdx.storage.IModelStore;
+import org.spdx.storage.InMemoryModelStore;
 import org.spdx.storage.MockModelStore;
+import org.spdx.storage.PropertyDescriptor;
 
 /**
  * Test model registry
@@ -112,5 +118,111 @@ public class TestModelRegistry {
 		Object iResult = ModelRegistry.getModelRegistry().uriToIndividual(individual.getIndividualURI(), "3.0.0", null);
 		assertEquals(individual.getIndividualURI(), ((MockIndividual)iResult).getIndividualURI());
 	}
+	
+	/**
+	 * Test lookups from multiple threads while models are being registered
+	 * @throws Exception 
+	 */
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(() -> {
+					for (int j = 0; j < 10000; j++) {
+						if (!MockModelType.class.equals(ModelRegistry.getModelRegistry().typeToClass(MockModelType.TYPE, "3.0.0"))) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (int i = 0; i < 100; i++) {
+				ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+			}
+			for (Future<Boolean> result:results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test inflating model objects with an identity map enabled for the store
+	 * @throws InvalidSPDXAnalysisException 
+	 */
+	@Test
+	public void testIdentityMap() throws InvalidSPDXAnalysisException {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		assertFalse(ModelRegistry.getModelRegistry().getIdentityMap(modelStore).isPresent());
+		CoreModelObject first = ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+				copyManager, "3.0.0", true, null);
+		assertNotSame(first, ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+				copyManager, "3.0.0", false, null));
+		ModelObjectIdentityMap identityMap = ModelRegistry.getModelRegistry().enableIdentityMap(modelStore, 100);
+		try {
+			assertSame(identityMap, ModelRegistry.getModelRegistry().getIdentityMap(modelStore).get());
+			first = ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+					copyManager, "3.0.0", false, null);
+			assertSame(first, ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+					copyManager, "3.0.0", false, null));
+			// different copy manager results in a different instance
+			assertNotSame(first, ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+					new MockCopyManager(), "3.0.0", false, null));
+			assertEquals(2, identityMap.size());
+			identityMap.invalidate(OBJECT_URI);
+			assertEquals(0, identityMap.size());
+			assertNotSame(first, ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI, MockModelType.TYPE,
+					copyManager, "3.0.0", false, null));
+			// bounded size
+			for (int i = 0; i < 300; i++) {
+				ModelRegistry.getModelRegistry().inflateModelObject(modelStore, OBJECT_URI + i, MockModelType.TYPE,
+						copyManager, "3.0.0", true, null);
+			}
+			assertTrue(identityMap.size() <= 100);
+		} finally {
+			ModelRegistry.getModelRegistry().disableIdentityMap(modelStore);
+		}
+		assertFalse(ModelRegistry.getModelRegistry().getIdentityMap(modelStore).isPresent());
+	}
+
+	/**
+	 * Test that a non-strict model object does not change the strictness of shared instances
+	 * @throws InvalidSPDXAnalysisException 
+	 */
+	@Test
+	public void testIdentityMapStrictness() throws InvalidSPDXAnalysisException {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		IModelStore store = new InMemoryModelStore();
+		PropertyDescriptor childProperty = new PropertyDescriptor("child", "https://mock.spdx/registry");
+		MockModelType parent = new MockModelType(store, OBJECT_URI, null, true, "3.0.0");
+		MockModelType child = new MockModelType(store, OBJECT_URI + "child", null, true, "3.0.0");
+		parent.setPropertyValue(childProperty, child);
+		ModelRegistry.getModelRegistry().enableIdentityMap(store, 100);
+		try {
+			CoreModelObject shared = ModelRegistry.getModelRegistry().inflateModelObject(store, child.getObjectUri(),
+					MockModelType.TYPE, null, "3.0.0", false, null);
+			assertTrue(shared.isStrict());
+			parent.setStrict(false);
+			CoreModelObject value = (CoreModelObject)parent.getObjectPropertyValue(childProperty).get();
+			assertFalse(value.isStrict());
+			assertNotSame(shared, value);
+			assertEquals(child.getObjectUri(), value.getObjectUri());
+			value = (CoreModelObject)parent.getObjectPropertyValues().get(childProperty);
+			assertFalse(value.isStrict());
+			assertNotSame(shared, value);
+			assertTrue(shared.isStrict());
+			assertSame(shared, ModelRegistry.getModelRegistry().inflateModelObject(store, child.getObjectUri(),
+					MockModelType.TYPE, null, "3.0.0", false, null));
+			// strict parents return the shared instance
+			parent.setStrict(true);
+			assertSame(shared, parent.getObjectPropertyValue(childProperty).get());
+		} finally {
+			ModelRegistry.getModelRegistry().disableIdentityMap(store);
+		}
+	}
 
 }
@@ -0,0 +1,130 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.core.OperationEvents.IOperationEvent;
+import org.spdx.core.OperationEvents.Operation;
+import org.spdx.licenseTemplate.LicenseTextHelper;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test the JFR operation events
+ *
+ * @author Gary O'Neall
+ */
+public class TestOperationEvents {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc";
+	static final String OBJECT_URI1 = NAMESPACE + "#obj1";
+	static final String OBJECT_URI2 = NAMESPACE + "#obj2";
+	static final String SPEC_VERSION = "3.0.0";
+	static final PropertyDescriptor NAME = new PropertyDescriptor("name", NAMESPACE);
+
+	static final String[] EVENT_NAMES = new String[] {"org.spdx.InflateModelObject", "org.spdx.Copy",
+			"org.spdx.Verify", "org.spdx.Equivalent", "org.spdx.GetPropertyValue", "org.spdx.LicenseTextCompare"};
+
+	InMemoryModelStore modelStore;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		modelStore = new InMemoryModelStore();
+	}
+
+	@Test
+	public void testNotRecording() {
+		assertTrue(OperationEvents.isAvailable());
+		// the tests may be run with a recording started on the command line
+		assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty());
+		assertFalse(OperationEvents.isEnabled(Operation.VERIFY));
+		IOperationEvent event = OperationEvents.begin(Operation.VERIFY, null, null, null, null);
+		assertSame(OperationEvents.NO_EVENT, event);
+		event.commit();
+	}
+
+	@Test
+	public void testDefaultSettings() throws Exception {
+		try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+			recording.start();
+			assertTrue(OperationEvents.isEnabled(Operation.VERIFY));
+			assertTrue(OperationEvents.isEnabled(Operation.EQUIVALENT));
+			assertFalse(OperationEvents.isEnabled(Operation.GET_PROPERTY_VALUE));
+			assertFalse(OperationEvents.isEnabled(Operation.INFLATE_MODEL_OBJECT));
+		}
+		for (Operation operation:Operation.values()) {
+			EventType eventType = EventType.getEventType(JfrOperationEvents.eventClass(operation));
+			for (SettingDescriptor setting:eventType.getSettingDescriptors()) {
+				if ("threshold".equals(setting.getName())) {
+					assertEquals(JfrOperationEvents.THRESHOLD, setting.getDefaultValue());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRecordedEvents() throws Exception {
+		Map<String, RecordedEvent> events = new HashMap<>();
+		File file = File.createTempFile("spdx", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				for (String name:EVENT_NAMES) {
+					recording.enable(name).withoutThreshold();
+				}
+				recording.start();
+				assertTrue(OperationEvents.isEnabled(Operation.VERIFY));
+				MockModelType obj1 = (MockModelType)ModelRegistry.getModelRegistry().inflateModelObject(modelStore,
+						OBJECT_URI1, MockModelType.TYPE, new MockCopyManager(), SPEC_VERSION, true, null);
+				MockModelType obj2 = new MockModelType(modelStore, OBJECT_URI2, null, true, SPEC_VERSION);
+				obj1.setPropertyValue(NAME, "name");
+				assertEquals("name", obj1.getStringPropertyValue(NAME).get());
+				obj1.verify();
+				assertFalse(obj1.equivalent(obj2));
+				obj1.copyFrom(obj2);
+				assertTrue(LicenseTextHelper.isLicenseTextEquivalent("Some license text", "some  license text"));
+				recording.stop();
+				recording.dump(file.toPath());
+			}
+			for (RecordedEvent event:RecordingFile.readAllEvents(file.toPath())) {
+				events.putIfAbsent(event.getEventType().getName(), event);
+			}
+		} finally {
+			file.delete();
+		}
+		for (String name:EVENT_NAMES) {
+			assertTrue("Missing event " + name, events.containsKey(name));
+		}
+		RecordedEvent inflate = events.get("org.spdx.InflateModelObject");
+		assertEquals(OBJECT_URI1, inflate.getString("objectUri"));
+		assertEquals(MockModelType.TYPE, inflate.getString("type"));
+		assertEquals(SPEC_VERSION, inflate.getString("specVersion"));
+		assertFalse(inflate.getDuration().isNegative());
+		RecordedEvent verify = events.get("org.spdx.Verify");
+		assertEquals(OBJECT_URI1, verify.getString("objectUri"));
+		assertEquals(MockModelType.TYPE, verify.getString("type"));
+		assertEquals(OBJECT_URI2, events.get("org.spdx.Copy").getString("objectUri"));
+		assertEquals("name", events.get("org.spdx.GetPropertyValue").getString("detail"));
+		assertEquals(OBJECT_URI1, events.get("org.spdx.Equivalent").getString("objectUri"));
+		assertNotNull(events.get("org.spdx.LicenseTextCompare").getString("detail"));
+	}
+}
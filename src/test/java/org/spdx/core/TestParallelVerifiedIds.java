@@ -0,0 +1,137 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.MockModelStore;
+
+/**
+ * Test parallel verification
+ *
+ * @author Gary O'Neall
+ */
+public class TestParallelVerifiedIds {
+
+	static final String OBJECT_URI_PREFIX = "https://myspdx.docs/objecturi#part";
+
+	MockModelStore modelStore;
+	MockCopyManager copyManager;
+	ForkJoinPool pool;
+	List<MockModelType> modelObjects;
+
+	@Before
+	public void setUp() throws Exception {
+		modelStore = new MockModelStore();
+		copyManager = new MockCopyManager();
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		pool = new ForkJoinPool(4);
+		modelObjects = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			modelObjects.add(new MockModelType(modelStore, OBJECT_URI_PREFIX + i, copyManager, true, "3.0.0"));
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testVerifyCollection() {
+		List<String> expected = ModelObjectHelper.verifyCollection(modelObjects, "prefix: ", new HashSet<>(), "3.0.0");
+		List<String> result = ModelObjectHelper.verifyCollection(modelObjects, "prefix: ",
+				new ParallelVerifiedIds(pool), "3.0.0");
+		assertEquals(expected, result);
+		// from within the pool
+		result = pool.submit(() -> ModelObjectHelper.verifyCollection(modelObjects, null,
+				new ParallelVerifiedIds(pool), "3.0.0")).join();
+		assertEquals(modelObjects.size(), result.size());
+	}
+
+	@Test
+	public void testVerify() {
+		List<String> result = modelObjects.get(0).verify("3.0.0", pool);
+		assertEquals(MockModelType.TEST_VERIFY, result);
+	}
+
+	@Test
+	public void testSharedObject() throws InvalidSPDXAnalysisException {
+		InMemoryModelStore graphStore = new InMemoryModelStore();
+		String namespace = "https://myspdx.docs/graph#";
+		MockGraphModelType leaf = MockGraphModelType.create(graphStore, namespace + "leaf", "", "leaf");
+		List<MockGraphModelType> parents = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			MockGraphModelType other = MockGraphModelType.create(graphStore, namespace + "other" + i, "", "other" + i);
+			parents.add(MockGraphModelType.create(graphStore, namespace + "p" + i, "via p" + i + ": ",
+					i % 2 == 0 ? "warning" : null, other, leaf));
+		}
+		MockGraphModelType root = MockGraphModelType.create(graphStore, namespace + "root", "",
+				null, parents.toArray(new MockGraphModelType[parents.size()]));
+		List<String> expected = root.verify("3.0.0");
+		// the shared leaf is only reported through the first parent reaching it
+		assertEquals(1, expected.stream().filter(warning -> warning.endsWith(": leaf")).count());
+		// duplicate warnings are retained
+		assertEquals(4, Collections.frequency(expected, "warning"));
+		for (int i = 0; i < 100; i++) {
+			assertEquals(expected, root.verify("3.0.0", pool));
+		}
+	}
+
+	@Test
+	public void testSharedCreationInfo() throws InvalidSPDXAnalysisException {
+		InMemoryModelStore graphStore = new InMemoryModelStore();
+		String namespace = "https://myspdx.docs/graph#";
+		MockGraphModelType agent = MockGraphModelType.create(graphStore, namespace + "agent", "", "agent warning");
+		MockGraphModelType creationInfo = MockGraphModelType.create(graphStore, namespace + "creationInfo",
+				"creation info: ", "creation info warning", agent);
+		int numElements = 200;
+		List<MockGraphModelType> elements = new ArrayList<>();
+		for (int i = 0; i < numElements; i++) {
+			elements.add(MockGraphModelType.create(graphStore, namespace + "element" + i, "element" + i + ": ",
+					i % 3 == 0 ? "element warning" : null, creationInfo));
+		}
+		MockGraphModelType document = MockGraphModelType.create(graphStore, namespace + "document", "",
+				null, elements.toArray(new MockGraphModelType[elements.size()]));
+		int numObjects = numElements + 3;
+		MockGraphModelType.VERIFY_COUNT.set(0);
+		List<String> expected = document.verify("3.0.0");
+		assertEquals(numObjects, MockGraphModelType.VERIFY_COUNT.get());
+		// the shared objects are only reported through the first element reaching them
+		assertEquals(1, expected.stream().filter(warning -> warning.endsWith(": creation info warning")).count());
+		assertEquals(1, expected.stream().filter(warning -> warning.endsWith(": agent warning")).count());
+		for (int i = 0; i < 20; i++) {
+			MockGraphModelType.VERIFY_COUNT.set(0);
+			ParallelVerifiedIds verifiedIds = new ParallelVerifiedIds(pool);
+			assertEquals(expected, document.verify(verifiedIds, "3.0.0"));
+			// each object is normally verified once - never a re-run of every member
+			assertTrue(MockGraphModelType.VERIFY_COUNT.get() < numObjects + numElements / 10);
+			assertTrue(verifiedIds.getRetryCount() < numElements / 10);
+		}
+	}
+
+	@Test
+	public void testSet() {
+		ParallelVerifiedIds verifiedIds = new ParallelVerifiedIds(pool);
+		assertTrue(verifiedIds.add("id1"));
+		assertFalse(verifiedIds.add("id1"));
+		assertTrue(verifiedIds.contains("id1"));
+		assertEquals(1, verifiedIds.size());
+		verifiedIds.clear();
+		assertTrue(verifiedIds.isEmpty());
+		assertSame(pool, verifiedIds.getPool());
+	}
+}
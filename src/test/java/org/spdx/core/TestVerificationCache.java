@@ -0,0 +1,184 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.InMemoryModelStore;
+import org.spdx.storage.MockModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Test the verification cache
+ *
+ * @author Gary O'Neall
+ */
+public class TestVerificationCache {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc";
+	static final String CONTAINER_URI = NAMESPACE + "#container";
+	static final PropertyDescriptor MEMBERS = new PropertyDescriptor("members", NAMESPACE);
+	static final PropertyDescriptor NAME = new PropertyDescriptor("name", NAMESPACE);
+	static final int NUM_MEMBERS = 10;
+
+	/**
+	 * Model type which verifies the members of a collection property
+	 */
+	static class ContainerModelType extends MockModelType {
+
+		public ContainerModelType(IModelStore modelStore, String objectUri,
+				IModelCopyManager copyManager, boolean create, String specVersion)
+				throws InvalidSPDXAnalysisException {
+			super(modelStore, objectUri, copyManager, create, specVersion);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public List<String> verify(Set<String> verifiedIds, String specVersion) {
+			List<String> retval = new ArrayList<>();
+			if (verifiedIds.contains(getObjectUri())) {
+				return retval;
+			}
+			verifiedIds.add(getObjectUri());
+			try {
+				retval.addAll(verifyCollection((Collection<MockModelType>)(Collection<?>)getObjectPropertyValueCollection(MEMBERS, MockModelType.class),
+						"member: ", verifiedIds, specVersion));
+			} catch (InvalidSPDXAnalysisException e) {
+				retval.add(e.getMessage());
+			}
+			return retval;
+		}
+	}
+
+	InMemoryModelStore modelStore;
+	ContainerModelType container;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		modelStore = new InMemoryModelStore();
+		container = new ContainerModelType(modelStore, CONTAINER_URI, null, true, "3.0.0");
+		for (int i = 0; i < NUM_MEMBERS; i++) {
+			MockModelType member = new MockModelType(modelStore, NAMESPACE + "#member" + i, null, true, "3.0.0");
+			ModelObjectHelper.addValueToCollection(modelStore, CONTAINER_URI, MEMBERS, member, null, null);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		modelStore.close();
+	}
+
+	@Test
+	public void testVerify() throws InvalidSPDXAnalysisException {
+		List<String> expected = container.verify(new HashSet<>(), "3.0.0");
+		assertEquals(NUM_MEMBERS, expected.size());
+		VerificationCache cache = new VerificationCache(modelStore);
+		assertEquals(expected, container.verify("3.0.0", cache));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(NUM_MEMBERS + 1, cache.getMissCount());
+		assertEquals(NUM_MEMBERS + 1, cache.size());
+
+		// nothing changed - the whole result is reused
+		assertEquals(expected, container.verify("3.0.0", cache));
+		assertEquals(1, cache.getHitCount());
+
+		// change one member - only the member and the container are re-verified
+		modelStore.setValue(NAMESPACE + "#member3", NAME, "changed");
+		assertEquals(expected, container.verify("3.0.0", cache));
+		assertEquals(1 + NUM_MEMBERS - 1, cache.getHitCount());
+		assertEquals(NUM_MEMBERS + 1 + 2, cache.getMissCount());
+
+		// different spec version is cached separately
+		container.verify("SPDX-2.3", cache);
+		assertEquals(2 * (NUM_MEMBERS + 1), cache.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testSharedObject() throws InvalidSPDXAnalysisException {
+		MockGraphModelType shared = MockGraphModelType.create(modelStore, NAMESPACE + "#shared", "", "leafWarning");
+		MockGraphModelType parent1 = MockGraphModelType.create(modelStore, NAMESPACE + "#parent1", "k: ", null, shared);
+		MockGraphModelType parent2 = MockGraphModelType.create(modelStore, NAMESPACE + "#parent2", "k: ", null, shared);
+		MockGraphModelType root = MockGraphModelType.create(modelStore, NAMESPACE + "#root", "k: ", null, parent1, parent2);
+		List<String> expected = root.verify(new HashSet<>(), "3.0.0");
+		assertEquals(Arrays.asList("k: k: leafWarning"), expected);
+		VerificationCache cache = new VerificationCache(modelStore);
+		assertEquals(expected, root.verify("3.0.0", cache));
+		assertEquals(expected, root.verify("3.0.0", cache));
+		assertEquals(1, cache.getHitCount());
+		modelStore.setValue(parent2.getObjectUri(), NAME, "changed");
+		assertEquals(expected, root.verify("3.0.0", cache));
+		modelStore.setValue(parent1.getObjectUri(), NAME, "changed");
+		assertEquals(expected, root.verify("3.0.0", cache));
+		// the shared object is reported through the second parent when verified on its own
+		assertEquals(parent2.verify(new HashSet<>(), "3.0.0"), parent2.verify("3.0.0", cache));
+		assertEquals(Arrays.asList("k: leafWarning"), parent2.verify("3.0.0", cache));
+		assertEquals(expected, root.verify("3.0.0", cache));
+		modelStore.setValue(root.getObjectUri(), NAME, "changed");
+		assertEquals(expected, root.verify("3.0.0", cache));
+	}
+
+	@Test
+	public void testSharedCreationInfo() throws InvalidSPDXAnalysisException {
+		MockGraphModelType agent = MockGraphModelType.create(modelStore, NAMESPACE + "#agent", "", "agentWarning");
+		MockGraphModelType creationInfo = MockGraphModelType.create(modelStore, NAMESPACE + "#creationInfo",
+				"creationInfo: ", "creationInfoWarning", agent);
+		int numElements = 50;
+		List<MockGraphModelType> elements = new ArrayList<>();
+		for (int i = 0; i < numElements; i++) {
+			elements.add(MockGraphModelType.create(modelStore, NAMESPACE + "#element" + i, "element: ",
+					"elementWarning" + i, creationInfo));
+		}
+		MockGraphModelType document = MockGraphModelType.create(modelStore, NAMESPACE + "#document", "document: ",
+				null, elements.toArray(new MockGraphModelType[numElements]));
+		VerificationCache cache = new VerificationCache(modelStore);
+		assertEquals(document.verify(new HashSet<>(), "3.0.0"), document.verify("3.0.0", cache));
+		// every element is cached even though only the first element reaching it reports the creation info
+		for (int i = 0; i < numElements; i++) {
+			modelStore.setValue(elements.get(i).getObjectUri(), MockGraphModelType.WARNING, "changedWarning" + i);
+			long misses = cache.getMissCount();
+			List<String> expected = document.verify(new HashSet<>(), "3.0.0");
+			assertEquals(expected, document.verify("3.0.0", cache));
+			assertEquals(1, expected.stream().filter(warning -> warning.endsWith("creationInfoWarning")).count());
+			// only the document and the changed element are verified again
+			assertEquals(2, cache.getMissCount() - misses);
+		}
+	}
+
+	@Test
+	public void testStoreWithoutStamps() throws InvalidSPDXAnalysisException {
+		MockModelStore mockStore = new MockModelStore();
+		MockModelType mmt = new MockModelType(mockStore, CONTAINER_URI, null, true, "3.0.0");
+		VerificationCache cache = new VerificationCache(mockStore);
+		assertEquals(MockModelType.TEST_VERIFY, mmt.verify("3.0.0", cache));
+		assertEquals(MockModelType.TEST_VERIFY, mmt.verify("3.0.0", cache));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testModificationStamp() throws InvalidSPDXAnalysisException {
+		long stamp = modelStore.getModificationStamp(CONTAINER_URI);
+		assertTrue(stamp >= 0);
+		assertEquals(stamp, modelStore.getModificationStamp(CONTAINER_URI));
+		modelStore.setValue(CONTAINER_URI, NAME, "name");
+		assertNotEquals(stamp, modelStore.getModificationStamp(CONTAINER_URI));
+		assertEquals(-1, modelStore.getModificationStamp(NAMESPACE + "#missing"));
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Test compiled license templates
+ *
+ * @author Gary O'Neall
+ */
+public class TestCompiledLicenseTemplate {
+
+	static final String TEMPLATE = "<<beginOptional>>The MIT License<<endOptional>>\n\n" +
+			"Copyright <<var;name=\"copyright\";original=\"(c) <year> <owner>\";match=\".{0,100}\">>\n\n" +
+			"Permission is hereby granted<<beginOptional>>, free of charge<<beginOptional>> and without fee<<endOptional>><<endOptional>>, " +
+			"to any person obtaining a copy of this software.\n\n" +
+			"<<var;name=\"warranty\";original=\"THE SOFTWARE IS PROVIDED AS IS\";match=\"the software is provided (\\\"|')?as is(\\\"|')?\\.?\">> " +
+			"IN NO EVENT SHALL THE <<var;name=\"holder\";original=\"AUTHORS\";match=\"authors|copyright.holders\">> BE LIABLE.";
+
+	@Test
+	public void testMatches() throws LicenseTemplateRuleException, LicenseParserException {
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(TEMPLATE);
+		assertTrue(template.matches(SpdxLicenseTemplateHelper.templateToText(TEMPLATE)));
+		assertTrue(template.matches("Copyright 2024 Jane Doe\n" +
+				"Permission is hereby granted, to any person obtaining a copy of this software. " +
+				"The Software is provided \"AS IS\" in no event shall the copyright holders be liable."));
+		assertTrue(template.matches("The MIT Licence Copyright (c) 2024 Jane Doe // Permission is hereby granted, free of charge " +
+				"and without fee, to any person obtaining a copy of this software. The Software is provided as is. " +
+				"In no event shall the authors be liable."));
+		assertTrue(template.matches("Copyright Permission is hereby granted, to any person obtaining a copy of this software. " +
+				"The Software is provided as is In no event shall the authors be liable."));
+		// nested optional without the enclosing optional
+		assertFalse(template.matches("Copyright 2024 Permission is hereby granted and without fee, to any person obtaining " +
+				"a copy of this software. The Software is provided as is In no event shall the authors be liable."));
+		// variable does not match
+		assertFalse(template.matches("Copyright 2024 Permission is hereby granted, to any person obtaining a copy of this software. " +
+				"The Software is provided as is In no event shall the contributors be liable."));
+		// extra text
+		assertFalse(template.matches("Copyright 2024 Permission is hereby granted, to any person obtaining a copy of this software. " +
+				"The Software is provided as is In no event shall the authors be liable. Extra"));
+		assertFalse(template.matches(""));
+	}
+
+	@Test
+	public void testTextOnly() throws LicenseTemplateRuleException, LicenseParserException {
+		String text = TestLicenseTokenScanner.LICENSE_TEXT;
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(text);
+		assertTrue(template.matches(text));
+		assertTrue(template.matches(text.toUpperCase()));
+		assertFalse(template.matches(text + " more"));
+		assertTrue(CompiledLicenseTemplate.compile("").matches("// */"));
+	}
+
+	@Test
+	public void testNestedOptionals() throws LicenseTemplateRuleException, LicenseParserException {
+		StringBuilder sb = new StringBuilder();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			sb.append("<<beginOptional>>a <<var;name=\"v").append(i).append("\";original=\"b\";match=\"b?\">>");
+			text.append("a ");
+		}
+		for (int i = 0; i < 200; i++) {
+			sb.append(" <<endOptional>>");
+		}
+		sb.append(" end");
+		text.append("end");
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(sb.toString());
+		assertTrue(template.matches(text.toString()));
+		assertTrue(template.matches("a b a end"));
+		assertTrue(template.matches("end"));
+		assertFalse(template.matches("b a end"));
+	}
+
+	@Test
+	public void testLargeTemplateAndText() throws LicenseTemplateRuleException, LicenseParserException {
+		// states times text positions exceeds the maximum int value
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1100; i++) {
+			sb.append("<<beginOptional>>a<<endOptional>> ");
+		}
+		sb.append("end");
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(sb.toString());
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 700000; i++) {
+			text.append("x ");
+		}
+		assertFalse(template.matches(text.toString()));
+		assertTrue(template.matches("a a end"));
+	}
+
+	@Test
+	public void testInvalidMatch() throws LicenseParserException {
+		try {
+			CompiledLicenseTemplate.compile("text <<var;name=\"bad\";original=\"x\";match=\"(unclosed\">>");
+			fail("Expected exception for invalid match expression");
+		} catch (LicenseTemplateRuleException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testConcurrentMatches() throws Exception {
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(TEMPLATE);
+		String text = SpdxLicenseTemplateHelper.templateToText(TEMPLATE);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				final boolean match = i % 2 == 0;
+				results.add(executor.submit(() -> template.matches(match ? text : text + " extra") == match));
+			}
+			for (Future<Boolean> result:results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test the license text index
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTextIndex {
+
+	static final String[] WORDS = new String[] {"license", "licence", "copyright", "(c)", "whilst", "while", "the",
+			"software", "//", "/*", "*", "#", "non-commercial", "non\u2013commercial", "\"", "''", ".", ",", "per cent",
+			"percent", "copyright holders", "copyright-holders", "\n", "\n\n", "="};
+
+	private static String randomText(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int length = random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+			sb.append(' ');
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testFindEquivalent() {
+		LicenseTextIndex<String> index = new LicenseTextIndex<>();
+		index.add("MIT", TestLicenseTokenScanner.LICENSE_TEXT);
+		index.add("MIT-copy", TestLicenseTokenScanner.LICENSE_TEXT.toUpperCase());
+		index.add("Other", "Some other license text");
+		assertEquals(3, index.size());
+		assertEquals(Arrays.asList("MIT", "MIT-copy"), index.findEquivalent(TestLicenseTokenScanner.LICENSE_TEXT));
+		assertEquals(Arrays.asList("MIT", "MIT-copy"), index.findEquivalent("// " +
+				TestLicenseTokenScanner.LICENSE_TEXT.replace("Copyright", "copyright").replace("\n\n", "\n \n")));
+		assertEquals(Collections.singletonList("Other"), index.findEquivalent("/* some  OTHER licence text */"));
+		assertTrue(index.containsEquivalent("Some other license text"));
+		assertFalse(index.containsEquivalent("Some other license"));
+		assertTrue(index.findEquivalent("").isEmpty());
+		index.clear();
+		assertEquals(0, index.size());
+		assertFalse(index.containsEquivalent("Some other license text"));
+	}
+
+	@Test
+	public void testRandomCorpus() {
+		Random random = new Random(20240625L);
+		List<String> corpus = new ArrayList<>();
+		LicenseTextIndex<Integer> index = new LicenseTextIndex<>(new LicenseTokenDictionary());
+		for (int i = 0; i < 300; i++) {
+			String text = randomText(random);
+			corpus.add(text);
+			index.add(i, text);
+		}
+		assertEquals(corpus.size(), index.size());
+		for (int i = 0; i < 3000; i++) {
+			String candidate = i < corpus.size() ? corpus.get(i) : randomText(random);
+			List<Integer> expected = new ArrayList<>();
+			for (int j = 0; j < corpus.size(); j++) {
+				if (LicenseTextHelper.isLicenseTextEquivalent(candidate, corpus.get(j))) {
+					expected.add(j);
+				}
+			}
+			assertEquals("Candidate \"" + candidate + "\"", expected, index.findEquivalent(candidate));
+		}
+	}
+}
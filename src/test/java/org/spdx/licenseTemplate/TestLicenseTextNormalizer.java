@@ -0,0 +1,91 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test the single pass license text normalizer against the regular expression based normalization
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTextNormalizer {
+
+	/**
+	 * Fragments used to generate random text - weighted toward text with special handling
+	 */
+	static final String[] FRAGMENTS = new String[] {"copyright", "COPYRIGHT", "Copyright", "copyrigh", " holders", " holder",
+			" owners", " owner", "Holders", "OWNER", "s", " ", "  ", "\n", "\n\n", "\r\n", "\t", "\u000B", "\u2009", "\u202F",
+			"\u00A0", "\u2028", "per cent", "PER CENT", "per", "cent", "per\u2007cent", "(c)", "(C)", "(", "c", ")", "(\u2009c)",
+			"http://", "http:/", "http", "/", "https://", "'", "''", "`", "\u2018", "\u2019", "\u201A", "\u201B", "\u201C",
+			"\u201D", "\u201E", "\u201F", "\"", "\u2013", "\u2014", "-", ",", "\uFF0C", "\uFE10", "\uFE50", "\u2060", "x",
+			"license", "\u212A", "\u017F", "\u0130", "\u0085"};
+
+	static String regexNormalize(String text) {
+		return LicenseTextHelper.normalizeText(LicenseTextHelper.replaceMultWord(LicenseTextHelper.replaceSpaceComma(text)));
+	}
+
+	private static String repeat(String s, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
+	private static void assertSameText(String text) {
+		assertEquals("Normalized text differs for \"" + text + "\"", regexNormalize(text), LicenseTextNormalizer.normalize(text));
+	}
+
+	@Test
+	public void testLicenseText() {
+		assertSameText(TestLicenseTokenScanner.LICENSE_TEXT);
+		assertSameText("Copyright (C) 2024 the copyright holders, \u201Cper cent\u201D \u2018quoted\u2019 ''double'' " +
+				"http://example.com copyright\n\n   owners copyright owner  Copyright\u2009Holder");
+		assertEquals("copyright-holders copyright-owner\n percent -c- \"x\" https://a - b\nc",
+				LicenseTextNormalizer.normalize("Copyright Holders COPYRIGHT\r\n owner Per Cent (c) ''x\u201D http://a \u2013 b\u2028c"));
+	}
+
+	@Test
+	public void testLineBreakLimits() {
+		for (int leading:new int[] {0, 1, 99, 100, 101, 150}) {
+			for (int newlines:new int[] {1, 2, 10, 11, 15}) {
+				for (int trailing:new int[] {0, 1, 100, 101}) {
+					assertSameText("copyright" + repeat(" ", leading) + repeat("\n", newlines) + repeat("\t", trailing) + "holders");
+					assertSameText("copyright" + repeat("\n ", leading / 2) + repeat("\n", newlines) + repeat(" \n", trailing / 2) + "owner");
+				}
+			}
+		}
+		assertSameText("copyright" + repeat(" ", 300) + "\nholder");
+	}
+
+	@Test
+	public void testRandomText() {
+		Random random = new Random(20240620L);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(20);
+			for (int j = 0; j < length; j++) {
+				sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			assertSameText(sb.toString());
+		}
+	}
+
+	@Test
+	public void testReuseBuffer() {
+		StringBuilder sb = new StringBuilder("prefix '");
+		LicenseTextNormalizer.normalize("'http://", sb);
+		assertEquals("prefix ''https://", sb.toString());
+		sb.setLength(0);
+		LicenseTextNormalizer.normalize("ttp://", sb);
+		assertEquals("ttp://", sb.toString());
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test the license token dictionary
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTokenDictionary {
+
+	static final String[] TOKENS = new String[] {"license", "licence", "LICENSE", " license ", "copyright", "(c)",
+			"-c-", "\u00A9", "\"", "'", "non-commercial", "non\u2013commercial", "non\u2014\u2014commercial", "noncommercial",
+			"a--b", "a---b", "a-b", "--", "-", "\u2010", "//", "/*", "*", "**", "#", "=begin", "=END", "", " ", "sub-license",
+			"sublicense", "and", "&", "whilst", "while", "the", "The", "."};
+
+	/**
+	 * Compare token sequences the same way as the string based implementation previously used by
+	 * <code>LicenseTextHelper.isLicenseTextEquivalent</code>
+	 */
+	static boolean stringTokensEquivalent(String[] licenseATokens, String[] licenseBTokens) {
+		int bTokenCounter = 0;
+		int aTokenCounter = 0;
+		String nextAToken = LicenseTextHelper.getTokenAt(licenseATokens, aTokenCounter++);
+		String nextBToken = LicenseTextHelper.getTokenAt(licenseBTokens, bTokenCounter++);
+		while (nextAToken != null) {
+			if (nextBToken == null) {
+				while (LicenseTextHelper.canSkip(nextAToken)) {
+					nextAToken = LicenseTextHelper.getTokenAt(licenseATokens, aTokenCounter++);
+				}
+				if (nextAToken != null) {
+					return false;
+				}
+			} else if (LicenseTextHelper.tokensEquivalent(nextAToken, nextBToken)) {
+				nextAToken = LicenseTextHelper.getTokenAt(licenseATokens, aTokenCounter++);
+				nextBToken = LicenseTextHelper.getTokenAt(licenseBTokens, bTokenCounter++);
+			} else {
+				while (LicenseTextHelper.canSkip(nextBToken)) {
+					nextBToken = LicenseTextHelper.getTokenAt(licenseBTokens, bTokenCounter++);
+				}
+				while (LicenseTextHelper.canSkip(nextAToken)) {
+					nextAToken = LicenseTextHelper.getTokenAt(licenseATokens, aTokenCounter++);
+				}
+				if (!LicenseTextHelper.tokensEquivalent(nextAToken, nextBToken)) {
+					return false;
+				} else {
+					nextAToken = LicenseTextHelper.getTokenAt(licenseATokens, aTokenCounter++);
+					nextBToken = LicenseTextHelper.getTokenAt(licenseBTokens, bTokenCounter++);
+				}
+			}
+		}
+		while (LicenseTextHelper.canSkip(nextBToken)) {
+			nextBToken = LicenseTextHelper.getTokenAt(licenseBTokens, bTokenCounter++);
+		}
+		return (nextBToken == null);
+	}
+
+	@Test
+	public void testTokenEquivalence() {
+		LicenseTokenDictionary dictionary = new LicenseTokenDictionary();
+		for (String tokenA:TOKENS) {
+			int idA = dictionary.getId(tokenA);
+			assertEquals(idA, dictionary.getId(tokenA));
+			assertEquals(LicenseTextHelper.canSkip(tokenA), dictionary.isSkippable(idA));
+			for (String tokenB:TOKENS) {
+				int idB = dictionary.getId(tokenB);
+				assertEquals("\"" + tokenA + "\" and \"" + tokenB + "\"", LicenseTextHelper.tokensEquivalent(tokenA, tokenB),
+						dictionary.getCanonicalId(idA) == dictionary.getCanonicalId(idB));
+			}
+		}
+		assertEquals("non-commercial", dictionary.getToken(dictionary.getId("NON\u2013COMMERCIAL")));
+		assertEquals("a--b", dictionary.getToken(dictionary.getId("a---b")));
+		assertTrue(dictionary.size() < TOKENS.length);
+	}
+
+	@Test
+	public void testIsEquivalent() {
+		LicenseTokenDictionary dictionary = new LicenseTokenDictionary();
+		Random random = new Random(20240615L);
+		for (int i = 0; i < 20000; i++) {
+			String[] tokensA = randomTokens(random);
+			String[] tokensB = random.nextBoolean() ? randomTokens(random) : mutate(tokensA, random);
+			assertEquals(stringTokensEquivalent(tokensA, tokensB),
+					dictionary.isEquivalent(dictionary.getIds(tokensA), dictionary.getIds(tokensB)));
+		}
+	}
+
+	@Test
+	public void testIsEquivalentIterators() {
+		LicenseTokenDictionary dictionary = new LicenseTokenDictionary();
+		Random random = new Random(20240725L);
+		for (int i = 0; i < 20000; i++) {
+			String[] tokensA = randomTokens(random);
+			String[] tokensB = random.nextBoolean() ? randomTokens(random) : mutate(tokensA, random);
+			assertEquals(dictionary.isEquivalent(dictionary.getIds(tokensA), dictionary.getIds(tokensB)),
+					dictionary.isEquivalent(Arrays.asList(tokensA).iterator(), Arrays.asList(tokensB).iterator()));
+		}
+		// only the tokens up to the first difference are read
+		Iterator<String> rest = Arrays.asList("copyright", "different", "never", "read").iterator();
+		assertFalse(dictionary.isEquivalent(Arrays.asList("copyright", "license", "text").iterator(), rest));
+		assertEquals("never", rest.next());
+	}
+
+	@Test
+	public void testTokenLookup() {
+		LicenseTokenDictionary dictionary = new LicenseTokenDictionary();
+		Random random = new Random(20241018L);
+		for (int i = 0; i < 20000; i++) {
+			String[] tokensA = randomTokens(random);
+			String[] tokensB = random.nextBoolean() ? randomTokens(random) : mutate(tokensA, random);
+			if (random.nextInt(4) == 0) {
+				// some of the tokens are in the dictionary
+				dictionary.getIds(tokensA);
+			}
+			int size = dictionary.size();
+			LicenseTokenDictionary.TokenLookup lookup = dictionary.newLookup();
+			assertEquals(stringTokensEquivalent(tokensA, tokensB),
+					lookup.isEquivalent(lookup.getIds(tokensA), lookup.getIds(tokensB)));
+			assertEquals(size, dictionary.size());
+		}
+		// a token added to the dictionary during a lookup shares the canonical ID given to equivalent tokens
+		dictionary = new LicenseTokenDictionary();
+		LicenseTokenDictionary.TokenLookup lookup = dictionary.newLookup();
+		int licence = lookup.getId("licence");
+		assertTrue(licence < 0);
+		assertEquals(0, dictionary.size());
+		assertTrue(dictionary.getId("license") >= 0);
+		assertEquals(lookup.getCanonicalId(licence), lookup.getCanonicalId(lookup.getId("license")));
+		assertEquals(lookup.getCanonicalId(licence), lookup.getCanonicalId(lookup.getId("LICENSE")));
+		assertEquals(dictionary.getCanonicalId(dictionary.getId("license")),
+				dictionary.newLookup().getCanonicalId(dictionary.newLookup().getId("licence")));
+	}
+
+	@Test
+	public void testComparisonsDoNotGrowDictionary() throws Exception {
+		LicenseTokenDictionary dictionary = new LicenseTokenDictionary();
+		LicenseTextIndex<String> index = new LicenseTextIndex<>(dictionary);
+		index.add("key", "Copyright (c) <year> the licence holder");
+		CompiledLicenseTemplate template = CompiledLicenseTemplate.compile(
+				"Copyright <<var;name=\"copyright\";original=\"(c) 2024 holder\";match=\".+\">> all rights reserved",
+				dictionary);
+		LicenseTextHelper.isLicenseTextEquivalent("warm up", "warm up");
+		int size = dictionary.size();
+		int globalSize = LicenseTokenDictionary.getGlobalDictionary().size();
+		for (int i = 0; i < 1000; i++) {
+			String year = "year" + i;
+			assertTrue(index.findEquivalent("Copyright (c) <year> the license holder").contains("key"));
+			assertTrue(index.findEquivalent("Copyright (c) " + year + " the license holder").isEmpty());
+			assertTrue(template.matches("Copyright (c) " + year + " holder all rights reserved"));
+			assertFalse(template.matches("Copyright (c) holder " + year + " rights reserved"));
+			assertTrue(LicenseTextHelper.isLicenseTextEquivalent("text " + year, "TEXT " + year));
+			assertFalse(LicenseTextHelper.isLicenseTextEquivalent("text " + year, "text other" + year));
+		}
+		assertEquals(size, dictionary.size());
+		assertEquals(globalSize, LicenseTokenDictionary.getGlobalDictionary().size());
+	}
+
+	@Test
+	public void testTokenizeLicenseTextToIds() {
+		String text = "Copyright (c) the licence holder - all rights reserved // whilst";
+		String compare = "/* (C) The License holder \u2013 all rights reserved. */ while";
+		LicenseTokenDictionary dictionary = LicenseTokenDictionary.getGlobalDictionary();
+		int[] ids = LicenseTextHelper.tokenizeLicenseTextToIds(text, dictionary);
+		assertEquals(LicenseTextHelper.tokenizeLicenseText(text).length, ids.length);
+		assertEquals(stringTokensEquivalent(LicenseTextHelper.tokenizeLicenseText(text), LicenseTextHelper.tokenizeLicenseText(compare)),
+				dictionary.isEquivalent(ids, LicenseTextHelper.tokenizeLicenseTextToIds(compare, dictionary)));
+		assertTrue(LicenseTextHelper.isLicenseTextEquivalent(text, text + " //"));
+	}
+
+	private static String[] randomTokens(Random random) {
+		String[] retval = new String[random.nextInt(8)];
+		for (int i = 0; i < retval.length; i++) {
+			retval[i] = TOKENS[random.nextInt(TOKENS.length)];
+		}
+		return retval;
+	}
+
+	private static String[] mutate(String[] tokens, Random random) {
+		List<String> retval = new ArrayList<>();
+		for (String token:tokens) {
+			int op = random.nextInt(6);
+			if (op == 0) {
+				retval.add(TOKENS[random.nextInt(TOKENS.length)]);
+			} else if (op == 1) {
+				retval.add("//");
+				retval.add(token);
+			} else if (op != 2) {
+				retval.add(token.toUpperCase());
+			}
+		}
+		return retval.toArray(new String[retval.size()]);
+	}
+}
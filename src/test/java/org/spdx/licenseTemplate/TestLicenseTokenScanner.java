@@ -0,0 +1,190 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+/**
+ * Test the license token scanner against the regular expression based tokenizer it replaces
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTokenScanner {
+
+	static final String LICENSE_TEXT = "Copyright (c) <year> <copyright holders>\n\n" +
+			"Permission is hereby granted, free of charge, to any person obtaining a copy of this software " +
+			"and associated documentation files (the \"Software\"), to deal in the Software without restriction.\r\n" +
+			"/* THE SOFTWARE IS PROVIDED \"AS IS\", WITHOUT WARRANTY OF ANY KIND; see https://example.com/license.txt */\r" +
+			"=====================\n" +
+			" * 1. Redistributions of source code must retain the above copyright notice ---  \n" +
+			"// [optional] text:with;odd?punctuation 'quoted' ***\u2029\n";
+
+	/**
+	 * Characters used to generate random text - weighted toward the characters with special handling
+	 */
+	static final String ALPHABET = "abcxyz01-=*-=* \t\u000B\f\r\n\r\n.,?'\"();:/[]<>\u0085\u2028\u2029\u0001\u001F\u00A0\u00E9\u4E2D";
+
+	/**
+	 * Tokenize in the same way as the regular expression implementation previously used by
+	 * <code>LicenseTextHelper.tokenizeLicenseText</code>
+	 * @param text normalized text
+	 * @param tokenToLocation token locations
+	 * @return tokens
+	 * @throws IOException on read errors
+	 */
+	static String[] regexTokenize(String text, Map<Integer, LineColumn> tokenToLocation) throws IOException {
+		List<String> tokens = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+			int currentLine = 1;
+			int currentToken = 0;
+			String line = reader.readLine();
+			while (line != null) {
+				line = LicenseTextHelper.removeLineSeparators(line);
+				Matcher lineMatcher = LicenseTextHelper.TOKEN_SPLIT_PATTERN.matcher(line);
+				while (lineMatcher.find()) {
+					String token = lineMatcher.group(1).trim();
+					if (!token.isEmpty()) {
+						tokens.add(token);
+						tokenToLocation.put(currentToken, new LineColumn(currentLine, lineMatcher.start(), token.length()));
+						currentToken++;
+					}
+					String fullMatch = lineMatcher.group(0);
+					for (int i = lineMatcher.group(1).length(); i < fullMatch.length(); i++) {
+						String possiblePunctuation = fullMatch.substring(i, i + 1);
+						if (LicenseTextHelper.PUNCTUATION.contains(possiblePunctuation)) {
+							tokens.add(possiblePunctuation);
+							tokenToLocation.put(currentToken, new LineColumn(currentLine, lineMatcher.start() + i, 1));
+							currentToken++;
+						}
+					}
+				}
+				currentLine++;
+				line = reader.readLine();
+			}
+		}
+		return tokens.toArray(new String[0]);
+	}
+
+	private static void assertSameTokens(String text) throws IOException {
+		Map<Integer, LineColumn> expectedLocations = new HashMap<>();
+		String[] expected = regexTokenize(text, expectedLocations);
+		Map<Integer, LineColumn> locations = new HashMap<>();
+		String[] result = LicenseTokenScanner.tokenize(text, locations);
+		assertArrayEquals("Tokens differ for \"" + text + "\"", expected, result);
+		List<String> cursorTokens = new ArrayList<>();
+		LicenseTokenScanner.cursor(text).forEachRemaining(cursorTokens::add);
+		assertArrayEquals("Cursor tokens differ for \"" + text + "\"", expected, cursorTokens.toArray(new String[0]));
+		assertEquals(expectedLocations.size(), locations.size());
+		for (Map.Entry<Integer, LineColumn> entry:expectedLocations.entrySet()) {
+			LineColumn location = locations.get(entry.getKey());
+			assertEquals(entry.getValue().getLine(), location.getLine());
+			assertEquals(entry.getValue().getColumn(), location.getColumn());
+			assertEquals(entry.getValue().getLen(), location.getLen());
+		}
+	}
+
+	private static String repeat(char ch, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(ch);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testLicenseText() throws IOException {
+		assertSameTokens(LICENSE_TEXT);
+		assertSameTokens(LICENSE_TEXT.toLowerCase());
+		String normalized = LicenseTextHelper.normalizeText(LicenseTextHelper.replaceMultWord(
+				LicenseTextHelper.replaceSpaceComma(LICENSE_TEXT))).toLowerCase();
+		assertArrayEquals(regexTokenize(normalized, new HashMap<>()), LicenseTextHelper.tokenizeLicenseText(LICENSE_TEXT));
+	}
+
+	@Test
+	public void testEdgeCases() throws IOException {
+		String[] tests = new String[] {"", " ", "\n", "\r\n", "\r", "\n\n", "a", ".", "a.", ".a", "\u0085", "a\u0085",
+				"\u0085\u0085", "\u2029a", "---", "a---", "a ---  ", "a---\u0085", "a --- \u2028", "--", "a*=-*=",
+				"\u0001", "\u0001a\u0001 b", "a\u0001.", repeat('.', 150) + "a", "x" + repeat(' ', 250) + "y"};
+		for (String test:tests) {
+			assertSameTokens(test);
+		}
+		// words longer than the maximum run
+		for (int length:new int[] {99, 100, 101, 150, 250}) {
+			String word = repeat('w', length);
+			assertSameTokens(word);
+			assertSameTokens(word + " next");
+			assertSameTokens("first " + word + ".");
+			assertSameTokens(word + "\u0085");
+			assertSameTokens(word + "\u2029\u0085");
+			assertSameTokens(word + "\u0085 ---");
+		}
+	}
+
+	@Test
+	public void testRandomText() throws IOException {
+		Random random = new Random(20240601L);
+		for (int i = 0; i < 5000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(40);
+			for (int j = 0; j < length; j++) {
+				if (random.nextInt(50) == 0) {
+					sb.append(repeat(ALPHABET.charAt(random.nextInt(ALPHABET.length())), 90 + random.nextInt(30)));
+				} else {
+					sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+				}
+			}
+			assertSameTokens(sb.toString());
+		}
+	}
+
+	@Test
+	public void testCursor() {
+		Iterator<String> cursor = LicenseTokenScanner.cursor("\n\none two.\n\n three");
+		assertTrue(cursor.hasNext());
+		assertTrue(cursor.hasNext());
+		assertEquals("one", cursor.next());
+		assertEquals("two", cursor.next());
+		assertEquals(".", cursor.next());
+		assertEquals("three", cursor.next());
+		assertFalse(cursor.hasNext());
+		try {
+			cursor.next();
+			fail("Expected exception at the end of the tokens");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testScanLocations() {
+		List<String> tokens = new ArrayList<>();
+		List<Integer> columns = new ArrayList<>();
+		LicenseTokenScanner.scan("one two.\n three", (source, start, end, line, column) -> {
+			tokens.add(line + ":" + source.subSequence(start, end));
+			columns.add(column);
+		});
+		assertEquals(4, tokens.size());
+		assertEquals("1:one", tokens.get(0));
+		assertEquals("1:.", tokens.get(2));
+		assertEquals("2:three", tokens.get(3));
+		assertEquals(Integer.valueOf(7), columns.get(2));
+		assertEquals(Integer.valueOf(1), columns.get(3));
+	}
+}
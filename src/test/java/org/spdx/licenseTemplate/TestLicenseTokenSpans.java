@@ -0,0 +1,71 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test license token spans
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTokenSpans {
+
+	private static void assertSameTokens(String text) {
+		String[] expected = LicenseTextHelper.tokenizeLicenseText(text);
+		LicenseTokenSpans spans = LicenseTextHelper.tokenizeLicenseTextSpans(text);
+		assertArrayEquals("Tokens differ for \"" + text + "\"", expected, spans.toArray());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].length(), spans.getLength(i));
+			assertEquals(expected[i].hashCode(), spans.tokenHashCode(i));
+			assertTrue(spans.tokenEquals(i, expected[i]));
+			assertFalse(spans.tokenEquals(i, expected[i] + "x"));
+		}
+		assertTrue(spans.tokensEqual(LicenseTextHelper.tokenizeLicenseTextSpans(text)));
+	}
+
+	@Test
+	public void testTokens() {
+		assertSameTokens(TestLicenseTokenScanner.LICENSE_TEXT);
+		assertSameTokens("");
+		// tokens copied by the scanner for lines ending in separators
+		assertSameTokens("word ---\u0085next");
+		assertSameTokens("a ---  b *** ");
+		Random random = new Random(20240720L);
+		for (int i = 0; i < 5000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(100);
+			for (int j = 0; j < length; j++) {
+				sb.append(TestLicenseTokenScanner.ALPHABET.charAt(random.nextInt(TestLicenseTokenScanner.ALPHABET.length())));
+			}
+			assertSameTokens(sb.toString());
+		}
+	}
+
+	@Test
+	public void testTokenEquals() {
+		LicenseTokenSpans a = LicenseTextHelper.tokenizeLicenseTextSpans("The Software, is provided");
+		LicenseTokenSpans b = LicenseTextHelper.tokenizeLicenseTextSpans("software is  the provided");
+		assertEquals(5, a.size());
+		assertTrue(a.tokenEquals(0, b, 2));
+		assertTrue(a.tokenEquals(1, b, 0));
+		assertFalse(a.tokenEquals(2, b, 1));
+		assertTrue(a.tokenEquals(2, ","));
+		assertEquals('f', a.charAt(1, 2));
+		assertFalse(a.tokensEqual(b));
+		assertTrue(b.tokensEqual(LicenseTextHelper.tokenizeLicenseTextSpans("Software\nis the provided")));
+		try {
+			a.charAt(1, 8);
+			fail("Expected exception for position out of range");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+}
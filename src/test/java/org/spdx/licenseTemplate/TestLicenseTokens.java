@@ -0,0 +1,85 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test license tokens with primitive token locations
+ *
+ * @author Gary O'Neall
+ */
+public class TestLicenseTokens {
+
+	private static void assertSameLocations(String text) {
+		Map<Integer, LineColumn> expectedLocations = new HashMap<>();
+		String[] expected = LicenseTextHelper.tokenizeLicenseText(text, expectedLocations);
+		LicenseTokens result = LicenseTextHelper.tokenizeLicenseTextCompact(text, true);
+		assertTrue(result.hasLocations());
+		assertArrayEquals(expected, result.toArray());
+		assertEquals(expected.length, result.size());
+		for (int i = 0; i < expected.length; i++) {
+			LineColumn location = expectedLocations.get(i);
+			assertEquals(expected[i], result.getToken(i));
+			assertEquals(location.getLine(), result.getLine(i));
+			assertEquals(location.getColumn(), result.getColumn(i));
+			assertEquals(location.getLen(), result.getLength(i));
+		}
+		Map<Integer, LineColumn> locationMap = result.toLocationMap();
+		assertEquals(expectedLocations.size(), locationMap.size());
+		for (Map.Entry<Integer, LineColumn> entry:expectedLocations.entrySet()) {
+			LineColumn location = locationMap.get(entry.getKey());
+			assertEquals(entry.getValue().getLine(), location.getLine());
+			assertEquals(entry.getValue().getColumn(), location.getColumn());
+			assertEquals(entry.getValue().getLen(), location.getLen());
+		}
+		LicenseTokens withoutLocations = LicenseTextHelper.tokenizeLicenseTextCompact(text, false);
+		assertFalse(withoutLocations.hasLocations());
+		assertArrayEquals(expected, withoutLocations.toArray());
+	}
+
+	@Test
+	public void testLocations() {
+		assertSameLocations(TestLicenseTokenScanner.LICENSE_TEXT);
+		assertSameLocations("");
+		assertSameLocations("one two.\n three");
+		Random random = new Random(20240715L);
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(200);	// more than the initial capacity of tokens
+			for (int j = 0; j < length; j++) {
+				sb.append(TestLicenseTokenScanner.ALPHABET.charAt(random.nextInt(TestLicenseTokenScanner.ALPHABET.length())));
+			}
+			assertSameLocations(sb.toString());
+		}
+	}
+
+	@Test
+	public void testNoLocations() {
+		LicenseTokens tokens = LicenseTextHelper.tokenizeLicenseTextCompact("one two", false);
+		assertEquals(2, tokens.size());
+		assertEquals("two", tokens.getToken(1));
+		assertEquals(3, tokens.getLength(1));
+		try {
+			tokens.getLine(0);
+			fail("Expected exception for missing locations");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			tokens.getToken(2);
+			fail("Expected exception for index out of range");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+}
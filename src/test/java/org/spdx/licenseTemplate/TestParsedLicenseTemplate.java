@@ -0,0 +1,93 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test parsed license templates
+ *
+ * @author Gary O'Neall
+ */
+public class TestParsedLicenseTemplate {
+
+	/**
+	 * Records the calls made to the handler
+	 */
+	static class RecordingOutputHandler implements ILicenseTemplateOutputHandler {
+		List<String> calls = new ArrayList<>();
+
+		@Override
+		public void text(String text) {
+			calls.add("text:" + text);
+		}
+
+		@Override
+		public void variableRule(LicenseTemplateRule rule) {
+			calls.add("var:" + rule.getName() + ":" + rule.getOriginal() + ":" + rule.getMatch());
+		}
+
+		@Override
+		public void beginOptional(LicenseTemplateRule rule) {
+			calls.add("beginOptional");
+		}
+
+		@Override
+		public void endOptional(LicenseTemplateRule rule) {
+			calls.add("endOptional");
+		}
+
+		@Override
+		public void completeParsing() {
+			calls.add("complete");
+		}
+	}
+
+	@Test
+	public void testReplay() throws LicenseTemplateRuleException, LicenseParserException {
+		RecordingOutputHandler expected = new RecordingOutputHandler();
+		SpdxLicenseTemplateHelper.parseTemplate(TestCompiledLicenseTemplate.TEMPLATE, expected);
+		ParsedLicenseTemplate parsed = ParsedLicenseTemplate.parse(TestCompiledLicenseTemplate.TEMPLATE);
+		for (int i = 0; i < 2; i++) {
+			RecordingOutputHandler result = new RecordingOutputHandler();
+			parsed.replay(result);
+			assertEquals(expected.calls, result.calls);
+		}
+		TextTemplateOutputHandler textOutput = new TextTemplateOutputHandler();
+		parsed.replay(textOutput);
+		assertEquals(SpdxLicenseTemplateHelper.templateToText(TestCompiledLicenseTemplate.TEMPLATE), textOutput.getText());
+	}
+
+	@Test
+	public void testCache() throws LicenseTemplateRuleException, LicenseParserException {
+		String template = "Some text <<var;name=\"name\";original=\"original\";match=\".+\">> more text";
+		ParsedLicenseTemplate parsed = ParsedLicenseTemplate.parse(template);
+		assertSame(parsed, ParsedLicenseTemplate.parse(new String(template)));
+		ParsedLicenseTemplate.clearCache();
+		assertNotSame(parsed, ParsedLicenseTemplate.parse(template));
+	}
+
+	@Test
+	public void testParseErrors() throws LicenseParserException {
+		try {
+			ParsedLicenseTemplate.parse("text <<beginOptional>> no end");
+			fail("Expected exception for missing end optional");
+		} catch (LicenseTemplateRuleException e) {
+			// expected
+		}
+		try {
+			ParsedLicenseTemplate.parse("text <<var;name=\"name\"");
+			fail("Expected exception for missing end of rule");
+		} catch (LicenseTemplateRuleException e) {
+			// expected
+		}
+	}
+}
@@ -7,6 +7,8 @@ package org.spdx.licenseTemplate;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.junit.Test;
 import org.spdx.licenseTemplate.LicenseTemplateRule.RuleType;
 
@@ -180,4 +182,73 @@ public class TestSpdxLicenseTemplateHelper {
 		String quadTabbedTagged = "paragraph1\n<p style=\"margin-left: 70px;\">                    tabbed paragraph</p>\n<p>normal paragraph</p>";
 		assertEquals(quadTabbedTagged, SpdxLicenseTemplateHelper.addHtmlFormatting(quadTabbed));
 	}
+
+	/**
+	 * Format HTML the same way as the implementation previously used by
+	 * <code>SpdxLicenseTemplateHelper.addHtmlFormatting</code> which splits the text into lines
+	 */
+	static String splitAddHtmlFormatting(String text, boolean inParagraph) {
+		String[] lines = text.split("\n");
+		StringBuilder result = new StringBuilder();
+		result.append(lines[0]);
+		int i = 1;
+		while (i < lines.length) {
+			if (lines[i].trim().isEmpty()) {
+				if (inParagraph) {
+					result.append("</p>");
+				}
+				result.append("\n");
+				i++;
+				if (i < lines.length) {
+					int numSpaces = 0;
+					while (numSpaces < lines[i].length() && lines[i].charAt(numSpaces) == ' ') {
+						numSpaces++;
+					}
+					if (numSpaces >= 5) {
+						int[] pixels = new int[] {20, 40, 60, 70};
+						result.append("<p style=\"margin-left: ").append(pixels[Math.min(numSpaces / 5, 4) - 1]).append("px;\">");
+					} else {
+						result.append("<p>");
+					}
+					result.append(lines[i++]);
+				} else {
+					result.append("<p>");
+				}
+				inParagraph = true;
+			} else {
+				result.append("<br/>");
+				result.append("\n");
+				result.append(lines[i++]);
+			}
+		}
+		if (inParagraph) {
+			result.append("</p>");
+		} else if (text.endsWith("\n")) {
+			result.append("<br/>\n");
+		}
+		return result.toString();
+	}
+
+	@Test
+	public void testAddHtmlFormattingLines() {
+		String[] fragments = new String[] {"a", " ", "\n", "\n\n", "\n \n", "     b", "                         c", "\t", "\r"};
+		Random random = new Random(20240702L);
+		for (int i = 0; i < 5000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(10);
+			for (int j = 0; j < length; j++) {
+				sb.append(fragments[random.nextInt(fragments.length)]);
+			}
+			String text = sb.toString();
+			if (!text.isEmpty() && text.replace("\n", "").isEmpty()) {
+				continue;	// the split implementation fails for text of only newlines
+			}
+			for (boolean inParagraph:new boolean[] {false, true}) {
+				assertEquals(splitAddHtmlFormatting(text, inParagraph), SpdxLicenseTemplateHelper.addHtmlFormatting(text, inParagraph));
+			}
+		}
+		assertEquals("<br/>\n", SpdxLicenseTemplateHelper.addHtmlFormatting("\n\n"));
+		assertEquals("</p>", SpdxLicenseTemplateHelper.addHtmlFormatting("\n", true));
+		assertEquals("&lt;a&gt;<br/>\n&amp;", SpdxLicenseTemplateHelper.formatEscapeHTML("<a>\n&\u0000"));
+	}
 }
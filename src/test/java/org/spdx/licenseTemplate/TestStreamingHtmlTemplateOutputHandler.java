@@ -0,0 +1,121 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.licenseTemplate;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test the streaming HTML template output handler against the HTML template output handler
+ *
+ * @author Gary O'Neall
+ */
+public class TestStreamingHtmlTemplateOutputHandler {
+
+	static final String[] TEXT_FRAGMENTS = new String[] {"text", " ", "\n", "\n\n", "\n \n", "      indented", "&", "<", ">",
+			"\"", "\u0001", "\t", "\r\n", "last"};
+
+	private static String randomText(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + random.nextInt(8);
+		for (int i = 0; i < length; i++) {
+			sb.append(TEXT_FRAGMENTS[random.nextInt(TEXT_FRAGMENTS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private static String randomTemplate(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int openOptionals = 0;
+		int length = random.nextInt(10);
+		for (int i = 0; i < length; i++) {
+			switch (random.nextInt(4)) {
+				case 0:
+					sb.append("<<var;name=\"v").append(i).append("\";original=\"");
+					sb.append(random.nextBoolean() ? "orig\\n\\ninal" : "original").append("\";match=\".+\">>");
+					break;
+				case 1:
+					sb.append("<<beginOptional>>");
+					openOptionals++;
+					break;
+				case 2:
+					if (openOptionals > 0) {
+						sb.append("<<endOptional>>");
+						openOptionals--;
+						break;
+					}
+					// fall through to text
+				default:
+					sb.append(randomText(random));
+			}
+		}
+		while (openOptionals-- > 0) {
+			sb.append("<<endOptional>>");
+		}
+		if (random.nextBoolean()) {
+			sb.append(randomText(random));
+		}
+		return sb.toString();
+	}
+
+	private static void assertSameHtml(String template) throws LicenseTemplateRuleException, LicenseParserException {
+		HtmlTemplateOutputHandler expected = new HtmlTemplateOutputHandler();
+		SpdxLicenseTemplateHelper.parseTemplate(template, expected);
+		StringBuilder sb = new StringBuilder();
+		SpdxLicenseTemplateHelper.parseTemplate(template, new StreamingHtmlTemplateOutputHandler(sb));
+		assertEquals("HTML differs for \"" + template + "\"", expected.getHtml(), sb.toString());
+	}
+
+	@Test
+	public void testSameHtml() throws LicenseTemplateRuleException, LicenseParserException {
+		assertSameHtml(TestCompiledLicenseTemplate.TEMPLATE);
+		assertSameHtml("para one\n\npara two\n\n<<var;name=\"v\";original=\"o\";match=\".+\">>\n\npara three");
+		assertSameHtml("para one\n\npara two\n\n<<beginOptional>>optional\n\ntext<<endOptional>> more\n\n");
+		Random random = new Random(20240701L);
+		for (int i = 0; i < 5000; i++) {
+			assertSameHtml(randomTemplate(random));
+		}
+	}
+
+	@Test
+	public void testTemplateTextToHtml() throws LicenseTemplateRuleException, IOException {
+		StringWriter writer = new StringWriter();
+		SpdxLicenseTemplateHelper.templateTextToHtml(TestCompiledLicenseTemplate.TEMPLATE, writer);
+		assertEquals(SpdxLicenseTemplateHelper.templateTextToHtml(TestCompiledLicenseTemplate.TEMPLATE), writer.toString());
+	}
+
+	@Test
+	public void testWriteError() throws LicenseTemplateRuleException {
+		Writer failing = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException("write failed");
+			}
+
+			@Override
+			public void flush() {
+				// nothing to flush
+			}
+
+			@Override
+			public void close() {
+				// nothing to close
+			}
+		};
+		try {
+			SpdxLicenseTemplateHelper.templateTextToHtml("some text", failing);
+			fail("Expected IOException");
+		} catch (IOException e) {
+			assertEquals("write failed", e.getMessage());
+		}
+	}
+}
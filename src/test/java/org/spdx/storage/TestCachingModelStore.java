@@ -0,0 +1,281 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.MockModelInfo;
+import org.spdx.core.MockModelType;
+import org.spdx.core.ModelRegistry;
+import org.spdx.core.TypedValue;
+
+/**
+ * Test the caching model store
+ *
+ * @author Gary O'Neall
+ */
+public class TestCachingModelStore {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc1";
+	static final String OBJECT_URI1 = NAMESPACE + "#SPDXRef-1";
+	static final String SPEC_VERSION = "3.0.0";
+	static final PropertyDescriptor PROP1 = new PropertyDescriptor("prop1", NAMESPACE);
+	static final PropertyDescriptor PROP2 = new PropertyDescriptor("prop2", NAMESPACE);
+
+	InstrumentedModelStore baseStore;
+	CachingModelStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		baseStore = new InstrumentedModelStore(new InMemoryModelStore());
+		store = new CachingModelStore(baseStore, 64);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		store.close();
+	}
+
+	private long baseCount(String operation) {
+		return baseStore.getOperationStatistics(operation).getCount();
+	}
+
+	private static List<Object> toList(Iterator<Object> iter) {
+		List<Object> retval = new ArrayList<>();
+		while (iter.hasNext()) {
+			retval.add(iter.next());
+		}
+		return retval;
+	}
+
+	@Test
+	public void testReadThrough() throws InvalidSPDXAnalysisException {
+		TypedValue typedValue = new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION);
+		store.create(typedValue);
+		store.setValue(OBJECT_URI1, PROP1, "value");
+		store.addValueToCollection(OBJECT_URI1, PROP2, "member");
+		for (int i = 0; i < 10; i++) {
+			assertEquals("value", store.getValue(OBJECT_URI1, PROP1).get());
+			assertEquals(typedValue, store.getTypedValue(OBJECT_URI1).get());
+			assertEquals(Arrays.asList("member"), toList(store.listValues(OBJECT_URI1, PROP2)));
+		}
+		assertEquals(1, baseCount("getValue"));
+		assertEquals(1, baseCount("getTypedValue"));
+		assertEquals(1, baseCount("listValues"));
+		// answered from the cached typed value and collection snapshot
+		assertTrue(store.exists(OBJECT_URI1));
+		assertEquals(1, store.collectionSize(OBJECT_URI1, PROP2));
+		assertTrue(store.collectionContains(OBJECT_URI1, PROP2, "member"));
+		assertEquals(0, baseCount("exists"));
+		assertEquals(0, baseCount("collectionSize"));
+		assertEquals(0, baseCount("collectionContains"));
+		assertEquals(3, store.getMissCount());
+		assertEquals(30, store.getHitCount());
+		assertEquals(3, store.size());
+		// missing objects are cached as missing until created through this store
+		String missingUri = NAMESPACE + "#missing";
+		assertFalse(store.getTypedValue(missingUri).isPresent());
+		assertFalse(store.exists(missingUri));
+		store.create(new TypedValue(missingUri, MockModelType.TYPE, SPEC_VERSION));
+		assertTrue(store.exists(missingUri));
+		assertTrue(store.getTypedValue(missingUri).isPresent());
+	}
+
+	@Test
+	public void testInvalidation() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP1, "value1");
+		assertEquals("value1", store.getValue(OBJECT_URI1, PROP1).get());
+		store.setValue(OBJECT_URI1, PROP1, "value2");
+		assertEquals("value2", store.getValue(OBJECT_URI1, PROP1).get());
+		store.removeProperty(OBJECT_URI1, PROP1);
+		assertEquals(Optional.empty(), store.getValue(OBJECT_URI1, PROP1));
+
+		assertFalse(store.listValues(OBJECT_URI1, PROP2).hasNext());
+		store.addValueToCollection(OBJECT_URI1, PROP2, "member1");
+		assertEquals(Arrays.asList("member1"), toList(store.listValues(OBJECT_URI1, PROP2)));
+		store.applyMutations(Arrays.asList(PropertyMutation.addValueToCollection(OBJECT_URI1, PROP2, "member2")));
+		assertEquals(2, toList(store.listValues(OBJECT_URI1, PROP2)).size());
+		assertTrue(store.collectionContains(OBJECT_URI1, PROP2, "member2"));
+		store.removeValueFromCollection(OBJECT_URI1, PROP2, "member1");
+		assertEquals(Arrays.asList("member2"), toList(store.listValues(OBJECT_URI1, PROP2)));
+		store.clearValueCollection(OBJECT_URI1, PROP2);
+		assertEquals(0, store.collectionSize(OBJECT_URI1, PROP2));
+
+		assertTrue(store.getTypedValue(OBJECT_URI1).isPresent());
+		store.delete(OBJECT_URI1);
+		assertFalse(store.exists(OBJECT_URI1));
+		assertFalse(store.getTypedValue(OBJECT_URI1).isPresent());
+
+		// changes made directly to the wrapped store require an explicit invalidation
+		String uri2 = NAMESPACE + "#SPDXRef-2";
+		store.create(new TypedValue(uri2, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(uri2, PROP1, "value1");
+		assertEquals("value1", store.getValue(uri2, PROP1).get());
+		baseStore.setValue(uri2, PROP1, "changed");
+		assertEquals("value1", store.getValue(uri2, PROP1).get());
+		store.invalidate(uri2);
+		assertEquals("changed", store.getValue(uri2, PROP1).get());
+		store.clear();
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	public void testFrequencyAwareEviction() throws InvalidSPDXAnalysisException {
+		List<String> hotUris = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			String uri = NAMESPACE + "#hot" + i;
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			hotUris.add(uri);
+		}
+		for (int i = 0; i < 5; i++) {
+			for (String uri:hotUris) {
+				store.getTypedValue(uri);
+			}
+		}
+		long before = baseCount("getTypedValue");
+		for (String uri:hotUris) {
+			store.getTypedValue(uri);
+		}
+		long hotMisses = baseCount("getTypedValue") - before;
+		assertEquals(0, hotMisses);
+		// a single pass over many objects should not evict the frequently read objects
+		for (int i = 0; i < 500; i++) {
+			String uri = NAMESPACE + "#cold" + i;
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			store.getTypedValue(uri);
+		}
+		assertTrue(store.size() <= 64);
+		before = baseCount("getTypedValue");
+		for (String uri:hotUris) {
+			store.getTypedValue(uri);
+		}
+		assertEquals(hotMisses, baseCount("getTypedValue") - before);
+		// an object read more often than the least recently used entry replaces it
+		String newHot = NAMESPACE + "#cold0";
+		long evictions = store.getEvictionCount();
+		for (int i = 0; i < 20; i++) {
+			store.getTypedValue(newHot);
+		}
+		assertTrue(store.getEvictionCount() > evictions);
+		before = baseCount("getTypedValue");
+		store.getTypedValue(newHot);
+		assertEquals(before, baseCount("getTypedValue"));
+	}
+
+	@Test
+	public void testDelegation() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		IModelStore.IModelStoreLock lock = store.enterCriticalSection(OBJECT_URI1, false);
+		try {
+			store.setValue(OBJECT_URI1, PROP1, "value");
+		} finally {
+			store.leaveCriticalSection(lock);
+		}
+		assertEquals("value", store.getAllValues(OBJECT_URI1).get(PROP1));
+		assertEquals("value", store.getValues(OBJECT_URI1, Arrays.asList(PROP1)).get(PROP1));
+		assertEquals(baseStore.getModificationStamp(OBJECT_URI1), store.getModificationStamp(OBJECT_URI1));
+		assertEquals(1, baseCount("getAllValues"));
+		assertEquals(1, baseCount("getValues"));
+		assertEquals(1, baseCount(InstrumentedModelStore.LOCK_WAIT_WRITE));
+		try {
+			new CachingModelStore(baseStore, 0);
+			fail("Expected exception for a zero maximum size");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testInvalidateObject() throws InvalidSPDXAnalysisException {
+		// room for all values of both objects even if they share a segment
+		store = new CachingModelStore(baseStore, 128);
+		String uri2 = NAMESPACE + "#SPDXRef-2";
+		for (String uri:Arrays.asList(OBJECT_URI1, uri2)) {
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			store.setValue(uri, PROP1, "value");
+			store.getTypedValue(uri);
+			store.getValue(uri, PROP1);
+			store.listValues(uri, PROP2);
+		}
+		assertEquals(6, store.size());
+		store.invalidate(OBJECT_URI1);
+		assertEquals(3, store.size());
+		long before = baseCount("getValue");
+		assertEquals("value", store.getValue(uri2, PROP1).get());
+		assertEquals(before, baseCount("getValue"));
+		assertEquals("value", store.getValue(OBJECT_URI1, PROP1).get());
+		assertEquals(before + 1, baseCount("getValue"));
+		store.delete(uri2);
+		assertEquals(1, store.size());
+		// entries removed from the cache are dropped from the eviction clock
+		for (int i = 0; i < 1000; i++) {
+			String uri = NAMESPACE + "#removed" + i;
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			store.getTypedValue(uri);
+			store.invalidate(uri);
+		}
+		assertEquals(1, store.size());
+		for (int i = 0; i < 1000; i++) {
+			String uri = NAMESPACE + "#other" + i;
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			for (int j = 0; j < 3; j++) {
+				store.getTypedValue(uri);
+			}
+		}
+		assertTrue(store.size() <= 128);
+		assertTrue(store.getEvictionCount() > 0);
+	}
+
+	@Test
+	public void testConcurrentReads() throws Exception {
+		final int numThreads = 8;
+		final int numObjects = 32;
+		final int numReads = 2000;
+		for (int i = 0; i < numObjects; i++) {
+			String uri = NAMESPACE + "#concurrent" + i;
+			store.create(new TypedValue(uri, MockModelType.TYPE, SPEC_VERSION));
+			store.setValue(uri, PROP1, "value" + i);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int t = 0; t < numThreads; t++) {
+				final int thread = t;
+				tasks.add(() -> {
+					for (int i = 0; i < numReads; i++) {
+						int index = (i * 7 + thread) % numObjects;
+						assertEquals("value" + index, store.getValue(NAMESPACE + "#concurrent" + index, PROP1).get());
+					}
+					return null;
+				});
+			}
+			for (Future<Void> result:executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(numThreads * numReads, store.getHitCount() + store.getMissCount());
+		assertEquals(store.getMissCount(), baseCount("getValue"));
+		assertTrue(store.size() <= 64);
+	}
+}
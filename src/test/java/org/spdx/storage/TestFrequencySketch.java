@@ -0,0 +1,62 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Test the frequency sketch
+ *
+ * @author Gary O'Neall
+ */
+public class TestFrequencySketch {
+
+	@Test
+	public void testFrequency() {
+		FrequencySketch sketch = new FrequencySketch(100);
+		assertEquals(0, sketch.frequency("hot"));
+		for (int i = 0; i < 5; i++) {
+			sketch.increment("hot");
+		}
+		sketch.increment("warm");
+		assertEquals(5, sketch.frequency("hot"));
+		assertEquals(1, sketch.frequency("warm"));
+		assertEquals(0, sketch.frequency("cold"));
+		for (int i = 0; i < 20; i++) {
+			sketch.increment("hot");
+		}
+		assertEquals(FrequencySketch.MAX_COUNT, sketch.frequency("hot"));
+		sketch.reset();
+		assertEquals(FrequencySketch.MAX_COUNT / 2, sketch.frequency("hot"));
+		assertEquals(0, sketch.frequency("warm"));
+		sketch.clear();
+		assertEquals(0, sketch.frequency("hot"));
+	}
+
+	@Test
+	public void testAging() {
+		// counters are halved after ten increments per entry of the maximum size
+		FrequencySketch sketch = new FrequencySketch(1);
+		for (int i = 0; i < 9; i++) {
+			sketch.increment("key");
+		}
+		assertEquals(9, sketch.frequency("key"));
+		sketch.increment("key");
+		assertEquals(5, sketch.frequency("key"));
+	}
+
+	@Test
+	public void testInvalidSize() {
+		try {
+			new FrequencySketch(0);
+			fail("Expected exception for a zero maximum size");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,333 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.core.DuplicateSpdxIdException;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.MockModelInfo;
+import org.spdx.core.MockModelType;
+import org.spdx.core.ModelRegistry;
+import org.spdx.core.SimpleUriValue;
+import org.spdx.core.SpdxIdNotFoundException;
+import org.spdx.core.SpdxInvalidTypeException;
+import org.spdx.core.TypedValue;
+import org.spdx.storage.IModelStore.IModelStoreLock;
+import org.spdx.storage.IModelStore.IdType;
+
+/**
+ * Test the in memory model store
+ *
+ * @author Gary O'Neall
+ */
+public class TestInMemoryModelStore {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc1";
+	static final String OBJECT_URI1 = NAMESPACE + "#SPDXRef-1";
+	static final String OBJECT_URI2 = NAMESPACE + "#SPDXRef-2";
+	static final String SPEC_VERSION = "3.0.0";
+	static final PropertyDescriptor PROP1 = new PropertyDescriptor("prop1", NAMESPACE);
+	static final PropertyDescriptor PROP2 = new PropertyDescriptor("prop2", NAMESPACE);
+
+	InMemoryModelStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		store = new InMemoryModelStore();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void testCreateExistsDelete() throws InvalidSPDXAnalysisException {
+		assertFalse(store.exists(OBJECT_URI1));
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		assertTrue(store.exists(OBJECT_URI1));
+		assertEquals(MockModelType.TYPE, store.getTypedValue(OBJECT_URI1).get().getType());
+		try {
+			store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+			fail("Duplicate create should fail");
+		} catch (DuplicateSpdxIdException ex) {
+			// expected
+		}
+		assertEquals(1, store.getAllItems(NAMESPACE, MockModelType.TYPE).count());
+		assertEquals(0, store.getAllItems("https://other", null).count());
+		store.delete(OBJECT_URI1);
+		assertFalse(store.exists(OBJECT_URI1));
+		assertFalse(store.getTypedValue(OBJECT_URI1).isPresent());
+		try {
+			store.delete(OBJECT_URI1);
+			fail("Delete of missing object should fail");
+		} catch (SpdxIdNotFoundException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testPropertyValues() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		assertFalse(store.getValue(OBJECT_URI1, PROP1).isPresent());
+		store.setValue(OBJECT_URI1, PROP1, "value1");
+		assertEquals("value1", store.getValue(OBJECT_URI1, PROP1).get());
+		assertFalse(store.isCollectionProperty(OBJECT_URI1, PROP1));
+		assertEquals(1, store.getPropertyValueDescriptors(OBJECT_URI1).size());
+		assertTrue(store.isPropertyValueAssignableTo(OBJECT_URI1, PROP1, String.class, SPEC_VERSION));
+		assertFalse(store.isPropertyValueAssignableTo(OBJECT_URI1, PROP1, Integer.class, SPEC_VERSION));
+		store.removeProperty(OBJECT_URI1, PROP1);
+		assertFalse(store.getValue(OBJECT_URI1, PROP1).isPresent());
+		try {
+			store.setValue(OBJECT_URI2, PROP1, "value1");
+			fail("Set on missing object should fail");
+		} catch (SpdxIdNotFoundException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCollections() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.create(new TypedValue(OBJECT_URI2, MockModelType.TYPE, SPEC_VERSION));
+		assertEquals(0, store.collectionSize(OBJECT_URI1, PROP2));
+		assertTrue(store.addValueToCollection(OBJECT_URI1, PROP2, "a"));
+		assertTrue(store.addValueToCollection(OBJECT_URI1, PROP2, "b"));
+		assertFalse(store.addValueToCollection(OBJECT_URI1, PROP2, "a"));
+		assertTrue(store.isCollectionProperty(OBJECT_URI1, PROP2));
+		assertEquals(2, store.collectionSize(OBJECT_URI1, PROP2));
+		assertTrue(store.collectionContains(OBJECT_URI1, PROP2, "b"));
+		assertTrue(store.isCollectionMembersAssignableTo(OBJECT_URI1, PROP2, String.class));
+		Set<Object> result = new HashSet<>();
+		Iterator<Object> iter = store.listValues(OBJECT_URI1, PROP2);
+		while (iter.hasNext()) {
+			result.add(iter.next());
+		}
+		assertEquals(2, result.size());
+		assertTrue(store.removeValueFromCollection(OBJECT_URI1, PROP2, "a"));
+		assertFalse(store.collectionContains(OBJECT_URI1, PROP2, "a"));
+		store.addValueToCollection(OBJECT_URI1, PROP2, store.getTypedValue(OBJECT_URI2).get());
+		assertTrue(store.isCollectionMembersAssignableTo(OBJECT_URI1, PROP2, Object.class));
+		assertFalse(store.isCollectionMembersAssignableTo(OBJECT_URI1, PROP2, String.class));
+		store.clearValueCollection(OBJECT_URI1, PROP2);
+		assertEquals(0, store.collectionSize(OBJECT_URI1, PROP2));
+		assertTrue(store.isCollectionProperty(OBJECT_URI1, PROP2));
+	}
+
+	@Test
+	public void testTypedValueAssignable() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.create(new TypedValue(OBJECT_URI2, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP1, store.getTypedValue(OBJECT_URI2).get());
+		assertTrue(store.isPropertyValueAssignableTo(OBJECT_URI1, PROP1, MockModelType.class, SPEC_VERSION));
+		assertFalse(store.isPropertyValueAssignableTo(OBJECT_URI1, PROP1, String.class, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP2, new SimpleUriValue("https://individual/uri"));
+		assertFalse(store.isPropertyValueAssignableTo(OBJECT_URI1, PROP2, String.class, SPEC_VERSION));
+	}
+
+	@Test
+	public void testIdsAndIdTypes() throws InvalidSPDXAnalysisException {
+		String anon = store.getNextId(IdType.Anonymous);
+		assertTrue(store.isAnon(anon));
+		assertEquals(IdType.Anonymous, store.getIdType(anon));
+		assertEquals(IdType.LicenseRef, store.getIdType(NAMESPACE + "#" + store.getNextId(IdType.LicenseRef)));
+		assertEquals(IdType.SpdxId, store.getIdType(NAMESPACE + "#" + store.getNextId(IdType.SpdxId)));
+		assertEquals(IdType.DocumentRef, store.getIdType(store.getNextId(IdType.DocumentRef)));
+		assertEquals(IdType.Unknown, store.getIdType(NAMESPACE + "#other"));
+		assertNotEquals(store.getNextId(IdType.SpdxId), store.getNextId(IdType.SpdxId));
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		Optional<String> result = store.getCaseSensitiveId(NAMESPACE, "spdxref-1");
+		assertTrue(result.isPresent());
+		assertEquals("SPDXRef-1", result.get());
+		assertFalse(store.getCaseSensitiveId(NAMESPACE, "spdxref-2").isPresent());
+	}
+
+	@Test
+	public void testGetValues() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP1, "value1");
+		store.addValueToCollection(OBJECT_URI1, PROP2, "a");
+		Map<PropertyDescriptor, Object> result = store.getAllValues(OBJECT_URI1);
+		assertEquals(2, result.size());
+		assertEquals("value1", result.get(PROP1));
+		assertEquals(Arrays.asList(new Object[] {"a"}), result.get(PROP2));
+		result = store.getValues(OBJECT_URI1, Arrays.asList(new PropertyDescriptor[] {PROP1, 
+				new PropertyDescriptor("missing", NAMESPACE)}));
+		assertEquals(1, result.size());
+		assertEquals("value1", result.get(PROP1));
+		// the collection snapshot should not change with the store
+		List<?> snapshot = (List<?>)store.getAllValues(OBJECT_URI1).get(PROP2);
+		store.addValueToCollection(OBJECT_URI1, PROP2, "b");
+		assertEquals(1, snapshot.size());
+	}
+
+	@Test
+	public void testApplyMutations() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.create(new TypedValue(OBJECT_URI2, MockModelType.TYPE, SPEC_VERSION));
+		List<PropertyMutation> mutations = new ArrayList<>();
+		mutations.add(PropertyMutation.setValue(OBJECT_URI1, PROP1, "value1"));
+		mutations.add(PropertyMutation.addValueToCollection(OBJECT_URI1, PROP2, "a"));
+		mutations.add(PropertyMutation.addValueToCollection(OBJECT_URI1, PROP2, "b"));
+		mutations.add(PropertyMutation.removeValueFromCollection(OBJECT_URI1, PROP2, "a"));
+		mutations.add(PropertyMutation.clearValueCollection(OBJECT_URI2, PROP2));
+		mutations.add(PropertyMutation.setValue(OBJECT_URI2, PROP1, "value2"));
+		mutations.add(PropertyMutation.removeProperty(OBJECT_URI2, PROP1));
+		store.applyMutations(mutations);
+		assertEquals("value1", store.getValue(OBJECT_URI1, PROP1).get());
+		assertEquals(1, store.collectionSize(OBJECT_URI1, PROP2));
+		assertTrue(store.collectionContains(OBJECT_URI1, PROP2, "b"));
+		assertTrue(store.isCollectionProperty(OBJECT_URI2, PROP2));
+		assertFalse(store.getValue(OBJECT_URI2, PROP1).isPresent());
+		
+		// a batch referencing a missing object should not change the store
+		mutations.clear();
+		mutations.add(PropertyMutation.setValue(OBJECT_URI1, PROP1, "changed"));
+		mutations.add(PropertyMutation.setValue(NAMESPACE + "#missing", PROP1, "value"));
+		try {
+			store.applyMutations(mutations);
+			fail("Missing object should fail");
+		} catch (SpdxIdNotFoundException ex) {
+			// expected
+		}
+		assertEquals("value1", store.getValue(OBJECT_URI1, PROP1).get());
+	}
+
+	@Test
+	public void testApplyMutationsFailure() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP1, "value1");
+		long stamp = store.getModificationStamp(OBJECT_URI1);
+		List<PropertyMutation> mutations = new ArrayList<>();
+		mutations.add(PropertyMutation.setValue(OBJECT_URI1, PROP1, "changed"));
+		mutations.add(PropertyMutation.addValueToCollection(OBJECT_URI1, PROP1, "not a collection"));
+		mutations.add(PropertyMutation.addValueToCollection(OBJECT_URI1, PROP2, "never applied"));
+		try {
+			store.applyMutations(mutations);
+			fail("Adding to a non-collection property should fail");
+		} catch (SpdxInvalidTypeException ex) {
+			// expected
+		}
+		// the mutations applied before the failure remain and are visible through the modification stamp
+		assertEquals("changed", store.getValue(OBJECT_URI1, PROP1).get());
+		assertFalse(store.getValue(OBJECT_URI1, PROP2).isPresent());
+		assertNotEquals(stamp, store.getModificationStamp(OBJECT_URI1));
+	}
+
+	@Test
+	public void testApplyUpdates() throws InvalidSPDXAnalysisException {
+		MockModelType mmt = new MockModelType(store, OBJECT_URI1, null, true, SPEC_VERSION);
+		List<IModelStore.ModelUpdate> updates = new ArrayList<>();
+		updates.add(mmt.updatePropertyValue(PROP1, "value1"));
+		updates.add(mmt.updateAddPropertyValueToCollection(PROP2, "a"));
+		store.applyUpdates(updates);
+		assertEquals("value1", store.getValue(OBJECT_URI1, PROP1).get());
+		assertTrue(store.collectionContains(OBJECT_URI1, PROP2, "a"));
+	}
+
+	@Test
+	public void testObjectCriticalSections() throws Exception {
+		IModelStoreLock lock1 = store.enterCriticalSection(OBJECT_URI1, false);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// a read lock on the same stripe must wait for the write lock
+			Future<Boolean> blocked = executor.submit(() -> {
+				IModelStoreLock lock2 = store.enterCriticalSection(OBJECT_URI1, true);
+				store.leaveCriticalSection(lock2);
+				return true;
+			});
+			try {
+				blocked.get(100, TimeUnit.MILLISECONDS);
+				fail("Read lock should not be granted while the object write lock is held");
+			} catch (java.util.concurrent.TimeoutException ex) {
+				// expected
+			}
+			store.leaveCriticalSection(lock1);
+			assertTrue(blocked.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testObjectCriticalSectionLockOrder() throws Exception {
+		// with a single stripe all objects share the same lock
+		InMemoryModelStore stripedStore = new InMemoryModelStore(1);
+		IModelStoreLock readLock = stripedStore.enterCriticalSection(OBJECT_URI1, true);
+		try {
+			stripedStore.enterCriticalSection(OBJECT_URI2, false);
+			fail("Write lock for an object sharing the read locked stripe should not be granted");
+		} catch (IllegalStateException ex) {
+			// expected
+		}
+		try {
+			stripedStore.enterCriticalSection(false);
+			fail("Store write lock should not be granted while an object read lock is held");
+		} catch (IllegalStateException ex) {
+			// expected
+		}
+		// other read locks are still granted
+		stripedStore.leaveCriticalSection(stripedStore.enterCriticalSection(OBJECT_URI2, true));
+		stripedStore.leaveCriticalSection(readLock);
+		
+		// write locks entered before read locks are granted
+		IModelStoreLock writeLock = stripedStore.enterCriticalSection(OBJECT_URI1, false);
+		readLock = stripedStore.enterCriticalSection(OBJECT_URI2, true);
+		IModelStoreLock secondWriteLock = stripedStore.enterCriticalSection(OBJECT_URI2, false);
+		stripedStore.leaveCriticalSection(secondWriteLock);
+		stripedStore.leaveCriticalSection(readLock);
+		stripedStore.leaveCriticalSection(writeLock);
+	}
+
+	@Test
+	public void testConcurrentUpdates() throws Exception {
+		final int numThreads = 8;
+		final int numPerThread = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int t = 0; t < numThreads; t++) {
+				final int thread = t;
+				tasks.add(() -> {
+					for (int i = 0; i < numPerThread; i++) {
+						String uri = NAMESPACE + "#SPDXRef-" + thread + "-" + i;
+						new MockModelType(store, uri, null, true, SPEC_VERSION);
+						store.setValue(uri, PROP1, "value" + i);
+						store.addValueToCollection(OBJECT_URI1 + thread, PROP2, "ignored");
+					}
+					return null;
+				});
+				store.create(new TypedValue(OBJECT_URI1 + thread, MockModelType.TYPE, SPEC_VERSION));
+			}
+			for (Future<Void> result:executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(numThreads * numPerThread + numThreads, store.size());
+		assertEquals("value7", store.getValue(NAMESPACE + "#SPDXRef-3-7", PROP1).get());
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.MockModelInfo;
+import org.spdx.core.MockModelType;
+import org.spdx.core.ModelRegistry;
+import org.spdx.core.SpdxIdNotFoundException;
+import org.spdx.core.TypedValue;
+import org.spdx.storage.IModelStore.IModelStoreLock;
+
+/**
+ * Test the instrumented model store
+ *
+ * @author Gary O'Neall
+ */
+public class TestInstrumentedModelStore {
+
+	static final String NAMESPACE = "https://myspdx.docs/doc1";
+	static final String OBJECT_URI1 = NAMESPACE + "#SPDXRef-1";
+	static final String SPEC_VERSION = "3.0.0";
+	static final PropertyDescriptor PROP1 = new PropertyDescriptor("prop1", NAMESPACE);
+	static final PropertyDescriptor PROP2 = new PropertyDescriptor("prop2", NAMESPACE);
+
+	List<String> recorded;
+	InstrumentedModelStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+		recorded = new ArrayList<>();
+		store = new InstrumentedModelStore(new InMemoryModelStore(), (operation, nanos, failed) -> {
+			synchronized (recorded) {
+				recorded.add(operation + (failed ? ":failed" : ""));
+			}
+		});
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void testOperationStatistics() throws InvalidSPDXAnalysisException {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.setValue(OBJECT_URI1, PROP1, "value");
+		for (int i = 0; i < 10; i++) {
+			assertEquals("value", store.getValue(OBJECT_URI1, PROP1).get());
+		}
+		store.addValueToCollection(OBJECT_URI1, PROP2, "member");
+		assertTrue(store.listValues(OBJECT_URI1, PROP2).hasNext());
+		assertTrue(store.exists(OBJECT_URI1));
+		try {
+			store.getValue(NAMESPACE + "#missing", PROP1);
+			fail("Expected exception for a missing object");
+		} catch (SpdxIdNotFoundException e) {
+			// expected
+		}
+		OperationStatistics getValue = store.getOperationStatistics("getValue");
+		assertEquals(11, getValue.getCount());
+		assertEquals(1, getValue.getErrorCount());
+		assertTrue(getValue.getMaxNanos() > 0);
+		assertTrue(getValue.getMedianNanos() <= getValue.getMaxNanos());
+		assertEquals(1, store.getOperationStatistics("create").getCount());
+		assertEquals(1, store.getOperationStatistics("listValues").getCount());
+		assertEquals(0, store.getOperationStatistics("delete").getCount());
+		assertTrue(recorded.contains("getValue:failed"));
+		assertEquals(16, recorded.size());
+		List<String> names = new ArrayList<>();
+		for (OperationStatistics statistics:store.getOperationStatistics()) {
+			names.add(statistics.getName());
+		}
+		assertEquals(Arrays.asList("addValueToCollection", "create", "exists", "getValue", "listValues", "setValue"), names);
+		store.resetStatistics();
+		assertEquals(0, store.getOperationStatistics("getValue").getCount());
+	}
+
+	@Test
+	public void testLockStatistics() throws InvalidSPDXAnalysisException {
+		IModelStoreLock lock = store.enterCriticalSection(false);
+		store.leaveCriticalSection(lock);
+		lock = store.enterCriticalSection(OBJECT_URI1, true);
+		lock.unlock();
+		// unlocking directly also records the hold time
+		store.leaveCriticalSection(store.enterCriticalSection(true));
+		assertEquals(1, store.getOperationStatistics(InstrumentedModelStore.LOCK_WAIT_WRITE).getCount());
+		assertEquals(1, store.getOperationStatistics(InstrumentedModelStore.LOCK_HOLD_WRITE).getCount());
+		assertEquals(2, store.getOperationStatistics(InstrumentedModelStore.LOCK_WAIT_READ).getCount());
+		assertEquals(2, store.getOperationStatistics(InstrumentedModelStore.LOCK_HOLD_READ).getCount());
+		// default methods are passed to the base store
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		store.applyMutations(Arrays.asList(PropertyMutation.setValue(OBJECT_URI1, PROP1, "value")));
+		assertEquals("value", store.getAllValues(OBJECT_URI1).get(PROP1));
+		assertEquals(1, store.getOperationStatistics("applyMutations").getCount());
+		assertEquals(1, store.getOperationStatistics("getAllValues").getCount());
+		assertEquals(2, store.getOperationStatistics(InstrumentedModelStore.LOCK_WAIT_READ).getCount());
+	}
+
+	@Test
+	public void testLockContention() throws Exception {
+		CountDownLatch locked = new CountDownLatch(1);
+		Thread writer = new Thread(() -> {
+			try {
+				IModelStoreLock lock = store.getBaseStore().enterCriticalSection(false);
+				try {
+					locked.countDown();
+					Thread.sleep(300);
+				} finally {
+					store.getBaseStore().leaveCriticalSection(lock);
+				}
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		writer.start();
+		assertTrue(locked.await(10, TimeUnit.SECONDS));
+		store.leaveCriticalSection(store.enterCriticalSection(true));
+		writer.join();
+		long wait = store.getOperationStatistics(InstrumentedModelStore.LOCK_WAIT_READ).getTotalNanos();
+		long hold = store.getOperationStatistics(InstrumentedModelStore.LOCK_HOLD_READ).getTotalNanos();
+		// the time waiting for the writer is not included in the hold time
+		assertTrue(wait >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue("Hold " + hold + " wait " + wait, hold < wait / 10);
+	}
+
+	@Test
+	public void testMBean() throws Exception {
+		store.create(new TypedValue(OBJECT_URI1, MockModelType.TYPE, SPEC_VERSION));
+		ObjectName name = store.registerMBean("test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			CompositeData[] statistics = (CompositeData[])server.getAttribute(name, "OperationStatistics");
+			assertEquals(1, statistics.length);
+			assertEquals("create", statistics[0].get("name"));
+			assertEquals(1L, statistics[0].get("count"));
+			server.invoke(name, "resetStatistics", new Object[0], new String[0]);
+			assertEquals(0, store.getOperationStatistics("create").getCount());
+		} finally {
+			store.unregisterMBean();
+		}
+		assertFalse(server.isRegistered(name));
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Test latency histograms and operation statistics
+ *
+ * @author Gary O'Neall
+ */
+public class TestLatencyHistogram {
+
+	@Test
+	public void testBuckets() {
+		assertEquals(0, LatencyHistogram.bucketIndex(0));
+		assertEquals(0, LatencyHistogram.bucketIndex(-5));
+		assertEquals(1, LatencyHistogram.bucketIndex(1));
+		assertEquals(2, LatencyHistogram.bucketIndex(2));
+		assertEquals(2, LatencyHistogram.bucketIndex(3));
+		assertEquals(11, LatencyHistogram.bucketIndex(1024));
+		assertEquals(63, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+		for (long nanos:new long[] {0, 1, 7, 8, 1000, 123456789L, Long.MAX_VALUE}) {
+			assertTrue(nanos <= LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(nanos)));
+		}
+	}
+
+	@Test
+	public void testStatistics() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000L, i % 10 == 0);
+		}
+		OperationStatistics statistics = histogram.snapshot("op");
+		assertEquals("op", statistics.getName());
+		assertEquals(100, statistics.getCount());
+		assertEquals(10, statistics.getErrorCount());
+		assertEquals(5050000L, statistics.getTotalNanos());
+		assertEquals(50500L, statistics.getMeanNanos());
+		assertEquals(100000L, statistics.getMaxNanos());
+		// percentiles are the upper bound of the bucket, within a factor of 2
+		long median = statistics.getMedianNanos();
+		assertTrue(median >= 50000L && median < 100000L);
+		assertEquals(100000L, statistics.getP99Nanos());
+		long[] buckets = statistics.getBucketCounts();
+		assertEquals(LatencyHistogram.NUM_BUCKETS, buckets.length);
+		buckets[0] = 1000;
+		assertEquals(0, statistics.getBucketCounts()[0]);
+		histogram.reset();
+		OperationStatistics empty = histogram.snapshot("op");
+		assertEquals(0, empty.getCount());
+		assertEquals(0, empty.getMeanNanos());
+		assertEquals(0, empty.getP99Nanos());
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.spdx.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.core.IndividualUriValue;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.MockIndividual;
+import org.spdx.core.MockModelInfo;
+import org.spdx.core.MockModelType;
+import org.spdx.core.ModelRegistry;
+import org.spdx.core.TypedValue;
+
+/**
+ * Test the synthetic graph generator
+ *
+ * @author Gary O'Neall
+ */
+public class TestSyntheticGraphGenerator {
+
+	static final String INDIVIDUAL_URI = new MockIndividual().getIndividualURI();
+
+	@Before
+	public void setUp() throws Exception {
+		ModelRegistry.getModelRegistry().registerModel(new MockModelInfo());
+	}
+
+	private static SyntheticGraphGenerator.Builder builder() {
+		return new SyntheticGraphGenerator.Builder(MockModelType.TYPE, "3.0.0")
+				.setSeed(42L)
+				.setElementCount(500)
+				.setFanOut(3)
+				.setDepth(5)
+				.setStringLength(20)
+				.setAnonymousRatio(0.2)
+				.setExternalRatio(0.1)
+				.setIndividualRatio(0.1)
+				.setIndividualUris(Arrays.asList(INDIVIDUAL_URI));
+	}
+
+	@Test
+	public void testGenerate() throws Exception {
+		try (InMemoryModelStore store = new InMemoryModelStore()) {
+			String[] uris = builder().build().generate(store);
+			assertEquals(500, uris.length);
+			assertEquals(500, store.getAllItems(null, MockModelType.TYPE).count());
+			int anonymous = 0;
+			int externals = 0;
+			int individuals = 0;
+			int lastLevel = 0;
+			for (String uri:uris) {
+				if (store.isAnon(uri)) {
+					anonymous++;
+				}
+				assertEquals(20, ((String)store.getValue(uri, SyntheticGraphGenerator.NAME).get()).length());
+				if (store.getValue(uri, SyntheticGraphGenerator.REFERENCE).isPresent()) {
+					int size = store.collectionSize(uri, SyntheticGraphGenerator.MEMBERS);
+					assertTrue(size > 0 && size <= 3);
+					Iterator<Object> iter = store.listValues(uri, SyntheticGraphGenerator.MEMBERS);
+					while (iter.hasNext()) {
+						Object member = iter.next();
+						if (member instanceof TypedValue) {
+							assertTrue(store.exists(((TypedValue)member).getObjectUri()));
+						} else if (INDIVIDUAL_URI.equals(((IndividualUriValue)member).getIndividualURI())) {
+							individuals++;
+						} else {
+							assertFalse(store.exists(((IndividualUriValue)member).getIndividualURI()));
+							externals++;
+						}
+					}
+				} else {
+					lastLevel++;
+				}
+			}
+			assertEquals(100, lastLevel);
+			assertTrue(anonymous > 50 && anonymous < 150);
+			assertTrue(externals > 60 && externals < 180);
+			assertTrue(individuals > 60 && individuals < 180);
+		}
+	}
+
+	@Test
+	public void testDepth() throws Exception {
+		try (InMemoryModelStore store = new InMemoryModelStore()) {
+			String[] uris = builder().setAnonymousRatio(0).setExternalRatio(0).setIndividualRatio(0).build().generate(store);
+			// follow the references from the first element to the last level
+			int length = 0;
+			String uri = uris[0];
+			while (store.getValue(uri, SyntheticGraphGenerator.REFERENCE).isPresent()) {
+				uri = ((TypedValue)store.getValue(uri, SyntheticGraphGenerator.REFERENCE).get()).getObjectUri();
+				length++;
+			}
+			assertEquals(4, length);
+		}
+	}
+
+	@Test
+	public void testDeterministic() throws Exception {
+		SyntheticGraphGenerator generator = builder().build();
+		try (InMemoryModelStore store1 = new InMemoryModelStore(); InMemoryModelStore store2 = new InMemoryModelStore()) {
+			String[] uris1 = generator.generate(store1);
+			String[] uris2 = generator.generate(store2);
+			assertArrayEquals(uris1, uris2);
+			for (String uri:uris1) {
+				assertEquals(store1.getAllValues(uri), store2.getAllValues(uri));
+			}
+			try (InMemoryModelStore store3 = new InMemoryModelStore()) {
+				String[] uris3 = builder().setSeed(43L).build().generate(store3);
+				Set<Object> names1 = new HashSet<>();
+				Set<Object> names3 = new HashSet<>();
+				for (int i = 0; i < uris1.length; i++) {
+					names1.add(store1.getValue(uris1[i], SyntheticGraphGenerator.NAME).get());
+					names3.add(store3.getValue(uris3[i], SyntheticGraphGenerator.NAME).get());
+				}
+				assertNotEquals(names1, names3);
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidConfiguration() throws InvalidSPDXAnalysisException {
+		try {
+			builder().setDepth(0).build();
+			fail("Expected exception for zero depth");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			builder().setExternalRatio(0.6).setIndividualRatio(0.6).build();
+			fail("Expected exception for ratios over 1");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			builder().setIndividualUris(Arrays.asList()).build();
+			fail("Expected exception for missing individual URI's");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try (InMemoryModelStore store = new InMemoryModelStore()) {
+			new SyntheticGraphGenerator.Builder("UnknownType", "3.0.0").setElementCount(1).build().generate(store);
+			fail("Expected exception for an unknown type");
+		} catch (InvalidSPDXAnalysisException e) {
+			// expected
+		} catch (Exception e) {
+			fail("Unexpected exception " + e);
+		}
+	}
+}